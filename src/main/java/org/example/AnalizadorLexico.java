@@ -1,157 +1,449 @@
 
 package org.example;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 
 public class AnalizadorLexico {
 
     
-    private final String codigoFuente;
-    private int posicion = 0; 
-    private int lineaActual = 1;
-    private int columnaActual = 1;
+    private final FuenteCodigo fuente;
+    private int posicion = 0; // Posición absoluta dentro de la fuente
+    private IndiceDeLineas lineas; // Se pide a la fuente solo al armar un Token o un error
 
     private final List<Token> flujoDeTokens = new ArrayList<>();
-    private final List<String> erroresLexicos = new ArrayList<>();
+    private final Diagnosticos diagnosticos; // Sin formatear: el texto se arma al mostrarlos
+    private int[] posicionesDeError = new int[16]; // Dónde empieza lo que causó cada error
+    private int cantidadDeErrores = 0;
 
-    private static final int LONGITUD_MAX_IDENT = 32;
+    // Último token reconocido por 'escanearSiguienteToken' (tipoPendiente == null si no hubo)
+    private TokenType tipoPendiente;
+    private int inicioPendiente, finPendiente;
+    private long valorPendiente; // Id del nombre (IDENTIFIER) o valor del número (INT/DOUBLE_LITERAL)
 
-    private static final Map<String, TokenType> PALABRAS_RESERVADAS = new HashMap<>();
-    static {
-        // Tipos
-        PALABRAS_RESERVADAS.put("long", TokenType.KW_LONG);
-        PALABRAS_RESERVADAS.put("double", TokenType.KW_DOUBLE);
-        // Control
-        PALABRAS_RESERVADAS.put("if", TokenType.KW_IF);
-        PALABRAS_RESERVADAS.put("then", TokenType.KW_THEN);
-        PALABRAS_RESERVADAS.put("else", TokenType.KW_ELSE);
-        PALABRAS_RESERVADAS.put("while", TokenType.KW_WHILE);
-        PALABRAS_RESERVADAS.put("break", TokenType.KW_BREAK);
-        // E/S
-        PALABRAS_RESERVADAS.put("read", TokenType.KW_READ);
-        PALABRAS_RESERVADAS.put("write", TokenType.KW_WRITE);
-        // Booleanas 
-        PALABRAS_RESERVADAS.put("true", TokenType.KW_TRUE);
-        PALABRAS_RESERVADAS.put("false", TokenType.KW_FALSE);
-    }
+    // Nombres internados: una sola instancia (y un id) por identificador distinto
+    private final TablaDeIdentificadores nombres;
+
+    static final int LONGITUD_MAX_IDENT = 32;
+
+    // Resultado del último salto de espacios, comentario o cuerpo de cadena
+    private final TramoSaltado tramo = new TramoSaltado();
+
+    // Si es true se usa el escáner por tablas (TablasLexicas). El 'switch' original
+    // queda como referencia para comparar resultados y velocidad (ver Benchmark).
+    private final boolean usarTablas;
 
     public AnalizadorLexico(String codigoFuente) {
-        this.codigoFuente = codigoFuente != null ? codigoFuente : "";
+        this(new FuenteEnMemoria(codigoFuente != null ? codigoFuente : ""));
+    }
+
+    /**
+     * Lee el código desde un Reader con un buffer deslizante de tamaño fijo.
+     * Pensado para usarse con 'siguienteToken()' sobre archivos grandes.
+     */
+    public AnalizadorLexico(Reader lector) {
+        this(new FuenteConLector(lector));
+    }
+
+    /**
+     * Igual que el constructor con Reader, pero decodifica UTF-8 desde un canal.
+     */
+    public AnalizadorLexico(ReadableByteChannel canal) {
+        this(Channels.newReader(canal, StandardCharsets.UTF_8));
+    }
+
+    AnalizadorLexico(FuenteCodigo fuente) {
+        this(fuente, true);
+    }
+
+    AnalizadorLexico(FuenteCodigo fuente, boolean usarTablas) {
+        this(fuente, usarTablas, 0);
+    }
+
+    /**
+     * Analizador que empieza en 'posicion', que debe estar entre dos tokens.
+     * Lo usa LexicoParalelo para cada tramo.
+     */
+    AnalizadorLexico(FuenteCodigo fuente, boolean usarTablas, int posicion) {
+        this(fuente, usarTablas, posicion, new TablaDeIdentificadores());
+    }
+
+    /**
+     * Igual que el anterior, pero interna los nombres en una tabla existente
+     * (LexicoIncremental la comparte con los tokens que no se vuelven a analizar).
+     */
+    AnalizadorLexico(FuenteCodigo fuente, boolean usarTablas, int posicion, TablaDeIdentificadores nombres) {
+        this.fuente = fuente;
+        this.usarTablas = usarTablas;
+        this.posicion = posicion;
+        this.nombres = nombres;
+        this.diagnosticos = new Diagnosticos(fuente::lineas, !fuente.conservaTexto());
+    }
+
+    /**
+     * Crea un analizador que recorre directamente los bytes del archivo
+     * mapeado en memoria, sin decodificarlo entero a UTF-16.
+     * Solo se decodifica UTF-8 al armar lexemas o ante caracteres no ASCII.
+     */
+    public static AnalizadorLexico mapearArchivo(Path archivo) throws IOException {
+        return new AnalizadorLexico(FuenteMapeada.abrir(archivo));
     }
 
     /**
      * Método principal que genera la lista de tokens a partir del código fuente.
      */
     public List<Token> analizarTokens() { 
-        while (!esFinDeArchivo()) {
-            consumirEspaciosYComentarios();
-            
-            if (esFinDeArchivo()) break;
+        Token t;
+        do {
+            t = siguienteToken();
+            flujoDeTokens.add(t);
+        } while (t.tipo != TokenType.EOF);
+        return flujoDeTokens;
+    }
+
+    /**
+     * Analiza todo el código y guarda los tokens en un TokenBuffer
+     * (arreglos primitivos, sin crear un objeto Token por elemento).
+     * Requiere una fuente que conserve el texto, porque los lexemas se leen de ella después.
+     */
+    public TokenBuffer analizarBuffer() {
+        if (!fuente.conservaTexto()) {
+            throw new IllegalStateException("analizarBuffer() necesita una fuente en memoria o mapeada; use siguienteToken().");
+        }
+        TokenBuffer buffer = new TokenBuffer(fuente, nombres);
+        do {
+            reconocerToken();
+            buffer.agregar(tipoPendiente, inicioPendiente, finPendiente - inicioPendiente, valorPendiente);
+        } while (tipoPendiente != TokenType.EOF);
+        return buffer;
+    }
+
+    /**
+     * Buffer vacío (con la tabla de nombres de este analizador) para
+     * analizarEnTuberia(): se crea antes para que el parser lo tenga desde el principio.
+     */
+    TokenBuffer nuevoBuffer() {
+        return new TokenBuffer(fuente, nombres);
+    }
+
+    /**
+     * Buffer vacío para el parser en flujo (ver AnalizadorSintactico(AnalizadorLexico)):
+     * se llena con analizarLote() y descarta los tokens de las sentencias ya leídas,
+     * así que la fuente conserva el texto solo desde el primero que queda.
+     */
+    TokenBuffer nuevaVentana() {
+        fuente.conservarDesde(posicion);
+        return new TokenBuffer(fuente, nombres, 64);
+    }
+
+    /**
+     * Como analizarTramo(), pero agrega a 'buffer' hasta 'lote' tokens desde la
+     * posición actual; se detiene después de agregar el EOF.
+     */
+    void analizarLote(TokenBuffer buffer, int lote) {
+        for (int i = 0; i < lote; i++) {
+            reconocerToken();
+            buffer.agregar(tipoPendiente, inicioPendiente, finPendiente - inicioPendiente, valorPendiente);
+            if (tipoPendiente == TokenType.EOF) return;
+        }
+    }
+
+    /**
+     * Igual que analizarBuffer(), pero llena 'buffer' mientras otro hilo lo lee:
+     * cada 'lote' tokens pone en 'avisos' cuántos hay listos. Al terminar avisa
+     * el total (con el EOF) y cierra la cola; si falla, la cierra con la causa.
+     * Lo usa Tuberia.
+     */
+    void analizarEnTuberia(TokenBuffer buffer, ColaSPSC<Integer> avisos, int lote) {
+        Throwable falla = null;
+        try {
+            int proximoAviso = lote;
+            do {
+                reconocerToken();
+                buffer.agregar(tipoPendiente, inicioPendiente, finPendiente - inicioPendiente, valorPendiente);
+                if (buffer.tamanio() == proximoAviso) {
+                    avisos.poner(proximoAviso);
+                    proximoAviso += lote;
+                }
+            } while (tipoPendiente != TokenType.EOF);
+            avisos.poner(buffer.tamanio());
+        } catch (Throwable t) {
+            falla = t;
+            throw t;
+        } finally {
+            avisos.cerrar(falla);
+        }
+    }
 
-            // La lógica principal se mueve a 'escanearSiguienteToken'
-            escanearSiguienteToken();
+    /**
+     * Igual que analizarBuffer(), pero divide la fuente en tramos y los analiza
+     * en paralelo (ver LexicoParalelo). El resultado, los errores y los ids de
+     * los nombres son los mismos que con el análisis secuencial.
+     */
+    public TokenBuffer analizarBufferEnParalelo() {
+        if (fuente.largo() < 0 || !fuente.conservaTexto()) {
+            throw new IllegalStateException("analizarBufferEnParalelo() necesita una fuente en memoria o mapeada.");
         }
+        int partes = LexicoParalelo.cantidadDeTramos(fuente);
+        if (partes <= 1) return analizarBuffer(); // Fuente chica o un solo hilo: no vale la pena repartir
+
+        TokenBuffer buffer = new TokenBuffer(fuente, nombres);
+        LexicoParalelo.analizar(fuente, usarTablas, buffer, this, partes);
 
-        flujoDeTokens.add(new Token(TokenType.EOF, "", lineaActual, columnaActual));
+        // Queda como si se hubiera leído todo: el próximo siguienteToken() es EOF
+        posicion = buffer.inicio(buffer.tamanio() - 1);
+        return buffer;
+    }
+
+    /**
+     * Versión en paralelo de analizarTokens(): devuelve la misma lista.
+     */
+    public List<Token> analizarTokensEnParalelo() {
+        flujoDeTokens.addAll(analizarBufferEnParalelo().comoLista());
         return flujoDeTokens;
     }
 
     /**
-     * Escanea el siguiente token y lo añade a la lista.
+     * Analiza desde la posición actual y guarda los tokens que empiezan antes de 'fin'.
+     * Se detiene en el primer token que empieza en 'fin' o después (o en EOF), que no
+     * se guarda: su posición queda en finDeTramo().
+     */
+    TokenBuffer analizarTramo(int fin) {
+        TokenBuffer buffer = new TokenBuffer(fuente, nombres);
+        while (true) {
+            reconocerToken();
+            if (tipoPendiente == TokenType.EOF || inicioPendiente >= fin) return buffer;
+            buffer.agregar(tipoPendiente, inicioPendiente, finPendiente - inicioPendiente, valorPendiente);
+        }
+    }
+
+    /**
+     * Analiza desde la posición actual hasta el primer token que empieza en 'desde' o
+     * después y que en 'anterior' empezaba 'corrimiento' posiciones antes: de ahí en
+     * adelante el texto no cambió, así que los tokens tampoco. Ese token no se guarda
+     * y su posición queda en finDeTramo(). Si se llega a EOF sin coincidir, se detiene ahí.
+     */
+    TokenBuffer analizarHastaSincronizar(TokenBuffer anterior, int desde, int corrimiento) {
+        TokenBuffer buffer = new TokenBuffer(fuente, nombres, 16);
+        while (true) {
+            reconocerToken();
+            if (inicioPendiente >= desde && anterior.buscarInicio(inicioPendiente - corrimiento) >= 0) return buffer;
+            if (tipoPendiente == TokenType.EOF) return buffer;
+            buffer.agregar(tipoPendiente, inicioPendiente, finPendiente - inicioPendiente, valorPendiente);
+        }
+    }
+
+    int finDeTramo() { return inicioPendiente; }
+
+    /**
+     * Posición de lo que causó el error 'i' de getErrores(). Crece junto con 'i'.
+     */
+    int posicionDeError(int i) {
+        return posicionesDeError[i];
+    }
+
+    /**
+     * Errores léxicos en el orden en que se encontraron (los mismos que getErrores()).
+     */
+    List<Diagnostico> diagnosticosLexicos() {
+        return diagnosticos.deFase(Diagnostico.Fase.LEXICO);
+    }
+
+    /**
+     * API "pull": devuelve el próximo token sin guardar la lista completa.
+     * Al llegar al final devuelve EOF (y lo sigue devolviendo si se vuelve a llamar).
+     */
+    public Token siguienteToken() {
+        reconocerToken();
+        // El lexema se arma ahora, antes de que la fuente pueda descartar ese texto
+        String lexema = (tipoPendiente == TokenType.IDENTIFIER)
+                ? nombres.nombre((int) valorPendiente)
+                : TokenBuffer.lexemaDe(fuente, tipoPendiente, inicioPendiente, finPendiente);
+        return Token.de(tipoPendiente, lexema, inicioPendiente, fuente, lineas());
+    }
+
+    /**
+     * Avanza hasta reconocer el próximo token (o EOF) y lo deja en los campos 'pendiente'.
+     */
+    private void reconocerToken() {
+        tipoPendiente = null;
+        valorPendiente = 0;
+        while (tipoPendiente == null) {
+            consumirEspaciosYComentarios();
+
+            if (esFinDeArchivo()) {
+                emitirToken(TokenType.EOF, posicion);
+                return;
+            }
+
+            // Puede no producir token (ej. carácter inválido): seguimos con el próximo
+            if (usarTablas) {
+                escanearConTablas();
+            } else {
+                escanearSiguienteToken();
+            }
+        }
+    }
+
+    /**
+     * Escáner por tablas: clasifica el primer carácter con una tabla ASCII y
+     * reconoce los operadores recorriendo un DFA, sin 'switch' ni llamadas a Character.
+     * Produce exactamente los mismos tokens que 'escanearSiguienteToken'.
+     */
+    private void escanearConTablas() {
+        int inicio = posicion;
+
+        switch (TablasLexicas.clase(verSiguiente())) {
+            case TablasLexicas.LETRA:
+                consumir();
+                procesarIdentificadorConTablas();
+                emitirIdentificador(inicio);
+                return;
+            case TablasLexicas.DIGITO:
+                consumir();
+                emitirNumero(procesarLiteralNumericoConTablas(), inicio);
+                return;
+            case TablasLexicas.COMILLA:
+                consumir();
+                procesarLiteralCadena(inicio);
+                return;
+            case TablasLexicas.OPERADOR:
+                escanearOperador(inicio);
+                return;
+            default:
+                // Caracteres no ASCII o inválidos: se resuelven igual que en el escáner original
+                escanearSiguienteToken();
+        }
+    }
+
+    /**
+     * Recorre el DFA de operadores desde el carácter actual hasta que no haya transición.
+     */
+    private void escanearOperador(int inicio) {
+        int primero = consumir();
+        int estado = TablasLexicas.transicion(0, primero);
+        int siguiente = TablasLexicas.transicion(estado, verSiguiente());
+        while (siguiente != 0) {
+            consumir();
+            estado = siguiente;
+            siguiente = TablasLexicas.transicion(estado, verSiguiente());
+        }
+
+        TokenType tipo = TablasLexicas.acepta(estado);
+        if (tipo != null) {
+            emitirToken(tipo, inicio);
+            return;
+        }
+        // Estado no final: '&' o '|' sin su pareja
+        char c = (char) primero;
+        agregarError(CodigoDiagnostico.LEX_CARACTER_INESPERADO, inicio, c);
+    }
+
+    /**
+     * Escanea el siguiente token y lo deja en los campos 'pendiente'.
      */
     private void escanearSiguienteToken() {
-        int lineaInicio = lineaActual;
-        int columnaInicio = columnaActual;
-        char c = consumir();
+        int inicio = posicion;
+        int c = consumirCaracter();
 
         // --- Identificadores y Palabras Clave ---
         if (Character.isLetter(c) || c == '_') {
-            String ident = procesarIdentificador(c);
-            TokenType tipo = PALABRAS_RESERVADAS.getOrDefault(ident, TokenType.IDENTIFIER);
-            
-            if (tipo == TokenType.IDENTIFIER && ident.length() > LONGITUD_MAX_IDENT) {
-                erroresLexicos.add(formatearError(lineaInicio, columnaInicio, "Identificador excede longitud maxima (" + LONGITUD_MAX_IDENT + ")."));
-                ident = ident.substring(0, LONGITUD_MAX_IDENT);
-            }
-            emitirToken(tipo, ident, lineaInicio, columnaInicio);
+            procesarIdentificador();
+            emitirIdentificador(inicio);
             return;
         }
 
         // --- Literales Numéricos ---
         if (Character.isDigit(c)) {
-            String num = procesarLiteralNumerico(c);
-            if (num.contains(".")) {
-                emitirToken(TokenType.DOUBLE_LITERAL, num, lineaInicio, columnaInicio);
-            } else {
-                emitirToken(TokenType.INT_LITERAL, num, lineaInicio, columnaInicio);
-            }
+            emitirNumero(procesarLiteralNumerico(), inicio);
             return;
         }
 
         // --- Operadores, Puntuación y Cadenas ---
         switch (c) {
             case '"':
-                procesarLiteralCadena(lineaInicio, columnaInicio);
+                procesarLiteralCadena(inicio);
                 break;
 
             // Agrupación y puntuación
-            case '(': emitirToken(TokenType.LPAREN, "(", lineaInicio, columnaInicio); break;
-            case ')': emitirToken(TokenType.RPAREN, ")", lineaInicio, columnaInicio); break;
-            case '{': emitirToken(TokenType.LBRACE, "{", lineaInicio, columnaInicio); break;
-            case '}': emitirToken(TokenType.RBRACE, "}", lineaInicio, columnaInicio); break;
-            case ';': emitirToken(TokenType.SEMICOLON, ";", lineaInicio, columnaInicio); break;
-            case ',': emitirToken(TokenType.COMMA, ",", lineaInicio, columnaInicio); break;
+            case '(': emitirToken(TokenType.LPAREN, inicio); break;
+            case ')': emitirToken(TokenType.RPAREN, inicio); break;
+            case '{': emitirToken(TokenType.LBRACE, inicio); break;
+            case '}': emitirToken(TokenType.RBRACE, inicio); break;
+            case ';': emitirToken(TokenType.SEMICOLON, inicio); break;
+            case ',': emitirToken(TokenType.COMMA, inicio); break;
 
             // Operadores simples y compuestos
             case '+':
-                emitirToken(verificarYConsumir('=') ? TokenType.PLUS_EQ : TokenType.PLUS, "+", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.PLUS_EQ : TokenType.PLUS, inicio);
                 break;
             case '-':
-                emitirToken(verificarYConsumir('=') ? TokenType.MINUS_EQ : TokenType.MINUS, "-", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.MINUS_EQ : TokenType.MINUS, inicio);
                 break;
             case '*':
-                emitirToken(verificarYConsumir('=') ? TokenType.STAR_EQ : TokenType.STAR, "*", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.STAR_EQ : TokenType.STAR, inicio);
                 break;
             case '/':
-                emitirToken(verificarYConsumir('=') ? TokenType.SLASH_EQ : TokenType.SLASH, "/", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.SLASH_EQ : TokenType.SLASH, inicio);
                 break;
             case '=':
-                emitirToken(verificarYConsumir('=') ? TokenType.EQEQ : TokenType.EQUAL, "=", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.EQEQ : TokenType.EQUAL, inicio);
                 break;
             case '!':
-                emitirToken(verificarYConsumir('=') ? TokenType.NEQ : TokenType.BANG, "!", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.NEQ : TokenType.BANG, inicio);
                 break;
             case '<':
-                if (verificarYConsumir('=')) emitirToken(TokenType.LTE, "<=", lineaInicio, columnaInicio);
-                else if (verificarYConsumir('>')) emitirToken(TokenType.NEQ_ALT, "<>", lineaInicio, columnaInicio);
-                else emitirToken(TokenType.LT, "<", lineaInicio, columnaInicio);
+                if (verificarYConsumir('=')) emitirToken(TokenType.LTE, inicio);
+                else if (verificarYConsumir('>')) emitirToken(TokenType.NEQ_ALT, inicio);
+                else emitirToken(TokenType.LT, inicio);
                 break;
             case '>':
-                emitirToken(verificarYConsumir('=') ? TokenType.GTE : TokenType.GTE, ">", lineaInicio, columnaInicio);
+                emitirToken(verificarYConsumir('=') ? TokenType.GTE : TokenType.GTE, inicio);
                 break;
             
             case '&':
-                if (verificarYConsumir('&')) emitirToken(TokenType.ANDAND, "&&", lineaInicio, columnaInicio);
-                else erroresLexicos.add(formatearError(lineaInicio, columnaInicio, "Carácter inesperado '&' (¿querías '&&'?)."));
+                if (verificarYConsumir('&')) emitirToken(TokenType.ANDAND, inicio);
+                else agregarError(CodigoDiagnostico.LEX_CARACTER_INESPERADO, inicio, '&');
                 break;
             case '|':
-                if (verificarYConsumir('|')) emitirToken(TokenType.OROR, "||", lineaInicio, columnaInicio);
-                else erroresLexicos.add(formatearError(lineaInicio, columnaInicio, "Carácter inesperado '|' (¿querías '||'?)."));
+                if (verificarYConsumir('|')) emitirToken(TokenType.OROR, inicio);
+                else agregarError(CodigoDiagnostico.LEX_CARACTER_INESPERADO, inicio, '|');
                 break;
 
             default:
-                erroresLexicos.add(formatearError(lineaInicio, columnaInicio, "Carácter inválido: '" + caracterImprimible(c) + "'."));
+                agregarError(CodigoDiagnostico.LEX_CARACTER_INVALIDO, inicio, c);
                 break;
         }
     }
 
 
+    /**
+     * Mensajes de los errores léxicos; cada uno se formatea al leerlo.
+     */
     public List<String> getErrores() {
-        return erroresLexicos;
+        return diagnosticos.mensajes(Diagnostico.Fase.LEXICO);
+    }
+
+    /**
+     * Colector de diagnósticos de este análisis. Main lo comparte con las fases siguientes.
+     */
+    public Diagnosticos getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    /**
+     * Tabla con los identificadores internados durante el análisis.
+     */
+    public TablaDeIdentificadores getNombres() {
+        return nombres;
     }
 
     // ==================================================
@@ -159,22 +451,29 @@ public class AnalizadorLexico {
     // ==================================================
 
     private boolean esFinDeArchivo() {
-        return posicion >= codigoFuente.length();
+        return fuente.en(posicion) == FuenteCodigo.FIN;
     }
 
     /**
-     * Consume el carácter actual y avanza la posicion.
-     * Actualiza línea y columna.
+     * Consume la unidad actual (un char, o un byte en fuentes UTF-8) y avanza la posicion.
+     * No lleva línea ni columna: se calculan con IndiceDeLineas solo al mostrarlas.
      */
-    private char consumir() {
-        char c = codigoFuente.charAt(posicion++);
-        if (c == '\n') {
-            lineaActual++;
-            columnaActual = 1;
-        } else {
-            columnaActual++;
-        }
-        return c;
+    private int consumir() {
+        return fuente.en(posicion++);
+    }
+
+    /**
+     * Consume un carácter completo. En ASCII es igual a 'consumir()';
+     * si no, la fuente lo decodifica y se consumen todas sus unidades.
+     */
+    private int consumirCaracter() {
+        int c = consumir();
+        if (c < 0x80) return c;
+
+        int inicio = posicion - 1;
+        int completo = fuente.caracterEn(inicio);
+        for (int n = fuente.unidadesEn(inicio); n > 1; n--) consumir();
+        return completo;
     }
 
     /**
@@ -183,35 +482,141 @@ public class AnalizadorLexico {
      * Si no, retorna false.
      */
     private boolean verificarYConsumir(char esperado) {
-        if (esFinDeArchivo()) return false;
-        if (codigoFuente.charAt(posicion) != esperado) return false;
+        if (fuente.en(posicion) != esperado) return false;
         
         posicion++;
-        columnaActual++; 
         return true;
     }
 
     /**
-     * Mira el carácter actual sin consumirlo.
+     * Mira la unidad actual sin consumirla (FIN si no hay más).
      */
-    private char verSiguiente() {
-        if (esFinDeArchivo()) return '\0';
-        return codigoFuente.charAt(posicion);
+    private int verSiguiente() {
+        return fuente.en(posicion);
+    }
+
+    /**
+     * Mira la unidad siguiente a la actual sin consumirla.
+     */
+    private int verSiguienteDelSiguiente() {
+        return fuente.en(posicion + 1);
+    }
+
+    /**
+     * Mira el carácter completo que empieza en 'pos', decodificándolo si no es ASCII.
+     */
+    private int verCaracter(int pos) {
+        int c = fuente.en(pos);
+        return c < 0x80 ? c : fuente.caracterEn(pos);
+    }
+
+    /**
+     * Emite una palabra reservada o, si no lo es, un IDENTIFIER ya internado.
+     */
+    private void emitirIdentificador(int inicio) {
+        TokenType tipo = palabraReservada(inicio, posicion);
+        if (tipo == TokenType.IDENTIFIER) {
+            valorPendiente = internarIdentificador(inicio);
+        }
+        emitirToken(tipo, inicio);
+    }
+
+    /**
+     * Emite el número que va de 'inicio' a la posición actual, con su valor ya
+     * decodificado: ni el parser ni el semántico vuelven a mirar el texto.
+     */
+    private void emitirNumero(boolean esDecimal, int inicio) {
+        if (esDecimal) {
+            valorPendiente = Double.doubleToRawLongBits(decodificarDecimal(inicio));
+            emitirToken(TokenType.DOUBLE_LITERAL, inicio);
+        } else {
+            valorPendiente = decodificarEntero(inicio);
+            emitirToken(TokenType.INT_LITERAL, inicio);
+        }
+    }
+
+    /**
+     * Valor del entero [inicio, posicion). Si no entra en un long se reporta el
+     * error y queda Long.MAX_VALUE.
+     */
+    private long decodificarEntero(int inicio) {
+        long valor = 0;
+        for (int i = inicio; i < posicion; i++) {
+            int c = fuente.en(i);
+            if (c >= 0x80) return decodificarEnteroUnicode(inicio);
+            int digito = c - '0';
+            if (valor > (Long.MAX_VALUE - digito) / 10) return enteroFueraDeRango(inicio);
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    /**
+     * Camino lento de decodificarEntero(): hay dígitos no ASCII (Character.isDigit los acepta).
+     */
+    private long decodificarEnteroUnicode(int inicio) {
+        String texto = fuente.subcadena(inicio, posicion);
+        long valor = 0;
+        for (int i = 0; i < texto.length(); i += Character.charCount(texto.codePointAt(i))) {
+            int digito = Character.digit(texto.codePointAt(i), 10);
+            if (valor > (Long.MAX_VALUE - digito) / 10) return enteroFueraDeRango(inicio);
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    private long enteroFueraDeRango(int inicio) {
+        agregarError(CodigoDiagnostico.LEX_ENTERO_FUERA_DE_RANGO, inicio, fuente.subcadena(inicio, posicion));
+        return Long.MAX_VALUE;
+    }
+
+    // 10^0 .. 10^22: los que un double representa exactamente
+    private static final double[] POTENCIAS_DE_DIEZ = new double[23];
+    static {
+        POTENCIAS_DE_DIEZ[0] = 1;
+        for (int i = 1; i < POTENCIAS_DE_DIEZ.length; i++) POTENCIAS_DE_DIEZ[i] = POTENCIAS_DE_DIEZ[i - 1] * 10;
     }
 
     /**
-     * Mira el carácter siguiente al actual sin consumirlo.
+     * Valor del decimal [inicio, posicion). Con hasta 15 dígitos (lo común) la
+     * mantisa y la potencia de diez son exactas y una sola división da el
+     * double correctamente redondeado; si no, se usa Double.parseDouble.
      */
-    private char verSiguienteDelSiguiente() {
-        if (posicion + 1 >= codigoFuente.length()) return '\0';
-        return codigoFuente.charAt(posicion + 1);
+    private double decodificarDecimal(int inicio) {
+        long mantisa = 0;
+        int digitos = 0;
+        int decimales = -1; // Dígitos después del punto (-1 antes de verlo)
+        for (int i = inicio; i < posicion; i++) {
+            int c = fuente.en(i);
+            if (c == '.') {
+                decimales = 0;
+                continue;
+            }
+            if (c >= 0x80 || ++digitos > 15) return decodificarDecimalLento(inicio);
+            mantisa = mantisa * 10 + (c - '0');
+            if (decimales >= 0) decimales++;
+        }
+        if (decimales >= POTENCIAS_DE_DIEZ.length) return decodificarDecimalLento(inicio);
+        return mantisa / POTENCIAS_DE_DIEZ[decimales];
+    }
+
+    private double decodificarDecimalLento(int inicio) {
+        String texto = fuente.subcadena(inicio, posicion);
+        StringBuilder ascii = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i += Character.charCount(texto.codePointAt(i))) {
+            int c = texto.codePointAt(i);
+            ascii.append(c == '.' ? '.' : (char) ('0' + Character.digit(c, 10)));
+        }
+        return Double.parseDouble(ascii.toString());
     }
 
     /**
-     * Añade un token a la lista de tokens.
+     * Registra el token reconocido, que va desde 'inicio' hasta la posición actual.
      */
-    private void emitirToken(TokenType tipo, String lexema, int l, int c) {
-        flujoDeTokens.add(new Token(tipo, lexema, l, c));
+    private void emitirToken(TokenType tipo, int inicio) {
+        tipoPendiente = tipo;
+        inicioPendiente = inicio;
+        finPendiente = posicion;
     }
 
     // ==================================================
@@ -220,37 +625,49 @@ public class AnalizadorLexico {
 
     private void consumirEspaciosYComentarios() {
         while (!esFinDeArchivo()) {
-            char c = verSiguiente();
+            // Lo que se salta aquí no forma parte de ningún token
+            fuente.liberarHasta(posicion);
+            int c = verSiguiente();
 
-            // 1. Espacios en blanco
+            // 1. Espacios en blanco (toda la racha de una vez)
             if (c == ' ' || c == '\r' || c == '\t' || c == '\n') {
-                consumir();
+                posicion = fuente.saltarEspacios(posicion, tramo);
                 continue;
             }
 
             // 2. Comentarios
             if (c == '/') {
-                char n = verSiguienteDelSiguiente();
+                int n = verSiguienteDelSiguiente();
                 if (n == '/') {
-                    // Comentario de línea
-                    while (!esFinDeArchivo() && verSiguiente() != '\n') consumir();
+                    // Comentario de línea: se salta hasta el '\n' (que queda para el paso 1)
+                    do {
+                        fuente.liberarHasta(posicion);
+                        posicion = fuente.buscar(posicion, '\n', tramo);
+                    } while (!esFinDeArchivo() && verSiguiente() != '\n');
                     continue;
                 } else if (n == '*') {
                     // Comentario multilínea
+                    int inicioComentario = posicion;
                     consumir(); // Consume '/'
                     consumir(); // Consume '*'
-                    int lineaComentario = lineaActual, colComentario = columnaActual;
+                    // El comienzo se descarta mientras se lee el cuerpo: si no hay cierre, se informa ahí
+                    if (!fuente.conservaTexto()) lineas().reservar(posicion);
                     boolean cerrado = false;
                     while (!esFinDeArchivo()) {
-                        char actual = consumir();
-                        if (actual == '*' && verSiguiente() == '/') {
-                            consumir(); // consume '/'
-                            cerrado = true;
-                            break;
+                        // El cuerpo del comentario no se guarda: se puede descartar del buffer
+                        fuente.liberarHasta(posicion);
+                        posicion = fuente.buscar(posicion, '*', tramo);
+                        if (verSiguiente() == '*') {
+                            consumir();
+                            if (verSiguiente() == '/') {
+                                consumir(); // consume '/'
+                                cerrado = true;
+                                break;
+                            }
                         }
                     }
                     if (!cerrado) {
-                        erroresLexicos.add(formatearError(lineaComentario, colComentario, "Comentario multilinea sin cierre."));
+                        agregarError(inicioComentario, CodigoDiagnostico.LEX_COMENTARIO_SIN_CIERRE, inicioComentario + 2);
                     }
                     continue;
                 }
@@ -260,67 +677,189 @@ public class AnalizadorLexico {
         }
     }
 
-    private String procesarIdentificador(char primero) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(primero);
-        
-        while (!esFinDeArchivo() && (Character.isLetterOrDigit(verSiguiente()) || verSiguiente() == '_')) {
-            sb.append(consumir());
+    // Los lexemas se toman como porciones de la fuente (desde el inicio del token
+    // hasta la posición actual) en lugar de armarse carácter por carácter.
+
+    private void procesarIdentificador() {
+        int c = verCaracter(posicion);
+        while (c != FuenteCodigo.FIN && (Character.isLetterOrDigit(c) || c == '_')) {
+            consumirCaracter();
+            c = verCaracter(posicion);
         }
-        return sb.toString();
     }
 
-    private String procesarLiteralNumerico(char primero) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(primero);
+    // Versiones por tablas: el caso ASCII se resuelve con TablasLexicas
+    // y solo los caracteres no ASCII pasan por Character.
 
-        while (Character.isDigit(verSiguiente())) {
-            sb.append(consumir());
+    private void procesarIdentificadorConTablas() {
+        while (true) {
+            int c = verSiguiente();
+            int clase = TablasLexicas.clase(c);
+            if (clase == TablasLexicas.LETRA || clase == TablasLexicas.DIGITO) {
+                consumir();
+            } else if (c >= 0x80 && Character.isLetterOrDigit(fuente.caracterEn(posicion))) {
+                consumirCaracter();
+            } else {
+                return;
+            }
         }
+    }
+
+    private boolean procesarLiteralNumericoConTablas() {
+        while (esDigitoConTablas(posicion)) consumirCaracter();
 
         // Parte decimal
-        if (verSiguiente() == '.' && Character.isDigit(verSiguienteDelSiguiente())) {
-            sb.append(consumir()); // punto
-            while (Character.isDigit(verSiguiente())) {
-                sb.append(consumir());
+        if (verSiguiente() == '.' && esDigitoConTablas(posicion + 1)) {
+            consumir(); // punto
+            while (esDigitoConTablas(posicion)) consumirCaracter();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean esDigitoConTablas(int pos) {
+        int c = fuente.en(pos);
+        if (c < 0x80) return TablasLexicas.clase(c) == TablasLexicas.DIGITO;
+        return Character.isDigit(fuente.caracterEn(pos));
+    }
+
+    /**
+     * Reconoce las palabras reservadas mirando el tramo [inicio, fin) de la fuente,
+     * sin crear un String: se decide por longitud y primer carácter, y solo
+     * entonces se compara el resto. Todas son ASCII, así que sirve igual para bytes.
+     */
+    private TokenType palabraReservada(int inicio, int fin) {
+        switch (fin - inicio) {
+            case 2:
+                if (esPalabra(inicio, "if")) return TokenType.KW_IF;
+                break;
+            case 4:
+                switch (fuente.en(inicio)) {
+                    case 'l': if (esPalabra(inicio, "long")) return TokenType.KW_LONG; break;
+                    case 'e': if (esPalabra(inicio, "else")) return TokenType.KW_ELSE; break;
+                    case 'r': if (esPalabra(inicio, "read")) return TokenType.KW_READ; break;
+                    case 't':
+                        if (esPalabra(inicio, "then")) return TokenType.KW_THEN;
+                        if (esPalabra(inicio, "true")) return TokenType.KW_TRUE;
+                        break;
+                    default: break;
+                }
+                break;
+            case 5:
+                switch (fuente.en(inicio)) {
+                    case 'b': if (esPalabra(inicio, "break")) return TokenType.KW_BREAK; break;
+                    case 'f': if (esPalabra(inicio, "false")) return TokenType.KW_FALSE; break;
+                    case 'w':
+                        if (esPalabra(inicio, "while")) return TokenType.KW_WHILE;
+                        if (esPalabra(inicio, "write")) return TokenType.KW_WRITE;
+                        break;
+                    default: break;
+                }
+                break;
+            case 6:
+                if (esPalabra(inicio, "double")) return TokenType.KW_DOUBLE;
+                break;
+            default:
+                break;
+        }
+        return TokenType.IDENTIFIER;
+    }
+
+    // La longitud ya la comprobó 'palabraReservada'
+    private boolean esPalabra(int inicio, String palabra) {
+        for (int i = 0; i < palabra.length(); i++) {
+            if (fuente.en(inicio + i) != palabra.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Interna el identificador que va de 'inicio' a la posición actual y devuelve su id.
+     * Si supera la longitud máxima se reporta el error y se interna el nombre recortado.
+     */
+    private int internarIdentificador(int inicio) {
+        if (posicion - inicio <= LONGITUD_MAX_IDENT) {
+            return nombres.internar(fuente, inicio, posicion);
+        }
+
+        // Camino lento: hay más unidades que el máximo (en UTF-8 puede haber menos caracteres)
+        String ident = fuente.subcadena(inicio, posicion);
+        if (ident.length() > LONGITUD_MAX_IDENT) {
+            agregarError(CodigoDiagnostico.LEX_IDENTIFICADOR_LARGO, inicio, LONGITUD_MAX_IDENT);
+            ident = ident.substring(0, LONGITUD_MAX_IDENT);
+        }
+        return nombres.internar(ident);
+    }
+
+    /**
+     * Consume el resto del número y devuelve true si tiene parte decimal.
+     */
+    private boolean procesarLiteralNumerico() {
+        while (Character.isDigit(verCaracter(posicion))) {
+            consumirCaracter();
+        }
+
+        // Parte decimal
+        if (verSiguiente() == '.' && Character.isDigit(verCaracter(posicion + 1))) {
+            consumir(); // punto
+            while (Character.isDigit(verCaracter(posicion))) {
+                consumirCaracter();
             }
+            return true;
         }
 
-        return sb.toString();
+        return false;
     }
 
-    private void procesarLiteralCadena(int lineaInicio, int columnaInicio) {
-        StringBuilder sb = new StringBuilder();
-        
+    private void procesarLiteralCadena(int inicio) {
+        // '"' y '\n' son ASCII: en UTF-8 nunca aparecen dentro de un carácter multibyte,
+        // así que el cuerpo se recorre por unidades y solo se decodifica al pedir el lexema.
         while (!esFinDeArchivo() && verSiguiente() != '"') {
-            char c = consumir();
-            if (c == '\n') {
-                erroresLexicos.add(formatearError(lineaInicio, columnaInicio, "Cadena sin cierre en la misma linea."));
+            posicion = fuente.buscar(posicion, '"', tramo);
+            // Un error por cada salto de línea dentro de la cadena
+            for (int i = 0; i < tramo.lineas; i++) {
+                agregarError(CodigoDiagnostico.LEX_CADENA_SIN_CIERRE_EN_LINEA, inicio);
             }
-            sb.append(c);
         }
 
         if (esFinDeArchivo()) {
-            erroresLexicos.add(formatearError(lineaInicio, columnaInicio, "Cadena sin cierre de comillas."));
+            agregarError(CodigoDiagnostico.LEX_CADENA_SIN_CIERRE, inicio);
             return;
         }
 
         consumir(); // consume la comilla de cierre
-        emitirToken(TokenType.STRING_LITERAL, sb.toString(), lineaInicio, columnaInicio);
+        emitirToken(TokenType.STRING_LITERAL, inicio);
     }
 
     // ==================================================
     //    UTILIDADES DE ERRORES
     // ==================================================
 
-    private String formatearError(int l, int c, String desc) {
-        return "Error lexico [linea " + l + ", col " + c + "]: " + desc;
+    private void agregarError(CodigoDiagnostico codigo, int pos, Object... argumentos) {
+        agregarError(pos, codigo, pos, argumentos);
+    }
+
+    /**
+     * Registra un error causado por lo que empieza en 'causa' y que se informa en 'pos'
+     * (ej. un comentario sin cierre se informa después de su '/*').
+     */
+    private void agregarError(int causa, CodigoDiagnostico codigo, int pos, Object... argumentos) {
+        agregarDiagnostico(causa, Diagnostico.error(codigo, pos, argumentos));
+    }
+
+    /**
+     * Guarda un diagnóstico léxico y su causa. Lo usa también LexicoParalelo
+     * para pasar al analizador principal los errores de cada tramo.
+     */
+    void agregarDiagnostico(int causa, Diagnostico d) {
+        if (!diagnosticos.agregar(d)) return; // Repetido o pasado del máximo
+        int i = cantidadDeErrores++;
+        if (i == posicionesDeError.length) posicionesDeError = Arrays.copyOf(posicionesDeError, i * 2);
+        posicionesDeError[i] = causa;
     }
 
-    private String caracterImprimible(char c) {
-        if (c == '\n') return "\\n";
-        if (c == '\t') return "\\t";
-        if (c == '\r') return "\\r";
-        return String.valueOf(c);
+    private IndiceDeLineas lineas() {
+        if (lineas == null) lineas = fuente.lineas();
+        return lineas;
     }
 }
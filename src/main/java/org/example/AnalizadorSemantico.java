@@ -1,148 +1,216 @@
 package org.example;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * FASE 4: Análisis Semántico.
- * Recorre el AST (generado por el AnalizadorSintactico) y usa
- * la TablaSimbolos (generada por el RecolectorDeclaraciones)
- * para encontrar errores de tipo y de lógica.
+ * FASE 3: Análisis Semántico.
+ * Recorre el AST compacto (ArbolPlano) y usa la TablaSimbolos (ambos generados
+ * por el AnalizadorSintactico) para encontrar errores de tipo y de lógica.
+ * Los recorridos usan pilas propias de enteros, no la de Java: el anidamiento
+ * del programa solo lo limita la memoria.
+ *
+ * Cada variable se busca una sola vez, en la cadena de ámbitos de los bloques
+ * que la rodean (del más interno al global), y el símbolo encontrado queda en
+ * el nodo (ArbolPlano.simbolo). Un bloque ve todo lo que declara, aunque la
+ * declaración esté más abajo, como el programa con las globales.
+ *
+ * El tipo de cada expresión también queda en el árbol
+ * (ArbolPlano.tipoDeExpresion): las pasadas siguientes lo leen sin volver a
+ * inferirlo ni repetir sus errores.
  */
 public class AnalizadorSemantico {
 
-    private final List<Sentencia> sentencias;
+    private final ArbolPlano arbol;
     private final TablaSimbolos tablaSimbolos;
-    private final List<String> errores = new ArrayList<>();
+    private final Diagnosticos diagnosticos;
 
     // Contador de bucles activos para validar 'break'
     private int profundidadBucle = 0;
 
-    public AnalizadorSemantico(List<Sentencia> sentencias, TablaSimbolos tablaSimbolos) {
-        this.sentencias = sentencias;
+    // Cadena de ámbitos: GLOBAL abajo y el del bloque más interno arriba
+    private int[] cadena = { TablaSimbolos.GLOBAL, 0, 0, 0, 0, 0, 0, 0 };
+    private int topeCadena = 1;
+
+    /**
+     * 'lineas' sirve para pasar las posiciones de los nodos a línea y columna en los mensajes.
+     */
+    public AnalizadorSemantico(ArbolPlano arbol, TablaSimbolos tablaSimbolos, IndiceDeLineas lineas) {
+        this(arbol, tablaSimbolos, new Diagnosticos(() -> lineas));
+    }
+
+    /**
+     * Reporta los errores en un colector compartido con las otras fases.
+     */
+    public AnalizadorSemantico(ArbolPlano arbol, TablaSimbolos tablaSimbolos, Diagnosticos diagnosticos) {
+        this.arbol = arbol;
         this.tablaSimbolos = tablaSimbolos;
+        this.diagnosticos = diagnosticos;
     }
 
     /**
      * Inicia el análisis semántico.
      */
     public void analizar() {
-        for (Sentencia s : sentencias) {
-            revisarSentencia(s);
+        for (int i = 0; i < arbol.cantidadDeSentencias(); i++) {
+            revisarSentencia(arbol.sentencia(i));
         }
     }
 
-    public List<String> getErrores() { return errores; }
-
     /**
-     * Enum interno para el chequeo de tipos.
-     * Es independiente de 'TipoSimbolo' porque maneja tipos transitorios
-     * como BOOLEANO, CADENA y ERROR.
+     * Revisa una sola sentencia del programa (con las que tenga anidadas), por
+     * ejemplo la que acaba de entregar AnalizadorSintactico.siguienteSentencia().
+     * Las variables se buscan en la tabla tal como está en ese momento: en
+     * flujo, una variable tiene que declararse antes de usarse.
      */
-    private enum TipoInterno { ENTERO, DECIMAL, CADENA, BOOLEANO, ERROR }
+    public void analizarSentencia(int sentencia) {
+        revisarSentencia(sentencia);
+    }
+
+    public List<String> getErrores() { return diagnosticos.mensajes(Diagnostico.Fase.SEMANTICO); }
 
     // ===================================
     // REVISIÓN DE SENTENCIAS (Stmt)
     // ===================================
 
-    private void revisarSentencia(Sentencia s) {
-        // Usamos 'instanceof' para determinar qué tipo de sentencia es
-        
-        if (s instanceof Sentencia.Lectura r) {
-            requerirDeclarado(r.nombre, s.linea, s.columna);
-            return;
-        }
-        if (s instanceof Sentencia.Escritura w) {
-            tipoDe(w.expresion); // Valida la expresión interna
-            return;
-        }
-        if (s instanceof Sentencia.Asignacion a) {
-            Simbolo sym = requerirDeclarado(a.nombre, s.linea, s.columna);
-            TipoInterno tipoDerecha = tipoDe(a.valor);
-            
-            if (sym != null) { // Si la variable existe
-                if (!esAsignable(sym.tipo, tipoDerecha)) {
-                    errores.add(reportarError(s.linea, s.columna, "Tipos incompatibles en asignacion: variable '" + sym.nombre +
-                            "' es " + sym.tipo + " pero la expresion es " + tipoDerecha + "."));
-                } else {
-                    // Tipos válidos: actualizamos el "Valor" en la tabla
-                    actualizarValorSimbolo(sym, a.valor);
-                }
+    // Sentencias por revisar, en orden (la próxima arriba). FIN_DE_BUCLE marca
+    // dónde termina el cuerpo de un while y FIN_DE_BLOQUE, dónde se cierra un ámbito.
+    private static final int FIN_DE_BUCLE = ArbolPlano.NINGUNO;
+    private static final int FIN_DE_BLOQUE = -2;
+    private int[] pendientes = new int[16];
+    private int topePendientes = 0;
+
+    private void revisarSentencia(int raiz) {
+        apilarPendiente(raiz);
+        while (topePendientes > 0) {
+            int p = pendientes[--topePendientes];
+            if (p == FIN_DE_BUCLE) {
+                // Salimos del bucle
+                profundidadBucle--;
+                continue;
             }
-            return;
-        }
-        if (s instanceof Sentencia.Bloque b) {
-            for (Sentencia interna : b.sentencias) revisarSentencia(interna);
-            return;
-        }
-        if (s instanceof Sentencia.Condicional c) {
-            TipoInterno tipoCond = tipoDe(c.condicion);
-            if (!esBooleano(tipoCond)) {
-                errores.add(reportarError(c.linea, c.columna, "La condicion de 'if' debe ser booleana o una comparacion (obtuvo: " + tipoCond + ")."));
+            if (p == FIN_DE_BLOQUE) {
+                topeCadena--;
+                continue;
             }
-            if (c.ramaEntonces != null) revisarSentencia(c.ramaEntonces);
-            if (c.ramaSino != null) revisarSentencia(c.ramaSino);
-            return;
+            revisarUna(p);
         }
-        if (s instanceof Sentencia.Mientras m) {
-            TipoInterno tipoCond = tipoDe(m.condicion);
-            if (!esBooleano(tipoCond)) {
-                errores.add(reportarError(m.linea, m.columna, "La condicion de 'while' debe ser booleana o una comparacion (obtuvo: " + tipoCond + ")."));
+    }
+
+    /**
+     * Revisa una sentencia; sus sentencias internas quedan en 'pendientes'
+     * (apiladas al revés, para revisarlas en orden).
+     */
+    private void revisarUna(int s) {
+        switch (arbol.clase(s)) {
+            case ArbolPlano.DECLARACION:
+                return; // Sus símbolos ya están en la tabla
+
+            case ArbolPlano.LECTURA:
+                requerirDeclarado(s);
+                return;
+
+            case ArbolPlano.ESCRITURA:
+                tipoDe(arbol.hijo(s)); // Valida la expresión interna
+                return;
+
+            case ArbolPlano.ASIGNACION: {
+                Simbolo sym = requerirDeclarado(s);
+                TipoInterno tipoDerecha = tipoDe(arbol.hijo(s));
+
+                if (sym != null) { // Si la variable existe
+                    if (!esAsignable(sym.tipo, tipoDerecha)) {
+                        reportarError(CodigoDiagnostico.SEM_ASIGNACION_INCOMPATIBLE, arbol.posicion(s), sym.nombre, sym.tipo, tipoDerecha);
+                    } else {
+                        // Tipos válidos: actualizamos el "Valor" en la tabla
+                        actualizarValorSimbolo(sym, arbol.hijo(s));
+                    }
+                }
+                return;
             }
-            // Entramos en un bucle
-            profundidadBucle++;
-            if (m.cuerpo != null) revisarSentencia(m.cuerpo);
-            // Salimos del bucle
-            profundidadBucle--;
-            return;
-        }
-        if (s instanceof Sentencia.Interrumpir i) {
-            if (profundidadBucle == 0) {
-                errores.add(reportarError(i.linea, i.columna, "'break' solo puede usarse dentro de un 'while'."));
+
+            case ArbolPlano.BLOQUE:
+                // Entramos en su ámbito; FIN_DE_BLOQUE sale después de la última sentencia
+                if (topeCadena == cadena.length) cadena = Arrays.copyOf(cadena, topeCadena * 2);
+                cadena[topeCadena++] = arbol.ambito(s);
+                apilarPendiente(FIN_DE_BLOQUE);
+                for (int i = arbol.largo(s) - 1; i >= 0; i--) apilarPendiente(arbol.sentencia(s, i));
+                return;
+
+            case ArbolPlano.CONDICIONAL: {
+                TipoInterno tipoCond = tipoDe(arbol.condicion(s));
+                if (!esBooleano(tipoCond)) {
+                    reportarError(CodigoDiagnostico.SEM_CONDICION_IF, arbol.posicion(s), tipoCond);
+                }
+                if (arbol.sino(s) != ArbolPlano.NINGUNO) apilarPendiente(arbol.sino(s));
+                if (arbol.cuerpo(s) != ArbolPlano.NINGUNO) apilarPendiente(arbol.cuerpo(s));
+                return;
+            }
+
+            case ArbolPlano.MIENTRAS: {
+                TipoInterno tipoCond = tipoDe(arbol.condicion(s));
+                if (!esBooleano(tipoCond)) {
+                    reportarError(CodigoDiagnostico.SEM_CONDICION_WHILE, arbol.posicion(s), tipoCond);
+                }
+                // Entramos en un bucle; FIN_DE_BUCLE sale después del cuerpo
+                profundidadBucle++;
+                apilarPendiente(FIN_DE_BUCLE);
+                if (arbol.cuerpo(s) != ArbolPlano.NINGUNO) apilarPendiente(arbol.cuerpo(s));
+                return;
             }
-            return;
+
+            case ArbolPlano.INTERRUMPIR:
+                if (profundidadBucle == 0) {
+                    reportarError(CodigoDiagnostico.SEM_BREAK_FUERA_DE_WHILE, arbol.posicion(s));
+                }
+                return;
+
+            default:
+                return;
         }
     }
 
+    private void apilarPendiente(int s) {
+        if (topePendientes == pendientes.length) pendientes = Arrays.copyOf(pendientes, topePendientes * 2);
+        pendientes[topePendientes++] = s;
+    }
+
     /**
      * Actualiza el "Valor" en la Tabla de Símbolos.
-     * Solo funciona si la asignación es a un literal (ej. a = 10).
-     * Si es (a = b + 5), el valor se marca como N/A (null).
+     * Solo funciona si la asignación es a un literal numérico (ej. a = 10); el
+     * valor ya viene decodificado en el nodo.
+     * Si es (a = b + 5), el valor se marca como N/A. El Optimizador después
+     * lo vuelve a calcular con las expresiones ya plegadas.
      */
-    private void actualizarValorSimbolo(Simbolo sym, Expresion expr) {
+    private void actualizarValorSimbolo(Simbolo sym, int expr) {
         // Desempaquetar si viene entre paréntesis: a = (10);
-        if (expr instanceof Expresion.Agrupacion g) {
-            expr = g.interna;
-        }
-
-        if (!(expr instanceof Expresion.Literal lit)) {
-            sym.valor = null; // No es un literal, valor desconocido
-            return;
+        if (arbol.clase(expr) == ArbolPlano.AGRUPACION) {
+            expr = arbol.hijo(expr);
         }
 
-        switch (lit.tipoLiteral) {
-            case INT_LITERAL:
+        switch (arbol.clase(expr)) {
+            case ArbolPlano.ENTERO:
                 // Se permite: long = 10; y double = 10;
-                if (sym.tipo == TipoSimbolo.LONG || sym.tipo == TipoSimbolo.DOUBLE) {
-                    sym.valor = lit.valor;
+                if (sym.tipo == TipoSimbolo.LONG) {
+                    sym.asignarEntero(arbol.valorEntero(expr));
                 } else {
-                    sym.valor = null;
+                    sym.asignarDecimal(arbol.valorEntero(expr));
                 }
                 break;
 
-            case DOUBLE_LITERAL:
+            case ArbolPlano.DECIMAL:
                 // Se permite: double = 10.5;
                 // (long = 10.5 ya fue bloqueado por 'esAsignable')
                 if (sym.tipo == TipoSimbolo.DOUBLE) {
-                    sym.valor = lit.valor;
+                    sym.asignarDecimal(arbol.valorDecimal(expr));
                 } else {
-                    sym.valor = null;
+                    sym.olvidarValor();
                 }
                 break;
 
             default:
-                // No manejamos variables string/boolean
-                sym.valor = null;
+                // No es un literal numérico: valor desconocido
+                sym.olvidarValor();
                 break;
         }
     }
@@ -151,94 +219,149 @@ public class AnalizadorSemantico {
     // CHEQUEO DE TIPOS DE EXPRESIONES (Expr)
     // ===================================
 
+    // Pila de tipoDe(): cada nodo entra una vez para apilar sus hijos
+    // (listo = false) y otra para combinar los tipos que ellos dejaron en 'tipos'.
+    private int[] nodos = new int[16];
+    private boolean[] listos = new boolean[16];
+    private int topeNodos = 0;
+    private TipoInterno[] tipos = new TipoInterno[16];
+    private int topeTipos = 0;
+
     /**
-     * Función recursiva que determina el tipo de cualquier expresión.
+     * Determina el tipo de cualquier expresión, recorriéndola en postorden
+     * (izquierda, derecha y después el operador): los errores salen en el
+     * mismo orden que con una función recursiva. El tipo de cada nodo queda
+     * anotado en el árbol; un subárbol ya anotado no se vuelve a recorrer.
      */
-    private TipoInterno tipoDe(Expresion e) {
-        if (e instanceof Expresion.Literal lit) {
-            switch (lit.tipoLiteral) {
-                case INT_LITERAL: return TipoInterno.ENTERO;
-                case DOUBLE_LITERAL: return TipoInterno.DECIMAL;
+    private TipoInterno tipoDe(int raiz) {
+        int base = topeNodos;
+        apilarNodo(raiz, false);
+        while (topeNodos > base) {
+            topeNodos--;
+            int e = nodos[topeNodos];
+            boolean listo = listos[topeNodos];
+
+            TipoInterno anotado = listo ? null : arbol.tipoDeExpresion(e);
+            int clase = arbol.clase(e);
+            if (anotado != null) {
+                apilarTipo(anotado);
+            } else if (!listo && (clase == ArbolPlano.UNARIA || clase == ArbolPlano.AGRUPACION)) {
+                apilarNodo(e, true);
+                apilarNodo(arbol.hijo(e), false);
+            } else if (!listo && clase == ArbolPlano.BINARIA) {
+                apilarNodo(e, true);
+                apilarNodo(arbol.derecha(e), false);
+                apilarNodo(arbol.hijo(e), false);
+            } else {
+                TipoInterno tipo = combinar(e);
+                arbol.anotarTipo(e, tipo);
+                apilarTipo(tipo);
+            }
+        }
+        return desapilarTipo();
+    }
+
+    /**
+     * Tipo de un nodo cuyos hijos (si tiene) ya dejaron el suyo en 'tipos'.
+     */
+    private TipoInterno combinar(int e) {
+        int clase = arbol.clase(e);
+        int posicion = arbol.posicion(e);
+        if (clase == ArbolPlano.AGRUPACION) return desapilarTipo(); // El de la expresión interna
+        if (clase == ArbolPlano.ENTERO) return TipoInterno.ENTERO;
+        if (clase == ArbolPlano.DECIMAL) return TipoInterno.DECIMAL;
+        if (clase == ArbolPlano.LITERAL) {
+            switch (arbol.tipoLiteral(e)) {
                 case STRING_LITERAL: return TipoInterno.CADENA;
                 case KW_TRUE:
                 case KW_FALSE: return TipoInterno.BOOLEANO;
                 default: return TipoInterno.ERROR;
             }
         }
-        if (e instanceof Expresion.Variable v) {
-            Simbolo sym = requerirDeclarado(v.nombre, e.linea, e.columna);
+        if (clase == ArbolPlano.VARIABLE) {
+            Simbolo sym = requerirDeclarado(e);
             if (sym == null) return TipoInterno.ERROR;
             // Mapea el tipo de la tabla (LONG/DOUBLE) al tipo interno
             return (sym.tipo == TipoSimbolo.LONG) ? TipoInterno.ENTERO : TipoInterno.DECIMAL;
         }
-        if (e instanceof Expresion.Agrupacion g) {
-            return tipoDe(g.interna); // El tipo es el de la expresión interna
-        }
-        if (e instanceof Expresion.Unaria u) {
-            TipoInterno tipoDerecha = tipoDe(u.derecha);
-            
-            // --- CORRECCIÓN ---
-            // 'u.op' ya es un TokenType
-            if (u.op == TokenType.BANG) {
+        if (clase == ArbolPlano.UNARIA) {
+            TipoInterno tipoDerecha = desapilarTipo();
+            TokenType op = arbol.operador(e);
+
+            if (op == TokenType.BANG) {
                 if (tipoDerecha == TipoInterno.BOOLEANO || tipoDerecha == TipoInterno.ENTERO || tipoDerecha == TipoInterno.DECIMAL) {
                     return TipoInterno.BOOLEANO;
                 }
-                errores.add(reportarError(e.linea, e.columna, "Operador '!' invalido sobre tipo " + tipoDerecha + "."));
+                reportarError(CodigoDiagnostico.SEM_NEGACION_INVALIDA, posicion, tipoDerecha);
                 return TipoInterno.ERROR;
             
-            // --- CORRECCIÓN ---
-            } else if (u.op == TokenType.MINUS) {
+            } else if (op == TokenType.MINUS) {
                 if (esNumerico(tipoDerecha)) return tipoDerecha;
-                errores.add(reportarError(e.linea, e.columna, "Operador unario '-' requiere numerico (obtuvo " + tipoDerecha + ")."));
+                reportarError(CodigoDiagnostico.SEM_MENOS_INVALIDO, posicion, tipoDerecha);
                 return TipoInterno.ERROR;
             }
             return TipoInterno.ERROR;
         }
         
-        if (e instanceof Expresion.Binaria b) {
-            TipoInterno tipoIzq = tipoDe(b.izquierda);
-            TipoInterno tipoDer = tipoDe(b.derecha);
+        if (clase == ArbolPlano.BINARIA) {
+            TipoInterno tipoDer = desapilarTipo();
+            TipoInterno tipoIzq = desapilarTipo();
+            TokenType op = arbol.operador(e);
 
             // Lógicos: && ||
-            // --- CORRECCIÓN ---
-            // 'b.op' ya es un TokenType
-            if (b.op == TokenType.ANDAND || b.op == TokenType.OROR) {
+            if (op == TokenType.ANDAND || op == TokenType.OROR) {
                 if (tipoIzq == TipoInterno.BOOLEANO && tipoDer == TipoInterno.BOOLEANO) return TipoInterno.BOOLEANO;
-                // También se corrigió 'b.op.lexema' a solo 'b.op'
-                errores.add(reportarError(e.linea, e.columna, "Operador logico requiere booleanos: " + tipoIzq + " " + b.op + " " + tipoDer + "."));
+                reportarError(CodigoDiagnostico.SEM_LOGICO_INVALIDO, posicion, tipoIzq, op, tipoDer);
                 return TipoInterno.ERROR;
             }
 
             // Comparaciones: > < >= <= == != <>
-            // --- CORRECCIÓN ---
-            if (b.op == TokenType.GT || b.op == TokenType.LT || b.op == TokenType.GTE || b.op == TokenType.LTE
-                    || b.op == TokenType.EQEQ || b.op == TokenType.NEQ || b.op == TokenType.NEQ_ALT) {
+            if (op == TokenType.GT || op == TokenType.LT || op == TokenType.GTE || op == TokenType.LTE
+                    || op == TokenType.EQEQ || op == TokenType.NEQ || op == TokenType.NEQ_ALT) {
                 
                 if (esNumerico(tipoIzq) && esNumerico(tipoDer)) return TipoInterno.BOOLEANO;
                 if (tipoIzq == tipoDer && tipoIzq != TipoInterno.ERROR) return TipoInterno.BOOLEANO;
                 
-                errores.add(reportarError(e.linea, e.columna, "Comparacion entre tipos incompatibles: " + tipoIzq + " y " + tipoDer + "."));
+                reportarError(CodigoDiagnostico.SEM_COMPARACION_INVALIDA, posicion, tipoIzq, tipoDer);
                 return TipoInterno.ERROR;
             }
 
             // Aritméticos: + - * /
-            // --- CORRECCIÓN ---
-            if (b.op == TokenType.PLUS || b.op == TokenType.MINUS || b.op == TokenType.STAR || b.op == TokenType.SLASH) {
+            if (op == TokenType.PLUS || op == TokenType.MINUS || op == TokenType.STAR || op == TokenType.SLASH) {
                 if (esNumerico(tipoIzq) && esNumerico(tipoDer)) {
                     if (tipoIzq == TipoInterno.DECIMAL || tipoDer == TipoInterno.DECIMAL) return TipoInterno.DECIMAL;
                     return TipoInterno.ENTERO;
                 }
-                errores.add(reportarError(e.linea, e.columna, "Operacion aritmetica con tipos no numericos: " + tipoIzq + " y " + tipoDer + "."));
+                reportarError(CodigoDiagnostico.SEM_ARITMETICA_INVALIDA, posicion, tipoIzq, tipoDer);
                 return TipoInterno.ERROR;
             }
 
-            errores.add(reportarError(e.linea, e.columna, "Operador binario no reconocido."));
+            reportarError(CodigoDiagnostico.SEM_OPERADOR_DESCONOCIDO, posicion);
             return TipoInterno.ERROR;
         }
         
         return TipoInterno.ERROR;
     }
 
+    private void apilarNodo(int e, boolean listo) {
+        if (topeNodos == nodos.length) {
+            nodos = Arrays.copyOf(nodos, topeNodos * 2);
+            listos = Arrays.copyOf(listos, topeNodos * 2);
+        }
+        nodos[topeNodos] = e;
+        listos[topeNodos] = listo;
+        topeNodos++;
+    }
+
+    private void apilarTipo(TipoInterno t) {
+        if (topeTipos == tipos.length) tipos = Arrays.copyOf(tipos, topeTipos * 2);
+        tipos[topeTipos++] = t;
+    }
+
+    private TipoInterno desapilarTipo() {
+        return tipos[--topeTipos];
+    }
+
     // ===================================
     // MÉTODOS AYUDANTES (Helpers)
     // ===================================
@@ -264,18 +387,26 @@ public class AnalizadorSemantico {
     }
 
     /**
-     * Comprueba que una variable exista en la tabla.
-     * Si no existe, reporta un error y devuelve null.
+     * Resuelve la variable del nodo 'n' (ASIGNACION, LECTURA o VARIABLE): la
+     * busca por el id del nombre desde el ámbito más interno hacia afuera y
+     * guarda el símbolo en el nodo. Si no existe, reporta un error y devuelve null.
      */
-    private Simbolo requerirDeclarado(String nombre, int linea, int col) {
-        Simbolo s = tablaSimbolos.obtener(nombre);
+    private Simbolo requerirDeclarado(int n) {
+        int id = arbol.idNombre(n);
+        Simbolo s = null;
+        if (id != ArbolPlano.NINGUNO) {
+            for (int i = topeCadena - 1; i >= 0 && s == null; i--) s = tablaSimbolos.buscar(cadena[i], id);
+        }
         if (s == null) {
-            errores.add(reportarError(linea, col, "Identificador no declarado: '" + nombre + "'."));
+            arbol.resolver(n, ArbolPlano.NINGUNO);
+            reportarError(CodigoDiagnostico.SEM_NO_DECLARADO, arbol.posicion(n), arbol.nombre(n));
+            return null;
         }
+        arbol.resolver(n, s.indice());
         return s;
     }
 
-    private String reportarError(int linea, int col, String msg) {
-        return "Error semantico [linea " + linea + ", col " + col + "]: " + msg;
+    private void reportarError(CodigoDiagnostico codigo, int pos, Object... argumentos) {
+        diagnosticos.error(codigo, pos, argumentos);
     }
 }
\ No newline at end of file
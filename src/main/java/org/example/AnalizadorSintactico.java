@@ -2,92 +2,390 @@
 package org.example;
 
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 
 /**
  * Implementa un Analizador de Descenso Recursivo.
- * Su trabajo es tomar la lista de tokens y construir un
+ * Su trabajo es tomar el flujo de tokens (TokenBuffer) y construir un
  * Árbol de Sintaxis Abstracta (AST) de Sentencias y Expresiones.
+ * Los tokens se leen por índice, sin crear objetos Token, y el AST se arma
+ * directamente en su forma compacta (ArbolPlano): los nodos son índices.
+ * La "recursión" usa pilas propias (no la de Java), así que el anidamiento
+ * de bloques, if/while y paréntesis solo lo limita la memoria.
+ * En la misma pasada las declaraciones (long/double) llenan la Tabla de Símbolos.
+ *
+ * Recuperación de errores en modo pánico: después de un error no se reportan
+ * más hasta llegar a un punto de sincronización (un ';' consumido, una '}'
+ * que cierra un bloque o el comienzo de una sentencia reconocible), y una
+ * sentencia irreconocible se descarta entera hasta ese punto. Al llegar al
+ * máximo de errores el análisis se abandona: un archivo basura cuesta un
+ * tiempo y una memoria acotados.
  */
 public class AnalizadorSintactico {
 
-    private final List<Token> tokens;
+    private final TokenBuffer tokens;
     private int posicion = 0; // 'current' en el modelo
-    private final List<String> errores = new ArrayList<>();
+    private final Diagnosticos diagnosticos;
+    private final TablaSimbolos tablaSimbolos;
+    private ArbolPlano arbol;
+
+    // Tokens que ya se pueden leer. En la Tuberia el léxico los va avisando por
+    // 'avisosDelLexico' mientras el parser avanza; si no, están todos desde el principio.
+    private final ColaSPSC<Integer> avisosDelLexico;
+    private int disponibles;
+
+    // Parser en flujo: pide los tokens de a lotes al léxico y descarta los ya leídos
+    private final AnalizadorLexico lexico;
+    private static final int LOTE_EN_FLUJO = 256;
+
+    private static final int TOKEN_FANTASMA = -1;
+    private static final int NINGUNA = ArbolPlano.NINGUNO; // Sentencia que no produjo nodo
+
+    // Sentencias de los bloques abiertos (y pares id, posición de la declaración
+    // que se está leyendo); cada uno usa el tramo desde donde empezó
+    private int[] hijos = new int[64];
+    private int topeHijos = 0;
+
+    /** Máximo de errores sintácticos por omisión antes de abandonar el análisis. */
+    public static final int MAXIMO_DE_ERRORES_POR_OMISION = 100;
+
+    private int maximoDeErrores = MAXIMO_DE_ERRORES_POR_OMISION;
+    private int errores = 0;         // Reportados por este parser (sin los suprimidos)
+    private boolean enPanico = false; // Hubo un error y todavía no se sincronizó
+    private boolean abandonado = false;
+    private int bloquesAbiertos = 0;  // Una '}' solo sincroniza si cierra alguno
+
+    // Ámbito donde caen las declaraciones: cada bloque abre uno nuevo (numerados en orden)
+    private int ambitoActual = TablaSimbolos.GLOBAL;
+    private int ultimoAmbito = TablaSimbolos.GLOBAL;
+
+    // Árbol de sintaxis concreto: solo con analizarVerde() / reanalizarVerde()
+    private ConstructorVerde verde;
+    private int erroresVistos = 0;    // Todos, también los suprimidos por el modo pánico
+    private static final int REUSADA = -3; // Sentencia tomada del árbol verde anterior
+
+    public AnalizadorSintactico(TokenBuffer tokens) {
+        this(tokens, new Diagnosticos(tokens::lineas));
+    }
+
+    /**
+     * Reporta los errores en un colector compartido con las otras fases.
+     */
+    public AnalizadorSintactico(TokenBuffer tokens, Diagnosticos diagnosticos) {
+        this(tokens, diagnosticos, new TablaSimbolos(), null);
+    }
+
+    /**
+     * Parser de la Tuberia: 'tokens' se sigue llenando en otro hilo, que avisa
+     * por 'avisosDelLexico' cuántos hay listos (ver AnalizadorLexico.analizarEnTuberia).
+     */
+    AnalizadorSintactico(TokenBuffer tokens, Diagnosticos diagnosticos, TablaSimbolos tablaSimbolos,
+                         ColaSPSC<Integer> avisosDelLexico) {
+        this(tokens, diagnosticos, tablaSimbolos, avisosDelLexico, null);
+    }
+
+    /**
+     * Parser para siguienteSentencia()/analizarEnFlujo() que pide los tokens a
+     * 'lexico' a medida que los necesita y, al empezar cada sentencia, descarta
+     * los de las anteriores: ni los tokens ni el texto de la fuente quedan
+     * enteros en memoria, la marca la sentencia más grande.
+     */
+    public AnalizadorSintactico(AnalizadorLexico lexico) {
+        this(lexico, lexico.nuevaVentana());
+    }
 
-    public AnalizadorSintactico(List<Token> tokens) {
+    /**
+     * Igual que el anterior, con un colector compartido con las otras fases. Si la
+     * fuente descarta lo leído, debe resolver las posiciones al agregar (ver Diagnosticos).
+     */
+    public AnalizadorSintactico(AnalizadorLexico lexico, Diagnosticos diagnosticos) {
+        this(lexico.nuevaVentana(), diagnosticos, new TablaSimbolos(), null, lexico);
+    }
+
+    private AnalizadorSintactico(AnalizadorLexico lexico, TokenBuffer ventana) {
+        this(ventana, new Diagnosticos(ventana::lineas, !ventana.fuente().conservaTexto()), new TablaSimbolos(), null, lexico);
+    }
+
+    private AnalizadorSintactico(TokenBuffer tokens, Diagnosticos diagnosticos, TablaSimbolos tablaSimbolos,
+                                 ColaSPSC<Integer> avisosDelLexico, AnalizadorLexico lexico) {
         this.tokens = tokens;
+        this.diagnosticos = diagnosticos;
+        this.tablaSimbolos = tablaSimbolos;
+        this.avisosDelLexico = avisosDelLexico;
+        this.lexico = lexico;
+        this.disponibles = (avisosDelLexico == null && lexico == null) ? tokens.tamanio() : 0;
     }
 
     /**
-     * Punto de entrada. Parsea una secuencia de sentencias hasta el Fin de Archivo (EOF).
+     * Punto de entrada. Parsea una secuencia de sentencias hasta el Fin de Archivo (EOF)
+     * y devuelve el AST compacto.
      */
-    public List<Sentencia> analizar() {
-        List<Sentencia> sentencias = new ArrayList<>();
-        while (!esFinDeArchivo()) {
+    public ArbolPlano analizarPlano() {
+        return analizarPlano(s -> { });
+    }
 
-            // FASE 3 ignora las declaraciones de FASE 2
-            if (verificar(TokenType.KW_LONG) || verificar(TokenType.KW_DOUBLE)) {
-                saltarDeclaracion();
-                continue;
-            }
+    /**
+     * Igual que analizarPlano(), pero entrega cada sentencia del programa a
+     * 'alLeer' apenas se termina de leer. A diferencia de analizarEnFlujo(),
+     * los nodos quedan: el árbol entero se devuelve al final.
+     */
+    public ArbolPlano analizarPlano(IntConsumer alLeer) {
+        arbol = new ArbolPlano(tokens);
+        return leerPrograma(alLeer);
+    }
 
-            Sentencia s = sentencia();
-            if (s != null) {
-                sentencias.add(s);
+    private ArbolPlano leerPrograma(IntConsumer alLeer) {
+        esperarTokens();
+        int base = topeHijos;
+        while (!esFinDeArchivo()) {
+            int s = sentencia();
+            if (s != NINGUNA) {
+                agregarHijo(s);
+                alLeer.accept(s);
             }
             // A diferencia de otros parsers, no sincronizamos aquí.
             // Cada método de sentencia es responsable de avanzar.
         }
-        return sentencias;
+        arbol.sentencias(hijos, base, topeHijos - base);
+        topeHijos = base;
+        return arbol;
     }
 
     /**
-     * Esta función avanza rápidamente sobre las declaraciones de variables
-     * (long ...; / double ...;) que ya fueron procesadas por el
-     * RecolectorDeclaraciones en la Fase 2.
+     * API "pull": lee la próxima sentencia del programa (con todas las que
+     * tenga anidadas) y devuelve su nodo en getArbol(), o ArbolPlano.NINGUNO
+     * al llegar al EOF. El árbol se vacía antes de cada sentencia, así que los
+     * nodos de la anterior dejan de valer: la memoria del AST la marca la
+     * sentencia más grande, no el programa entero.
+     * No se mezcla con analizarPlano() en el mismo parser.
      */
-    private void saltarDeclaracion() {
-        avanzar(); // Consumir el 'long' o 'double'
-
-        boolean esperarIdent = true;
+    public int siguienteSentencia() {
+        ArbolPlano enFlujo = getArbol();
+        esperarTokens();
         while (!esFinDeArchivo()) {
-            if (esperarIdent) {
-                if (verificar(TokenType.IDENTIFIER)) {
-                    avanzar(); // Consumir el ID
-                    esperarIdent = false;
-                } else {
-                    // Declaración mal formada, pero FASE 2 ya reportó el error.
-                    // Salimos y dejamos que el parser intente recuperarse.
-                    return;
-                }
-            } else {
-                if (coincidir(TokenType.COMMA)) {
-                    esperarIdent = true; // Viene otro ID
-                } else if (coincidir(TokenType.SEMICOLON)) {
-                    return; // Fin de la declaración
-                } else {
-                    // Hay "basura" (ej. long a b;), FASE 2 ya lo reportó.
-                    // Avanzamos hasta el ';' para re-sincronizar.
-                    avanzar();
-                }
-            }
+            enFlujo.vaciar();
+            // Los tokens de las sentencias anteriores ya no los usa ningún nodo
+            if (lexico != null) tokens.descartarAntesDe(posicion);
+            int s = sentencia();
+            if (s != NINGUNA) return s;
         }
+        return NINGUNA;
     }
 
-    public List<String> getErrores() { return errores; }
+    /**
+     * Versión "push" de siguienteSentencia(): entrega cada sentencia del
+     * programa a 'alLeer' apenas se termina de leer. El nodo vale solo
+     * durante la llamada.
+     */
+    public void analizarEnFlujo(IntConsumer alLeer) {
+        for (int s = siguienteSentencia(); s != NINGUNA; s = siguienteSentencia()) {
+            alLeer.accept(s);
+        }
+    }
+
+    /**
+     * Árbol donde quedan las sentencias: el de analizarPlano(), o el que
+     * reusa el análisis en flujo (se puede pedir antes de empezar, por
+     * ejemplo para armar el AnalizadorSemantico).
+     */
+    public ArbolPlano getArbol() {
+        if (arbol == null) arbol = new ArbolPlano(tokens, 64);
+        return arbol;
+    }
+
+    /**
+     * Además del AST (que queda en getArbol()), arma el árbol de sintaxis
+     * concreto: sin pérdida (con espacios, comentarios y tokens erróneos) y
+     * con nodos inmutables que se pueden reusar al reanalizar una edición.
+     * En este modo no hay máximo de errores, para que el árbol cubra el archivo entero.
+     */
+    public NodoVerde analizarVerde() {
+        verde = new ConstructorVerde(tokens);
+        maximoDeErrores = Integer.MAX_VALUE;
+        analizarPlano();
+        return verde.terminar(erroresVistos);
+    }
+
+    /**
+     * Árbol concreto de 'tokens' después de una edición, reusando las
+     * sentencias de 'anterior' (el árbol de antes de 'cambio') que no tuvieron
+     * errores y cuyos tokens no cambiaron: se saltean sin volver a leerlas.
+     * El resultado es igual al de analizarVerde() sobre el texto nuevo.
+     * Como las sentencias reusadas no se leen, getArbol() y los diagnósticos
+     * quedan incompletos: el AST del programa sale de un análisis completo.
+     */
+    public NodoVerde reanalizarVerde(NodoVerde anterior, LexicoIncremental.Resultado cambio) {
+        verde = new ConstructorVerde(tokens, anterior, cambio);
+        maximoDeErrores = Integer.MAX_VALUE;
+        arbol = new ArbolPlano(tokens, 64);
+        leerPrograma(s -> { });
+        return verde.terminar(erroresVistos);
+    }
+
+    /**
+     * Sentencias que el último reanalizarVerde() tomó del árbol anterior.
+     */
+    public int sentenciasReusadas() {
+        return (verde == null) ? 0 : verde.reusadas();
+    }
+
+    /**
+     * Igual que analizarPlano(), pero devuelve las sentencias como árbol de objetos.
+     */
+    public List<Sentencia> analizar() {
+        return analizarPlano().aSentencias();
+    }
+
+    public List<String> getErrores() { return diagnosticos.mensajes(Diagnostico.Fase.SINTACTICO); }
+
+    /**
+     * Cantidad de errores (de sentencias y declaraciones) después de la cual el
+     * análisis se abandona. También se abandona si el colector compartido llega
+     * a su propio máximo (Diagnosticos.setMaximoDeErrores).
+     */
+    public void setMaximoDeErrores(int maximo) {
+        this.maximoDeErrores = maximo;
+    }
+
+    /**
+     * true si el análisis se cortó antes del fin de archivo por exceso de errores.
+     */
+    public boolean fueAbandonado() { return abandonado; }
+
+    /**
+     * Errores de las declaraciones (identificador faltante, redeclaración, etc.).
+     */
+    public List<String> getErroresDeDeclaraciones() { return diagnosticos.mensajes(Diagnostico.Fase.DECLARACIONES); }
+
+    /**
+     * Variables declaradas, disponible después de analizar().
+     */
+    public TablaSimbolos getTablaSimbolos() { return tablaSimbolos; }
+
+    /** Tokens que lee el parser (en flujo, solo los que no descartó). */
+    TokenBuffer tokens() { return tokens; }
 
     // ======================================================
     // MÉTODOS DE SENTENCIAS 
     // ======================================================
 
+    // Las sentencias compuestas (if, while, bloque) no llaman a sentencia() para
+    // sus partes: quedan en 'compuestas' con lo que ya leyeron y piden la
+    // sentencia hija devolviendo PIDE_HIJA. Cuando la hija está lista se le
+    // entrega a la compuesta del tope (recibir).
+
+    private static final int PIDE_HIJA = -2;
+
+    /**
+     * Una sentencia compuesta a medio leer.
+     */
+    private static final class Compuesta {
+        final TokenType clase;      // KW_IF, KW_WHILE o LBRACE
+        final int posicion;
+        final int condicion;        // if / while
+        final int inicioHijos;      // Bloque: sus sentencias están en 'hijos' desde acá
+        int ramaEntonces = NINGUNA;
+        boolean enSino;             // if: ya se leyó la rama 'then' y el 'else'
+        int ambito;                 // Bloque: el que abre
+        int ambitoExterior;         // Bloque: el que vuelve a valer en su '}'
+
+        Compuesta(TokenType clase, int posicion, int condicion, int inicioHijos) {
+            this.clase = clase;
+            this.posicion = posicion;
+            this.condicion = condicion;
+            this.inicioHijos = inicioHijos;
+        }
+    }
+
+    private final ArrayDeque<Compuesta> compuestas = new ArrayDeque<>();
+
+    /**
+     * Lee una sentencia completa, con todas las que tenga anidadas.
+     */
+    private int sentencia() {
+        int base = compuestas.size();
+        int s = empezarSentencia();
+        while (true) {
+            if (s == PIDE_HIJA) {
+                s = empezarSentencia();
+                continue;
+            }
+            s = terminada(s);
+            if (compuestas.size() == base) {
+                return s;
+            } else {
+                s = recibir(compuestas.peek(), s);
+            }
+        }
+    }
+
+    /**
+     * Avisa al árbol verde (si se está armando) que terminó la sentencia 's'.
+     * Una reusada no tiene nodo en el AST: sigue como NINGUNA.
+     */
+    private int terminada(int s) {
+        if (s == REUSADA) return NINGUNA;
+        if (verde != null) {
+            int clase = (s == NINGUNA) ? NodoVerde.ERRONEA : arbol.clase(s);
+            verde.cerrar(clase, posicion, erroresVistos);
+        }
+        return s;
+    }
+
+    /**
+     * Entrega a la compuesta 'c' la sentencia hija que pidió. Devuelve la
+     * compuesta terminada, o PIDE_HIJA si le falta otra.
+     */
+    private int recibir(Compuesta c, int hija) {
+        switch (c.clase) {
+            case KW_IF:
+                if (!c.enSino) {
+                    c.ramaEntonces = hija;
+                    if (coincidir(TokenType.KW_ELSE)) {
+                        c.enSino = true;
+                        return PIDE_HIJA;
+                    }
+                    hija = NINGUNA; // Sin 'else'
+                }
+                compuestas.pop();
+                return arbol.nodoCondicional(c.posicion, c.condicion, c.ramaEntonces, hija);
+            case KW_WHILE:
+                compuestas.pop();
+                return arbol.nodo(ArbolPlano.MIENTRAS, c.posicion, 0, c.condicion, hija);
+            default: // LBRACE
+                if (hija != NINGUNA) agregarHijo(hija);
+                return siguienteDelBloque(c);
+        }
+    }
+
     /**
      * Método "router" principal para las sentencias.
-     * Identifica qué tipo de sentencia comienza.
+     * Identifica qué tipo de sentencia comienza. Las simples se leen enteras;
+     * las compuestas leen su encabezado y devuelven PIDE_HIJA.
      */
-    private Sentencia sentencia() {
+    private int empezarSentencia() {
+        if (verde != null) {
+            NodoVerde reusada = verde.reusar(posicion);
+            if (reusada != null) {
+                // No tuvo errores: empezó y terminó fuera del modo pánico
+                posicion += reusada.cantidadDeTokens();
+                enPanico = false;
+                return REUSADA;
+            }
+            verde.abrir(posicion, erroresVistos);
+        }
+
+        // Una sentencia reconocible es un punto de sincronización
+        if (INICIA_SENTENCIA[tokens.tipo(posicion).ordinal()] || esInicioDeAsignacion()) enPanico = false;
+
+        // long a, b; / double c;
+        if (coincidir(TokenType.KW_LONG)) return sentenciaDeclaracion(TipoSimbolo.LONG, verAnterior());
+        if (coincidir(TokenType.KW_DOUBLE)) return sentenciaDeclaracion(TipoSimbolo.DOUBLE, verAnterior());
+
         // if / while
         if (coincidir(TokenType.KW_IF)) return sentenciaSi(verAnterior());
         if (coincidir(TokenType.KW_WHILE)) return sentenciaMientras(verAnterior());
@@ -103,243 +401,341 @@ public class AnalizadorSintactico {
         if (coincidir(TokenType.KW_WRITE)) return sentenciaEscritura(verAnterior());
 
         // Asignación: id = ...; o id += ...;
-        // Usamos "lookahead" (mirar 2 tokens adelante)
-        if (verificar(TokenType.IDENTIFIER) && (
+        if (esInicioDeAsignacion()) return sentenciaAsignacion();
+
+        // Si no se reconoce nada, es un error: se descarta todo hasta sincronizar
+        reportarError(verActual(), CodigoDiagnostico.SIN_SENTENCIA);
+        sincronizar();
+        return NINGUNA;
+    }
+
+    /**
+     * id = ...; o id += ...; Usamos "lookahead" (mirar 2 tokens adelante).
+     */
+    private boolean esInicioDeAsignacion() {
+        return verificar(TokenType.IDENTIFIER) && (
                 verificarSiguiente(TokenType.EQUAL) ||
                 verificarSiguiente(TokenType.PLUS_EQ) ||
                 verificarSiguiente(TokenType.MINUS_EQ) ||
                 verificarSiguiente(TokenType.STAR_EQ) ||
-                verificarSiguiente(TokenType.SLASH_EQ)
-        )) {
-            return sentenciaAsignacion();
+                verificarSiguiente(TokenType.SLASH_EQ));
+    }
+
+    // Palabras que empiezan una sentencia (puntos de sincronización), indexadas por TokenType.ordinal()
+    private static final boolean[] INICIA_SENTENCIA = new boolean[TokenType.values().length];
+    static {
+        for (TokenType t : new TokenType[] { TokenType.KW_LONG, TokenType.KW_DOUBLE, TokenType.KW_IF, TokenType.KW_WHILE,
+                TokenType.KW_BREAK, TokenType.LBRACE, TokenType.KW_READ, TokenType.KW_WRITE }) {
+            INICIA_SENTENCIA[t.ordinal()] = true;
         }
+    }
 
-        // Si no se reconoce nada, es un error.
-        Token t = verActual();
-        reportarError(t, "Se esperaba una sentencia: 'if', 'while', 'break', '{', 'read', 'write' o asignación 'id = expr;'.");
-        avanzar(); // Avanzar un token para no entrar en bucle infinito
-        return null;
+    /**
+     * Declaración: tipo id (',' id)* ';'
+     * Cada identificador se agrega a la Tabla de Símbolos al leerlo.
+     * Ante un error se sincroniza (ver sincronizar()); lo ya declarado queda.
+     */
+    private int sentenciaDeclaracion(TipoSimbolo tipo, int kwTipo) {
+        int base = topeHijos; // Pares id, posición
+
+        boolean necesitaIdentificador = true;
+        while (true) {
+            if (necesitaIdentificador) {
+                if (!verificar(TokenType.IDENTIFIER)) {
+                    reportarError(verActual(), CodigoDiagnostico.DEC_FALTA_IDENTIFICADOR);
+                    sincronizar();
+                    break;
+                }
+                int id = avanzar();
+                String nombre = tokens.lexema(id);
+                // Va en el ámbito del bloque que la contiene; la redeclaración es en el mismo ámbito
+                Simbolo simbolo = new Simbolo(nombre, tokens.idNombre(id), tipo, ambitoActual, bloquesAbiertos, tokens.linea(id));
+                if (!tablaSimbolos.agregar(simbolo)) {
+                    // No desordena el parser: no entra en modo pánico
+                    contarError(diagnosticos.error(CodigoDiagnostico.DEC_REDECLARADO, tokens.inicio(id), nombre));
+                }
+                agregarHijo(tokens.idNombre(id));
+                agregarHijo(tokens.inicio(id));
+                necesitaIdentificador = false;
+            } else if (coincidir(TokenType.COMMA)) {
+                necesitaIdentificador = true; // Viene otro ID
+            } else if (coincidir(TokenType.SEMICOLON)) {
+                enPanico = false;
+                break; // Fin de la declaración
+            } else {
+                reportarError(verActual(), CodigoDiagnostico.DEC_FALTA_SEPARADOR);
+                sincronizar();
+                break;
+            }
+        }
+
+        int n = topeHijos - base;
+        topeHijos = base;
+        if (n == 0) return NINGUNA;
+        return arbol.nodoConLista(ArbolPlano.DECLARACION, tokens.inicio(kwTipo), tipo.ordinal(), hijos, base, n);
     }
 
-    private Sentencia sentenciaSi(Token kwSi) {
-        consumir(TokenType.LPAREN, "Se esperaba '(' después de 'if'.");
-        Expresion condicion = expresion();
-        consumir(TokenType.RPAREN, "Se esperaba ')' después de la condicion de 'if'.");
+    private int sentenciaSi(int kwSi) {
+        consumir(TokenType.LPAREN, CodigoDiagnostico.SIN_IF_LPAREN);
+        int condicion = expresion();
+        consumir(TokenType.RPAREN, CodigoDiagnostico.SIN_IF_RPAREN);
 
         // La especificación exige 'then'
-        Token t = verActual();
+        int t = verActual();
         if (!coincidir(TokenType.KW_THEN)) {
-            reportarError(t, "Se esperaba 'then' despues de 'if (cond)'.");
-        }
-
-        Sentencia ramaEntonces = sentencia();
-
-        Sentencia ramaSino = null;
-        if (coincidir(TokenType.KW_ELSE)) {
-            ramaSino = sentencia();
+            reportarError(t, CodigoDiagnostico.SIN_IF_THEN);
         }
 
-        return new Sentencia.Condicional(condicion, ramaEntonces, ramaSino, kwSi.linea, kwSi.columna);
+        // Las ramas (y el 'else') se leen en recibir()
+        compuestas.push(new Compuesta(TokenType.KW_IF, tokens.inicio(kwSi), condicion, topeHijos));
+        return PIDE_HIJA;
     }
 
-    private Sentencia sentenciaMientras(Token kwMientras) {
-        consumir(TokenType.LPAREN, "Se esperaba '(' despues de 'while'.");
-        Expresion condicion = expresion();
-        consumir(TokenType.RPAREN, "Se esperaba ')' despues de la condicion de 'while'.");
-        Sentencia cuerpo = sentencia();
-        return new Sentencia.Mientras(condicion, cuerpo, kwMientras.linea, kwMientras.columna);
+    private int sentenciaMientras(int kwMientras) {
+        consumir(TokenType.LPAREN, CodigoDiagnostico.SIN_WHILE_LPAREN);
+        int condicion = expresion();
+        consumir(TokenType.RPAREN, CodigoDiagnostico.SIN_WHILE_RPAREN);
+        compuestas.push(new Compuesta(TokenType.KW_WHILE, tokens.inicio(kwMientras), condicion, topeHijos));
+        return PIDE_HIJA;
     }
     
-    private Sentencia sentenciaInterrumpir(Token kw) {
-        consumir(TokenType.SEMICOLON, "Se esperaba ';' despues de 'break'.");
-        return new Sentencia.Interrumpir(kw.linea, kw.columna);
-    }
-
-    private Sentencia sentenciaBloque() {
-        int linea = verAnterior().linea, col = verAnterior().columna;
-        List<Sentencia> sentencias = new ArrayList<>();
-        
-        while (!esFinDeArchivo() && !verificar(TokenType.RBRACE)) {
-            Sentencia s = sentencia();
-            if (s != null) sentencias.add(s);
+    private int sentenciaInterrumpir(int kw) {
+        consumir(TokenType.SEMICOLON, CodigoDiagnostico.SIN_BREAK_PUNTO_Y_COMA);
+        return arbol.nodo(ArbolPlano.INTERRUMPIR, tokens.inicio(kw), 0, ArbolPlano.NINGUNO, ArbolPlano.NINGUNO);
+    }
+
+    private int sentenciaBloque() {
+        Compuesta bloque = new Compuesta(TokenType.LBRACE, tokens.inicio(verAnterior()), ArbolPlano.NINGUNO, topeHijos);
+        bloque.ambitoExterior = ambitoActual;
+        bloque.ambito = ambitoActual = ++ultimoAmbito;
+        compuestas.push(bloque);
+        bloquesAbiertos++;
+        return siguienteDelBloque(bloque);
+    }
+
+    /**
+     * El bloque pide otra sentencia hasta encontrar '}' (o el fin de archivo).
+     */
+    private int siguienteDelBloque(Compuesta bloque) {
+        if (!esFinDeArchivo() && !verificar(TokenType.RBRACE)) return PIDE_HIJA;
+        compuestas.pop();
+        bloquesAbiertos--;
+        ambitoActual = bloque.ambitoExterior;
+        if (coincidir(TokenType.RBRACE)) {
+            enPanico = false; // La '}' cierra lo que haya quedado roto adentro
+        } else {
+            reportarError(verActual(), CodigoDiagnostico.SIN_BLOQUE_RBRACE);
         }
-        
-        consumir(TokenType.RBRACE, "Se esperaba '}' para cerrar el bloque.");
-        return new Sentencia.Bloque(sentencias, linea, col);
+        int base = bloque.inicioHijos;
+        int nodo = arbol.nodoConLista(ArbolPlano.BLOQUE, bloque.posicion, bloque.ambito, hijos, base, topeHijos - base);
+        topeHijos = base;
+        return nodo;
     }
 
-    private Sentencia sentenciaLectura(Token kw) {
-        consumir(TokenType.LPAREN, "Se esperaba '(' despues de 'read'.");
-        Token id = consumir(TokenType.IDENTIFIER, "Se esperaba identificador dentro de read(...).");
-        consumir(TokenType.RPAREN, "Se esperaba ')' despues de identificador en read(...).");
-        consumir(TokenType.SEMICOLON, "Se esperaba ';' despues de read(...).");
-        return new Sentencia.Lectura(id.lexema, kw.linea, kw.columna);
+    private int sentenciaLectura(int kw) {
+        consumir(TokenType.LPAREN, CodigoDiagnostico.SIN_READ_LPAREN);
+        int id = consumir(TokenType.IDENTIFIER, CodigoDiagnostico.SIN_READ_IDENTIFICADOR);
+        consumir(TokenType.RPAREN, CodigoDiagnostico.SIN_READ_RPAREN);
+        consumir(TokenType.SEMICOLON, CodigoDiagnostico.SIN_READ_PUNTO_Y_COMA);
+        int nombre = (id == TOKEN_FANTASMA) ? ArbolPlano.NINGUNO : tokens.idNombre(id);
+        return arbol.nodo(ArbolPlano.LECTURA, tokens.inicio(kw), 0, ArbolPlano.NINGUNO, nombre);
     }
 
-    private Sentencia sentenciaEscritura(Token kw) {
-        consumir(TokenType.LPAREN, "Se esperaba '(' después de 'write'.");
-        Expresion e = expresion();
-        consumir(TokenType.RPAREN, "Se esperaba ')' después de la expresion en write(...).");
-        consumir(TokenType.SEMICOLON, "Se esperaba ';' despues de write(...).");
-        return new Sentencia.Escritura(e, kw.linea, kw.columna);
+    private int sentenciaEscritura(int kw) {
+        consumir(TokenType.LPAREN, CodigoDiagnostico.SIN_WRITE_LPAREN);
+        int e = expresion();
+        consumir(TokenType.RPAREN, CodigoDiagnostico.SIN_WRITE_RPAREN);
+        consumir(TokenType.SEMICOLON, CodigoDiagnostico.SIN_WRITE_PUNTO_Y_COMA);
+        return arbol.nodo(ArbolPlano.ESCRITURA, tokens.inicio(kw), 0, e, ArbolPlano.NINGUNO);
     }
 
-    private Sentencia sentenciaAsignacion() {
-        Token idTok = consumir(TokenType.IDENTIFIER, "Se esperaba identificador al inicio de la asignacion.");
+    private int sentenciaAsignacion() {
+        // El 'lookahead' de empezarSentencia() garantiza el identificador
+        int idTok = consumir(TokenType.IDENTIFIER, CodigoDiagnostico.SIN_ASIGNACION_IDENTIFICADOR);
+        int nombre = tokens.idNombre(idTok);
+        int pos = tokens.inicio(idTok);
 
         if (coincidir(TokenType.EQUAL)) {
             // Asignación simple: id = expr;
-            Expresion valor = expresion();
-            consumir(TokenType.SEMICOLON, "Se esperaba ';' al final de la asignacion.");
-            return new Sentencia.Asignacion(idTok.lexema, valor, idTok.linea, idTok.columna);
+            int valor = expresion();
+            consumir(TokenType.SEMICOLON, CodigoDiagnostico.SIN_ASIGNACION_PUNTO_Y_COMA);
+            return arbol.nodo(ArbolPlano.ASIGNACION, pos, 0, valor, nombre);
             
-        } else if (coincidir(TokenType.PLUS_EQ, TokenType.MINUS_EQ, TokenType.STAR_EQ, TokenType.SLASH_EQ)) {
-            // Asignación compuesta: id += expr;
-            Token op = verAnterior();
-            Expresion derecha = expresion();
-            consumir(TokenType.SEMICOLON, "Se esperaba ';' al final de la asignacion compuesta.");
+        }
 
-            // "Desugar" (Convertir): a += 5   ->   a = a + 5
-            
-            // 1. Mapear (+=) a (+)
-            TokenType opBase;
-            switch (op.tipo) {
-                case PLUS_EQ:  opBase = TokenType.PLUS;  break;
-                case MINUS_EQ: opBase = TokenType.MINUS; break;
-                case STAR_EQ:  opBase = TokenType.STAR;  break;
-                case SLASH_EQ: opBase = TokenType.SLASH; break;
-                default: opBase = TokenType.PLUS; // No debería pasar
-            }
+        // Asignación compuesta: id += expr;
+        // 1. Mapear (+=) a (+)
+        TokenType opBase;
+        switch (tokens.tipo(posicion)) {
+            case PLUS_EQ:  opBase = TokenType.PLUS;  break;
+            case MINUS_EQ: opBase = TokenType.MINUS; break;
+            case STAR_EQ:  opBase = TokenType.STAR;  break;
+            case SLASH_EQ: opBase = TokenType.SLASH; break;
+            default: opBase = null; // No es asignación compuesta
+        }
+        if (opBase != null) {
+            int op = avanzar();
+            int derecha = expresion();
+            consumir(TokenType.SEMICOLON, CodigoDiagnostico.SIN_COMPUESTA_PUNTO_Y_COMA);
 
+            // "Desugar" (Convertir): a += 5   ->   a = a + 5
             // 2. Crear la expresión 'a + 5'
-            Expresion izquierdaVar = new Expresion.Variable(idTok.lexema, idTok.linea, idTok.columna);
-            Expresion binaria = new Expresion.Binaria(izquierdaVar, opBase, derecha, op.linea, op.columna);
+            int izquierdaVar = arbol.nodo(ArbolPlano.VARIABLE, pos, 0, ArbolPlano.NINGUNO, nombre);
+            int binaria = arbol.nodo(ArbolPlano.BINARIA, tokens.inicio(op), opBase.ordinal(), izquierdaVar, derecha);
             
             // 3. Crear la asignación 'a = (a + 5)'
-            return new Sentencia.Asignacion(idTok.lexema, binaria, idTok.linea, idTok.columna);
+            return arbol.nodo(ArbolPlano.ASIGNACION, pos, 0, binaria, nombre);
         }
 
-        // Error: Esto no debería pasar si el 'lookahead' de 'sentencia()' funcionó
-        reportarError(verActual(), "Se esperaba '=' o un operador de asignacion compuesta ('+=', '-=', '*=', '/=').");
-        while (!esFinDeArchivo() && !verificar(TokenType.SEMICOLON)) avanzar();
-        if (coincidir(TokenType.SEMICOLON)) { /* consumir ';' si está */ }
-        return null;
+        // Error: Esto no debería pasar si el 'lookahead' de 'empezarSentencia()' funcionó
+        reportarError(verActual(), CodigoDiagnostico.SIN_OPERADOR_ASIGNACION);
+        sincronizar();
+        return NINGUNA;
     }
 
 
     // ======================================================
-    // MÉTODOS DE EXPRESIONES (CON PRECEDENCIA)
+    // MÉTODOS DE EXPRESIONES (ESCALADA DE PRECEDENCIAS)
     // ======================================================
-    
-    // El orden de llamado implementa la precedencia (de menor a mayor)
-    // expresion -> O_logico -> Y_logico -> igualdad -> comparacion -> termino -> factor -> unaria -> primaria
 
-    private Expresion expresion() {
-        return expresionLogicaO();
-    }
-    
-    // or -> and ( '||' and )*
-    private Expresion expresionLogicaO() {
-        Expresion expr = expresionLogicaY();
-        while (coincidir(TokenType.OROR)) {
-            Token op = verAnterior();
-            Expresion derecha = expresionLogicaY();
-            expr = new Expresion.Binaria(expr, op.tipo, derecha, op.linea, op.columna);
-        }
-        return expr;
+    // Precedencia de cada operador binario, indexada por TokenType.ordinal()
+    // (0 = no es operador binario). Todos asocian a izquierda.
+    //   || (1) < && (2) < == != <> (3) < > < >= <= (4) < + - (5) < * / (6)
+    private static final byte[] PRECEDENCIA = new byte[TokenType.values().length];
+    static {
+        precedencia(1, TokenType.OROR);
+        precedencia(2, TokenType.ANDAND);
+        precedencia(3, TokenType.EQEQ, TokenType.NEQ, TokenType.NEQ_ALT);
+        precedencia(4, TokenType.GT, TokenType.LT, TokenType.GTE, TokenType.LTE);
+        precedencia(5, TokenType.PLUS, TokenType.MINUS);
+        precedencia(6, TokenType.STAR, TokenType.SLASH);
     }
 
-    // and -> equality ( '&&' equality )*
-    private Expresion expresionLogicaY() {
-        Expresion expr = igualdad();
-        while (coincidir(TokenType.ANDAND)) {
-            Token op = verAnterior();
-            Expresion derecha = igualdad();
-            expr = new Expresion.Binaria(expr, op.tipo, derecha, op.linea, op.columna);
-        }
-        return expr;
+    private static void precedencia(int nivel, TokenType... operadores) {
+        for (TokenType op : operadores) PRECEDENCIA[op.ordinal()] = (byte) nivel;
     }
 
-    // equality -> comparison ( (== | != | <>) comparison )*
-    private Expresion igualdad() {
-        Expresion expr = comparacion();
-        while (coincidir(TokenType.EQEQ, TokenType.NEQ, TokenType.NEQ_ALT)) {
-            Token op = verAnterior();
-            Expresion derecha = comparacion();
-            expr = new Expresion.Binaria(expr, op.tipo, derecha, op.linea, op.columna);
-        }
-        return expr;
-    }
+    // Pila de operadores pendientes (índices de token: '!', '-' unario, '(' u
+    // operador binario) y, para los binarios, su operando izquierdo. Se reusan
+    // de una expresión a otra.
+    private int[] operadores = new int[16];
+    private int[] izquierdas = new int[16];   // NINGUNO para '!', '-' y '('
 
-    // comparison -> term ( ( > | < | >= | <= ) term )*
-    private Expresion comparacion() {
-        Expresion expr = termino();
-        while (coincidir(TokenType.GT, TokenType.LT, TokenType.GTE, TokenType.LTE)) {
-            Token op = verAnterior();
-            Expresion derecha = termino();
-            expr = new Expresion.Binaria(expr, op.tipo, derecha, op.linea, op.columna);
-        }
-        return expr;
-    }
+    private int tope = 0;
 
-    // term -> factor ( ( + | - ) factor )*
-    private Expresion termino() {
-        Expresion expr = factor();
-        while (coincidir(TokenType.PLUS, TokenType.MINUS)) {
-            Token op = verAnterior();
-            Expresion derecha = factor();
-            expr = new Expresion.Binaria(expr, op.tipo, derecha, op.linea, op.columna);
+    /**
+     * Escalada de precedencias con pila propia: arma el mismo árbol que la
+     * gramática por niveles (or -> and -> igualdad -> comparacion -> termino ->
+     * factor -> unaria -> primaria), pero el anidamiento de paréntesis y
+     * unarios no usa la pila de Java.
+     *   unary   -> ( ! | - ) unary | primary
+     *   primary -> NUMBER | STRING | true | false | IDENT | '(' expression ')'
+     */
+    private int expresion() {
+        int base = tope;
+        while (true) {
+            // Operando: los '!', '-' y '(' quedan pendientes hasta tener lo que sigue
+            TokenType tipo = tokens.tipo(posicion);
+            while (tipo == TokenType.BANG || tipo == TokenType.MINUS || tipo == TokenType.LPAREN) {
+                apilar(avanzar(), ArbolPlano.NINGUNO);
+                tipo = tokens.tipo(posicion);
+            }
+            int valor = primaria(tipo);
+
+            // Operador: se cierran los pendientes que ligan más fuerte que el que sigue
+            while (true) {
+                int nivel = PRECEDENCIA[tokens.tipo(posicion).ordinal()];
+                while (tope > base) {
+                    int op = operadores[tope - 1];
+                    TokenType tipoOp = tokens.tipo(op);
+                    if (tipoOp == TokenType.LPAREN) break;
+                    int izquierda = izquierdas[tope - 1];
+                    if (izquierda == ArbolPlano.NINGUNO) {
+                        valor = arbol.nodo(ArbolPlano.UNARIA, tokens.inicio(op), tipoOp.ordinal(), valor, ArbolPlano.NINGUNO);
+                    } else if (PRECEDENCIA[tipoOp.ordinal()] >= nivel) {
+                        // Mismo nivel: asocia a izquierda
+                        valor = arbol.nodo(ArbolPlano.BINARIA, tokens.inicio(op), tipoOp.ordinal(), izquierda, valor);
+                    } else {
+                        break;
+                    }
+                    tope--;
+                }
+                if (nivel > 0) {
+                    int op = avanzar();
+                    TokenType siguiente = tokens.tipo(posicion);
+                    if (esOperandoSimple(siguiente) && PRECEDENCIA[tokens.tipo(posicion + 1).ordinal()] <= nivel) {
+                        // La derecha es un solo literal o variable (el caso común): no se apila
+                        valor = arbol.nodo(ArbolPlano.BINARIA, tokens.inicio(op), tokens.tipo(op).ordinal(), valor, primaria(siguiente));
+                        continue;
+                    }
+                    apilar(op, valor);
+                    break; // Sigue otro operando
+                }
+                // No hay operador: termina la expresión o el paréntesis abierto
+                if (tope == base) return valor;
+                int lp = operadores[--tope];
+                consumir(TokenType.RPAREN, CodigoDiagnostico.SIN_GRUPO_RPAREN);
+                valor = arbol.nodo(ArbolPlano.AGRUPACION, tokens.inicio(lp), 0, valor, ArbolPlano.NINGUNO);
+            }
         }
-        return expr;
     }
 
-    // factor -> unary ( ( * | / ) unary )*
-    private Expresion factor() {
-        Expresion expr = unaria();
-        while (coincidir(TokenType.STAR, TokenType.SLASH)) {
-            Token op = verAnterior();
-            Expresion derecha = unaria();
-            expr = new Expresion.Binaria(expr, op.tipo, derecha, op.linea, op.columna);
+    /**
+     * Operando simple (literal o variable) del tipo dado, en la posición actual.
+     */
+    private int primaria(TokenType tipo) {
+        switch (tipo) {
+            case INT_LITERAL: {
+                int lit = avanzar();
+                return arbol.nodoEntero(tokens.inicio(lit), tokens.valorEntero(lit));
+            }
+            case DOUBLE_LITERAL: {
+                int lit = avanzar();
+                return arbol.nodoDecimal(tokens.inicio(lit), tokens.valorDecimal(lit));
+            }
+            case STRING_LITERAL:
+            case KW_TRUE:
+            case KW_FALSE: {
+                int lit = avanzar();
+                return arbol.nodo(ArbolPlano.LITERAL, tokens.inicio(lit), tipo.ordinal(), ArbolPlano.NINGUNO, lit);
+            }
+            case IDENTIFIER: {
+                int id = avanzar();
+                return arbol.nodo(ArbolPlano.VARIABLE, tokens.inicio(id), 0, ArbolPlano.NINGUNO, tokens.idNombre(id));
+            }
+            default:
+                break;
         }
-        return expr;
+
+        // Error
+        int t = verActual();
+        reportarError(t, CodigoDiagnostico.SIN_EXPRESION_INVALIDA);
+        // Devolvemos un literal "dummy" (vacío) para que el árbol quede completo
+        return arbol.nodo(ArbolPlano.LITERAL, tokens.inicio(t), TokenType.STRING_LITERAL.ordinal(), ArbolPlano.NINGUNO, ArbolPlano.NINGUNO);
     }
 
-    // unary -> ( ! | - ) unary | primary
-    private Expresion unaria() {
-        if (coincidir(TokenType.BANG, TokenType.MINUS)) {
-            Token op = verAnterior();
-            Expresion derecha = unaria();
-            return new Expresion.Unaria(op.tipo, derecha, op.linea, op.columna);
+    private static boolean esOperandoSimple(TokenType tipo) {
+        switch (tipo) {
+            case INT_LITERAL:
+            case DOUBLE_LITERAL:
+            case STRING_LITERAL:
+            case KW_TRUE:
+            case KW_FALSE:
+            case IDENTIFIER:
+                return true;
+            default:
+                return false;
         }
-        return primaria();
     }
 
-    // primary -> NUMBER | STRING | true | false | IDENT | '(' expression ')'
-    private Expresion primaria() {
-        if (coincidir(TokenType.INT_LITERAL, TokenType.DOUBLE_LITERAL, TokenType.STRING_LITERAL)) {
-            Token lit = verAnterior();
-            return new Expresion.Literal(lit.lexema, lit.tipo, lit.linea, lit.columna);
-        }
-        if (coincidir(TokenType.KW_TRUE, TokenType.KW_FALSE)) {
-            Token lit = verAnterior();
-            return new Expresion.Literal(lit.lexema, lit.tipo, lit.linea, lit.columna);
-        }
-        if (coincidir(TokenType.IDENTIFIER)) {
-            Token id = verAnterior();
-            return new Expresion.Variable(id.lexema, id.linea, id.columna);
-        }
-        if (coincidir(TokenType.LPAREN)) {
-            Token lp = verAnterior();
-            Expresion e = expresion();
-            consumir(TokenType.RPAREN, "Se esperaba ')' para cerrar la expresion.");
-            return new Expresion.Agrupacion(e, lp.linea, lp.columna);
+    private void apilar(int operador, int izquierda) {
+        if (tope == operadores.length) {
+            operadores = Arrays.copyOf(operadores, tope * 2);
+            izquierdas = Arrays.copyOf(izquierdas, tope * 2);
         }
-
-        // Error
-        Token t = verActual();
-        reportarError(t, "Expresión invalida.");
-        // Devolvemos un literal "dummy" para evitar NullPointerExceptions
-        return new Expresion.Literal("", TokenType.STRING_LITERAL, t.linea, t.columna);
+        operadores[tope] = operador;
+        izquierdas[tope] = izquierda;
+        tope++;
     }
 
 
@@ -348,28 +744,54 @@ public class AnalizadorSintactico {
     // ======================================================
 
     /**
-     * Comprueba si el token actual es de alguno de los tipos dados.
+     * Comprueba si el token actual es del tipo dado.
      * Si es así, lo consume (avanza) y devuelve true.
      */
-    private boolean coincidir(TokenType... tipos) {
-        for (TokenType tt : tipos) {
-            if (verificar(tt)) {
-                avanzar();
-                return true;
-            }
-        }
-        return false;
+    private boolean coincidir(TokenType tipo) {
+        if (!verificar(tipo)) return false;
+        avanzar();
+        return true;
     }
 
     /**
-     * Consume un token del tipo esperado.
-     * Si no es de ese tipo, reporta un error.
+     * Consume un token del tipo esperado y devuelve su índice.
+     * Si no es de ese tipo, reporta un error. Un ';' consumido es un punto de
+     * sincronización.
      */
-    private Token consumir(TokenType tipo, String msgError) {
-        if (verificar(tipo)) return avanzar();
-        reportarError(verActual(), msgError);
+    private int consumir(TokenType tipo, CodigoDiagnostico error) {
+        if (verificar(tipo)) {
+            if (tipo == TokenType.SEMICOLON) enPanico = false;
+            return avanzar();
+        }
+        reportarError(verActual(), error);
         // Devolvemos un "token fantasma" para que el parser no falle
-        return new Token(tipo, "", verActual().linea, verActual().columna);
+        return TOKEN_FANTASMA;
+    }
+
+    /**
+     * Sincronización tras un error: descarta tokens hasta el próximo ';' (que
+     * consume y termina el modo pánico), una '}' que cierra un bloque abierto
+     * o el comienzo de una sentencia (que quedan para el que sigue).
+     */
+    private void sincronizar() {
+        while (!esFinDeArchivo()) {
+            TokenType tipo = tokens.tipo(posicion);
+            if (tipo == TokenType.SEMICOLON) {
+                avanzar();
+                enPanico = false;
+                return;
+            }
+            if (INICIA_SENTENCIA[tipo.ordinal()] || esInicioDeAsignacion()
+                    || (tipo == TokenType.RBRACE && bloquesAbiertos > 0)) {
+                return;
+            }
+            avanzar();
+        }
+    }
+
+    private void agregarHijo(int nodo) {
+        if (topeHijos == hijos.length) hijos = Arrays.copyOf(hijos, topeHijos * 2);
+        hijos[topeHijos++] = nodo;
     }
 
     /**
@@ -377,7 +799,7 @@ public class AnalizadorSintactico {
      */
     private boolean verificar(TokenType tipo) {
         if (esFinDeArchivo()) return false;
-        return verActual().tipo == tipo;
+        return tokens.tipo(posicion) == tipo;
     }
 
     /**
@@ -385,40 +807,104 @@ public class AnalizadorSintactico {
      * Esencial para el "lookahead" de las asignaciones (id = ...).
      */
     private boolean verificarSiguiente(TokenType tipo) {
-        if (posicion + 1 >= tokens.size()) return false;
-        return tokens.get(posicion + 1).tipo == tipo;
+        if (posicion + 1 >= disponibles) return false;
+        return tokens.tipo(posicion + 1) == tipo;
     }
 
     /**
      * Consume el token actual y avanza el cursor.
      */
-    private Token avanzar() {
-        if (!esFinDeArchivo()) posicion++;
+    private int avanzar() {
+        if (!esFinDeArchivo()) {
+            posicion++;
+            if (posicion + 1 >= disponibles) esperarTokens();
+        }
         return verAnterior();
     }
 
+    /**
+     * En la Tuberia, espera al léxico hasta poder leer el token actual y el
+     * siguiente (o hasta el EOF); en flujo, se los pide. Si no, no hace nada.
+     */
+    private void esperarTokens() {
+        if (lexico != null) {
+            while (posicion + 1 >= disponibles && (disponibles == 0 || tokens.tipo(disponibles - 1) != TokenType.EOF)) {
+                lexico.analizarLote(tokens, LOTE_EN_FLUJO);
+                disponibles = tokens.tamanio();
+            }
+            return;
+        }
+        if (avisosDelLexico == null) return;
+        while (posicion + 1 >= disponibles && esperarAviso()) {
+            // Llegó otro lote de tokens
+        }
+        if (posicion >= disponibles) {
+            // Si el léxico falló, su excepción queda como causa
+            throw new IllegalStateException("El análisis léxico terminó sin llegar al EOF.", avisosDelLexico.causa());
+        }
+    }
+
+    /**
+     * Recibe el próximo aviso del léxico; false si ya no van a llegar más.
+     */
+    private boolean esperarAviso() {
+        Integer listos = avisosDelLexico.sacar();
+        if (listos == null) return false;
+        disponibles = listos;
+        return true;
+    }
+
     private boolean esFinDeArchivo() {
-        return verActual().tipo == TokenType.EOF;
+        return tokens.tipo(posicion) == TokenType.EOF;
     }
 
     /**
-     * Devuelve el token actual (en el que estamos parados).
+     * Devuelve el índice del token actual (en el que estamos parados).
      */
-    private Token verActual() {
-        return tokens.get(posicion);
+    private int verActual() {
+        return posicion;
     }
 
     /**
-     * Devuelve el token que acabamos de consumir.
+     * Devuelve el índice del token que acabamos de consumir.
      */
-    private Token verAnterior() {
-        return tokens.get(posicion - 1);
+    private int verAnterior() {
+        return posicion - 1;
     }
 
     /**
-     * Añade un error a la lista.
+     * Añade un error en la posición del token 't' (sin formatear el mensaje) y
+     * entra en modo pánico. Mientras dure, los errores son consecuencia del
+     * primero y no se reportan.
      */
-    private void reportarError(Token t, String msg) {
-        errores.add("Error sintactico [linea " + t.linea + ", col " + t.columna + "]: " + msg);
+    private void reportarError(int t, CodigoDiagnostico codigo, Object... argumentos) {
+        erroresVistos++;
+        if (enPanico) return;
+        enPanico = true;
+        contarError(diagnosticos.error(codigo, tokens.inicio(t), argumentos));
+    }
+
+    /**
+     * Cuenta un error reportado ('guardado' es lo que devolvió el colector) y
+     * abandona el análisis si se llegó al máximo.
+     */
+    private void contarError(boolean guardado) {
+        if (guardado) errores++;
+        if (abandonado || (errores < maximoDeErrores && !diagnosticos.limiteAlcanzado())) return;
+        abandonado = true;
+        diagnosticos.advertencia(CodigoDiagnostico.SIN_ANALISIS_ABANDONADO, tokens.inicio(posicion), errores);
+        // Se salta al EOF: las sentencias abiertas terminan solas (sus errores
+        // quedan suprimidos porque el modo pánico ya no se levanta)
+        enPanico = true;
+        while (avisosDelLexico != null && esperarAviso()) {
+            // En la Tuberia hay que esperar a que el léxico llegue al EOF
+        }
+        if (lexico != null && tokens.tipo(disponibles - 1) != TokenType.EOF) {
+            // En flujo no se sigue leyendo: un EOF donde quedó el léxico termina todo
+            int ultimo = disponibles - 1;
+            tokens.agregar(TokenType.EOF, tokens.inicio(ultimo) + tokens.longitud(ultimo), 0, 0);
+            disponibles = tokens.tamanio();
+        }
+        posicion = disponibles - 1;
     }
 }
@@ -0,0 +1,573 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AST compacto, sin un objeto por nodo. Cada nodo ocupa TAMANIO_NODO enteros
+ * seguidos (clase, posición y dos campos) en páginas int[] de tamaño fijo, que
+ * se agregan a medida que hacen falta: crecer no copia nada. Las listas
+ * (sentencias de un bloque o del programa, nombres de una declaración, ramas
+ * de un if) van en otro int[]. Los nodos se nombran por su índice, como los
+ * tokens en TokenBuffer.
+ *
+ * Los nombres son ids de la TablaDeIdentificadores y los literales, índices de
+ * token: el texto se arma recién cuando alguien lo pide (nombre(), lexema()).
+ * Los números no tienen texto: ENTERO y DECIMAL guardan el valor que decodificó
+ * el léxico, partido en los dos campos.
+ * El tipo declarado, el operador, el tipo de literal o el ámbito de un bloque
+ * van junto con la clase, en los bits de arriba del primer entero.
+ *
+ * El semántico resuelve cada ASIGNACION, LECTURA y VARIABLE una sola vez al
+ * símbolo que nombra (en la cadena de ámbitos de los bloques que la
+ * contienen) y deja su índice de TablaSimbolos en el nodo (simbolo()): las
+ * pasadas siguientes llegan a la variable por ese entero, sin el nombre.
+ * También anota el TipoInterno de cada expresión (tipoDeExpresion()).
+ * Después, el Optimizador puede reescribir nodos en su lugar (reemplazarPor...).
+ *
+ * Qué guarda cada clase de nodo (primero, segundo):
+ *   DECLARACION  inicio de la lista de pares (id, posición) de los nombres; cantidad de nombres
+ *   ASIGNACION   valor; id del nombre
+ *   LECTURA      -; id del nombre (NINGUNO si faltaba)
+ *   ESCRITURA    expresión; -
+ *   BLOQUE       inicio de la lista de sentencias; cantidad de sentencias (el ámbito que abre va con la clase)
+ *   CONDICIONAL  condición; inicio de la lista (rama 'then', rama 'else'), que pueden ser NINGUNO
+ *   MIENTRAS     condición; cuerpo (puede ser NINGUNO)
+ *   INTERRUMPIR  -; -
+ *   LITERAL      -; índice del token (NINGUNO si es el literal vacío de un error o un booleano del Optimizador)
+ *   ENTERO       32 bits de arriba del long; 32 de abajo
+ *   DECIMAL      32 bits de arriba del double (doubleToRawLongBits); 32 de abajo
+ *   VARIABLE     -; id del nombre
+ *   AGRUPACION   expresión interna; -
+ *   UNARIA       operando; -
+ *   BINARIA      izquierda; derecha
+ */
+public final class ArbolPlano {
+
+    // Clases de nodo: sentencias
+    public static final int DECLARACION = 0;
+    public static final int ASIGNACION = 1;
+    public static final int LECTURA = 2;
+    public static final int ESCRITURA = 3;
+    public static final int BLOQUE = 4;
+    public static final int CONDICIONAL = 5;
+    public static final int MIENTRAS = 6;
+    public static final int INTERRUMPIR = 7;
+    // Clases de nodo: expresiones
+    public static final int LITERAL = 8;
+    public static final int VARIABLE = 9;
+    public static final int AGRUPACION = 10;
+    public static final int UNARIA = 11;
+    public static final int BINARIA = 12;
+    public static final int ENTERO = 13;    // Literal INT_LITERAL
+    public static final int DECIMAL = 14;   // Literal DOUBLE_LITERAL
+
+    /** Hijo, nombre o token que no está. */
+    public static final int NINGUNO = -1;
+
+    private static final TokenType[] TIPOS = TokenType.values();
+    private static final TipoSimbolo[] TIPOS_SIMBOLO = TipoSimbolo.values();
+
+    // Campos de un nodo dentro de su página. CLASE lleva la clase en los 8 bits
+    // de abajo y el tipo declarado, el operador o el tipo de literal arriba.
+    private static final int CLASE = 0;
+    private static final int POSICION = 1;
+    private static final int PRIMERO = 2;
+    private static final int SEGUNDO = 3;
+    private static final int TAMANIO_NODO = 4;
+
+    private static final int BITS_PAGINA = 12; // 4096 nodos (64 KB) por página
+    private static final int MASCARA_PAGINA = (1 << BITS_PAGINA) - 1;
+
+    private final TokenBuffer tokens;
+    // Volátiles porque en la Tuberia el semántico lee mientras el parser agrega
+    // (ver TokenBuffer); cada nodo se escribe una sola vez, antes de entregarlo.
+    private volatile int[][] paginas = new int[16][];
+    private int[] paginaActual = new int[0];  // La última, donde se agregan nodos
+    private int libre = 0;                    // Primer entero libre de paginaActual
+    private int cantidad = 0;
+    private volatile int[] listas;
+    private int largoListas = 0;
+    private int inicioSentencias = 0;   // Sentencias del programa, en 'listas'
+    private int cantidadSentencias = 0;
+
+    // Índice en TablaSimbolos de lo que nombra cada nodo, +1 (0 = sin resolver).
+    // Lo llena y lo lee solo el semántico (en la Tuberia, desde su hilo).
+    private int[] simbolos = new int[0];
+    // TipoInterno de cada expresión (ordinal + 1, 0 = sin tipo); también del semántico
+    private byte[] tiposDeExpresion = new byte[0];
+    private static final TipoInterno[] TIPOS_INTERNOS = TipoInterno.values();
+
+    ArbolPlano(TokenBuffer tokens) {
+        this(tokens, Math.max(16, tokens.tamanio() / 16));
+    }
+
+    /**
+     * Árbol con lugar para 'capacidadListas' enteros de listas (crece si hace falta).
+     */
+    ArbolPlano(TokenBuffer tokens, int capacidadListas) {
+        this.tokens = tokens;
+        this.listas = new int[capacidadListas];
+    }
+
+    // ======================================================
+    // CONSTRUCCIÓN (la usa el AnalizadorSintactico)
+    // ======================================================
+
+    /**
+     * Agrega un nodo; 'extra' es el TipoSimbolo o TokenType (ordinal) que
+     * acompaña a la clase, o 0.
+     */
+    int nodo(int clase, int posicion, int extra, int primero, int segundo) {
+        // Corto a propósito, para que el JIT lo incluya en los métodos del parser
+        int base = libre;
+        if (base == paginaActual.length) base = nuevaPagina();
+        int[] nodos = paginaActual;
+        nodos[base + CLASE] = clase | (extra << 8);
+        nodos[base + POSICION] = posicion;
+        nodos[base + PRIMERO] = primero;
+        nodos[base + SEGUNDO] = segundo;
+        libre = base + TAMANIO_NODO;
+        return cantidad++;
+    }
+
+    private int nuevaPagina() {
+        int pagina = cantidad >>> BITS_PAGINA;
+        if (pagina == paginas.length) paginas = Arrays.copyOf(paginas, pagina * 2);
+        // Después de vaciar() se reusan las páginas que ya había
+        if (paginas[pagina] == null) paginas[pagina] = new int[TAMANIO_NODO << BITS_PAGINA];
+        paginaActual = paginas[pagina];
+        return 0;
+    }
+
+    /**
+     * Descarta todos los nodos y listas, pero se queda con los arreglos para
+     * volver a llenarlos: lo usa el análisis en flujo, que arma una sentencia
+     * por vez en el mismo árbol. Los índices anteriores dejan de valer.
+     */
+    void vaciar() {
+        // Los nodos que vengan reusan los índices: sin resoluciones ni tipos viejos
+        Arrays.fill(simbolos, 0, Math.min(cantidad, simbolos.length), 0);
+        Arrays.fill(tiposDeExpresion, 0, Math.min(cantidad, tiposDeExpresion.length), (byte) 0);
+        cantidad = 0;
+        libre = 0;
+        if (paginas[0] != null) paginaActual = paginas[0];
+        largoListas = 0;
+        inicioSentencias = 0;
+        cantidadSentencias = 0;
+    }
+
+    /**
+     * Nodo BLOQUE o DECLARACION cuya lista son los 'n' enteros de 'elementos' desde
+     * 'desde' (en una DECLARACION, n / 2 pares id, posición).
+     */
+    int nodoConLista(int clase, int posicion, int extra, int[] elementos, int desde, int n) {
+        int largo = (clase == DECLARACION) ? n / 2 : n;
+        return nodo(clase, posicion, extra, copiarLista(elementos, desde, n), largo);
+    }
+
+    /**
+     * Literal ENTERO (INT_LITERAL) o DECIMAL (DOUBLE_LITERAL) con su valor.
+     */
+    int nodoEntero(int posicion, long valor) {
+        return nodo(ENTERO, posicion, TokenType.INT_LITERAL.ordinal(), (int) (valor >>> 32), (int) valor);
+    }
+
+    int nodoDecimal(int posicion, double valor) {
+        long bits = Double.doubleToRawLongBits(valor);
+        return nodo(DECIMAL, posicion, TokenType.DOUBLE_LITERAL.ordinal(), (int) (bits >>> 32), (int) bits);
+    }
+
+    int nodoCondicional(int posicion, int condicion, int entonces, int sino) {
+        reservarListas(2);
+        int inicio = largoListas;
+        listas[largoListas++] = entonces;
+        listas[largoListas++] = sino;
+        return nodo(CONDICIONAL, posicion, 0, condicion, inicio);
+    }
+
+    /**
+     * Sentencias del programa; cierra el árbol y le recorta a 'listas' la capacidad que sobra.
+     */
+    void sentencias(int[] elementos, int desde, int n) {
+        inicioSentencias = copiarLista(elementos, desde, n);
+        cantidadSentencias = n;
+        listas = Arrays.copyOf(listas, largoListas);
+    }
+
+    private int copiarLista(int[] elementos, int desde, int n) {
+        reservarListas(n);
+        int inicio = largoListas;
+        System.arraycopy(elementos, desde, listas, inicio, n);
+        largoListas += n;
+        return inicio;
+    }
+
+    private void reservarListas(int n) {
+        if (largoListas + n > listas.length) {
+            listas = Arrays.copyOf(listas, Math.max(listas.length * 2, largoListas + n));
+        }
+    }
+
+    // ======================================================
+    // REESCRITURA (la usa el Optimizador)
+    // ======================================================
+
+    // Un nodo se reescribe en su lugar: el padre lo sigue nombrando por el
+    // mismo índice y la posición no cambia.
+
+    void reemplazarPorEntero(int n, long valor) {
+        escribir(n, ENTERO | (TokenType.INT_LITERAL.ordinal() << 8), (int) (valor >>> 32), (int) valor);
+    }
+
+    void reemplazarPorDecimal(int n, double valor) {
+        long bits = Double.doubleToRawLongBits(valor);
+        escribir(n, DECIMAL | (TokenType.DOUBLE_LITERAL.ordinal() << 8), (int) (bits >>> 32), (int) bits);
+    }
+
+    /** LITERAL true o false, sin token (ver lexema()). */
+    void reemplazarPorBooleano(int n, boolean valor) {
+        TokenType tipo = valor ? TokenType.KW_TRUE : TokenType.KW_FALSE;
+        escribir(n, LITERAL | (tipo.ordinal() << 8), 0, NINGUNO);
+    }
+
+    /** Sentencia que no hace nada: un BLOQUE vacío. */
+    void reemplazarPorVacia(int n) {
+        escribir(n, BLOQUE | (TablaSimbolos.GLOBAL << 8), 0, 0);
+    }
+
+    /**
+     * 'n' pasa a ser igual a 'origen' (con sus hijos, su símbolo y su tipo),
+     * salvo por la posición.
+     */
+    void reemplazarPorCopia(int n, int origen) {
+        escribir(n, campo(origen, CLASE), campo(origen, PRIMERO), campo(origen, SEGUNDO));
+        int simbolo = simbolo(origen);
+        if (simbolo != NINGUNO || simbolo(n) != NINGUNO) resolver(n, simbolo);
+        TipoInterno tipo = tipoDeExpresion(origen);
+        if (tipo != null) anotarTipo(n, tipo);
+    }
+
+    private void escribir(int n, int clase, int primero, int segundo) {
+        int[] nodos = paginas[n >>> BITS_PAGINA];
+        int base = (n & MASCARA_PAGINA) * TAMANIO_NODO;
+        nodos[base + CLASE] = clase;
+        nodos[base + PRIMERO] = primero;
+        nodos[base + SEGUNDO] = segundo;
+    }
+
+    // ======================================================
+    // CONSULTAS (el cursor es el índice del nodo)
+    // ======================================================
+
+    public int cantidadDeNodos() { return cantidad; }
+
+    /**
+     * Memoria que ocupan los arreglos del árbol, en bytes (con las páginas que
+     * vaciar() conserva para reusar).
+     */
+    public long bytes() {
+        long enPaginas = 0;
+        for (int[] pagina : paginas) {
+            if (pagina != null) enPaginas += pagina.length;
+        }
+        return 4L * (enPaginas + listas.length);
+    }
+
+    public int cantidadDeSentencias() { return cantidadSentencias; }
+
+    private int campo(int n, int campo) {
+        return paginas[n >>> BITS_PAGINA][(n & MASCARA_PAGINA) * TAMANIO_NODO + campo];
+    }
+
+    /** i-ésima sentencia del programa. */
+    public int sentencia(int i) { return listas[inicioSentencias + i]; }
+
+    public int clase(int n) { return campo(n, CLASE) & 0xFF; }
+
+    public int posicion(int n) { return campo(n, POSICION); }
+
+    private int extra(int n) { return campo(n, CLASE) >>> 8; }
+
+    // --- Nombres: ASIGNACION, LECTURA y VARIABLE ---
+
+    public int idNombre(int n) { return campo(n, SEGUNDO); }
+
+    /** Nombre internado ("" si faltaba). */
+    public String nombre(int n) {
+        int id = idNombre(n);
+        return id == NINGUNO ? "" : tokens.nombres().nombre(id);
+    }
+
+    // --- Hijos ---
+
+    /** Valor de ASIGNACION, expresión de ESCRITURA, interna de AGRUPACION, operando de UNARIA e izquierda de BINARIA. */
+    public int hijo(int n) { return campo(n, PRIMERO); }
+
+    /** Derecha de BINARIA. */
+    public int derecha(int n) { return campo(n, SEGUNDO); }
+
+    /** Condición de CONDICIONAL y MIENTRAS. */
+    public int condicion(int n) { return campo(n, PRIMERO); }
+
+    /** Rama 'then' de CONDICIONAL y cuerpo de MIENTRAS (NINGUNO si falta). */
+    public int cuerpo(int n) {
+        int segundo = campo(n, SEGUNDO);
+        return clase(n) == CONDICIONAL ? listas[segundo] : segundo;
+    }
+
+    /** Rama 'else' de CONDICIONAL (NINGUNO si no tiene). */
+    public int sino(int n) { return listas[campo(n, SEGUNDO) + 1]; }
+
+    // --- Listas: BLOQUE y DECLARACION ---
+
+    /** Sentencias de un BLOQUE o nombres de una DECLARACION. */
+    public int largo(int n) { return campo(n, SEGUNDO); }
+
+    /** i-ésima sentencia de un BLOQUE. */
+    public int sentencia(int n, int i) { return listas[campo(n, PRIMERO) + i]; }
+
+    public TipoSimbolo tipoDeclarado(int n) { return TIPOS_SIMBOLO[extra(n)]; }
+
+    /** Ámbito que abre un BLOQUE (ver TablaSimbolos); hasta 2^24 bloques por programa. */
+    public int ambito(int n) { return extra(n); }
+
+    // --- Resolución: ASIGNACION, LECTURA y VARIABLE ---
+
+    /**
+     * Índice en TablaSimbolos del símbolo que nombra el nodo, o NINGUNO si no
+     * se resolvió (no declarado, o el semántico todavía no pasó).
+     */
+    public int simbolo(int n) {
+        return n < simbolos.length ? simbolos[n] - 1 : NINGUNO;
+    }
+
+    void resolver(int n, int simbolo) {
+        if (n >= simbolos.length) simbolos = Arrays.copyOf(simbolos, Math.max(n + 1, simbolos.length * 2));
+        simbolos[n] = simbolo + 1;
+    }
+
+    // --- Tipos: expresiones (LITERAL a DECIMAL) ---
+
+    /**
+     * Tipo que el semántico le dio a la expresión 'n' (ERROR si no se pudo
+     * tipar), o null si todavía no la revisó. Un byte por nodo: leerlo no
+     * recorre nada.
+     */
+    public TipoInterno tipoDeExpresion(int n) {
+        int t = n < tiposDeExpresion.length ? tiposDeExpresion[n] : 0;
+        return t == 0 ? null : TIPOS_INTERNOS[t - 1];
+    }
+
+    void anotarTipo(int n, TipoInterno tipo) {
+        if (n >= tiposDeExpresion.length) {
+            tiposDeExpresion = Arrays.copyOf(tiposDeExpresion, Math.max(n + 1, tiposDeExpresion.length * 2));
+        }
+        tiposDeExpresion[n] = (byte) (tipo.ordinal() + 1);
+    }
+
+    /** Id del i-ésimo nombre de una DECLARACION. */
+    public int idDeclarado(int n, int i) { return listas[campo(n, PRIMERO) + 2 * i]; }
+
+    public int posicionDeclarada(int n, int i) { return listas[campo(n, PRIMERO) + 2 * i + 1]; }
+
+    // --- Operadores y literales ---
+
+    /** Operador de UNARIA o BINARIA. */
+    public TokenType operador(int n) { return TIPOS[extra(n)]; }
+
+    /** STRING_LITERAL, KW_TRUE o KW_FALSE de un LITERAL; INT_LITERAL o DOUBLE_LITERAL de ENTERO y DECIMAL. */
+    public TokenType tipoLiteral(int n) { return TIPOS[extra(n)]; }
+
+    /** Valor de un ENTERO. */
+    public long valorEntero(int n) {
+        return ((long) campo(n, PRIMERO) << 32) | (campo(n, SEGUNDO) & 0xFFFFFFFFL);
+    }
+
+    /** Valor de un DECIMAL. */
+    public double valorDecimal(int n) {
+        return Double.longBitsToDouble(valorEntero(n));
+    }
+
+    /** Índice del token de un LITERAL (NINGUNO para el literal vacío de un error o uno que armó el Optimizador). */
+    public int tokenDeLiteral(int n) { return campo(n, SEGUNDO); }
+
+    public String lexema(int n) {
+        int token = tokenDeLiteral(n);
+        if (token != NINGUNO) return tokens.lexema(token);
+        // Los booleanos que arma el Optimizador no tienen token
+        TokenType tipo = tipoLiteral(n);
+        return tipo == TokenType.KW_TRUE ? "true" : tipo == TokenType.KW_FALSE ? "false" : "";
+    }
+
+    // ======================================================
+    // RECORRIDO
+    // ======================================================
+
+    /**
+     * Recibe los nodos de recorrer() en orden de fuente (la condición antes que
+     * las ramas, la izquierda antes que la derecha).
+     */
+    public interface Visitante {
+        /** Al llegar al nodo; si devuelve false no se visitan sus hijos (ni se llama salir). */
+        boolean entrar(int nodo);
+
+        /** Después de todos sus hijos. */
+        void salir(int nodo);
+    }
+
+    /**
+     * Recorre todas las sentencias del programa con una pila propia, así que
+     * la profundidad del árbol no importa.
+     */
+    public void recorrer(Visitante v) {
+        // Cada elemento es un nodo por entrar, o ~nodo para salir de él
+        int[] pila = new int[64];
+        int tope = 0;
+        for (int i = cantidadSentencias - 1; i >= 0; i--) {
+            if (tope == pila.length) pila = Arrays.copyOf(pila, tope * 2);
+            pila[tope++] = sentencia(i);
+        }
+        while (tope > 0) {
+            int n = pila[--tope];
+            if (n < 0) {
+                v.salir(~n);
+                continue;
+            }
+            if (!v.entrar(n)) continue;
+
+            // ~n y los hijos, al revés para que salgan en orden
+            int[] nodos = paginas[n >>> BITS_PAGINA];
+            int base = (n & MASCARA_PAGINA) * TAMANIO_NODO;
+            int clase = nodos[base + CLASE] & 0xFF;
+            int maximo = tope + 4 + ((clase == BLOQUE) ? nodos[base + SEGUNDO] : 0);
+            if (maximo > pila.length) pila = Arrays.copyOf(pila, Math.max(pila.length * 2, maximo));
+            pila[tope++] = ~n;
+            switch (clase) {
+                case BLOQUE:
+                    for (int i = nodos[base + SEGUNDO] - 1; i >= 0; i--) pila[tope++] = sentencia(n, i);
+                    break;
+                case CONDICIONAL: {
+                    int ramas = nodos[base + SEGUNDO];
+                    if (listas[ramas + 1] != NINGUNO) pila[tope++] = listas[ramas + 1];
+                    if (listas[ramas] != NINGUNO) pila[tope++] = listas[ramas];
+                    pila[tope++] = nodos[base + PRIMERO];
+                    break;
+                }
+                case MIENTRAS:
+                case BINARIA:
+                    // El cuerpo de un while puede faltar
+                    if (nodos[base + SEGUNDO] != NINGUNO) pila[tope++] = nodos[base + SEGUNDO];
+                    pila[tope++] = nodos[base + PRIMERO];
+                    break;
+                case ASIGNACION:
+                case ESCRITURA:
+                case AGRUPACION:
+                case UNARIA:
+                    pila[tope++] = nodos[base + PRIMERO];
+                    break;
+                default:
+                    break; // Sin hijos
+            }
+        }
+    }
+
+    // ======================================================
+    // CONVERSIÓN AL ÁRBOL DE OBJETOS
+    // ======================================================
+
+    /**
+     * Las sentencias del programa como árbol de objetos (Sentencia/Expresion),
+     * por ejemplo para imprimirlas.
+     */
+    public List<Sentencia> aSentencias() {
+        // Los nodos ya convertidos esperan en 'hechos' a que salga su padre
+        List<Object> hechos = new ArrayList<>();
+        recorrer(new Visitante() {
+            @Override
+            public boolean entrar(int nodo) { return true; }
+
+            @Override
+            public void salir(int n) {
+                int pos = posicion(n);
+                Object hecho;
+                switch (clase(n)) {
+                    case DECLARACION: {
+                        List<String> nombres = new ArrayList<>(largo(n));
+                        List<Integer> posiciones = new ArrayList<>(largo(n));
+                        for (int i = 0; i < largo(n); i++) {
+                            nombres.add(tokens.nombres().nombre(idDeclarado(n, i)));
+                            posiciones.add(posicionDeclarada(n, i));
+                        }
+                        hecho = new Sentencia.Declaracion(tipoDeclarado(n), nombres, posiciones, pos);
+                        break;
+                    }
+                    case ASIGNACION:
+                        hecho = new Sentencia.Asignacion(nombre(n), (Expresion) quitar(hechos), pos);
+                        break;
+                    case LECTURA:
+                        hecho = new Sentencia.Lectura(nombre(n), pos);
+                        break;
+                    case ESCRITURA:
+                        hecho = new Sentencia.Escritura((Expresion) quitar(hechos), pos);
+                        break;
+                    case BLOQUE: {
+                        List<Object> ultimos = hechos.subList(hechos.size() - largo(n), hechos.size());
+                        List<Sentencia> internas = new ArrayList<>(ultimos.size());
+                        for (Object o : ultimos) internas.add((Sentencia) o);
+                        ultimos.clear();
+                        hecho = new Sentencia.Bloque(internas, pos);
+                        break;
+                    }
+                    case CONDICIONAL: {
+                        Sentencia sino = sino(n) == NINGUNO ? null : (Sentencia) quitar(hechos);
+                        Sentencia entonces = cuerpo(n) == NINGUNO ? null : (Sentencia) quitar(hechos);
+                        hecho = new Sentencia.Condicional((Expresion) quitar(hechos), entonces, sino, pos);
+                        break;
+                    }
+                    case MIENTRAS: {
+                        Sentencia cuerpo = cuerpo(n) == NINGUNO ? null : (Sentencia) quitar(hechos);
+                        hecho = new Sentencia.Mientras((Expresion) quitar(hechos), cuerpo, pos);
+                        break;
+                    }
+                    case INTERRUMPIR:
+                        hecho = new Sentencia.Interrumpir(pos);
+                        break;
+                    case LITERAL:
+                        hecho = new Expresion.Literal(lexema(n), tipoLiteral(n), pos);
+                        break;
+                    case ENTERO:
+                        hecho = new Expresion.Entero(valorEntero(n), pos);
+                        break;
+                    case DECIMAL:
+                        hecho = new Expresion.Decimal(valorDecimal(n), pos);
+                        break;
+                    case VARIABLE:
+                        hecho = new Expresion.Variable(nombre(n), pos);
+                        break;
+                    case AGRUPACION:
+                        hecho = new Expresion.Agrupacion((Expresion) quitar(hechos), pos);
+                        break;
+                    case UNARIA:
+                        hecho = new Expresion.Unaria(operador(n), (Expresion) quitar(hechos), pos);
+                        break;
+                    default: { // BINARIA
+                        Expresion derecha = (Expresion) quitar(hechos);
+                        hecho = new Expresion.Binaria((Expresion) quitar(hechos), operador(n), derecha, pos);
+                        break;
+                    }
+                }
+                hechos.add(hecho);
+            }
+        });
+
+        List<Sentencia> resultado = new ArrayList<>(hechos.size());
+        for (Object o : hechos) resultado.add((Sentencia) o);
+        return resultado;
+    }
+
+    private static Object quitar(List<Object> pila) {
+        return pila.remove(pila.size() - 1);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Asignación definida: en cada punto del programa, las variables que tienen
+ * un valor asignado por todos los caminos que llegan hasta ahí. Es un
+ * FlujoDeDatos hacia adelante con intersección, un bit por símbolo: una
+ * asignación o un read() la generan; su declaración la mata (un bloque que
+ * vuelve a empezar dentro de un while declara de nuevo sus variables).
+ *
+ * Sirve para encontrar lecturas de variables que pueden no tener valor. Los
+ * bloques que no se alcanzan desde la entrada no reportan nada.
+ */
+public final class AsignacionDefinida {
+
+    private final GrafoDeFlujo grafo;
+    private final ArbolPlano arbol;
+    private final FlujoDeDatos flujo;
+
+    public AsignacionDefinida(GrafoDeFlujo grafo) {
+        this.grafo = grafo;
+        this.arbol = grafo.arbol();
+        this.flujo = new FlujoDeDatos(grafo, grafo.tablaSimbolos().cantidad(), true, false);
+        for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+            for (int i = 0; i < grafo.cantidadDeInstrucciones(b); i++) {
+                int s = grafo.instruccion(b, i);
+                int clase = arbol.clase(s);
+                if (clase == ArbolPlano.DECLARACION) {
+                    for (int k = 0; k < arbol.largo(s); k++) {
+                        int simbolo = grafo.simboloDeclarado(b, i, k);
+                        if (simbolo != ArbolPlano.NINGUNO) flujo.matar(b, simbolo);
+                    }
+                } else if ((clase == ArbolPlano.ASIGNACION || clase == ArbolPlano.LECTURA)
+                        && arbol.simbolo(s) != ArbolPlano.NINGUNO) {
+                    flujo.generar(b, arbol.simbolo(s));
+                }
+            }
+        }
+        flujo.resolver();
+    }
+
+    /** true si el símbolo tiene valor por todos los caminos que llegan al bloque. */
+    public boolean asignadaAlEntrar(int bloque, int simbolo) {
+        return flujo.alEntrar(bloque, simbolo);
+    }
+
+    public FlujoDeDatos flujo() { return flujo; }
+
+    /**
+     * Los nodos VARIABLE que se pueden leer sin que la variable tenga valor,
+     * en orden de bloque. Recorre cada bloque hacia adelante desde lo que
+     * tiene valor a su entrada.
+     */
+    public int[] usosSinAsignar() {
+        int[][] usos = { new int[16] };
+        int[] cantidad = { 0 };
+        long[] asignadas = new long[flujo.palabras()];
+        for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+            flujo.copiarEntrada(b, asignadas);
+            for (int i = 0; i < grafo.cantidadDeInstrucciones(b); i++) {
+                int s = grafo.instruccion(b, i);
+                int clase = arbol.clase(s);
+                if (clase == ArbolPlano.DECLARACION) {
+                    for (int k = 0; k < arbol.largo(s); k++) {
+                        int simbolo = grafo.simboloDeclarado(b, i, k);
+                        if (simbolo != ArbolPlano.NINGUNO) asignadas[simbolo >>> 6] &= ~(1L << simbolo);
+                    }
+                    continue;
+                }
+                // El valor se lee antes de asignar: x = x + 1
+                if (clase != ArbolPlano.LECTURA) {
+                    grafo.variablesDe(arbol.hijo(s), v -> revisar(asignadas, v, usos, cantidad));
+                }
+                int simbolo = arbol.simbolo(s);
+                if (clase != ArbolPlano.ESCRITURA && simbolo != ArbolPlano.NINGUNO) {
+                    asignadas[simbolo >>> 6] |= 1L << simbolo;
+                }
+            }
+            if (grafo.condicion(b) != ArbolPlano.NINGUNO) {
+                grafo.variablesDe(grafo.condicion(b), v -> revisar(asignadas, v, usos, cantidad));
+            }
+        }
+        return Arrays.copyOf(usos[0], cantidad[0]);
+    }
+
+    private void revisar(long[] asignadas, int variable, int[][] usos, int[] cantidad) {
+        int simbolo = arbol.simbolo(variable);
+        if (simbolo == ArbolPlano.NINGUNO || (asignadas[simbolo >>> 6] & (1L << simbolo)) != 0) return;
+        if (cantidad[0] == usos[0].length) usos[0] = Arrays.copyOf(usos[0], cantidad[0] * 2);
+        usos[0][cantidad[0]++] = variable;
+    }
+
+    /**
+     * Reporta una advertencia por cada lectura de una variable que puede no tener valor.
+     */
+    public void reportar(Diagnosticos diagnosticos) {
+        for (int v : usosSinAsignar()) {
+            diagnosticos.advertencia(CodigoDiagnostico.FLU_SIN_ASIGNAR, arbol.posicion(v), arbol.nombre(v));
+        }
+    }
+}
@@ -0,0 +1,686 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mediciones de rendimiento simples (sin dependencias externas).
+ * Uso: java -cp compiladorGrupo1.jar org.example.Benchmark <prueba> [archivo]
+ * Si no se pasa archivo se genera un programa sintético.
+ */
+public class Benchmark {
+
+    private static final int REPETICIONES = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: Benchmark lexico|paralelo|incremental|expresiones|arbol|basura|flujo|tuberia|verde|constantes|grafo [archivo] | profundidad [niveles] | simbolos [cantidad]");
+            return;
+        }
+        if (args[0].equals("profundidad")) {
+            profundidad(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (args[0].equals("simbolos")) {
+            simbolos(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        String codigo = (args.length > 1)
+                ? Files.readString(Path.of(args[1]))
+                : args[0].equals("expresiones") ? programaDeExpresiones(8_000_000)
+                : args[0].equals("basura") ? basura(8_000_000)
+                : args[0].equals("constantes") ? programaDeConstantes(8_000_000)
+                : args[0].equals("grafo") ? programaDeFlujo(2_000_000, 256) : programaSintetico(8_000_000);
+
+        switch (args[0]) {
+            case "lexico":
+                lexico(codigo);
+                break;
+            case "paralelo":
+                paralelo(codigo);
+                break;
+            case "incremental":
+                incremental(codigo);
+                break;
+            case "expresiones":
+                expresiones(codigo);
+                break;
+            case "arbol":
+                arbol(codigo);
+                break;
+            case "basura":
+                basura(codigo);
+                break;
+            case "flujo":
+                flujo(codigo);
+                break;
+            case "tuberia":
+                tuberia(codigo);
+                break;
+            case "verde":
+                verde(codigo);
+                break;
+            case "constantes":
+                constantes(codigo);
+                break;
+            case "grafo":
+                grafo(codigo);
+                break;
+            default:
+                System.err.println("Prueba desconocida: " + args[0]);
+        }
+    }
+
+    // ======================================================
+    // LÉXICO: escáner por tablas vs. 'switch' original
+    // ======================================================
+
+    private static void lexico(String codigo) {
+        // Que ambos escáneres den los mismos tokens lo comprueba AnalizadorLexicoTest
+        TokenBuffer conTablas = new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+        System.out.println("Caracteres: " + codigo.length() + ", tokens: " + conTablas.tamanio());
+        // Con '--add-modules jdk.incubator.vector' los saltos de espacios, comentarios
+        // y cadenas son vectoriales; con -Dlexico.escalar=true se fuerza la versión escalar
+        System.out.println("Saltos: " + EscanerDeTexto.INSTANCIA.descripcion());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long tTablas = medirLexico(codigo, true);
+            long tOriginal = medirLexico(codigo, false);
+            System.out.printf("ronda %2d | tablas: %8.1f Mcar/s | switch: %8.1f Mcar/s%n",
+                    i + 1, megaPorSegundo(codigo.length(), tTablas), megaPorSegundo(codigo.length(), tOriginal));
+        }
+    }
+
+    private static long medirLexico(String codigo, boolean usarTablas) {
+        long inicio = System.nanoTime();
+        new AnalizadorLexico(new FuenteEnMemoria(codigo), usarTablas).analizarBuffer();
+        return System.nanoTime() - inicio;
+    }
+
+    // ======================================================
+    // LÉXICO EN PARALELO: tramos en el ForkJoinPool vs. secuencial
+    // ======================================================
+
+    private static void paralelo(String codigo) {
+        // Que el resultado sea el del análisis secuencial lo comprueba LexicoParaleloTest
+        TokenBuffer a = new AnalizadorLexico(codigo).analizarBuffer();
+        System.out.println("Caracteres: " + codigo.length() + ", tokens: " + a.tamanio()
+                + ", hilos: " + ForkJoinPool.getCommonPoolParallelism());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long t0 = System.nanoTime();
+            new AnalizadorLexico(codigo).analizarBuffer();
+            long t1 = System.nanoTime();
+            new AnalizadorLexico(codigo).analizarBufferEnParalelo();
+            long t2 = System.nanoTime();
+            System.out.printf("ronda %2d | secuencial: %8.1f Mcar/s | paralelo: %8.1f Mcar/s%n",
+                    i + 1, megaPorSegundo(codigo.length(), t1 - t0), megaPorSegundo(codigo.length(), t2 - t1));
+        }
+    }
+
+    // ======================================================
+    // LÉXICO INCREMENTAL: ediciones chicas vs. volver a analizar todo
+    // ======================================================
+
+    private static final int EDICIONES = 500;
+
+    private static void incremental(String codigo) {
+        // Se escribe y se borra un carácter en posiciones al azar (semilla fija).
+        // Una comilla o un '/*' cambian todo lo que sigue, así que no se incluyen
+        // (que el resultado sea el del análisis completo lo comprueba LexicoIncrementalTest).
+        java.util.Random azar = new java.util.Random(1);
+        int[] offsets = new int[EDICIONES];
+        for (int i = 0; i < EDICIONES; i++) offsets[i] = azar.nextInt(codigo.length());
+        String[] escritos = { "x", " ", "1", "(", "\n", "+" };
+
+        TokenBuffer tokens = new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+        for (int ronda = 0; ronda < REPETICIONES; ronda++) {
+            long reanalizados = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < EDICIONES; i++) {
+                String escrito = escritos[i % escritos.length];
+                reanalizados += LexicoIncremental.reanalizar(tokens, offsets[i], 0, escrito).nuevos;
+                reanalizados += LexicoIncremental.reanalizar(tokens, offsets[i], escrito.length(), "").nuevos;
+            }
+            long t1 = System.nanoTime();
+            new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+            long t2 = System.nanoTime();
+            System.out.printf("ronda %2d | edición: %8.1f us (%.1f tokens) | completo: %8.1f us%n",
+                    ronda + 1, (t1 - t0) / 1e3 / (2 * EDICIONES), (double) reanalizados / (2 * EDICIONES), (t2 - t1) / 1e3);
+        }
+    }
+
+    // ======================================================
+    // ÁRBOL CONCRETO: reanalizar una edición reusando sentencias vs. todo
+    // ======================================================
+
+    private static void verde(String codigo) {
+        // Las mismas ediciones que 'incremental', más llaves y ';' que cambian la estructura
+        // (que el árbol sea el de analizar todo lo comprueba NodoVerdeTest)
+        java.util.Random azar = new java.util.Random(1);
+        int[] offsets = new int[EDICIONES];
+        for (int i = 0; i < EDICIONES; i++) offsets[i] = azar.nextInt(codigo.length());
+        String[] escritos = { "x", " ", "1", "(", "\n", "+", ";", "{", "}" };
+
+        TokenBuffer tokens = new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+        NodoVerde raiz = new AnalizadorSintactico(tokens).analizarVerde();
+        System.out.println("Caracteres: " + codigo.length() + ", tokens: " + tokens.tamanio()
+                + ", sentencias del programa: " + raiz.cantidadDeHijos());
+
+        for (int ronda = 0; ronda < REPETICIONES; ronda++) {
+            long nanos = 0;
+            long reusadas = 0;
+            for (int i = 0; i < EDICIONES; i++) {
+                String escrito = escritos[i % escritos.length];
+                for (int paso = 0; paso < 2; paso++) {
+                    LexicoIncremental.Resultado cambio = (paso == 0)
+                            ? LexicoIncremental.reanalizar(tokens, offsets[i], 0, escrito)
+                            : LexicoIncremental.reanalizar(tokens, offsets[i], escrito.length(), "");
+                    long t0 = System.nanoTime();
+                    AnalizadorSintactico parser = new AnalizadorSintactico(tokens);
+                    raiz = parser.reanalizarVerde(raiz, cambio);
+                    nanos += System.nanoTime() - t0;
+                    reusadas += parser.sentenciasReusadas();
+                }
+            }
+            long t1 = System.nanoTime();
+            new AnalizadorSintactico(tokens).analizarVerde();
+            long t2 = System.nanoTime();
+            System.out.printf("ronda %2d | edición: %8.1f us (%.0f sentencias reusadas) | completo: %8.1f ms%n",
+                    ronda + 1, nanos / 1e3 / (2 * EDICIONES), (double) reusadas / (2 * EDICIONES), (t2 - t1) / 1e6);
+        }
+    }
+
+    // ======================================================
+    // SINTÁCTICO: expresiones (el léxico se hace una sola vez)
+    // ======================================================
+
+    private static void expresiones(String codigo) {
+        TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens);
+        int sentencias = parser.analizarPlano().cantidadDeSentencias();
+        System.out.println("Caracteres: " + codigo.length() + ", tokens: " + tokens.tamanio() + ", sentencias: " + sentencias);
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long t0 = System.nanoTime();
+            new AnalizadorSintactico(tokens).analizarPlano();
+            long t1 = System.nanoTime();
+            System.out.printf("ronda %2d | parser: %8.1f Mtok/s (%.1f ms)%n",
+                    i + 1, megaPorSegundo(tokens.tamanio(), t1 - t0), (t1 - t0) / 1e6);
+        }
+    }
+
+    // ======================================================
+    // FLUJO: parser + semántico de a una sentencia vs. programa entero
+    // ======================================================
+
+    private static void flujo(String codigo) {
+        System.out.println("Caracteres: " + codigo.length());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long t0 = System.nanoTime();
+            TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+            Diagnosticos entero = new Diagnosticos(tokens::lineas);
+            AnalizadorSintactico parser = new AnalizadorSintactico(tokens, entero);
+            ArbolPlano arbol = parser.analizarPlano();
+            new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), entero).analizar();
+            long t1 = System.nanoTime();
+
+            // En flujo el texto llega por un Reader y el parser le pide los tokens al léxico
+            FuenteConLector fuente = new FuenteConLector(new StringReader(codigo));
+            Diagnosticos enFlujo = new Diagnosticos(fuente::lineas, true);
+            AnalizadorSintactico parserEnFlujo = new AnalizadorSintactico(new AnalizadorLexico(fuente), enFlujo);
+            AnalizadorSemantico sema = new AnalizadorSemantico(parserEnFlujo.getArbol(), parserEnFlujo.getTablaSimbolos(), enFlujo);
+            parserEnFlujo.analizarEnFlujo(sema::analizarSentencia);
+            long t2 = System.nanoTime();
+
+            // Lo que queda retenido: los arreglos solo crecen, así que es también el máximo
+            long completo = tokens.bytes() + tokens.fuente().bytes() + arbol.bytes();
+            long ventana = parserEnFlujo.tokens().bytes() + fuente.bytes() + parserEnFlujo.getArbol().bytes();
+            System.out.printf("ronda %2d | completo: %7.1f ms, %9.1f KB (tokens+fuente+AST) | en flujo: %7.1f ms, %7.1f KB%n",
+                    i + 1, (t1 - t0) / 1e6, completo / 1e3, (t2 - t1) / 1e6, ventana / 1e3);
+        }
+    }
+
+    // ======================================================
+    // TUBERÍA: fases en hilos distintos vs. una después de la otra
+    // ======================================================
+
+    private static void tuberia(String codigo) {
+        // Que dé lo mismo que la ejecución secuencial lo comprueba TuberiaTest
+        System.out.println("Caracteres: " + codigo.length() + ", procesadores: " + Runtime.getRuntime().availableProcessors());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long t0 = System.nanoTime();
+            Tuberia.secuencial(new AnalizadorLexico(codigo));
+            long t1 = System.nanoTime();
+            Tuberia.enTuberia(new AnalizadorLexico(codigo));
+            long t2 = System.nanoTime();
+            System.out.printf("ronda %2d | secuencial: %7.1f ms | tubería: %7.1f ms%n",
+                    i + 1, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        }
+    }
+
+    // ======================================================
+    // BASURA: recuperación en modo pánico sobre una entrada sin sentido
+    // ======================================================
+
+    private static void basura(String codigo) {
+        TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+        System.out.println("Caracteres: " + codigo.length() + ", tokens: " + tokens.tamanio());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            // Sin máximo: los errores los acota solo la sincronización
+            Diagnosticos todos = new Diagnosticos(tokens::lineas);
+            AnalizadorSintactico completo = new AnalizadorSintactico(tokens, todos);
+            completo.setMaximoDeErrores(Diagnosticos.SIN_LIMITE);
+            long t0 = System.nanoTime();
+            completo.analizarPlano();
+            long t1 = System.nanoTime();
+            Diagnosticos acotados = new Diagnosticos(tokens::lineas);
+            AnalizadorSintactico conMaximo = new AnalizadorSintactico(tokens, acotados);
+            conMaximo.analizarPlano();
+            long t2 = System.nanoTime();
+            System.out.printf("ronda %2d | sin máximo: %7.1f ms (%d errores, %.1f tokens/error) | máximo %d: %7.3f ms%n",
+                    i + 1, (t1 - t0) / 1e6, todos.cantidadDeErrores(), (double) tokens.tamanio() / todos.cantidadDeErrores(),
+                    AnalizadorSintactico.MAXIMO_DE_ERRORES_POR_OMISION, (t2 - t1) / 1e6);
+        }
+    }
+
+    // ======================================================
+    // SÍMBOLOS: hash abierto por ids vs. HashMap (la tabla anterior)
+    // ======================================================
+
+    private static void simbolos(int cantidad) {
+        // Nombres distintos repartidos en 8 ámbitos, como los declararía el parser
+        TablaDeIdentificadores nombres = new TablaDeIdentificadores();
+        Simbolo[] declarados = new Simbolo[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            String nombre = "v" + i;
+            int ambito = i & 7;
+            declarados[i] = new Simbolo(nombre, nombres.internar(nombre), TipoSimbolo.LONG, ambito, ambito == 0 ? 0 : 1, 1);
+        }
+        // Las búsquedas en el orden de declaración favorecen al HashMap (con ids
+        // seguidos, su hash los deja seguidos en memoria): se buscan en desorden
+        Simbolo[] buscados = declarados.clone();
+        java.util.Collections.shuffle(java.util.Arrays.asList(buscados), new java.util.Random(1));
+        System.out.println("Símbolos: " + cantidad);
+
+        for (int ronda = 0; ronda < REPETICIONES; ronda++) {
+            // Cada símbolo: alta, búsqueda, búsqueda en otro ámbito (falla) y redeclaración
+            long t0 = System.nanoTime();
+            TablaSimbolos tabla = new TablaSimbolos();
+            for (Simbolo s : declarados) tabla.agregar(s);
+            long t1 = System.nanoTime();
+            int encontrados = 0;
+            for (Simbolo s : buscados) {
+                if (tabla.buscar(s.idAmbito, s.idNombre) == s) encontrados++;
+                if (tabla.buscar(s.idAmbito + 1, s.idNombre) != null) encontrados--;
+            }
+            for (Simbolo s : declarados) {
+                if (tabla.agregar(s)) encontrados--;
+            }
+            long t2 = System.nanoTime();
+
+            java.util.Map<Long, Simbolo> mapa = new java.util.HashMap<>();
+            for (Simbolo s : declarados) {
+                Long clave = ((long) s.idAmbito << 32) | s.idNombre;
+                if (!mapa.containsKey(clave)) mapa.put(clave, s);
+            }
+            long t3 = System.nanoTime();
+            int enMapa = 0;
+            for (Simbolo s : buscados) {
+                if (mapa.get(((long) s.idAmbito << 32) | s.idNombre) == s) enMapa++;
+                if (mapa.get(((long) (s.idAmbito + 1) << 32) | s.idNombre) != null) enMapa--;
+            }
+            for (Simbolo s : declarados) {
+                Long clave = ((long) s.idAmbito << 32) | s.idNombre;
+                if (!mapa.containsKey(clave)) enMapa--;
+            }
+            long t4 = System.nanoTime();
+            // Los conteos se muestran para que las búsquedas no se descarten como código muerto
+            System.out.printf("ronda %2d | hash abierto: alta %6.1f ms, búsquedas %6.1f ms (%d) | HashMap: alta %6.1f ms, búsquedas %6.1f ms (%d)%n",
+                    ronda + 1, (t1 - t0) / 1e6, (t2 - t1) / 1e6, encontrados, (t3 - t2) / 1e6, (t4 - t3) / 1e6, enMapa);
+        }
+    }
+
+    // ======================================================
+    // PROFUNDIDAD: programas muy anidados por parser, semántico e impresión
+    // ======================================================
+
+    private static void profundidad(int niveles) {
+        System.out.println("Niveles: " + niveles);
+        profundidad("bloques", "{".repeat(niveles) + "x = 1;" + "}".repeat(niveles));
+        profundidad("if anidados", "if (x > 0) then ".repeat(niveles) + "x = 1;");
+        profundidad("cadena de else", "if (x > 0) then x = 1; else ".repeat(niveles) + "x = 2;");
+        profundidad("while y break", "while (x > 0) ".repeat(niveles) + "break;");
+        profundidad("parentesis", "x = " + "(".repeat(niveles) + "1" + ")".repeat(niveles) + ";");
+        profundidad("unarios", "x = " + "- ".repeat(niveles) + "1;");
+        profundidad("binarios", "x = 1" + " + 1".repeat(niveles) + ";");
+    }
+
+    /**
+     * Tiempo de cada fase sobre un programa muy anidado (que no desborde la
+     * pila lo comprueba ProfundidadTest).
+     */
+    private static void profundidad(String nombre, String cuerpo) {
+        String codigo = "long x;\n" + cuerpo + "\n";
+        AnalizadorLexico lexico = new AnalizadorLexico(codigo);
+        TokenBuffer tokens = lexico.analizarBuffer();
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+
+        long t0 = System.nanoTime();
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+        ArbolPlano arbol = parser.analizarPlano();
+        long t1 = System.nanoTime();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+        long t2 = System.nanoTime();
+        long caracteres = 0;
+        for (Sentencia s : arbol.aSentencias()) caracteres += s.toString().length();
+        long t3 = System.nanoTime();
+        System.out.printf("%-15s | parser: %7.1f ms | semántico: %7.1f ms | impresión: %7.1f ms (%d caracteres)%n",
+                nombre, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6, caracteres);
+    }
+
+    // ======================================================
+    // CONSTANTES: plegado y propagación sobre el árbol ya revisado
+    // ======================================================
+
+    private static void constantes(String codigo) {
+        TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+        System.out.println("Caracteres: " + codigo.length() + ", tokens: " + tokens.tamanio());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            Diagnosticos diagnosticos = new Diagnosticos(tokens::lineas);
+            AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+            ArbolPlano arbol = parser.analizarPlano();
+            new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+            if (diagnosticos.cantidadDeErrores() > 0) {
+                System.err.println("ERROR: el programa de prueba tiene errores: " + diagnosticos.formatear(diagnosticos.todos().get(0)));
+                return;
+            }
+            int antes = operaciones(arbol);
+
+            long t0 = System.nanoTime();
+            Optimizador optimizador = new Optimizador(arbol, parser.getTablaSimbolos());
+            optimizador.optimizar();
+            long t1 = System.nanoTime();
+            System.out.printf("ronda %2d | optimizador: %7.1f ms (%.1f Mnodos/s) | operadores: %d -> %d | reescritos: %d%n",
+                    i + 1, (t1 - t0) / 1e6, megaPorSegundo(arbol.cantidadDeNodos(), t1 - t0),
+                    antes, operaciones(arbol), optimizador.reescritos());
+        }
+    }
+
+    /**
+     * Operadores (UNARIA y BINARIA) al alcance desde las sentencias del
+     * programa: lo que tendría que evaluar quien lo ejecute.
+     */
+    private static int operaciones(ArbolPlano arbol) {
+        int[] cantidad = { 0 };
+        arbol.recorrer(new ArbolPlano.Visitante() {
+            @Override
+            public boolean entrar(int nodo) {
+                int clase = arbol.clase(nodo);
+                if (clase == ArbolPlano.UNARIA || clase == ArbolPlano.BINARIA) cantidad[0]++;
+                return true;
+            }
+
+            @Override
+            public void salir(int nodo) { }
+        });
+        return cantidad[0];
+    }
+
+    // ======================================================
+    // GRAFO: bloques básicos y flujo de datos (vivas, asignación definida)
+    // ======================================================
+
+    private static void grafo(String codigo) {
+        TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+        Diagnosticos diagnosticos = new Diagnosticos(tokens::lineas);
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+        ArbolPlano arbol = parser.analizarPlano();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+        if (diagnosticos.cantidadDeErrores() > 0) {
+            System.err.println("ERROR: el programa de prueba tiene errores: " + diagnosticos.formatear(diagnosticos.todos().get(0)));
+            return;
+        }
+        System.out.println("Caracteres: " + codigo.length() + ", nodos: " + arbol.cantidadDeNodos()
+                + ", símbolos: " + parser.getTablaSimbolos().cantidad());
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long t0 = System.nanoTime();
+            GrafoDeFlujo grafo = new GrafoDeFlujo(arbol, parser.getTablaSimbolos());
+            long t1 = System.nanoTime();
+            VariablesVivas vivas = new VariablesVivas(grafo);
+            long t2 = System.nanoTime();
+            AsignacionDefinida definida = new AsignacionDefinida(grafo);
+            long t3 = System.nanoTime();
+            int muertas = vivas.asignacionesMuertas().length;
+            int sinAsignar = definida.usosSinAsignar().length;
+            long t4 = System.nanoTime();
+            int bloques = grafo.cantidadDeBloques();
+            System.out.printf("ronda %2d | %d bloques | grafo: %6.1f ms | vivas: %6.1f ms (%.2f vueltas/bloque)"
+                            + " | asignación: %6.1f ms (%.2f vueltas/bloque) | reportes: %6.1f ms (%d muertas, %d sin asignar)%n",
+                    i + 1, bloques, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (double) vivas.flujo().procesados() / bloques,
+                    (t3 - t2) / 1e6, (double) definida.flujo().procesados() / bloques, (t4 - t3) / 1e6, muertas, sinAsignar);
+        }
+    }
+
+    // ======================================================
+    // ÁRBOL: AST de objetos vs. ArbolPlano (memoria y recorrido)
+    // ======================================================
+
+    private static void arbol(String codigo) {
+        AnalizadorLexico lexico = new AnalizadorLexico(codigo);
+        TokenBuffer tokens = lexico.analizarBuffer();
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+        ArbolPlano plano = parser.analizarPlano();
+        if (diagnosticos.cantidadDeErrores() > 0) {
+            System.err.println("ERROR: el programa de prueba tiene errores: " + diagnosticos.formatear(diagnosticos.todos().get(0)));
+            return;
+        }
+
+        long antes = memoriaUsada();
+        List<Sentencia> objetos = plano.aSentencias();
+        long bytesObjetos = memoriaUsada() - antes;
+        int nodos = plano.cantidadDeNodos();
+        System.out.printf("Nodos: %d | objetos: %.1f MB (%.1f B/nodo) | plano: %.1f MB (%.1f B/nodo)%n",
+                nodos, bytesObjetos / 1e6, (double) bytesObjetos / nodos, plano.bytes() / 1e6, (double) plano.bytes() / nodos);
+
+        for (int i = 0; i < REPETICIONES; i++) {
+            long t0 = System.nanoTime();
+            recorrerObjetos(objetos);
+            long t1 = System.nanoTime();
+            recorrerPlano(plano);
+            long t2 = System.nanoTime();
+            new AnalizadorSemantico(plano, parser.getTablaSimbolos(), diagnosticos).analizar();
+            long t3 = System.nanoTime();
+            System.out.printf("ronda %2d | recorrido objetos: %7.1f ms | plano: %7.1f ms | semántico (plano): %7.1f ms%n",
+                    i + 1, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6);
+        }
+    }
+
+    /**
+     * Visita todos los nodos del árbol de objetos con una pila propia;
+     * devuelve la suma de sus posiciones.
+     */
+    private static long recorrerObjetos(List<Sentencia> sentencias) {
+        long suma = 0;
+        ArrayDeque<Object> pila = new ArrayDeque<>(sentencias);
+        while (!pila.isEmpty()) {
+            Object nodo = pila.pop();
+            switch (nodo) {
+                case Sentencia s -> {
+                    suma += s.posicion();
+                    switch (s) {
+                        case Sentencia.Asignacion a -> pila.push(a.valor());
+                        case Sentencia.Escritura w -> pila.push(w.expresion());
+                        case Sentencia.Bloque b -> b.sentencias().forEach(pila::push);
+                        case Sentencia.Condicional c -> {
+                            pila.push(c.condicion());
+                            if (c.ramaEntonces() != null) pila.push(c.ramaEntonces());
+                            if (c.ramaSino() != null) pila.push(c.ramaSino());
+                        }
+                        case Sentencia.Mientras m -> {
+                            pila.push(m.condicion());
+                            if (m.cuerpo() != null) pila.push(m.cuerpo());
+                        }
+                        case Sentencia.Declaracion d -> { }
+                        case Sentencia.Lectura r -> { }
+                        case Sentencia.Interrumpir i -> { }
+                    }
+                }
+                case Expresion e -> {
+                    suma += e.posicion();
+                    switch (e) {
+                        case Expresion.Agrupacion g -> pila.push(g.interna());
+                        case Expresion.Unaria u -> pila.push(u.derecha());
+                        case Expresion.Binaria b -> {
+                            pila.push(b.izquierda());
+                            pila.push(b.derecha());
+                        }
+                        case Expresion.Literal l -> { }
+                        case Expresion.Entero n -> { }
+                        case Expresion.Decimal d -> { }
+                        case Expresion.Variable v -> { }
+                    }
+                }
+                default -> throw new IllegalStateException("Nodo desconocido: " + nodo);
+            }
+        }
+        return suma;
+    }
+
+    private static long recorrerPlano(ArbolPlano plano) {
+        long[] suma = new long[1];
+        plano.recorrer(new ArbolPlano.Visitante() {
+            @Override
+            public boolean entrar(int nodo) {
+                suma[0] += plano.posicion(nodo);
+                return true;
+            }
+
+            @Override
+            public void salir(int nodo) { }
+        });
+        return suma[0];
+    }
+
+    private static long memoriaUsada() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // ======================================================
+    // UTILIDADES
+    // ======================================================
+
+    private static double megaPorSegundo(long cantidad, long nanos) {
+        return cantidad / (nanos / 1e9) / 1e6;
+    }
+
+    /**
+     * Genera un programa válido de aproximadamente 'caracteres' caracteres,
+     * mezclando declaraciones, expresiones, comentarios y cadenas.
+     */
+    static String programaSintetico(int caracteres) {
+        StringBuilder sb = new StringBuilder(caracteres + 256);
+        sb.append("long contador, _sumaTotal, i;\ndouble promedio_final;\n");
+        int n = 0;
+        while (sb.length() < caracteres) {
+            sb.append("/* bloque ").append(n).append(" */\n");
+            sb.append("while (contador > 0 && !false) {\n");
+            sb.append("    _sumaTotal += contador * 2 - (i / 3);\n");
+            sb.append("    if (_sumaTotal <> 0 || i <= 10) then promedio_final = _sumaTotal / 2.5;\n");
+            sb.append("    else write(\"sin datos en la vuelta\");\n");
+            sb.append("    contador -= 1; // siguiente\n");
+            sb.append("}\n");
+            n++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Programa válido de aproximadamente 'caracteres' caracteres con mucho para
+     * plegar: cuentas entre literales, variables con valor conocido que se
+     * usan más abajo, condiciones con 'true'/'false' y bucles que asignan.
+     */
+    static String programaDeConstantes(int caracteres) {
+        StringBuilder sb = new StringBuilder(caracteres + 256);
+        sb.append("long a, b, c, i;\ndouble x, y;\nread(i);\n");
+        int n = 0;
+        while (sb.length() < caracteres) {
+            sb.append("a = (").append(n % 97).append(" + 3) * 2 - 1;\n");
+            sb.append("b = a * 4 + (a - 2) / 3;\n");
+            sb.append("x = b / 2.0 + 1.5 * -2;\n");
+            sb.append("if (a > 10 && !false) then c = a + b; else c = 0;\n");
+            sb.append("while (i > 0 && b > a) { i = i - (b - a); y = x * 2; }\n");
+            sb.append("write(c * (2 + 3) + i);\n");
+            n++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Programa válido de aproximadamente 'caracteres' caracteres con
+     * 'variables' variables globales y muchos if y while (anidados, con
+     * break): miles de bloques básicos para los análisis de flujo. Los
+     * índices de las variables salen de un generador con semilla fija.
+     */
+    static String programaDeFlujo(int caracteres, int variables) {
+        StringBuilder sb = new StringBuilder(caracteres + 256);
+        sb.append("long ");
+        for (int v = 0; v < variables; v++) sb.append(v == 0 ? "" : ", ").append('v').append(v);
+        sb.append(";\n");
+        for (int v = 0; v < variables; v += 2) sb.append("read(v").append(v).append(");\n");
+        java.util.Random azar = new java.util.Random(1);
+        while (sb.length() < caracteres) {
+            int a = azar.nextInt(variables), b = azar.nextInt(variables), c = azar.nextInt(variables);
+            int d = azar.nextInt(variables), e = azar.nextInt(variables), f = azar.nextInt(variables);
+            sb.append("if (v").append(a).append(" > v").append(b).append(") then v").append(c).append(" = v").append(a).append(" + 1;\n");
+            sb.append("else { v").append(d).append(" = v").append(c).append(" * 2; v").append(a).append(" = v").append(d).append(" - v").append(b).append("; }\n");
+            sb.append("while (v").append(e).append(" < 100) {\n");
+            sb.append("    v").append(e).append(" = v").append(e).append(" + v").append(f).append(" + 1;\n");
+            sb.append("    if (v").append(f).append(" == 0) then break;\n");
+            sb.append("}\n");
+            sb.append("write(v").append(azar.nextInt(variables)).append(");\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Aproximadamente 'caracteres' bytes al azar (semilla fija) como texto
+     * Latin-1: un archivo binario o corrupto.
+     */
+    static String basura(int caracteres) {
+        byte[] bytes = new byte[caracteres];
+        new java.util.Random(1).nextBytes(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Programa válido de aproximadamente 'caracteres' caracteres hecho casi solo de
+     * asignaciones con expresiones largas que usan todos los niveles de precedencia.
+     */
+    static String programaDeExpresiones(int caracteres) {
+        StringBuilder sb = new StringBuilder(caracteres + 256);
+        sb.append("long a, b, c, i;\ndouble x, y;\n");
+        int n = 0;
+        while (sb.length() < caracteres) {
+            sb.append("a = a * 2 + b / (c - ").append(n % 97).append(") - -i * (a + b * c - i / 7);\n");
+            sb.append("x = y * 2.5 - (x + y) / (a + 1) * -(b - c * 3);\n");
+            sb.append("if (a + b * c >= i - 1 && !(x < y || a <> b) || c == a * 2 && b != 0) then i = i + 1;\n");
+            sb.append("while ((a - b) * (c + i) > 0 && x <= y * 2 || !(i == 0)) b -= (a + c) * 2 - i / 3;\n");
+            n++;
+        }
+        return sb.toString();
+    }
+}
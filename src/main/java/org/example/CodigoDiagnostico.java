@@ -0,0 +1,108 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Catálogo de los mensajes de error de todas las fases.
+ * Cada código tiene su fase y una plantilla de String.format; los argumentos
+ * los pone quien reporta el error (ver Diagnostico).
+ */
+public enum CodigoDiagnostico {
+
+    // ==================================================
+    //    LÉXICO
+    // ==================================================
+
+    LEX_CARACTER_INESPERADO(Diagnostico.Fase.LEXICO, "Carácter inesperado '%1$s' (¿querías '%1$s%1$s'?)."),
+    LEX_CARACTER_INVALIDO(Diagnostico.Fase.LEXICO, "Carácter inválido: '%s'.") {
+        @Override
+        String mensaje(List<Object> argumentos) {
+            return String.format(plantilla, imprimible((Integer) argumentos.get(0)));
+        }
+    },
+    LEX_COMENTARIO_SIN_CIERRE(Diagnostico.Fase.LEXICO, "Comentario multilinea sin cierre."),
+    LEX_IDENTIFICADOR_LARGO(Diagnostico.Fase.LEXICO, "Identificador excede longitud maxima (%s)."),
+    LEX_CADENA_SIN_CIERRE_EN_LINEA(Diagnostico.Fase.LEXICO, "Cadena sin cierre en la misma linea."),
+    LEX_CADENA_SIN_CIERRE(Diagnostico.Fase.LEXICO, "Cadena sin cierre de comillas."),
+    LEX_ENTERO_FUERA_DE_RANGO(Diagnostico.Fase.LEXICO, "Literal entero fuera del rango de long: %s."),
+
+    // ==================================================
+    //    DECLARACIONES (AnalizadorSintactico.sentenciaDeclaracion)
+    // ==================================================
+
+    DEC_FALTA_IDENTIFICADOR(Diagnostico.Fase.DECLARACIONES, "Se esperaba un identificador."),
+    DEC_REDECLARADO(Diagnostico.Fase.DECLARACIONES, "Identificador redeclarado: '%s'."),
+    DEC_FALTA_SEPARADOR(Diagnostico.Fase.DECLARACIONES, "Se esperaba ',' o ';' despues del identificador."),
+
+    // ==================================================
+    //    SINTÁCTICO (AnalizadorSintactico)
+    // ==================================================
+
+    SIN_SENTENCIA(Diagnostico.Fase.SINTACTICO, "Se esperaba una sentencia: 'if', 'while', 'break', '{', 'read', 'write' o asignación 'id = expr;'."),
+    SIN_IF_LPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba '(' después de 'if'."),
+    SIN_IF_RPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba ')' después de la condicion de 'if'."),
+    SIN_IF_THEN(Diagnostico.Fase.SINTACTICO, "Se esperaba 'then' despues de 'if (cond)'."),
+    SIN_WHILE_LPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba '(' despues de 'while'."),
+    SIN_WHILE_RPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba ')' despues de la condicion de 'while'."),
+    SIN_BREAK_PUNTO_Y_COMA(Diagnostico.Fase.SINTACTICO, "Se esperaba ';' despues de 'break'."),
+    SIN_BLOQUE_RBRACE(Diagnostico.Fase.SINTACTICO, "Se esperaba '}' para cerrar el bloque."),
+    SIN_READ_LPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba '(' despues de 'read'."),
+    SIN_READ_IDENTIFICADOR(Diagnostico.Fase.SINTACTICO, "Se esperaba identificador dentro de read(...)."),
+    SIN_READ_RPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba ')' despues de identificador en read(...)."),
+    SIN_READ_PUNTO_Y_COMA(Diagnostico.Fase.SINTACTICO, "Se esperaba ';' despues de read(...)."),
+    SIN_WRITE_LPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba '(' después de 'write'."),
+    SIN_WRITE_RPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba ')' después de la expresion en write(...)."),
+    SIN_WRITE_PUNTO_Y_COMA(Diagnostico.Fase.SINTACTICO, "Se esperaba ';' despues de write(...)."),
+    SIN_ASIGNACION_IDENTIFICADOR(Diagnostico.Fase.SINTACTICO, "Se esperaba identificador al inicio de la asignacion."),
+    SIN_ASIGNACION_PUNTO_Y_COMA(Diagnostico.Fase.SINTACTICO, "Se esperaba ';' al final de la asignacion."),
+    SIN_COMPUESTA_PUNTO_Y_COMA(Diagnostico.Fase.SINTACTICO, "Se esperaba ';' al final de la asignacion compuesta."),
+    SIN_OPERADOR_ASIGNACION(Diagnostico.Fase.SINTACTICO, "Se esperaba '=' o un operador de asignacion compuesta ('+=', '-=', '*=', '/=')."),
+    SIN_EXPRESION_INVALIDA(Diagnostico.Fase.SINTACTICO, "Expresión invalida."),
+    SIN_GRUPO_RPAREN(Diagnostico.Fase.SINTACTICO, "Se esperaba ')' para cerrar la expresion."),
+    SIN_ANALISIS_ABANDONADO(Diagnostico.Fase.SINTACTICO, "Demasiados errores (%s); se abandona el analisis sintactico."),
+
+    // ==================================================
+    //    SEMÁNTICO (AnalizadorSemantico)
+    // ==================================================
+
+    SEM_ASIGNACION_INCOMPATIBLE(Diagnostico.Fase.SEMANTICO, "Tipos incompatibles en asignacion: variable '%s' es %s pero la expresion es %s."),
+    SEM_CONDICION_IF(Diagnostico.Fase.SEMANTICO, "La condicion de 'if' debe ser booleana o una comparacion (obtuvo: %s)."),
+    SEM_CONDICION_WHILE(Diagnostico.Fase.SEMANTICO, "La condicion de 'while' debe ser booleana o una comparacion (obtuvo: %s)."),
+    SEM_BREAK_FUERA_DE_WHILE(Diagnostico.Fase.SEMANTICO, "'break' solo puede usarse dentro de un 'while'."),
+    SEM_NEGACION_INVALIDA(Diagnostico.Fase.SEMANTICO, "Operador '!' invalido sobre tipo %s."),
+    SEM_MENOS_INVALIDO(Diagnostico.Fase.SEMANTICO, "Operador unario '-' requiere numerico (obtuvo %s)."),
+    SEM_LOGICO_INVALIDO(Diagnostico.Fase.SEMANTICO, "Operador logico requiere booleanos: %s %s %s."),
+    SEM_COMPARACION_INVALIDA(Diagnostico.Fase.SEMANTICO, "Comparacion entre tipos incompatibles: %s y %s."),
+    SEM_ARITMETICA_INVALIDA(Diagnostico.Fase.SEMANTICO, "Operacion aritmetica con tipos no numericos: %s y %s."),
+    SEM_OPERADOR_DESCONOCIDO(Diagnostico.Fase.SEMANTICO, "Operador binario no reconocido."),
+    SEM_NO_DECLARADO(Diagnostico.Fase.SEMANTICO, "Identificador no declarado: '%s'."),
+
+    // ==================================================
+    //    FLUJO DE DATOS (advertencias: AsignacionDefinida, VariablesVivas)
+    // ==================================================
+
+    FLU_SIN_ASIGNAR(Diagnostico.Fase.FLUJO, "La variable '%s' puede usarse sin tener un valor asignado."),
+    FLU_ASIGNACION_MUERTA(Diagnostico.Fase.FLUJO, "El valor asignado a '%s' nunca se usa.");
+
+    final Diagnostico.Fase fase;
+    final String plantilla;
+
+    CodigoDiagnostico(Diagnostico.Fase fase, String plantilla) {
+        this.fase = fase;
+        this.plantilla = plantilla;
+    }
+
+    /**
+     * Arma el texto del mensaje. Los códigos sin argumentos devuelven la plantilla tal cual.
+     */
+    String mensaje(List<Object> argumentos) {
+        return argumentos.isEmpty() ? plantilla : String.format(plantilla, argumentos.toArray());
+    }
+
+    private static String imprimible(int c) {
+        if (c == '\n') return "\\n";
+        if (c == '\t') return "\\t";
+        if (c == '\r') return "\\r";
+        return Character.toString(c);
+    }
+}
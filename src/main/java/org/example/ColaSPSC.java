@@ -0,0 +1,117 @@
+package org.example;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cola acotada de un solo productor y un solo consumidor, sin locks: un
+ * arreglo circular con la cabeza y la cola en campos volátiles. Cada lado
+ * guarda la última cabeza o cola que vio del otro y solo la vuelve a leer
+ * cuando la cola parece llena o vacía. La usa Tuberia entre las fases; los
+ * elementos son lotes (muchos tokens o sentencias), no elementos sueltos.
+ *
+ * El lado que tiene que esperar gira un poco (Thread.onSpinWait) y después
+ * se duerme de a ratos cortos, para no ocupar un núcleo que la otra fase
+ * puede estar usando.
+ */
+final class ColaSPSC<E> {
+
+    private static final int GIROS = 200;          // Vueltas activas antes de dormir
+    private static final long SIESTA_NANOS = 20_000;
+
+    private final Object[] elementos;
+    private final int mascara;
+
+    private volatile long cabeza = 0;   // Próximo a sacar; solo la escribe el consumidor
+    private volatile long cola = 0;     // Próximo lugar libre; solo la escribe el productor
+    private volatile boolean cerrada = false;
+    private Throwable causa;            // Se escribe antes que 'cerrada', que la publica
+
+    private long cabezaVista = 0;       // Del productor: última cabeza leída
+    private long colaVista = 0;         // Del consumidor: última cola leída
+
+    /**
+     * 'capacidad' se redondea a la siguiente potencia de dos.
+     */
+    ColaSPSC(int capacidad) {
+        int n = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.elementos = new Object[n];
+        this.mascara = n - 1;
+    }
+
+    /**
+     * Agrega un elemento (no null); espera si la cola está llena.
+     * Solo lo llama el productor.
+     */
+    void poner(E e) {
+        long c = cola;
+        int giros = 0;
+        while (c - cabezaVista == elementos.length) {
+            cabezaVista = cabeza;
+            if (c - cabezaVista == elementos.length) giros = esperar(giros);
+        }
+        elementos[(int) c & mascara] = e;
+        cola = c + 1; // Escritura volátil: publica el elemento
+    }
+
+    /**
+     * El productor avisa que no va a poner más elementos.
+     */
+    void cerrar() {
+        cerrada = true;
+    }
+
+    /**
+     * Como cerrar(), pero porque el productor falló con 'causa' (si no es null):
+     * el consumidor la puede encadenar al error de quedarse sin elementos.
+     */
+    void cerrar(Throwable causa) {
+        this.causa = causa;
+        cerrada = true;
+    }
+
+    /**
+     * La falla con la que se cerró la cola, o null. Vale después de que sacar() devolvió null.
+     */
+    Throwable causa() {
+        return causa;
+    }
+
+    /**
+     * Saca el próximo elemento, esperando si todavía no llegó. Devuelve null
+     * si la cola está cerrada y vacía. Solo lo llama el consumidor.
+     */
+    E sacar() {
+        long h = cabeza;
+        int giros = 0;
+        while (h == colaVista) {
+            colaVista = cola;
+            if (h != colaVista) break;
+            if (cerrada) {
+                // 'cerrada' se escribe después de la última cola: releerla alcanza
+                colaVista = cola;
+                if (h == colaVista) return null;
+                break;
+            }
+            giros = esperar(giros);
+        }
+        return quitar(h);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E quitar(long h) {
+        int i = (int) h & mascara;
+        E e = (E) elementos[i];
+        elementos[i] = null;
+        cabeza = h + 1; // Libera el lugar para el productor
+        return e;
+    }
+
+    private static int esperar(int giros) {
+        if (giros < GIROS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(SIESTA_NANOS);
+        }
+        return giros + 1;
+    }
+}
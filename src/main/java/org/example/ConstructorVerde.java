@@ -0,0 +1,208 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Arma el árbol verde (NodoVerde) con los avisos del AnalizadorSintactico:
+ * abrir() cuando empieza una sentencia y cerrar() cuando termina. Los tokens
+ * que se leyeron en el medio quedan como hijos de la sentencia abierta más
+ * interna (o del programa), así que ningún carácter de la fuente se pierde.
+ *
+ * Para reanalizar después de una edición recibe el árbol anterior y lo que
+ * cambió en los tokens (LexicoIncremental.Resultado): reusar() le ofrece al
+ * parser la sentencia vieja que empieza en el token actual, si no tuvo
+ * errores y no toca el tramo editado.
+ */
+final class ConstructorVerde {
+
+    private static final int MAXIMO_EN_CACHE = 24; // Trivia + texto de los tokens que se comparten
+
+    private final TokenBuffer tokens;
+    private final FuenteCodigo fuente;
+    private final ArrayDeque<Marco> marcos = new ArrayDeque<>();
+    private final HashMap<String, NodoVerde> hojas = new HashMap<>();
+    private int siguienteToken = 0;  // Primero que todavía no se colgó de ningún nodo
+    private int finAnterior = 0;     // Donde termina el texto del token anterior a ese
+
+    // Reuso: el árbol anterior y el tramo de tokens que cambió. En los índices
+    // nuevos es [primero, ultimoNuevo]; en los viejos, [primero, ultimoViejo].
+    // El último es el token del empalme: su texto es el mismo, su trivia puede no serlo.
+    private final NodoVerde anterior;
+    private final int primero;
+    private final int ultimoNuevo;
+    private final int ultimoViejo;
+    private final int corrimiento;   // Índice nuevo - índice viejo después del tramo
+    private final ArrayDeque<int[]> cursor = new ArrayDeque<>(); // {nodo, hijo, token} del árbol anterior
+    private final ArrayDeque<NodoVerde> nodosDelCursor = new ArrayDeque<>();
+    private int reusadas = 0;
+
+    /**
+     * Una sentencia a medio armar.
+     */
+    private static final class Marco {
+        final int clase;
+        final int erroresAlAbrir;
+        final List<NodoVerde> hijos = new ArrayList<>();
+
+        Marco(int clase, int erroresAlAbrir) {
+            this.clase = clase;
+            this.erroresAlAbrir = erroresAlAbrir;
+        }
+    }
+
+    /**
+     * Para un análisis completo, sin árbol anterior.
+     */
+    ConstructorVerde(TokenBuffer tokens) {
+        this(tokens, null, 0, 0, 0);
+    }
+
+    /**
+     * Para reanalizar: 'tokens' ya tiene la edición aplicada.
+     */
+    ConstructorVerde(TokenBuffer tokens, NodoVerde anterior, LexicoIncremental.Resultado cambio) {
+        this(tokens, anterior, cambio.primero, cambio.nuevos, cambio.reemplazados);
+    }
+
+    private ConstructorVerde(TokenBuffer tokens, NodoVerde anterior, int primero, int nuevos, int reemplazados) {
+        this.tokens = tokens;
+        this.fuente = tokens.fuente();
+        this.anterior = anterior;
+        this.primero = primero;
+        this.ultimoNuevo = primero + nuevos;
+        this.ultimoViejo = primero + reemplazados;
+        this.corrimiento = nuevos - reemplazados;
+        marcos.push(new Marco(NodoVerde.PROGRAMA, 0));
+        if (anterior != null) {
+            nodosDelCursor.push(anterior);
+            cursor.push(new int[] { 0, 0 });
+        }
+    }
+
+    /**
+     * Empieza una sentencia en el token 'token'. 'errores' es el contador del
+     * parser (con los suprimidos por el modo pánico).
+     */
+    void abrir(int token, int errores) {
+        colgarTokensHasta(token);
+        marcos.push(new Marco(NodoVerde.ERRONEA, errores));
+    }
+
+    /**
+     * Termina la sentencia abierta más interna; 'hasta' es el primer token que
+     * ya no es de ella.
+     */
+    void cerrar(int clase, int hasta, int errores) {
+        colgarTokensHasta(hasta);
+        Marco m = marcos.pop();
+        NodoVerde nodo = NodoVerde.nodo(clase, m.hijos.toArray(new NodoVerde[0]), errores != m.erroresAlAbrir);
+        marcos.peek().hijos.add(nodo);
+    }
+
+    /**
+     * El programa: cuelga los tokens que quedan (hasta el EOF inclusive, que
+     * lleva la trivia del final) y devuelve la raíz.
+     */
+    NodoVerde terminar(int errores) {
+        colgarTokensHasta(tokens.tamanio());
+        while (marcos.size() > 1) cerrar(NodoVerde.ERRONEA, tokens.tamanio(), errores);
+        Marco programa = marcos.pop();
+        return NodoVerde.nodo(NodoVerde.PROGRAMA, programa.hijos.toArray(new NodoVerde[0]), false);
+    }
+
+    /** Sentencias que se tomaron del árbol anterior sin volver a leerlas. */
+    int reusadas() { return reusadas; }
+
+    /**
+     * Si el árbol anterior tiene una sentencia sin errores que empieza en el
+     * token 'token' y sus tokens (y el que la sigue, que el parser mira para
+     * saber dónde termina) no cambiaron, la agrega tal cual y la devuelve: el
+     * parser solo tiene que saltear sus tokens. Si no, null.
+     */
+    NodoVerde reusar(int token) {
+        if (anterior == null) return null;
+        int viejo;
+        if (token < primero) {
+            viejo = token;
+        } else if (token > ultimoNuevo) {
+            viejo = token - corrimiento;
+        } else {
+            return null; // Empieza en el tramo editado
+        }
+        NodoVerde candidata = buscarSentencia(viejo);
+        if (candidata == null || candidata.conErrores()) return null;
+        if (token < primero && viejo + candidata.cantidadDeTokens() >= primero) return null;
+
+        colgarTokensHasta(token);
+        marcos.peek().hijos.add(candidata);
+        siguienteToken = token + candidata.cantidadDeTokens();
+        int ultimo = siguienteToken - 1;
+        finAnterior = tokens.inicio(ultimo) + tokens.longitud(ultimo);
+        reusadas++;
+        return candidata;
+    }
+
+    /**
+     * La sentencia del árbol anterior que empieza exactamente en el token
+     * viejo 'viejo', o null. Los pedidos llegan en orden creciente, así que el
+     * cursor solo avanza: saltea subárboles enteros y baja solo en los que
+     * contienen el token.
+     */
+    private NodoVerde buscarSentencia(int viejo) {
+        while (!cursor.isEmpty()) {
+            int[] marco = cursor.peek();
+            NodoVerde nodo = nodosDelCursor.peek();
+            if (marco[0] == nodo.cantidadDeHijos()) {
+                cursor.pop();
+                nodosDelCursor.pop();
+                continue;
+            }
+            NodoVerde hijo = nodo.hijo(marco[0]);
+            int inicio = marco[1];
+            int fin = inicio + hijo.cantidadDeTokens();
+            if (fin <= viejo) {
+                marco[0]++;
+                marco[1] = fin;
+                continue;
+            }
+            if (inicio > viejo || hijo.esToken()) return null; // Ninguna sentencia empieza ahí
+            if (inicio == viejo) return hijo;
+            // Está adentro: se baja (y el marco queda apuntando a este hijo)
+            nodosDelCursor.push(hijo);
+            cursor.push(new int[] { 0, inicio });
+        }
+        return null;
+    }
+
+    /**
+     * Cuelga de la sentencia abierta los tokens desde 'siguienteToken' hasta
+     * 'hasta' (excluido), cada uno con su trivia.
+     */
+    private void colgarTokensHasta(int hasta) {
+        List<NodoVerde> hijos = marcos.peek().hijos;
+        for (int t = siguienteToken; t < hasta; t++) {
+            int inicio = tokens.inicio(t);
+            int fin = inicio + tokens.longitud(t);
+            hijos.add(hoja(tokens.tipo(t), fuente.subcadena(finAnterior, inicio), fuente.subcadena(inicio, fin)));
+            finAnterior = fin;
+        }
+        if (hasta > siguienteToken) siguienteToken = hasta;
+    }
+
+    /**
+     * Los tokens cortos iguales (mismo tipo, trivia y texto) son el mismo nodo.
+     */
+    private NodoVerde hoja(TokenType tipo, String trivia, String texto) {
+        if (trivia.length() + texto.length() > MAXIMO_EN_CACHE) return NodoVerde.token(tipo, trivia, texto);
+        String clave = (char) tipo.ordinal() + trivia + '\u0000' + texto;
+        NodoVerde hoja = hojas.get(clave);
+        if (hoja == null) {
+            hoja = NodoVerde.token(tipo, trivia, texto);
+            hojas.put(clave, hoja);
+        }
+        return hoja;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Un error (o advertencia) de cualquier fase, sin formatear: se guarda el código,
+ * la posición absoluta y los argumentos del mensaje, y el texto se arma solo
+ * cuando alguien lo muestra (ver Diagnosticos).
+ */
+public record Diagnostico(Fase fase, Severidad severidad, int posicion, CodigoDiagnostico codigo, List<Object> argumentos) {
+
+    /**
+     * Fase que encontró el problema. Los errores de las declaraciones y los del resto
+     * del parser se muestran igual ("Error sintactico") pero se distinguen para filtrarlos.
+     */
+    public enum Fase {
+        LEXICO("lexico"),
+        DECLARACIONES("sintactico"),
+        SINTACTICO("sintactico"),
+        SEMANTICO("semantico"),
+        FLUJO("de flujo");
+
+        final String nombre;
+
+        Fase(String nombre) { this.nombre = nombre; }
+    }
+
+    public enum Severidad {
+        ERROR("Error"),
+        ADVERTENCIA("Advertencia");
+
+        final String etiqueta;
+
+        Severidad(String etiqueta) { this.etiqueta = etiqueta; }
+    }
+
+    /**
+     * Error con la fase de su código.
+     */
+    static Diagnostico error(CodigoDiagnostico codigo, int posicion, Object... argumentos) {
+        return new Diagnostico(codigo.fase, Severidad.ERROR, posicion, codigo, List.of(argumentos));
+    }
+
+    /**
+     * Advertencia con la fase de su código.
+     */
+    static Diagnostico advertencia(CodigoDiagnostico codigo, int posicion, Object... argumentos) {
+        return new Diagnostico(codigo.fase, Severidad.ADVERTENCIA, posicion, codigo, List.of(argumentos));
+    }
+
+    /**
+     * Texto del mensaje, sin posición.
+     */
+    public String mensaje() {
+        return codigo.mensaje(argumentos);
+    }
+
+    /**
+     * Texto completo, con línea y columna (ej. "Error lexico [linea 3, col 7]: ...").
+     */
+    public String formatear(IndiceDeLineas lineas) {
+        return severidad.etiqueta + " " + fase.nombre
+                + " [linea " + lineas.linea(posicion) + ", col " + lineas.columna(posicion) + "]: " + mensaje();
+    }
+}
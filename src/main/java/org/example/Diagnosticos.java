@@ -0,0 +1,151 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Colector de los diagnósticos de una compilación, compartido por todas las fases.
+ * Guarda los Diagnostico sin formatear; el texto (y la línea y columna) se calcula
+ * solo al pedir los mensajes. Puede descartar repetidos y dejar de guardar
+ * errores después de un máximo.
+ */
+public final class Diagnosticos {
+
+    public static final int SIN_LIMITE = Integer.MAX_VALUE;
+
+    private final Supplier<IndiceDeLineas> lineas; // Se pide recién al formatear
+    private final boolean fijarAlAgregar;
+    private final List<Diagnostico> diagnosticos = new ArrayList<>();
+
+    private int maximoDeErrores = SIN_LIMITE;
+    private int errores = 0;     // Solo severidad ERROR
+    private int omitidos = 0;    // Errores que llegaron con el máximo ya alcanzado
+    private Set<Diagnostico> vistos; // null si no se descartan repetidos
+
+    public Diagnosticos(Supplier<IndiceDeLineas> lineas) {
+        this(lineas, false);
+    }
+
+    /**
+     * Si 'fijarAlAgregar' es true, la línea y la columna de cada diagnóstico se
+     * resuelven al guardarlo (ver IndiceDeLineas.fijar): es para las fuentes que
+     * descartan el texto ya leído, donde no se podría hacer al formatear.
+     */
+    Diagnosticos(Supplier<IndiceDeLineas> lineas, boolean fijarAlAgregar) {
+        this.lineas = lineas;
+        this.fijarAlAgregar = fijarAlAgregar;
+    }
+
+    /**
+     * Cantidad de errores a guardar; los que lleguen después se cuentan en omitidos().
+     */
+    public void setMaximoDeErrores(int maximo) {
+        this.maximoDeErrores = maximo;
+    }
+
+    /**
+     * Si es true, no se guarda un diagnóstico igual (fase, código, posición y
+     * argumentos) a otro ya guardado.
+     */
+    public void setDescartarDuplicados(boolean descartar) {
+        if (!descartar) {
+            vistos = null;
+        } else if (vistos == null) {
+            vistos = new HashSet<>(diagnosticos);
+        }
+    }
+
+    /**
+     * Agrega el diagnóstico; devuelve false si se descartó (repetido o por el máximo).
+     */
+    boolean agregar(Diagnostico d) {
+        if (vistos != null && !vistos.add(d)) return false;
+        if (d.severidad() == Diagnostico.Severidad.ERROR) {
+            if (errores >= maximoDeErrores) {
+                omitidos++;
+                return false;
+            }
+            errores++;
+        }
+        diagnosticos.add(d);
+        if (fijarAlAgregar) lineas.get().fijar(d.posicion());
+        return true;
+    }
+
+    boolean error(CodigoDiagnostico codigo, int posicion, Object... argumentos) {
+        return agregar(Diagnostico.error(codigo, posicion, argumentos));
+    }
+
+    /**
+     * Las advertencias no cuentan para el máximo de errores.
+     */
+    boolean advertencia(CodigoDiagnostico codigo, int posicion, Object... argumentos) {
+        return agregar(Diagnostico.advertencia(codigo, posicion, argumentos));
+    }
+
+    /**
+     * true si ya se guardó el máximo de errores: las fases pueden dejar de buscar más.
+     */
+    public boolean limiteAlcanzado() {
+        return errores >= maximoDeErrores;
+    }
+
+    public int cantidadDeErrores() { return errores; }
+
+    public int omitidos() { return omitidos; }
+
+    // ======================================================
+    // CONSULTAS
+    // ======================================================
+
+    /**
+     * Todos los diagnósticos en el orden en que se reportaron.
+     */
+    public List<Diagnostico> todos() {
+        return diagnosticos;
+    }
+
+    public List<Diagnostico> deFase(Diagnostico.Fase fase) {
+        List<Diagnostico> resultado = new ArrayList<>();
+        for (Diagnostico d : diagnosticos) {
+            if (d.fase() == fase) resultado.add(d);
+        }
+        return resultado;
+    }
+
+    /**
+     * Todos ordenados por posición; a igual posición queda el orden de las fases
+     * y después el de reporte.
+     */
+    public List<Diagnostico> ordenados() {
+        List<Diagnostico> resultado = new ArrayList<>(diagnosticos);
+        resultado.sort(Comparator.comparingInt(Diagnostico::posicion).thenComparing(Diagnostico::fase));
+        return resultado;
+    }
+
+    /**
+     * Texto completo del diagnóstico (ver Diagnostico.formatear).
+     */
+    public String formatear(Diagnostico d) {
+        return d.formatear(lineas.get());
+    }
+
+    /**
+     * Vista de los mensajes de una fase: cada elemento se formatea al leerlo.
+     */
+    public List<String> mensajes(Diagnostico.Fase fase) {
+        return mensajes(deFase(fase));
+    }
+
+    public List<String> mensajes(List<Diagnostico> lista) {
+        return new AbstractList<>() {
+            @Override public String get(int i) { return formatear(lista.get(i)); }
+            @Override public int size() { return lista.size(); }
+        };
+    }
+}
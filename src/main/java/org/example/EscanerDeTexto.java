@@ -0,0 +1,85 @@
+package org.example;
+
+/**
+ * Búsquedas que usa el AnalizadorLexico para saltar tramos largos:
+ * espacios en blanco y el cuerpo de comentarios y cadenas.
+ * Trabajan sobre el arreglo de la fuente; 'buscar' además cuenta los '\n' que cruza.
+ *
+ * Esta clase es la versión escalar (una unidad por vuelta). Si la JVM tiene el
+ * módulo jdk.incubator.vector, INSTANCIA es un EscanerVectorial, que compara
+ * varias unidades a la vez con la Vector API.
+ */
+class EscanerDeTexto {
+
+    static final EscanerDeTexto INSTANCIA = crear();
+
+    private static EscanerDeTexto crear() {
+        // -Dlexico.escalar=true fuerza la versión escalar (útil para comparar en Benchmark)
+        if (!Boolean.getBoolean("lexico.escalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Se carga por nombre: si el módulo no está, esa clase no se puede ni resolver
+                return (EscanerDeTexto) Class.forName("org.example.EscanerVectorial")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Sigue con la versión escalar
+            }
+        }
+        return new EscanerDeTexto();
+    }
+
+    /**
+     * Nombre de la implementación elegida (para mostrar en Benchmark).
+     */
+    String descripcion() {
+        return "escalar";
+    }
+
+    static boolean esEspacio(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    // En los métodos siguientes 'desde' y 'hasta' son índices del arreglo.
+    // Devuelven el índice encontrado, o 'hasta' si no lo hay.
+
+    /**
+     * Primer índice en [desde, hasta) que no es ' ', '\t', '\r' ni '\n'.
+     */
+    int saltarEspacios(char[] a, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (!esEspacio(a[i])) return i;
+        }
+        return hasta;
+    }
+
+    /**
+     * Primer índice en [desde, hasta) que contiene 'objetivo'.
+     * Los '\n' anteriores a ese índice se suman a 'tramo.lineas'.
+     */
+    int buscar(char[] a, int desde, int hasta, char objetivo, TramoSaltado tramo) {
+        for (int i = desde; i < hasta; i++) {
+            char c = a[i];
+            if (c == objetivo) return i;
+            if (c == '\n') tramo.lineas++;
+        }
+        return hasta;
+    }
+
+    // Versiones para bytes UTF-8 ('\n', '"' y '*' nunca aparecen dentro de un carácter multibyte)
+
+    int saltarEspacios(byte[] a, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (!esEspacio(a[i])) return i;
+        }
+        return hasta;
+    }
+
+    int buscar(byte[] a, int desde, int hasta, byte objetivo, TramoSaltado tramo) {
+        for (int i = desde; i < hasta; i++) {
+            byte b = a[i];
+            if (b == objetivo) return i;
+            if (b == '\n') tramo.lineas++;
+        }
+        return hasta;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Versión de EscanerDeTexto que usa la Vector API (jdk.incubator.vector):
+ * compara de 16 a 64 bytes por vuelta según el hardware y, al buscar,
+ * cuenta los '\n' de cada bloque con una máscara en la misma pasada.
+ *
+ * Solo se carga si la JVM se inició con '--add-modules jdk.incubator.vector'
+ * (ver EscanerDeTexto.crear()).
+ */
+final class EscanerVectorial extends EscanerDeTexto {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> CHARS = ShortVector.SPECIES_PREFERRED;
+
+    // La mayoría de los tramos son cortos (un espacio entre tokens): se miran
+    // primero estas unidades de a una y solo se pasa a vectores si el tramo sigue
+    private static final int PREFIJO_ESCALAR = 4;
+
+    @Override
+    String descripcion() {
+        return "vectorial (" + BYTES.vectorBitSize() + " bits)";
+    }
+
+    // ======================================================
+    // FUENTES UTF-16 (char[])
+    // ======================================================
+
+    @Override
+    int saltarEspacios(char[] a, int desde, int hasta) {
+        int corte = Math.min(hasta, desde + PREFIJO_ESCALAR);
+        int i = super.saltarEspacios(a, desde, corte);
+        if (i < corte) return i;
+
+        int n = CHARS.length();
+        for (; i + n <= hasta; i += n) {
+            ShortVector v = ShortVector.fromCharArray(CHARS, a, i);
+            VectorMask<Short> otros = v.eq((short) ' ').or(v.eq((short) '\n'))
+                    .or(v.eq((short) '\t')).or(v.eq((short) '\r')).not();
+            if (otros.anyTrue()) return i + otros.firstTrue();
+        }
+        return super.saltarEspacios(a, i, hasta);
+    }
+
+    @Override
+    int buscar(char[] a, int desde, int hasta, char objetivo, TramoSaltado tramo) {
+        int corte = Math.min(hasta, desde + PREFIJO_ESCALAR);
+        int i = super.buscar(a, desde, corte, objetivo, tramo);
+        if (i < corte) return i;
+
+        int n = CHARS.length();
+        for (; i + n <= hasta; i += n) {
+            ShortVector v = ShortVector.fromCharArray(CHARS, a, i);
+            VectorMask<Short> saltos = v.eq((short) '\n');
+            VectorMask<Short> encontrados = v.eq((short) objetivo);
+            if (encontrados.anyTrue()) {
+                int k = encontrados.firstTrue();
+                tramo.lineas += saltos.and(CHARS.indexInRange(0, k)).trueCount();
+                return i + k;
+            }
+            tramo.lineas += saltos.trueCount();
+        }
+        return super.buscar(a, i, hasta, objetivo, tramo);
+    }
+
+    // ======================================================
+    // FUENTES UTF-8 (byte[])
+    // ======================================================
+
+    @Override
+    int saltarEspacios(byte[] a, int desde, int hasta) {
+        int corte = Math.min(hasta, desde + PREFIJO_ESCALAR);
+        int i = super.saltarEspacios(a, desde, corte);
+        if (i < corte) return i;
+
+        int n = BYTES.length();
+        for (; i + n <= hasta; i += n) {
+            ByteVector v = ByteVector.fromArray(BYTES, a, i);
+            VectorMask<Byte> otros = v.eq((byte) ' ').or(v.eq((byte) '\n'))
+                    .or(v.eq((byte) '\t')).or(v.eq((byte) '\r')).not();
+            if (otros.anyTrue()) return i + otros.firstTrue();
+        }
+        return super.saltarEspacios(a, i, hasta);
+    }
+
+    @Override
+    int buscar(byte[] a, int desde, int hasta, byte objetivo, TramoSaltado tramo) {
+        int corte = Math.min(hasta, desde + PREFIJO_ESCALAR);
+        int i = super.buscar(a, desde, corte, objetivo, tramo);
+        if (i < corte) return i;
+
+        int n = BYTES.length();
+        for (; i + n <= hasta; i += n) {
+            ByteVector v = ByteVector.fromArray(BYTES, a, i);
+            VectorMask<Byte> saltos = v.eq((byte) '\n');
+            VectorMask<Byte> encontrados = v.eq(objetivo);
+            if (encontrados.anyTrue()) {
+                int k = encontrados.firstTrue();
+                tramo.lineas += saltos.and(BYTES.indexInRange(0, k)).trueCount();
+                return i + k;
+            }
+            tramo.lineas += saltos.trueCount();
+        }
+        return super.buscar(a, i, hasta, objetivo, tramo);
+    }
+}
@@ -1,85 +1,72 @@
-
 package org.example;
 
 /**
- * Clase base abstracta para todas las Expresiones (AST).
- * Cada subclase representa una construcción gramatical que produce un valor.
+ * Todas las Expresiones (AST). Cada record representa una construcción
+ * gramatical que produce un valor; la jerarquía es cerrada, así que un
+ * 'switch' sobre una Expresion puede ser exhaustivo sin 'default'.
+ * El texto de toString() lo arma ImpresorAST, sin recursión.
  */
-abstract class Expresion {
-    public final int linea;
-    public final int columna;
+sealed interface Expresion {
+
+    /** Posición absoluta del token que lo origina (ver IndiceDeLineas). */
+    int posicion();
 
-    protected Expresion(int linea, int columna) {
-        this.linea = linea;
-        this.columna = columna;
+    <R> R aceptar(VisitanteAST<R> v);
+
+    /**
+     * Un valor literal que no es número: "hola", true, false
+     * 'tipoLiteral' es STRING_LITERAL, KW_TRUE o KW_FALSE.
+     */
+    record Literal(String valor, TokenType tipoLiteral, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarLiteral(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
-     * Un valor literal: "hola", 123, 3.14, true, false
+     * Un literal entero (INT_LITERAL): 123, ya decodificado por el léxico.
      */
-    static class Literal extends Expresion {
-        public final String valor;
-        public final TokenType tipoLiteral; // INT_LITERAL, DOUBLE_LITERAL, etc.
+    record Entero(long valor, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarEntero(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
+    }
 
-        Literal(String valor, TokenType tipoLiteral, int linea, int columna) {
-            super(linea, columna);
-            this.valor = valor;
-            this.tipoLiteral = tipoLiteral;
-        }
-        public String toString() { return "Literal(" + tipoLiteral + ":" + valor + ")"; }
+    /**
+     * Un literal decimal (DOUBLE_LITERAL): 3.14, ya decodificado por el léxico.
+     */
+    record Decimal(double valor, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarDecimal(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Una referencia a una variable: _x, contador
      */
-    static class Variable extends Expresion {
-        public final String nombre;
-        Variable(String nombre, int linea, int columna) {
-            super(linea, columna);
-            this.nombre = nombre;
-        }
-        public String toString() { return "Var(" + nombre + ")"; }
+    record Variable(String nombre, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarVariable(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Una expresión entre paréntesis: ( ... )
      */
-    static class Agrupacion extends Expresion {
-        public final Expresion interna;
-        Agrupacion(Expresion interna, int linea, int columna) {
-            super(linea, columna);
-            this.interna = interna;
-        }
-        public String toString() { return "Grupo(" + interna + ")"; }
+    record Agrupacion(Expresion interna, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarAgrupacion(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
-     * Un operador unario: -5, !true
+     * Un operador unario: -5, !true ('op' es MINUS o BANG)
      */
-    static class Unaria extends Expresion {
-        public final TokenType op; // MINUS o BANG
-        public final Expresion derecha;
-        Unaria(TokenType op, Expresion derecha, int linea, int columna) {
-            super(linea, columna);
-            this.op = op;
-            this.derecha = derecha;
-        }
-        public String toString() { return "Unario(" + op + " " + derecha + ")"; }
+    record Unaria(TokenType op, Expresion derecha, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarUnaria(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
-     * Un operador binario: a + b, 5 > 3
+     * Un operador binario: a + b, 5 > 3 ('op' es +, -, *, /, >, <, ==, !=, &&, ||, etc.)
      */
-    static class Binaria extends Expresion {
-        public final Expresion izquierda;
-        public final TokenType op; // +, -, *, /, >, <, ==, !=, &&, ||, etc.
-        public final Expresion derecha;
-        Binaria(Expresion izquierda, TokenType op, Expresion derecha, int linea, int columna) {
-            super(linea, columna);
-            this.izquierda = izquierda;
-            this.op = op;
-            this.derecha = derecha;
-        }
-        public String toString() { return "Binario(" + izquierda + " " + op + " " + derecha + ")"; }
+    record Binaria(Expresion izquierda, TokenType op, Expresion derecha, int posicion) implements Expresion {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarBinaria(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 }
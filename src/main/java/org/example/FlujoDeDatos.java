@@ -0,0 +1,170 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Resuelve un problema de flujo de datos sobre un GrafoDeFlujo: un conjunto
+ * de 'bits' elementos (por ejemplo, índices de símbolo) por punto del
+ * programa, con la forma clásica de generar y matar:
+ *   en el sentido del flujo, lo que sale de un bloque = generados ∪ (lo que entra − matados);
+ *   lo que entra = la unión (o la intersección) de lo que sale de los vecinos anteriores.
+ * Hacia adelante, los anteriores son los predecesores; hacia atrás, los sucesores.
+ *
+ * Los conjuntos son bits en long[]: cada bloque ocupa palabras() longs
+ * seguidos en un arreglo por conjunto (generados, matados, entrada y
+ * salida), sin objetos por bloque. Se resuelve con una lista de trabajo que
+ * arranca en ordenDeRecorrido() y solo vuelve a procesar un bloque si cambió
+ * lo que le llega.
+ *
+ * Quien lo usa llena generar()/matar() recorriendo las sentencias de cada
+ * bloque en el sentido del flujo (hacia atrás, de la última a la primera):
+ * así un elemento generado después de matado queda generado, y al revés.
+ */
+public final class FlujoDeDatos {
+
+    private final GrafoDeFlujo grafo;
+    private final boolean haciaAdelante;
+    private final boolean union;        // false: intersección ("en todos los caminos")
+    private final int palabras;
+    private final long[] generados;
+    private final long[] matados;
+    private final long[] entrada;       // Al empezar cada bloque (en el orden del programa)
+    private final long[] salida;        // Al terminar cada bloque
+    private int procesados = 0;
+
+    /**
+     * @param bits Cantidad de elementos de cada conjunto.
+     * @param haciaAdelante true si la información va de la entrada a la salida del programa.
+     * @param union true si a un punto le llega lo de algún camino; false si lo de todos.
+     */
+    public FlujoDeDatos(GrafoDeFlujo grafo, int bits, boolean haciaAdelante, boolean union) {
+        this.grafo = grafo;
+        this.haciaAdelante = haciaAdelante;
+        this.union = union;
+        this.palabras = (bits + 63) >>> 6;
+        int total = palabras * grafo.cantidadDeBloques();
+        this.generados = new long[total];
+        this.matados = new long[total];
+        this.entrada = new long[total];
+        this.salida = new long[total];
+    }
+
+    public int palabras() { return palabras; }
+
+    public void generar(int bloque, int bit) {
+        generados[bloque * palabras + (bit >>> 6)] |= 1L << bit;
+    }
+
+    public void matar(int bloque, int bit) {
+        int i = bloque * palabras + (bit >>> 6);
+        matados[i] |= 1L << bit;
+        generados[i] &= ~(1L << bit);
+    }
+
+    /**
+     * Resuelve hasta el punto fijo. Al principio nada le llega a la frontera
+     * (ENTRADA hacia adelante, salida() hacia atrás); a los demás bloques, nada
+     * con unión y todo con intersección.
+     * @return Cuántas veces se procesó un bloque.
+     */
+    public int resolver() {
+        int cantidad = grafo.cantidadDeBloques();
+        procesados = 0;
+        if (!union) {
+            Arrays.fill(entrada, -1L);
+            Arrays.fill(salida, -1L);
+        }
+        int frontera = haciaAdelante ? GrafoDeFlujo.ENTRADA : grafo.salida();
+        long[] antes = haciaAdelante ? entrada : salida;    // Lo que le llega a cada bloque
+        long[] despues = haciaAdelante ? salida : entrada;  // Lo que deja
+        Arrays.fill(antes, frontera * palabras, (frontera + 1) * palabras, 0L);
+
+        // Lista de trabajo circular: cada bloque está a lo sumo una vez
+        int[] cola = new int[cantidad];
+        boolean[] enCola = new boolean[cantidad];
+        int[] orden = grafo.ordenDeRecorrido();
+        for (int i = 0; i < cantidad; i++) {
+            int b = haciaAdelante ? orden[i] : orden[cantidad - 1 - i];
+            cola[i] = b;
+            enCola[b] = true;
+        }
+        int primero = 0;
+        int pendientes = cantidad;
+        long[] nuevo = new long[palabras];
+
+        while (pendientes > 0) {
+            int b = cola[primero];
+            primero = (primero + 1 == cantidad) ? 0 : primero + 1;
+            pendientes--;
+            enCola[b] = false;
+            procesados++;
+
+            int base = b * palabras;
+            int anteriores = haciaAdelante ? grafo.cantidadDePredecesores(b) : grafo.cantidadDeSucesores(b);
+            if (b != frontera && anteriores > 0) {
+                // Lo que le llega: la unión o intersección de lo que dejan los anteriores
+                int a = anterior(b, 0) * palabras;
+                System.arraycopy(despues, a, antes, base, palabras);
+                for (int k = 1; k < anteriores; k++) {
+                    a = anterior(b, k) * palabras;
+                    for (int w = 0; w < palabras; w++) {
+                        if (union) {
+                            antes[base + w] |= despues[a + w];
+                        } else {
+                            antes[base + w] &= despues[a + w];
+                        }
+                    }
+                }
+            }
+
+            boolean cambio = false;
+            for (int w = 0; w < palabras; w++) {
+                nuevo[w] = generados[base + w] | (antes[base + w] & ~matados[base + w]);
+                cambio |= nuevo[w] != despues[base + w];
+            }
+            if (!cambio) continue;
+            System.arraycopy(nuevo, 0, despues, base, palabras);
+
+            int siguientes = haciaAdelante ? grafo.cantidadDeSucesores(b) : grafo.cantidadDePredecesores(b);
+            for (int k = 0; k < siguientes; k++) {
+                int s = haciaAdelante ? grafo.sucesor(b, k) : grafo.predecesor(b, k);
+                if (enCola[s]) continue;
+                enCola[s] = true;
+                int fin = primero + pendientes;
+                cola[fin >= cantidad ? fin - cantidad : fin] = s;
+                pendientes++;
+            }
+        }
+        return procesados;
+    }
+
+    private int anterior(int b, int k) {
+        return haciaAdelante ? grafo.predecesor(b, k) : grafo.sucesor(b, k);
+    }
+
+    /** true si 'bit' está en el conjunto al empezar el bloque (en el orden del programa). */
+    public boolean alEntrar(int bloque, int bit) {
+        return (entrada[bloque * palabras + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /** true si 'bit' está en el conjunto al terminar el bloque. */
+    public boolean alSalir(int bloque, int bit) {
+        return (salida[bloque * palabras + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Copia en 'destino' (de palabras() longs) el conjunto al empezar el bloque,
+     * para recorrer sus sentencias hacia adelante.
+     */
+    public void copiarEntrada(int bloque, long[] destino) {
+        System.arraycopy(entrada, bloque * palabras, destino, 0, palabras);
+    }
+
+    /** Como copiarEntrada(), al terminar el bloque (para recorrerlo hacia atrás). */
+    public void copiarSalida(int bloque, long[] destino) {
+        System.arraycopy(salida, bloque * palabras, destino, 0, palabras);
+    }
+
+    /** Veces que se procesó un bloque en la última resolución. */
+    public int procesados() { return procesados; }
+}
@@ -0,0 +1,180 @@
+package org.example;
+
+/**
+ * Origen de los caracteres que lee el AnalizadorLexico.
+ * Las posiciones son absolutas (desde el inicio del archivo), así el
+ * analizador no necesita saber si el texto está entero en memoria
+ * o si se va leyendo por partes.
+ */
+abstract class FuenteCodigo {
+
+    /** Valor que devuelve 'en' cuando la posición está después del final. */
+    static final int FIN = -1;
+
+    /**
+     * Devuelve el carácter en la posición absoluta dada, o FIN.
+     * El analizador solo pide posiciones iguales o posteriores a la
+     * última que marcó con 'liberarHasta'.
+     */
+    abstract int en(int posicion);
+
+    /**
+     * Devuelve el texto entre 'inicio' (incluido) y 'fin' (excluido).
+     * Se usa para armar los lexemas, así que el tramo no debe estar liberado.
+     */
+    abstract String subcadena(int inicio, int fin);
+
+    /**
+     * Largo total en unidades, o -1 si no se conoce sin leer la fuente entera.
+     */
+    int largo() {
+        return -1;
+    }
+
+    /**
+     * Hash del tramo [inicio, fin), igual al String.hashCode() de su texto.
+     */
+    int hashDe(int inicio, int fin) {
+        int h = 0;
+        for (int i = inicio; i < fin; i++) h = 31 * h + en(i);
+        return h;
+    }
+
+    /**
+     * Compara el tramo [inicio, fin) con un texto sin crear un String.
+     */
+    boolean igualA(int inicio, int fin, String texto) {
+        if (fin - inicio != texto.length()) return false;
+        for (int i = 0; i < texto.length(); i++) {
+            if (en(inicio + i) != texto.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Carácter completo (punto de código) que empieza en 'posicion'.
+     * Solo se consulta para unidades >= 0x80; en fuentes UTF-16 coincide con 'en'
+     * salvo en un par sustituto, que se junta (como hace FuenteMapeada con los
+     * 4 bytes): así un carácter fuera del BMP es un solo carácter en toda fuente.
+     */
+    int caracterEn(int posicion) {
+        int c = en(posicion);
+        return unidadesEn(posicion) == 2 ? Character.toCodePoint((char) c, (char) en(posicion + 1)) : c;
+    }
+
+    /**
+     * Cantidad de unidades que ocupa el carácter que empieza en 'posicion':
+     * 2 en un par sustituto completo, 1 en cualquier otro caso (un sustituto suelto incluido).
+     */
+    int unidadesEn(int posicion) {
+        int c = en(posicion);
+        if (c < Character.MIN_HIGH_SURROGATE || c > Character.MAX_HIGH_SURROGATE) return 1;
+        int siguiente = en(posicion + 1);
+        return (siguiente >= Character.MIN_LOW_SURROGATE && siguiente <= Character.MAX_LOW_SURROGATE) ? 2 : 1;
+    }
+
+    /**
+     * Columnas que avanza una unidad >= 0x80 (las fuentes UTF-16 siempre avanzan 1).
+     */
+    int columnasDe(int unidad) {
+        return 1;
+    }
+
+    /**
+     * Columnas que ocupan las unidades de [inicio, fin), que no contiene '\n'.
+     * Las fuentes UTF-16 no necesitan mirar el texto: es una columna por unidad.
+     */
+    int columnasEntre(int inicio, int fin) {
+        int columnas = 0;
+        for (int i = inicio; i < fin; i++) {
+            int c = en(i);
+            columnas += c < 0x80 ? 1 : columnasDe(c);
+        }
+        return columnas;
+    }
+
+    // ==================================================
+    //    SALTOS DE TRAMOS LARGOS
+    // ==================================================
+    // Las fuentes con el texto en un arreglo los resuelven con EscanerDeTexto
+    // (vectorial si está disponible). Pueden detenerse antes de encontrar lo
+    // buscado (ej. al final de su buffer): el analizador vuelve a llamar.
+
+    /**
+     * Posición del primer carácter desde 'desde' que no es espacio en blanco.
+     */
+    int saltarEspacios(int desde, TramoSaltado tramo) {
+        for (int i = desde; ; i++) {
+            if (!EscanerDeTexto.esEspacio(en(i))) return i;
+        }
+    }
+
+    /**
+     * Posición de la primera aparición de 'objetivo' desde 'desde' (o del final).
+     * Los '\n' anteriores se cuentan en 'tramo.lineas'.
+     */
+    int buscar(int desde, char objetivo, TramoSaltado tramo) {
+        tramo.reiniciar();
+        for (int i = desde; ; i++) {
+            int c = en(i);
+            if (c == objetivo || c == FIN) return i;
+            if (c == '\n') tramo.lineas++;
+        }
+    }
+
+    // ==================================================
+    //    LÍNEAS Y COLUMNAS
+    // ==================================================
+
+    private IndiceDeLineas indiceDeLineas;
+
+    /**
+     * Índice de inicios de línea, que se arma recorriendo la fuente la primera vez
+     * que se pide (al mostrar un token o un error). Sincronizado porque el léxico
+     * en paralelo puede pedirlo desde varios hilos.
+     */
+    synchronized IndiceDeLineas lineas() {
+        if (indiceDeLineas == null) indiceDeLineas = IndiceDeLineas.construir(this);
+        return indiceDeLineas;
+    }
+
+    /**
+     * El índice si ya se armó, o null (no lo arma).
+     */
+    synchronized IndiceDeLineas lineasSiExisten() {
+        return indiceDeLineas;
+    }
+
+    /**
+     * Indica si el texto queda disponible después de leerlo
+     * (necesario para armar lexemas más tarde, como hace TokenBuffer).
+     */
+    boolean conservaTexto() {
+        return true;
+    }
+
+    /**
+     * Avisa que ya no se leerá nada antes de 'posicion'.
+     * Las fuentes con buffer pueden descartar esa parte.
+     */
+    void liberarHasta(int posicion) {
+        // Las fuentes en memoria no necesitan hacer nada
+    }
+
+    /**
+     * Avisa que el texto desde 'posicion' se sigue usando (lo necesitan los tokens
+     * que un TokenBuffer todavía no descartó), aunque 'liberarHasta' lo pase.
+     */
+    void conservarDesde(int posicion) {
+        // Las fuentes en memoria no necesitan hacer nada
+    }
+
+    /**
+     * Memoria que retiene la fuente en el heap, en bytes: su texto (si lo guarda)
+     * y el índice de líneas.
+     */
+    long bytes() {
+        IndiceDeLineas lineas = lineasSiExisten();
+        return lineas == null ? 0 : lineas.bytes();
+    }
+}
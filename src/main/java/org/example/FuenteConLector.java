@@ -0,0 +1,137 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Fuente que lee de un Reader a través de un buffer deslizante de tamaño fijo.
+ * Solo se conserva el texto desde la última posición liberada (o desde el
+ * primer token que un TokenBuffer en flujo no descartó), y del índice
+ * de líneas solo los inicios que caen en ese texto (las líneas anteriores se
+ * cuentan), por lo que la memoria usada no depende del tamaño del archivo
+ * sino del token (o de la sentencia, en flujo) más largo. Por eso los Token y los diagnósticos de esta
+ * fuente resuelven su línea y columna al crearse (ver IndiceDeLineas.fijar).
+ */
+final class FuenteConLector extends FuenteCodigo {
+
+    static final int TAMANIO_BUFFER = 8192;
+
+    private final Reader lector;
+    private char[] buffer;
+    private int base = 0;       // Posición absoluta de buffer[0]
+    private int limite = 0;     // Cantidad de caracteres válidos en el buffer
+    private int liberado = 0;   // Todo lo anterior a esta posición se puede descartar
+    private int conservado = Integer.MAX_VALUE; // ...salvo desde aquí (ver conservarDesde)
+    private boolean agotado = false;
+    private final IndiceDeLineas lineas = new IndiceDeLineas(this);
+
+    FuenteConLector(Reader lector) {
+        this(lector, TAMANIO_BUFFER);
+    }
+
+    FuenteConLector(Reader lector, int tamanioBuffer) {
+        this.lector = lector;
+        this.buffer = new char[Math.max(2, tamanioBuffer)];
+    }
+
+    @Override
+    int en(int posicion) {
+        int i = posicion - base;
+        if (i < limite) return buffer[i];
+        return rellenar(posicion);
+    }
+
+    @Override
+    String subcadena(int inicio, int fin) {
+        // El analizador ya leyó hasta 'fin' y no liberó nada desde 'inicio'
+        return new String(buffer, inicio - base, fin - inicio);
+    }
+
+    // Solo recorren lo que ya está en el buffer; al llegar a su final
+    // el analizador vuelve a llamar y 'en' lee el bloque siguiente.
+
+    @Override
+    int saltarEspacios(int desde, TramoSaltado tramo) {
+        if (en(desde) == FIN) return desde;
+        return base + EscanerDeTexto.INSTANCIA.saltarEspacios(buffer, desde - base, limite);
+    }
+
+    @Override
+    int buscar(int desde, char objetivo, TramoSaltado tramo) {
+        tramo.reiniciar();
+        if (en(desde) == FIN) return desde;
+        return base + EscanerDeTexto.INSTANCIA.buscar(buffer, desde - base, limite, objetivo, tramo);
+    }
+
+    /**
+     * El texto ya leído se descarta, así que el índice de líneas no se puede
+     * armar al final: se completa cada vez que se lee un bloque y se recorta
+     * cuando la ventana se desliza (ver 'rellenar').
+     */
+    @Override
+    IndiceDeLineas lineas() {
+        return lineas;
+    }
+
+    @Override
+    int columnasEntre(int inicio, int fin) {
+        return fin - inicio;
+    }
+
+    @Override
+    boolean conservaTexto() {
+        return false;
+    }
+
+    @Override
+    void liberarHasta(int posicion) {
+        liberado = posicion;
+    }
+
+    @Override
+    void conservarDesde(int posicion) {
+        conservado = posicion;
+    }
+
+    @Override
+    long bytes() {
+        return 2L * buffer.length + lineas.bytes();
+    }
+
+    /**
+     * Lee más texto hasta cubrir 'posicion' o llegar al final del Reader.
+     * Antes de leer desliza la ventana descartando lo ya liberado; el buffer
+     * solo crece si un único token no entra en él.
+     */
+    private int rellenar(int posicion) {
+        while (!agotado && posicion - base >= limite) {
+            int descartar = Math.min(liberado, conservado) - base;
+            if (descartar > 0) {
+                System.arraycopy(buffer, descartar, buffer, 0, limite - descartar);
+                base += descartar;
+                limite -= descartar;
+                lineas.descartarHasta(base);
+            }
+            if (limite == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            try {
+                int leidos = lector.read(buffer, limite, buffer.length - limite);
+                if (leidos < 0) {
+                    agotado = true;
+                } else {
+                    for (int i = limite; i < limite + leidos; i++) {
+                        if (buffer[i] == '\n') lineas.agregarLinea(base + i + 1);
+                    }
+                    limite += leidos;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int i = posicion - base;
+        return i < limite ? buffer[i] : FIN;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+/**
+ * Fuente con todo el código fuente ya cargado en memoria.
+ * Se guarda como char[] para que EscanerDeTexto pueda recorrerlo por bloques.
+ */
+final class FuenteEnMemoria extends FuenteCodigo {
+
+    private char[] texto;
+    private int largo;   // Unidades usadas de 'texto' (después de editar puede sobrar lugar)
+
+    FuenteEnMemoria(String texto) {
+        this.texto = texto.toCharArray();
+        this.largo = this.texto.length;
+    }
+
+    /**
+     * Reemplaza el texto [offset, offset + borrados) por 'insertado', sin copiar la
+     * parte anterior (ver LexicoIncremental). Si ya estaba armado el índice de líneas,
+     * se corrige también en lugar de volver a recorrer el texto.
+     */
+    void editar(int offset, int borrados, String insertado) {
+        if (offset < 0 || borrados < 0 || offset + borrados > largo) {
+            throw new IllegalArgumentException("Edición fuera de la fuente: " + offset + "+" + borrados
+                    + " (largo " + largo + ").");
+        }
+        int resto = largo - offset - borrados;
+        int nuevoLargo = largo - borrados + insertado.length();
+        if (nuevoLargo > texto.length) {
+            // Con margen, para que escribir de a un carácter no copie todo cada vez
+            char[] nuevo = new char[nuevoLargo + (nuevoLargo >> 1)];
+            System.arraycopy(texto, 0, nuevo, 0, offset);
+            System.arraycopy(texto, offset + borrados, nuevo, offset + insertado.length(), resto);
+            texto = nuevo;
+        } else {
+            System.arraycopy(texto, offset + borrados, texto, offset + insertado.length(), resto);
+        }
+        insertado.getChars(0, insertado.length(), texto, offset);
+        largo = nuevoLargo;
+
+        IndiceDeLineas lineas = lineasSiExisten();
+        if (lineas != null) lineas.editar(offset, borrados, insertado);
+    }
+
+    @Override
+    int en(int posicion) {
+        return posicion < largo ? texto[posicion] : FIN;
+    }
+
+    @Override
+    String subcadena(int inicio, int fin) {
+        return new String(texto, inicio, fin - inicio);
+    }
+
+    @Override
+    int largo() {
+        return largo;
+    }
+
+    @Override
+    long bytes() {
+        return 2L * texto.length + super.bytes();
+    }
+
+    @Override
+    int columnasEntre(int inicio, int fin) {
+        return fin - inicio;
+    }
+
+    @Override
+    int saltarEspacios(int desde, TramoSaltado tramo) {
+        return EscanerDeTexto.INSTANCIA.saltarEspacios(texto, desde, largo);
+    }
+
+    @Override
+    int buscar(int desde, char objetivo, TramoSaltado tramo) {
+        tramo.reiniciar();
+        return EscanerDeTexto.INSTANCIA.buscar(texto, desde, largo, objetivo, tramo);
+    }
+}
@@ -0,0 +1,220 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fuente que recorre los bytes de un archivo mapeado en memoria (FileChannel.map).
+ * Cada unidad es un byte: el texto ASCII se analiza sin ninguna conversión,
+ * y el UTF-8 solo se decodifica al pedir un lexema o un carácter no ASCII.
+ */
+final class FuenteMapeada extends FuenteCodigo {
+
+    // Para los saltos largos se copian bloques a 'tramo.bloque', donde trabaja EscanerDeTexto.
+    // Los bloques empiezan chicos y se duplican mientras el tramo siga.
+    private static final int BLOQUE_INICIAL = 64;
+    private static final int BLOQUE_MAXIMO = 4096;
+    private static final int PREFIJO_ESCALAR = 8;
+    private static final int BLOQUE_COLUMNAS = 128;
+
+    private final ByteBuffer bytes;
+    private final int limite;
+
+    // Por cada bloque de BLOQUE_COLUMNAS bytes, cuántos bytes de más (respecto de
+    // las columnas UTF-16) hay antes de él. null si el archivo es todo ASCII.
+    private int[] sobrantes;
+    private boolean columnasListas = false;
+
+    FuenteMapeada(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.limite = bytes.limit();
+    }
+
+    /**
+     * Mapea el archivo completo en modo solo lectura.
+     */
+    static FuenteMapeada abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (tamanio > Integer.MAX_VALUE) {
+                throw new IOException("Archivo demasiado grande para mapear (" + tamanio + " bytes): " + archivo);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new FuenteMapeada(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio));
+        }
+    }
+
+    @Override
+    int en(int posicion) {
+        return posicion < limite ? bytes.get(posicion) & 0xFF : FIN;
+    }
+
+    @Override
+    String subcadena(int inicio, int fin) {
+        byte[] tramo = new byte[fin - inicio];
+        bytes.get(inicio, tramo);
+        return new String(tramo, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    int largo() {
+        return limite;
+    }
+
+    @Override
+    int saltarEspacios(int desde, TramoSaltado tramo) {
+        // Lo más común es un tramo corto (un espacio entre tokens): se mira sin copiar nada
+        int i = desde;
+        for (int corte = Math.min(limite, desde + PREFIJO_ESCALAR); i < corte; i++) {
+            if (!EscanerDeTexto.esEspacio(bytes.get(i))) return i;
+        }
+        byte[] bloque = bloqueDe(tramo);
+        for (int n = BLOQUE_INICIAL; i < limite; n = Math.min(n * 2, BLOQUE_MAXIMO)) {
+            int largo = Math.min(n, limite - i);
+            bytes.get(i, bloque, 0, largo);
+            int k = EscanerDeTexto.INSTANCIA.saltarEspacios(bloque, 0, largo);
+            if (k < largo) return i + k;
+            i += largo;
+        }
+        return i;
+    }
+
+    @Override
+    int buscar(int desde, char objetivo, TramoSaltado tramo) {
+        tramo.reiniciar();
+        int i = desde;
+        for (int corte = Math.min(limite, desde + PREFIJO_ESCALAR); i < corte; i++) {
+            byte b = bytes.get(i);
+            if (b == objetivo) return i;
+            if (b == '\n') tramo.lineas++;
+        }
+        byte[] bloque = bloqueDe(tramo);
+        for (int n = BLOQUE_INICIAL; i < limite; n = Math.min(n * 2, BLOQUE_MAXIMO)) {
+            int largo = Math.min(n, limite - i);
+            bytes.get(i, bloque, 0, largo);
+            int k = EscanerDeTexto.INSTANCIA.buscar(bloque, 0, largo, (byte) objetivo, tramo);
+            if (k < largo) return i + k;
+            i += largo;
+        }
+        return i;
+    }
+
+    private static byte[] bloqueDe(TramoSaltado tramo) {
+        if (tramo.bloque == null) tramo.bloque = new byte[BLOQUE_MAXIMO];
+        return tramo.bloque;
+    }
+
+    // Con texto ASCII un byte es un char y alcanzan las versiones de FuenteCodigo;
+    // si el tramo tiene UTF-8 se decodifica para comparar caracteres.
+
+    @Override
+    int hashDe(int inicio, int fin) {
+        return esAscii(inicio, fin) ? super.hashDe(inicio, fin) : subcadena(inicio, fin).hashCode();
+    }
+
+    @Override
+    boolean igualA(int inicio, int fin, String texto) {
+        return esAscii(inicio, fin) ? super.igualA(inicio, fin, texto) : subcadena(inicio, fin).equals(texto);
+    }
+
+    private boolean esAscii(int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            if (bytes.get(i) < 0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    int caracterEn(int posicion) {
+        int n = unidadesEn(posicion);
+        int b = en(posicion);
+        if (n == 1) return b < 0x80 ? b : 0xFFFD; // Byte suelto: carácter de reemplazo
+
+        int c = b & (0xFF >> (n + 1));
+        for (int i = 1; i < n; i++) {
+            c = (c << 6) | (en(posicion + i) & 0x3F);
+        }
+        return c;
+    }
+
+    @Override
+    int unidadesEn(int posicion) {
+        int b = en(posicion);
+        int n;
+        if (b >= 0xC2 && b <= 0xDF) n = 2;
+        else if (b >= 0xE0 && b <= 0xEF) n = 3;
+        else if (b >= 0xF0 && b <= 0xF4) n = 4;
+        else return 1;
+
+        // Secuencia truncada o mal formada: se toma solo el primer byte
+        for (int i = 1; i < n; i++) {
+            if ((en(posicion + i) & 0xC0) != 0x80) return 1;
+        }
+        return n;
+    }
+
+    /**
+     * Columnas en UTF-16: los bytes de continuación no suman y
+     * los caracteres de 4 bytes ocupan dos (un par sustituto).
+     */
+    @Override
+    int columnasDe(int unidad) {
+        if (unidad < 0xC0) return 0;   // 10xxxxxx: continuación
+        if (unidad >= 0xF0) return 2;
+        return 1;
+    }
+
+    /**
+     * Sin recorrer la línea desde su inicio: en un archivo ASCII cada byte es una
+     * columna, y si no, se resta lo que sobra hasta cada extremo (ver 'sobrantesHasta').
+     */
+    @Override
+    int columnasEntre(int inicio, int fin) {
+        int[] tabla = tablaDeColumnas();
+        if (tabla == null) return fin - inicio;
+        return (fin - inicio) - (sobrantesHasta(tabla, fin) - sobrantesHasta(tabla, inicio));
+    }
+
+    /**
+     * Arma la tabla de 'sobrantes' la primera vez que se pide una columna (una
+     * pasada por el archivo). Sincronizado como FuenteCodigo.lineas().
+     */
+    private synchronized int[] tablaDeColumnas() {
+        if (columnasListas) return sobrantes;
+        int[] tabla = new int[limite / BLOQUE_COLUMNAS + 1];
+        byte[] bloque = new byte[BLOQUE_COLUMNAS];
+        int acumulado = 0;
+        boolean ascii = true;
+        for (int b = 0; b < tabla.length; b++) {
+            tabla[b] = acumulado;
+            int largo = Math.min(BLOQUE_COLUMNAS, limite - b * BLOQUE_COLUMNAS);
+            bytes.get(b * BLOQUE_COLUMNAS, bloque, 0, largo);
+            for (int i = 0; i < largo; i++) {
+                if (bloque[i] >= 0) continue;
+                ascii = false;
+                acumulado += 1 - columnasDe(bloque[i] & 0xFF);
+            }
+        }
+        sobrantes = ascii ? null : tabla;
+        columnasListas = true;
+        return sobrantes;
+    }
+
+    /**
+     * Bytes de más antes de 'posicion': el valor de su bloque más lo que sobra
+     * en el bloque hasta ella (a lo sumo BLOQUE_COLUMNAS bytes).
+     */
+    private int sobrantesHasta(int[] tabla, int posicion) {
+        int b = posicion / BLOQUE_COLUMNAS;
+        int resultado = tabla[b];
+        for (int i = b * BLOQUE_COLUMNAS; i < posicion; i++) {
+            byte u = bytes.get(i);
+            if (u < 0) resultado += 1 - columnasDe(u & 0xFF);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,346 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Grafo de flujo de control de un ArbolPlano ya revisado por el
+ * AnalizadorSemantico: la representación que usan los análisis de flujo de
+ * datos (FlujoDeDatos) en lugar de recorrer el árbol.
+ *
+ * Cada bloque básico es una lista de sentencias simples (DECLARACION,
+ * ASIGNACION, LECTURA y ESCRITURA) que se ejecutan una detrás de la otra, y
+ * opcionalmente la condición de un if o un while, que se evalúa al final y
+ * elige entre sus dos sucesores. Los bloques { } no cortan bloques básicos: de
+ * ellos queda el ámbito de cada sentencia (para buscar lo que declara).
+ *   - if: el bloque de la condición sigue a la rama 'then' y a la 'else' (o,
+ *     sin 'else', al bloque de después); las dos ramas terminan en ese bloque.
+ *   - while: un bloque solo con la condición, que sigue al cuerpo o a la
+ *     salida; el cuerpo vuelve a la condición.
+ *   - break: sigue a la salida del while más interno; lo que viene después
+ *     en el mismo cuerpo queda en un bloque sin predecesores.
+ * El bloque ENTRADA empieza el programa y salida() lo termina (vacío).
+ *
+ * Como el árbol, el grafo son arreglos de enteros indexados por número de
+ * bloque, sin un objeto por bloque, y se arma con una pila propia.
+ */
+public final class GrafoDeFlujo {
+
+    /** El primer bloque del programa. */
+    public static final int ENTRADA = 0;
+
+    private final ArbolPlano arbol;
+    private final TablaSimbolos tablaSimbolos;
+
+    // Bloques: sus sentencias son instrucciones[desde[b] .. hasta[b]) (cada
+    // bloque se llena de una vez, así que quedan seguidas)
+    private int cantidad = 0;
+    private int[] desde = new int[16];
+    private int[] hasta = new int[16];
+    private int[] condiciones = new int[16];   // Expresión del final, o NINGUNO
+    private int[] sucesores = new int[32];     // Dos por bloque; NINGUNO si no hay
+    private int salida;
+
+    // Predecesores, por bloque: predecesores[inicioPredecesores[b] .. inicioPredecesores[b + 1])
+    private int[] inicioPredecesores;
+    private int[] predecesores;
+
+    // Sentencias simples de todos los bloques y el ámbito donde está cada una
+    private int[] instrucciones = new int[64];
+    private int[] ambitos = new int[64];
+    private int cantidadDeInstrucciones = 0;
+
+    private int[] orden; // Ver ordenDeRecorrido()
+
+    /**
+     * Arma el grafo de todo el programa.
+     */
+    public GrafoDeFlujo(ArbolPlano arbol, TablaSimbolos tablaSimbolos) {
+        this.arbol = arbol;
+        this.tablaSimbolos = tablaSimbolos;
+        construir();
+        armarPredecesores();
+    }
+
+    // ======================================================
+    // CONSTRUCCIÓN
+    // ======================================================
+
+    // Qué hacer con cada elemento de la pila de construir()
+    private static final int VISITAR = 0;
+    private static final int UNIR = 1;             // Termina una rama: sigue a 'destino' y empieza 'siguiente'
+    private static final int CERRAR_BUCLE = 2;     // Termina el cuerpo: vuelve a 'destino' y empieza 'siguiente' (la salida)
+    private static final int SALIR_DE_AMBITO = 3;  // Termina un bloque { }
+
+    private int[] acciones = new int[16];
+    private int[] pendientes = new int[16];   // Sentencia, o bloque destino
+    private int[] siguientes = new int[16];
+    private int topePendientes = 0;
+
+    private int actual = ArbolPlano.NINGUNO;  // Bloque que se está llenando
+    private int[] salidasDeBucle = new int[8];
+    private int topeBucles = 0;
+    private int[] ambitosAbiertos = { TablaSimbolos.GLOBAL, 0, 0, 0, 0, 0, 0, 0 };
+    private int topeAmbitos = 1;
+
+    private void construir() {
+        empezar(nuevoBloque()); // ENTRADA
+        for (int i = arbol.cantidadDeSentencias() - 1; i >= 0; i--) apilar(VISITAR, arbol.sentencia(i), 0);
+        while (topePendientes > 0) {
+            topePendientes--;
+            int s = pendientes[topePendientes];
+            int siguiente = siguientes[topePendientes];
+            switch (acciones[topePendientes]) {
+                case VISITAR:
+                    visitar(s);
+                    break;
+                case UNIR:
+                    arista(actual, s);
+                    empezar(siguiente);
+                    break;
+                case CERRAR_BUCLE:
+                    arista(actual, s);
+                    topeBucles--;
+                    empezar(siguiente);
+                    break;
+                default: // SALIR_DE_AMBITO
+                    topeAmbitos--;
+                    break;
+            }
+        }
+        salida = nuevoBloque();
+        arista(actual, salida);
+        empezar(salida);
+        hasta[salida] = cantidadDeInstrucciones;
+    }
+
+    private void visitar(int s) {
+        switch (arbol.clase(s)) {
+            case ArbolPlano.BLOQUE:
+                if (topeAmbitos == ambitosAbiertos.length) ambitosAbiertos = Arrays.copyOf(ambitosAbiertos, topeAmbitos * 2);
+                ambitosAbiertos[topeAmbitos++] = arbol.ambito(s);
+                apilar(SALIR_DE_AMBITO, s, 0);
+                for (int i = arbol.largo(s) - 1; i >= 0; i--) apilar(VISITAR, arbol.sentencia(s, i), 0);
+                return;
+
+            case ArbolPlano.CONDICIONAL: {
+                condiciones[actual] = arbol.condicion(s);
+                int entonces = nuevoBloque();
+                int despues = nuevoBloque();
+                int sino = (arbol.sino(s) != ArbolPlano.NINGUNO) ? nuevoBloque() : despues;
+                arista(actual, entonces);
+                arista(actual, sino);
+                // Al revés: 'then', paso al 'else', 'else', paso a lo de después
+                apilar(UNIR, despues, despues);
+                if (sino != despues) {
+                    apilar(VISITAR, arbol.sino(s), 0);
+                    apilar(UNIR, despues, sino);
+                }
+                if (arbol.cuerpo(s) != ArbolPlano.NINGUNO) apilar(VISITAR, arbol.cuerpo(s), 0);
+                empezar(entonces);
+                return;
+            }
+
+            case ArbolPlano.MIENTRAS: {
+                int cabecera = nuevoBloque();
+                int cuerpo = nuevoBloque();
+                int despues = nuevoBloque();
+                arista(actual, cabecera);
+                condiciones[cabecera] = arbol.condicion(s);
+                arista(cabecera, cuerpo);
+                arista(cabecera, despues);
+                if (topeBucles == salidasDeBucle.length) salidasDeBucle = Arrays.copyOf(salidasDeBucle, topeBucles * 2);
+                salidasDeBucle[topeBucles++] = despues;
+                apilar(CERRAR_BUCLE, cabecera, despues);
+                if (arbol.cuerpo(s) != ArbolPlano.NINGUNO) apilar(VISITAR, arbol.cuerpo(s), 0);
+                empezar(cuerpo);
+                return;
+            }
+
+            case ArbolPlano.INTERRUMPIR:
+                if (topeBucles == 0) return; // Fuera de un while: ya es un error semántico
+                arista(actual, salidasDeBucle[topeBucles - 1]);
+                empezar(nuevoBloque()); // Lo que sigue no se alcanza por acá
+                return;
+
+            default: // DECLARACION, ASIGNACION, LECTURA, ESCRITURA
+                if (cantidadDeInstrucciones == instrucciones.length) {
+                    instrucciones = Arrays.copyOf(instrucciones, cantidadDeInstrucciones * 2);
+                    ambitos = Arrays.copyOf(ambitos, cantidadDeInstrucciones * 2);
+                }
+                instrucciones[cantidadDeInstrucciones] = s;
+                ambitos[cantidadDeInstrucciones] = ambitosAbiertos[topeAmbitos - 1];
+                cantidadDeInstrucciones++;
+                return;
+        }
+    }
+
+    private int nuevoBloque() {
+        if (cantidad == desde.length) {
+            desde = Arrays.copyOf(desde, cantidad * 2);
+            hasta = Arrays.copyOf(hasta, cantidad * 2);
+            condiciones = Arrays.copyOf(condiciones, cantidad * 2);
+            sucesores = Arrays.copyOf(sucesores, cantidad * 4);
+        }
+        condiciones[cantidad] = ArbolPlano.NINGUNO;
+        sucesores[2 * cantidad] = ArbolPlano.NINGUNO;
+        sucesores[2 * cantidad + 1] = ArbolPlano.NINGUNO;
+        return cantidad++;
+    }
+
+    /**
+     * Cierra el bloque actual y empieza a llenar 'b' (los bloques que nunca
+     * se empiezan, como el de la condición de un while, quedan sin sentencias).
+     */
+    private void empezar(int b) {
+        if (actual != ArbolPlano.NINGUNO) hasta[actual] = cantidadDeInstrucciones;
+        actual = b;
+        desde[b] = cantidadDeInstrucciones;
+    }
+
+    /** Cada bloque recibe sus sucesores al terminar: a lo sumo dos. */
+    private void arista(int de, int a) {
+        sucesores[sucesores[2 * de] == ArbolPlano.NINGUNO ? 2 * de : 2 * de + 1] = a;
+    }
+
+    private void apilar(int accion, int s, int siguiente) {
+        if (topePendientes == pendientes.length) {
+            acciones = Arrays.copyOf(acciones, topePendientes * 2);
+            pendientes = Arrays.copyOf(pendientes, topePendientes * 2);
+            siguientes = Arrays.copyOf(siguientes, topePendientes * 2);
+        }
+        acciones[topePendientes] = accion;
+        pendientes[topePendientes] = s;
+        siguientes[topePendientes] = siguiente;
+        topePendientes++;
+    }
+
+    private void armarPredecesores() {
+        inicioPredecesores = new int[cantidad + 1];
+        for (int i = 0; i < 2 * cantidad; i++) {
+            if (sucesores[i] != ArbolPlano.NINGUNO) inicioPredecesores[sucesores[i] + 1]++;
+        }
+        for (int b = 0; b < cantidad; b++) inicioPredecesores[b + 1] += inicioPredecesores[b];
+        predecesores = new int[inicioPredecesores[cantidad]];
+        int[] llenos = Arrays.copyOf(inicioPredecesores, cantidad);
+        for (int i = 0; i < 2 * cantidad; i++) {
+            if (sucesores[i] != ArbolPlano.NINGUNO) predecesores[llenos[sucesores[i]]++] = i / 2;
+        }
+    }
+
+    // ======================================================
+    // CONSULTAS
+    // ======================================================
+
+    public ArbolPlano arbol() { return arbol; }
+
+    public TablaSimbolos tablaSimbolos() { return tablaSimbolos; }
+
+    public int cantidadDeBloques() { return cantidad; }
+
+    /** El último bloque: el fin del programa. */
+    public int salida() { return salida; }
+
+    public int cantidadDeInstrucciones(int b) { return hasta[b] - desde[b]; }
+
+    /** i-ésima sentencia simple del bloque 'b'. */
+    public int instruccion(int b, int i) { return instrucciones[desde[b] + i]; }
+
+    /** Ámbito (ver TablaSimbolos) de la i-ésima sentencia del bloque 'b'. */
+    public int ambito(int b, int i) { return ambitos[desde[b] + i]; }
+
+    /** Condición que se evalúa al final del bloque, o NINGUNO. */
+    public int condicion(int b) { return condiciones[b]; }
+
+    public int cantidadDeSucesores(int b) {
+        return sucesores[2 * b] == ArbolPlano.NINGUNO ? 0 : sucesores[2 * b + 1] == ArbolPlano.NINGUNO ? 1 : 2;
+    }
+
+    public int sucesor(int b, int i) { return sucesores[2 * b + i]; }
+
+    public int cantidadDePredecesores(int b) { return inicioPredecesores[b + 1] - inicioPredecesores[b]; }
+
+    public int predecesor(int b, int i) { return predecesores[inicioPredecesores[b] + i]; }
+
+    /**
+     * Índice en TablaSimbolos del k-ésimo nombre que declara la DECLARACION
+     * que es la i-ésima sentencia del bloque 'b', o NINGUNO.
+     */
+    public int simboloDeclarado(int b, int i, int k) {
+        Simbolo s = tablaSimbolos.buscar(ambito(b, i), arbol.idDeclarado(instruccion(b, i), k));
+        return s == null ? ArbolPlano.NINGUNO : s.indice();
+    }
+
+    /**
+     * Los bloques que se alcanzan desde ENTRADA en orden inverso de postorden
+     * (cada uno antes que sus sucesores, salvo por la vuelta de los while) y
+     * después los que no se alcanzan. En ese orden, un análisis hacia adelante
+     * converge en pocas pasadas; uno hacia atrás usa el orden al revés.
+     */
+    public int[] ordenDeRecorrido() {
+        if (orden != null) return orden;
+        int[] resultado = new int[cantidad];
+        int ultimo = cantidad;  // Se llena de atrás hacia adelante: postorden al revés
+        boolean[] vistos = new boolean[cantidad];
+        int[] pila = new int[cantidad];     // Bloques del camino
+        int[] hijos = new int[cantidad];    // Próximo sucesor a mirar de cada uno
+        int tope = 0;
+        pila[tope++] = ENTRADA;
+        vistos[ENTRADA] = true;
+        while (tope > 0) {
+            int b = pila[tope - 1];
+            if (hijos[tope - 1] < cantidadDeSucesores(b)) {
+                int s = sucesor(b, hijos[tope - 1]++);
+                if (!vistos[s]) {
+                    vistos[s] = true;
+                    pila[tope] = s;
+                    hijos[tope] = 0;
+                    tope++;
+                }
+            } else {
+                resultado[--ultimo] = b;
+                tope--;
+            }
+        }
+        // Los alcanzables quedaron en [ultimo, cantidad): se corren al principio
+        int alcanzables = cantidad - ultimo;
+        System.arraycopy(resultado, ultimo, resultado, 0, alcanzables);
+        int n = alcanzables;
+        for (int b = 0; b < cantidad; b++) {
+            if (!vistos[b]) resultado[n++] = b;
+        }
+        orden = resultado;
+        return orden;
+    }
+
+    // Pila de variablesDe()
+    private int[] expresiones = new int[16];
+
+    /**
+     * Llama a 'accion' con cada nodo VARIABLE de la expresión, de izquierda a
+     * derecha.
+     */
+    public void variablesDe(int expresion, IntConsumer accion) {
+        int tope = 0;
+        expresiones[tope++] = expresion;
+        while (tope > 0) {
+            int e = expresiones[--tope];
+            if (tope + 2 > expresiones.length) expresiones = Arrays.copyOf(expresiones, expresiones.length * 2);
+            switch (arbol.clase(e)) {
+                case ArbolPlano.VARIABLE:
+                    accion.accept(e);
+                    break;
+                case ArbolPlano.BINARIA:
+                    expresiones[tope++] = arbol.derecha(e);
+                    expresiones[tope++] = arbol.hijo(e);
+                    break;
+                case ArbolPlano.AGRUPACION:
+                case ArbolPlano.UNARIA:
+                    expresiones[tope++] = arbol.hijo(e);
+                    break;
+                default:
+                    break; // Literales
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import java.util.ArrayDeque;
+
+/**
+ * Arma el texto de los nodos del AST (lo que devuelven sus toString()).
+ * En lugar de que cada nodo llame al toString() de sus hijos, las partes
+ * pendientes van en una pila propia: un árbol muy profundo no desborda la de Java.
+ * Las partes de cada clase de nodo las da un VisitanteAST.
+ */
+final class ImpresorAST {
+
+    private ImpresorAST() { }
+
+    /**
+     * Texto de una Sentencia o Expresion.
+     */
+    static String imprimir(Object nodo) {
+        StringBuilder sb = new StringBuilder();
+        // Texto ya armado (String) o nodos por expandir; la próxima parte arriba
+        ArrayDeque<Object> pendientes = new ArrayDeque<>();
+        pendientes.push(nodo);
+        while (!pendientes.isEmpty()) {
+            Object p = pendientes.pop();
+            if (p instanceof String texto) {
+                sb.append(texto);
+            } else {
+                Object[] partes = partes(p);
+                for (int i = partes.length - 1; i >= 0; i--) {
+                    pendientes.push(partes[i] == null ? "null" : partes[i]);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Las partes de un nodo en orden: texto fijo e hijos (que pueden ser null).
+     */
+    private static Object[] partes(Object nodo) {
+        if (nodo instanceof Sentencia s) return s.aceptar(PARTES);
+        if (nodo instanceof Expresion e) return e.aceptar(PARTES);
+        return new Object[] { String.valueOf(nodo) };
+    }
+
+    private static final VisitanteAST<Object[]> PARTES = new VisitanteAST<>() {
+
+        // Sentencias
+
+        @Override
+        public Object[] visitarDeclaracion(Sentencia.Declaracion d) {
+            return new Object[] { "Declaracion(" + d.tipo() + " " + String.join(", ", d.nombres()) + ")" };
+        }
+
+        @Override
+        public Object[] visitarAsignacion(Sentencia.Asignacion a) {
+            return new Object[] { "Asignacion(" + a.nombre() + " = ", a.valor(), ")" };
+        }
+
+        @Override
+        public Object[] visitarLectura(Sentencia.Lectura r) { return new Object[] { "Lectura(" + r.nombre() + ")" }; }
+
+        @Override
+        public Object[] visitarEscritura(Sentencia.Escritura w) { return new Object[] { "Escritura(", w.expresion(), ")" }; }
+
+        @Override
+        public Object[] visitarBloque(Sentencia.Bloque b) {
+            // Como List.toString(): Bloque[s1, s2]
+            int n = b.sentencias().size();
+            if (n == 0) return new Object[] { "Bloque[]" };
+            Object[] partes = new Object[2 * n + 1];
+            partes[0] = "Bloque[";
+            for (int i = 0; i < n; i++) {
+                if (i > 0) partes[2 * i] = ", ";
+                partes[2 * i + 1] = b.sentencias().get(i);
+            }
+            partes[2 * n] = "]";
+            return partes;
+        }
+
+        @Override
+        public Object[] visitarCondicional(Sentencia.Condicional c) {
+            return new Object[] { "Si(", c.condicion(), ", entonces=", c.ramaEntonces(), ", sino=", c.ramaSino(), ")" };
+        }
+
+        @Override
+        public Object[] visitarMientras(Sentencia.Mientras m) {
+            return new Object[] { "Mientras(", m.condicion(), ", ", m.cuerpo(), ")" };
+        }
+
+        @Override
+        public Object[] visitarInterrumpir(Sentencia.Interrumpir i) { return new Object[] { "Interrumpir" }; }
+
+        // Expresiones
+
+        @Override
+        public Object[] visitarLiteral(Expresion.Literal l) {
+            return new Object[] { "Literal(" + l.tipoLiteral() + ":" + l.valor() + ")" };
+        }
+
+        @Override
+        public Object[] visitarEntero(Expresion.Entero e) {
+            return new Object[] { "Literal(" + TokenType.INT_LITERAL + ":" + e.valor() + ")" };
+        }
+
+        @Override
+        public Object[] visitarDecimal(Expresion.Decimal d) {
+            return new Object[] { "Literal(" + TokenType.DOUBLE_LITERAL + ":" + d.valor() + ")" };
+        }
+
+        @Override
+        public Object[] visitarVariable(Expresion.Variable v) { return new Object[] { "Var(" + v.nombre() + ")" }; }
+
+        @Override
+        public Object[] visitarAgrupacion(Expresion.Agrupacion g) { return new Object[] { "Grupo(", g.interna(), ")" }; }
+
+        @Override
+        public Object[] visitarUnaria(Expresion.Unaria u) { return new Object[] { "Unario(" + u.op() + " ", u.derecha(), ")" }; }
+
+        @Override
+        public Object[] visitarBinaria(Expresion.Binaria b) {
+            return new Object[] { "Binario(", b.izquierda(), " " + b.op() + " ", b.derecha(), ")" };
+        }
+    };
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Posición de inicio de cada línea de una fuente.
+ * Tokens, nodos del AST y errores guardan solo una posición absoluta;
+ * la línea y la columna se calculan aquí (por bisección) cuando se muestran.
+ *
+ * Las fuentes que descartan el texto ya leído (FuenteConLector) guardan
+ * solo los inicios de su ventana y cuentan las líneas anteriores: lo que
+ * haya que mostrar después se fija mientras su posición sigue en la ventana.
+ */
+public final class IndiceDeLineas {
+
+    private final FuenteCodigo fuente;
+    private int[] inicios = new int[256];  // inicios[i] = posición del primer carácter de la línea i+1
+    private int cantidad = 1;              // La línea 1 empieza en 0
+    private int descartadas = 0;           // Líneas anteriores a inicios[0] (solo con ventana)
+
+    // Posiciones anteriores a la ventana cuya línea y columna se resolvieron
+    // antes de descartarla (ver 'fijar'), ordenadas; la ubicación es línea << 32 | columna
+    private int[] posicionesFijadas = new int[0];
+    private long[] ubicacionesFijadas = new long[0];
+    private int cantidadFijadas = 0;
+    private int reservada = -1;            // Ver 'reservar'
+    private long ubicacionReservada;
+
+    IndiceDeLineas(FuenteCodigo fuente) {
+        this.fuente = fuente;
+    }
+
+    /**
+     * Recorre toda la fuente buscando los '\n' (ver FuenteCodigo.buscar).
+     */
+    static IndiceDeLineas construir(FuenteCodigo fuente) {
+        IndiceDeLineas indice = new IndiceDeLineas(fuente);
+        TramoSaltado tramo = new TramoSaltado();
+        int p = 0;
+        while (fuente.en(p) != FuenteCodigo.FIN) {
+            p = fuente.buscar(p, '\n', tramo);
+            if (fuente.en(p) == '\n') indice.agregarLinea(++p);
+        }
+        return indice;
+    }
+
+    /**
+     * Corrige el índice después de reemplazar [offset, offset + borrados) por 'insertado':
+     * las líneas anteriores quedan, las del tramo borrado se quitan, las del texto
+     * insertado se buscan en él y las posteriores se corren, sin recorrer la fuente.
+     */
+    void editar(int offset, int borrados, String insertado) {
+        int antes = linea(offset);                 // Líneas que empiezan en offset o antes
+        int despues = linea(offset + borrados);    // Primera que empieza después del tramo borrado
+        int corrimiento = insertado.length() - borrados;
+
+        int agregadas = 0;
+        for (int i = insertado.indexOf('\n'); i >= 0; i = insertado.indexOf('\n', i + 1)) agregadas++;
+
+        int resto = cantidad - despues;
+        int nuevoDespues = antes + agregadas;
+        if (nuevoDespues + resto > inicios.length) {
+            inicios = Arrays.copyOf(inicios, Math.max(inicios.length * 2, nuevoDespues + resto));
+        }
+        System.arraycopy(inicios, despues, inicios, nuevoDespues, resto);
+        cantidad = antes;
+        for (int i = insertado.indexOf('\n'); i >= 0; i = insertado.indexOf('\n', i + 1)) {
+            inicios[cantidad++] = offset + i + 1;
+        }
+        cantidad += resto;
+        for (int i = nuevoDespues; i < cantidad; i++) inicios[i] += corrimiento;
+    }
+
+    /**
+     * Registra que una línea empieza en 'inicio' (después de un '\n').
+     * Las líneas deben agregarse en orden.
+     */
+    void agregarLinea(int inicio) {
+        if (cantidad == inicios.length) inicios = Arrays.copyOf(inicios, cantidad * 2);
+        inicios[cantidad++] = inicio;
+    }
+
+    /**
+     * Olvida los inicios de las líneas que terminan antes de 'posicion' (queda la
+     * línea que la contiene) y solo las cuenta. Lo usa la fuente al deslizar su ventana.
+     */
+    void descartarHasta(int posicion) {
+        int i = Arrays.binarySearch(inicios, 0, cantidad, posicion);
+        int primera = (i >= 0 ? i : -(i + 1) - 1); // Última que empieza en 'posicion' o antes
+        if (primera <= 0) return;
+        System.arraycopy(inicios, primera, inicios, 0, cantidad - primera);
+        cantidad -= primera;
+        descartadas += primera;
+    }
+
+    /**
+     * Resuelve ya la línea y la columna de 'posicion', que debe estar en la ventana,
+     * para poder mostrarla después de que se descarte. Lo usan los Diagnosticos de
+     * las fuentes con ventana al guardar cada uno.
+     */
+    void fijar(int posicion) {
+        int i = Arrays.binarySearch(posicionesFijadas, 0, cantidadFijadas, posicion);
+        if (i >= 0) return;
+        long ubicacion = ubicar(posicion);
+        i = -(i + 1);
+        if (cantidadFijadas == posicionesFijadas.length) {
+            int nueva = Math.max(16, cantidadFijadas * 2);
+            posicionesFijadas = Arrays.copyOf(posicionesFijadas, nueva);
+            ubicacionesFijadas = Arrays.copyOf(ubicacionesFijadas, nueva);
+        }
+        System.arraycopy(posicionesFijadas, i, posicionesFijadas, i + 1, cantidadFijadas - i);
+        System.arraycopy(ubicacionesFijadas, i, ubicacionesFijadas, i + 1, cantidadFijadas - i);
+        posicionesFijadas[i] = posicion;
+        ubicacionesFijadas[i] = ubicacion;
+        cantidadFijadas++;
+    }
+
+    /**
+     * Como 'fijar', pero en un solo lugar que se reemplaza en cada llamada: el léxico
+     * lo usa para el comienzo de cada comentario, que se descarta mientras se lee y
+     * solo se muestra si el comentario no se cierra (ahí se fija con 'fijar').
+     */
+    void reservar(int posicion) {
+        ubicacionReservada = ubicar(posicion);
+        reservada = posicion;
+    }
+
+    private long ubicar(int posicion) {
+        if (posicion >= inicios[0]) return ((long) linea(posicion) << 32) | columna(posicion);
+        int i = Arrays.binarySearch(posicionesFijadas, 0, cantidadFijadas, posicion);
+        if (i >= 0) return ubicacionesFijadas[i];
+        if (posicion == reservada) return ubicacionReservada;
+        throw new IllegalStateException("La posición " + posicion + " ya salió de la ventana de la fuente.");
+    }
+
+    /**
+     * Número de línea (desde 1) de la posición.
+     */
+    public int linea(int posicion) {
+        if (posicion < inicios[0]) return (int) (ubicar(posicion) >>> 32);
+        int i = Arrays.binarySearch(inicios, 0, cantidad, posicion);
+        // Si no es el inicio exacto de una línea, binarySearch devuelve -(punto de inserción) - 1
+        return descartadas + (i >= 0 ? i + 1 : -(i + 1));
+    }
+
+    /**
+     * Columna (desde 1) de la posición, contada como la cuenta el léxico:
+     * una por carácter UTF-16 (ver FuenteCodigo.columnasEntre).
+     */
+    public int columna(int posicion) {
+        if (posicion < inicios[0]) return (int) ubicar(posicion);
+        return 1 + fuente.columnasEntre(inicios[linea(posicion) - descartadas - 1], posicion);
+    }
+
+    public int cantidadDeLineas() {
+        return descartadas + cantidad;
+    }
+
+    /** Memoria que ocupan los arreglos del índice, en bytes. */
+    long bytes() {
+        return 4L * inicios.length + 12L * posicionesFijadas.length;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Análisis léxico incremental para editores: dado el flujo de tokens de una
+ * fuente en memoria y una edición (se borran 'borrados' unidades desde 'offset'
+ * y se inserta un texto), vuelve a analizar solo la zona afectada.
+ *
+ * Se empieza en el último token que empieza antes de la edición (el léxico mira
+ * a lo sumo un carácter más allá del token que reconoce, así que los anteriores
+ * no pueden cambiar) y se sigue hasta que un token nuevo, ya pasado el texto
+ * insertado, empieza donde empezaba uno viejo: desde ahí el texto es el mismo y
+ * los tokens también, así que los viejos se conservan con la posición corrida.
+ *
+ * El buffer, su fuente y su índice de líneas se editan en el lugar: lo único que
+ * recorre el resto del archivo es la copia (System.arraycopy) y el corrimiento
+ * de las posiciones que siguen a la edición.
+ */
+public final class LexicoIncremental {
+
+    private LexicoIncremental() { }
+
+    /**
+     * Qué cambió en el buffer con una edición.
+     */
+    public static final class Resultado {
+        /** Índice del primer token que se volvió a analizar. */
+        public final int primero;
+        /** Cuántos tokens se volvieron a analizar: quedan en [primero, primero + nuevos). */
+        public final int nuevos;
+        /** Cuántos tokens había antes de la edición en lugar de esos, desde 'primero'. */
+        public final int reemplazados;
+        /** Errores léxicos del tramo que se volvió a analizar. */
+        public final List<Diagnostico> errores;
+
+        Resultado(int primero, int nuevos, int reemplazados, List<Diagnostico> errores) {
+            this.primero = primero;
+            this.nuevos = nuevos;
+            this.reemplazados = reemplazados;
+            this.errores = errores;
+        }
+    }
+
+    /**
+     * Aplica la edición a la fuente de 'tokens' y deja en 'tokens' el flujo del
+     * texto resultante. Los ids de los nombres no cambian: los nuevos se internan
+     * en la misma tabla.
+     */
+    public static Resultado reanalizar(TokenBuffer tokens, int offset, int borrados, String insertado) {
+        if (!(tokens.fuente() instanceof FuenteEnMemoria)) {
+            throw new IllegalStateException("reanalizar() necesita tokens de una fuente en memoria.");
+        }
+        FuenteEnMemoria fuente = (FuenteEnMemoria) tokens.fuente();
+        fuente.editar(offset, borrados, insertado);
+        int corrimiento = insertado.length() - borrados;
+
+        // Último token que empieza antes de la edición (o el principio si no hay).
+        // Hasta el empalme, 'tokens' sigue con las posiciones de antes de editar.
+        int previo = tokens.ultimoAntesDe(offset);
+        int primero = Math.max(0, previo);
+        int desde = previo >= 0 ? tokens.inicio(previo) : 0;
+
+        AnalizadorLexico lexico = new AnalizadorLexico(fuente, true, desde, tokens.nombres());
+        TokenBuffer nuevos = lexico.analizarHastaSincronizar(tokens, offset + insertado.length(), corrimiento);
+
+        int fin = lexico.finDeTramo();
+        int reanudar = tokens.buscarInicio(fin - corrimiento);
+        if (reanudar < 0) {
+            // Solo si el flujo anterior no terminaba en EOF
+            nuevos.agregar(TokenType.EOF, fin, 0, 0);
+            reanudar = tokens.tamanio();
+        }
+
+        List<Diagnostico> errores = new ArrayList<>();
+        List<Diagnostico> encontrados = lexico.diagnosticosLexicos();
+        for (int i = 0; i < encontrados.size(); i++) {
+            if (lexico.posicionDeError(i) < fin) errores.add(encontrados.get(i));
+        }
+
+        tokens.reemplazar(primero, reanudar, nuevos, corrimiento);
+        return new Resultado(primero, nuevos.tamanio(), reanudar - primero, errores);
+    }
+}
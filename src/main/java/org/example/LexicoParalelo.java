@@ -0,0 +1,133 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Análisis léxico en paralelo sobre una fuente en memoria o mapeada.
+ *
+ * La fuente se corta en tramos que empiezan justo después de un '\n' y cada
+ * tramo se analiza en un hilo del ForkJoinPool común, suponiendo que en ese
+ * punto no hay un comentario ni una cadena abiertos. Después se unen en orden:
+ * si el tramo anterior terminó donde este empezó (o en el inicio de alguno de
+ * sus tokens), la suposición era correcta; si no (un '/*' o un '"' venía
+ * abierto), ese tramo se vuelve a analizar desde donde terminó el anterior.
+ *
+ * Los tokens solo guardan su posición, así que no hay líneas que corregir al unirlos.
+ */
+final class LexicoParalelo {
+
+    // Por debajo de esto no conviene repartir: se analiza en un solo tramo
+    static final int TAMANIO_MINIMO_TRAMO = 1 << 16;
+
+    // Más tramos que hilos, para que los más lentos no dejen hilos ociosos
+    private static final int TRAMOS_POR_HILO = 4;
+
+    private LexicoParalelo() { }
+
+    /**
+     * Un tramo [inicio, fin) de la fuente y el resultado de analizarlo.
+     */
+    private static final class Tramo {
+        final int inicio;
+        final int fin;
+        AnalizadorLexico lexico;
+        TokenBuffer tokens;
+
+        Tramo(int inicio, int fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+    }
+
+    /**
+     * Cuántos tramos conviene usar: de al menos TAMANIO_MINIMO_TRAMO unidades,
+     * y uno solo si el pool tiene un único hilo.
+     */
+    static int cantidadDeTramos(FuenteCodigo fuente) {
+        int hilos = ForkJoinPool.getCommonPoolParallelism();
+        if (hilos <= 1) return 1;
+        return Math.max(1, Math.min(fuente.largo() / TAMANIO_MINIMO_TRAMO, hilos * TRAMOS_POR_HILO));
+    }
+
+    /**
+     * Analiza toda la fuente en 'partes' tramos (pueden salir menos si faltan '\n'):
+     * agrega los tokens (con EOF al final) a 'destino' y los errores a 'principal',
+     * en el mismo orden que el análisis secuencial.
+     */
+    static void analizar(FuenteCodigo fuente, boolean usarTablas, TokenBuffer destino, AnalizadorLexico principal, int partes) {
+        List<Tramo> tramos = dividir(fuente, Math.max(1, partes));
+
+        // 1. Análisis especulativo de cada tramo
+        enParalelo(tramos, t -> {
+            t.lexico = new AnalizadorLexico(fuente, usarTablas, t.inicio);
+            t.tokens = t.lexico.analizarTramo(t.fin);
+        });
+
+        // 2. Unión en orden. 'posicion' es donde empieza el próximo token según
+        //    el análisis ya aceptado.
+        int posicion = 0;
+        for (Tramo t : tramos) {
+            if (posicion >= t.fin) continue; // Un comentario o cadena del anterior lo cubrió entero
+
+            AnalizadorLexico lexico = t.lexico;
+            TokenBuffer tokens = t.tokens;
+            int desde;
+            if (posicion == t.inicio) {
+                desde = 0;
+            } else if ((desde = tokens.buscarInicio(posicion)) >= 0) {
+                // Empezó mal, pero se volvió a sincronizar en un token que sigue valiendo
+            } else if (posicion == lexico.finDeTramo()) {
+                desde = tokens.tamanio(); // No queda ningún token de este tramo
+            } else {
+                // Empezó dentro de un comentario o una cadena: se repite desde el lugar correcto
+                lexico = new AnalizadorLexico(fuente, usarTablas, posicion);
+                tokens = lexico.analizarTramo(t.fin);
+                desde = 0;
+            }
+
+            destino.agregarDesde(tokens, desde);
+            List<Diagnostico> errores = lexico.diagnosticosLexicos();
+            for (int i = 0; i < errores.size(); i++) {
+                int p = lexico.posicionDeError(i);
+                if (p >= posicion && p < lexico.finDeTramo()) principal.agregarDiagnostico(p, errores.get(i));
+            }
+
+            posicion = lexico.finDeTramo();
+        }
+        // El último tramo siempre termina en EOF
+        destino.agregar(TokenType.EOF, posicion, 0, 0);
+    }
+
+    /**
+     * Corta la fuente en tramos que empiezan después de un '\n'.
+     */
+    private static List<Tramo> dividir(FuenteCodigo fuente, int partes) {
+        int largo = fuente.largo();
+        List<Tramo> tramos = new ArrayList<>(partes);
+        int inicio = 0;
+        for (int k = 1; k < partes; k++) {
+            int corte = (int) ((long) largo * k / partes);
+            if (corte <= inicio) continue;
+            while (corte < largo && fuente.en(corte - 1) != '\n') corte++;
+            if (corte >= largo) break;
+            tramos.add(new Tramo(inicio, corte));
+            inicio = corte;
+        }
+        tramos.add(new Tramo(inicio, largo));
+        return tramos;
+    }
+
+    private static void enParalelo(List<Tramo> tramos, Consumer<Tramo> tarea) {
+        if (tramos.size() == 1) {
+            tarea.accept(tramos.get(0));
+            return;
+        }
+        List<ForkJoinTask<?>> tareas = new ArrayList<>(tramos.size());
+        for (Tramo t : tramos) tareas.add(ForkJoinTask.adapt(() -> tarea.accept(t)));
+        ForkJoinTask.invokeAll(tareas);
+    }
+}
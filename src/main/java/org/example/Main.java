@@ -1,15 +1,15 @@
 package org.example;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.NoSuchFileException;
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.List;
 
 public class Main {
 
     public static void main(String[] args) { // <-- 'args' es la clave
-        String codigoFuente;
+        AnalizadorLexico lexer;
         String nombreArchivo; // <-- Variable para guardar el nombre del archivo
 
         // --- MODIFICACIÓN CLAVE ---
@@ -25,9 +25,10 @@ public class Main {
             return; // Salimos del programa
         }
 
-        // 2. Intentar leer el archivo que nos pasó el profesor
+        // 2. Intentar abrir el archivo que nos pasó el profesor.
+        //    Se mapea en memoria y el léxico recorre sus bytes directamente.
         try {
-            codigoFuente = Files.readString(Path.of(nombreArchivo));
+            lexer = AnalizadorLexico.mapearArchivo(Path.of(nombreArchivo));
             
             System.out.println("--- Compilando archivo: " + nombreArchivo + " ---");
             // No imprimimos el código fuente, solo los resultados.
@@ -49,15 +50,19 @@ public class Main {
         // (Esta parte queda exactamente igual)
         // ======================================================
         
-        AnalizadorLexico lexer = new AnalizadorLexico(codigoFuente);
-        List<Token> tokens = lexer.analizarTokens();
+        // Todas las fases reportan en el mismo colector; los mensajes se arman al imprimirlos.
+        // Con -Dcompilador.maxErrores=N se guardan solo los primeros N errores.
+        Diagnosticos diagnosticos = lexer.getDiagnosticos();
+        diagnosticos.setMaximoDeErrores(Integer.getInteger("compilador.maxErrores", Diagnosticos.SIN_LIMITE));
+
+        TokenBuffer tokens = lexer.analizarBuffer();
 
         System.out.println("=== TOKENS ===");
-        if (tokens.isEmpty()) {
+        if (tokens.tamanio() == 0) {
             System.out.println("(ninguno)");
         } else {
-            for (Token t : tokens) {
-                System.out.println(t);
+            for (int i = 0; i < tokens.tamanio(); i++) {
+                System.out.println(tokens.token(i));
             }
         }
 
@@ -69,45 +74,43 @@ public class Main {
         }
 
         // ======================================================
-        // FASE 2: TABLA DE SÍMBOLOS (RECOLECCIÓN)
+        // FASE 2: PARSER (AST Y TABLA DE SÍMBOLOS)
         // ======================================================
 
-        // Usamos nuestras nuevas clases en español
-        RecolectorDeDeclaraciones recolector = new RecolectorDeDeclaraciones(tokens);
-        recolector.recolectar(); // Inicia el mini-parser
+        // Una sola pasada por los tokens: las declaraciones son nodos del AST
+        // y llenan la Tabla de Símbolos a medida que se leen
+        // Con -Dcompilador.maxErroresSintacticos=N el parser se abandona después de N errores
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+        parser.setMaximoDeErrores(Integer.getInteger("compilador.maxErroresSintacticos",
+                AnalizadorSintactico.MAXIMO_DE_ERRORES_POR_OMISION));
+        ArbolPlano arbol = parser.analizarPlano();
+        TablaSimbolos tablaSimbolos = parser.getTablaSimbolos();
 
         System.out.println("\n=== TABLA DE SIMBOLOS ===");
         // Comprobamos si la tabla está vacía
-        if (recolector.getTablaSimbolos().obtenerTodos().isEmpty()) {
+        if (tablaSimbolos.obtenerTodos().isEmpty()) {
             System.out.println("(vacia)");
         } else {
             // Imprimimos cabeceras que coinciden con el Simbolo.toString()
             System.out.println("Nombre         | Tipo     | Ambito   | Linea | Valor");
             System.out.println("---------------+----------+----------+-------+-------");
             // Imprimimos cada símbolo
-            recolector.getTablaSimbolos().obtenerTodos().values().forEach(System.out::println);
+            tablaSimbolos.obtenerTodos().forEach(System.out::println);
         }
 
-        // Imprimimos los errores sintácticos encontrados por el Recolector
+        // Imprimimos los errores sintácticos de las declaraciones
         System.out.println("\n=== ERRORES SINTACTICOS (declaraciones) ===");
-        if (recolector.getErrores().isEmpty()) {
+        if (parser.getErroresDeDeclaraciones().isEmpty()) {
             System.out.println("(ninguno)");
         } else {
-            recolector.getErrores().forEach(System.out::println);
+            parser.getErroresDeDeclaraciones().forEach(System.out::println);
         }
 
-        // ======================================================
-        // FASE 3: PARSER (CONSTRUCCIÓN DEL AST)
-        // ======================================================
-        
-        AnalizadorSintactico parser = new AnalizadorSintactico(tokens);
-        List<Sentencia> sentencias = parser.analizar();
-
         System.out.println("\n=== PARSER: SENTENCIAS (AST) ===");
-        if (sentencias.isEmpty()) {
+        if (arbol.cantidadDeSentencias() == 0) {
              System.out.println("(ninguna)");
         } else {
-            for (Sentencia s : sentencias) {
+            for (Sentencia s : arbol.aSentencias()) {
                 System.out.println(s);
             }
         }
@@ -121,11 +124,11 @@ public class Main {
         
         
         // ======================================================
-        // FASE 4: ANÁLISIS SEMÁNTICO
+        // FASE 3: ANÁLISIS SEMÁNTICO
         // ======================================================
         
-        // Pasamos el AST (sentencias) y la Tabla de Símbolos al analizador
-        AnalizadorSemantico sema = new AnalizadorSemantico(sentencias, recolector.getTablaSimbolos());
+        // Pasamos el AST y la Tabla de Símbolos al analizador
+        AnalizadorSemantico sema = new AnalizadorSemantico(arbol, tablaSimbolos, diagnosticos);
         sema.analizar(); 
 
         System.out.println("\n=== ERRORES SEMANTICOS ===");
@@ -134,15 +137,51 @@ public class Main {
         } else {
             sema.getErrores().forEach(System.out::println);
         }
+        if (diagnosticos.omitidos() > 0) {
+            System.out.println("(... " + diagnosticos.omitidos() + " errores mas omitidos)");
+        }
         
+        // Análisis de flujo de datos sobre el grafo de bloques básicos: lecturas
+        // de variables que pueden no tener valor y asignaciones que nadie lee
+        GrafoDeFlujo grafo = new GrafoDeFlujo(arbol, tablaSimbolos);
+        new AsignacionDefinida(grafo).reportar(diagnosticos);
+        new VariablesVivas(grafo).reportar(diagnosticos);
+
+        System.out.println("\n=== ADVERTENCIAS DE FLUJO ===");
+        List<Diagnostico> advertencias = diagnosticos.deFase(Diagnostico.Fase.FLUJO);
+        advertencias.sort(Comparator.comparingInt(Diagnostico::posicion));
+        if (advertencias.isEmpty()) {
+            System.out.println("(ninguna)");
+        } else {
+            diagnosticos.mensajes(advertencias).forEach(System.out::println);
+        }
+
+        // ======================================================
+        // FASE 4: OPTIMIZACIÓN
+        // ======================================================
+
+        // Pliega las constantes y propaga los valores conocidos: reescribe el
+        // AST y deja en la tabla el valor plegado de cada asignación
+        Optimizador optimizador = new Optimizador(arbol, tablaSimbolos);
+        optimizador.optimizar();
+
+        System.out.println("\n=== AST OPTIMIZADO ===");
+        if (arbol.cantidadDeSentencias() == 0) {
+            System.out.println("(ninguna)");
+        } else {
+            for (Sentencia s : arbol.aSentencias()) {
+                System.out.println(s);
+            }
+        }
+
         // Volvemos a imprimir la tabla, esta vez con los valores actualizados
-        System.out.println("\n=== TABLA DE SIMBOLOS (post-semántico) ===");
-        if (recolector.getTablaSimbolos().obtenerTodos().isEmpty()) {
+        System.out.println("\n=== TABLA DE SIMBOLOS (post-optimización) ===");
+        if (tablaSimbolos.obtenerTodos().isEmpty()) {
             System.out.println("(vacia)");
         } else {
             System.out.println("Nombre         | Tipo     | Ambito   | Linea | Valor");
             System.out.println("---------------+----------+----------+-------+-------");
-            recolector.getTablaSimbolos().obtenerTodos().values().forEach(System.out::println);
+            tablaSimbolos.obtenerTodos().forEach(System.out::println);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package org.example;
+
+/**
+ * Nodo "rojo" del árbol de sintaxis concreto: envuelve un NodoVerde y le
+ * agrega lo que depende de la versión del archivo, el padre y la posición
+ * absoluta. Se crean a pedido, al bajar desde la raíz: los verdes se
+ * comparten entre versiones, los rojos no.
+ */
+public final class NodoRojo {
+
+    private final NodoVerde verde;
+    private final NodoRojo padre;
+    private final int inicio;          // Posición absoluta, con la trivia
+    private NodoRojo[] hijos;          // Los ya pedidos; null hasta el primero
+
+    /**
+     * Raíz de una versión: empieza en la posición 0.
+     */
+    public NodoRojo(NodoVerde raiz) {
+        this(raiz, null, 0);
+    }
+
+    private NodoRojo(NodoVerde verde, NodoRojo padre, int inicio) {
+        this.verde = verde;
+        this.padre = padre;
+        this.inicio = inicio;
+    }
+
+    public NodoVerde verde() { return verde; }
+
+    public NodoRojo padre() { return padre; }
+
+    public int clase() { return verde.clase(); }
+
+    /** Posición del primer carácter, contando la trivia del primer token. */
+    public int inicio() { return inicio; }
+
+    public int fin() { return inicio + verde.ancho(); }
+
+    /** Posición donde empieza el texto de un token, después de su trivia. */
+    public int inicioDelTexto() {
+        return verde.esToken() ? inicio + verde.trivia().length() : inicio;
+    }
+
+    public int cantidadDeHijos() { return verde.cantidadDeHijos(); }
+
+    /**
+     * El hijo 'i', creado la primera vez que se pide.
+     */
+    public NodoRojo hijo(int i) {
+        if (hijos == null) hijos = new NodoRojo[verde.cantidadDeHijos()];
+        NodoRojo h = hijos[i];
+        if (h == null) {
+            int posicion = inicio;
+            for (int j = 0; j < i; j++) posicion += verde.hijo(j).ancho();
+            h = hijos[i] = new NodoRojo(verde.hijo(i), this, posicion);
+        }
+        return h;
+    }
+
+    /**
+     * El nodo más profundo (normalmente un token) que contiene 'posicion', o
+     * null si está fuera de este nodo.
+     */
+    public NodoRojo nodoEn(int posicion) {
+        if (posicion < inicio || posicion >= fin()) return null;
+        NodoRojo n = this;
+        while (n.cantidadDeHijos() > 0) {
+            int p = n.inicio;
+            int i = 0;
+            while (p + n.verde.hijo(i).ancho() <= posicion) p += n.verde.hijo(i++).ancho();
+            n = n.hijo(i);
+        }
+        return n;
+    }
+
+    public String texto() { return verde.texto(); }
+
+    @Override
+    public String toString() {
+        return verde + " @ " + inicio;
+    }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import java.util.ArrayDeque;
+
+/**
+ * Nodo "verde" del árbol de sintaxis concreto (CST): inmutable y sin posición
+ * absoluta, solo su ancho en caracteres. Es un token (con la trivia que lo
+ * precede: espacios, comentarios y lo que el léxico descartó) o una sentencia
+ * o el programa, con sus hijos en orden. Juntando el texto de todos los
+ * tokens se recupera la fuente exacta, sin pérdida.
+ *
+ * Como no guarda posiciones, el mismo nodo sirve para dos versiones del
+ * archivo: después de una edición, las sentencias que no se tocaron se
+ * comparten (ver AnalizadorSintactico.reanalizarVerde). Las posiciones las
+ * agrega NodoRojo cuando alguien las pide.
+ */
+public final class NodoVerde {
+
+    // Clases que no son de ArbolPlano (las sentencias usan las de ArbolPlano)
+    public static final int TOKEN = -1;
+    public static final int PROGRAMA = -2;
+    /** Sentencia que no se pudo reconocer: sus tokens quedan como hijos sueltos. */
+    public static final int ERRONEA = -3;
+
+    private static final NodoVerde[] SIN_HIJOS = new NodoVerde[0];
+
+    private final int clase;
+    private final int ancho;         // Caracteres, con la trivia
+    private final int tokens;        // Tokens que contiene (1 para un token)
+    private final boolean conErrores;
+    private final NodoVerde[] hijos;
+    private final TokenType tipo;    // Solo tokens
+    private final String trivia;     // Solo tokens
+    private final String texto;      // Solo tokens
+
+    private NodoVerde(int clase, int ancho, int tokens, boolean conErrores, NodoVerde[] hijos,
+                      TokenType tipo, String trivia, String texto) {
+        this.clase = clase;
+        this.ancho = ancho;
+        this.tokens = tokens;
+        this.conErrores = conErrores;
+        this.hijos = hijos;
+        this.tipo = tipo;
+        this.trivia = trivia;
+        this.texto = texto;
+    }
+
+    static NodoVerde token(TokenType tipo, String trivia, String texto) {
+        return new NodoVerde(TOKEN, trivia.length() + texto.length(), 1, false, SIN_HIJOS, tipo, trivia, texto);
+    }
+
+    /**
+     * Sentencia (o PROGRAMA) con sus hijos; 'conErrores' si el parser reportó
+     * algo mientras la leía.
+     */
+    static NodoVerde nodo(int clase, NodoVerde[] hijos, boolean conErrores) {
+        int ancho = 0;
+        int tokens = 0;
+        for (NodoVerde h : hijos) {
+            ancho += h.ancho;
+            tokens += h.tokens;
+            conErrores |= h.conErrores;
+        }
+        return new NodoVerde(clase, ancho, tokens, conErrores, hijos, null, null, null);
+    }
+
+    public int clase() { return clase; }
+
+    public boolean esToken() { return clase == TOKEN; }
+
+    public int ancho() { return ancho; }
+
+    public int cantidadDeTokens() { return tokens; }
+
+    /** true si este nodo o alguno de adentro tuvo errores sintácticos. */
+    public boolean conErrores() { return conErrores; }
+
+    public int cantidadDeHijos() { return hijos.length; }
+
+    public NodoVerde hijo(int i) { return hijos[i]; }
+
+    /** Tipo de un token (null si no es token). */
+    public TokenType tipo() { return tipo; }
+
+    /** Lo que precede al token: espacios, comentarios, caracteres inválidos. */
+    public String trivia() { return trivia; }
+
+    /**
+     * El texto completo: el del token (sin trivia) o, para los demás nodos, la
+     * fuente de todo lo que contienen (con la trivia).
+     */
+    public String texto() {
+        if (esToken()) return texto;
+        StringBuilder sb = new StringBuilder(ancho);
+        escribir(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Agrega a 'sb' la fuente exacta de este nodo. Usa una pila propia: la
+     * profundidad del árbol no importa.
+     */
+    public void escribir(StringBuilder sb) {
+        ArrayDeque<NodoVerde> pila = new ArrayDeque<>();
+        pila.push(this);
+        while (!pila.isEmpty()) {
+            NodoVerde n = pila.pop();
+            if (n.esToken()) {
+                sb.append(n.trivia).append(n.texto);
+            } else {
+                for (int i = n.hijos.length - 1; i >= 0; i--) pila.push(n.hijos[i]);
+            }
+        }
+    }
+
+    /**
+     * Compara clase, tokens y texto de dos árboles, nodo por nodo (sin recursión).
+     */
+    public boolean mismaEstructura(NodoVerde otro) {
+        ArrayDeque<NodoVerde[]> pila = new ArrayDeque<>();
+        pila.push(new NodoVerde[] { this, otro });
+        while (!pila.isEmpty()) {
+            NodoVerde[] par = pila.pop();
+            NodoVerde a = par[0];
+            NodoVerde b = par[1];
+            if (a == b) continue; // Compartido: igual por definición
+            if (a.clase != b.clase || a.ancho != b.ancho || a.tokens != b.tokens
+                    || a.conErrores != b.conErrores || a.hijos.length != b.hijos.length) {
+                return false;
+            }
+            if (a.esToken()) {
+                if (a.tipo != b.tipo || !a.trivia.equals(b.trivia) || !a.texto.equals(b.texto)) return false;
+                continue;
+            }
+            for (int i = 0; i < a.hijos.length; i++) pila.push(new NodoVerde[] { a.hijos[i], b.hijos[i] });
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return esToken() ? "Token(" + tipo + ":" + texto + ")" : "Nodo(" + clase + ", " + hijos.length + " hijos)";
+    }
+}
@@ -0,0 +1,556 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * FASE 4: Optimización.
+ * Recorre el ArbolPlano ya revisado por el AnalizadorSemantico (usa los
+ * símbolos resueltos y los tipos que dejó en los nodos) y lo reescribe en su
+ * lugar:
+ *   - pliega las subexpresiones constantes: aritmética, comparaciones, '!',
+ *     '&&' y '||' (true && x queda x);
+ *   - propaga los valores conocidos de las variables long y double por el
+ *     código en línea recta y hacia adentro de las ramas: 'a = 2 * 3; b = a + 1;'
+ *     queda 'a = 6; b = 7;';
+ *   - un if con la condición constante se cambia por la rama que corresponde
+ *     y un while que no puede entrar, por una sentencia vacía.
+ * Las expresiones con errores de tipo (TipoInterno.ERROR) quedan como están.
+ *
+ * El estado (qué variables tienen un valor conocido) se lleva en arreglos por
+ * índice de símbolo, con un rastro de los cambios para deshacerlos: una rama
+ * 'else' empieza desde el estado de antes del if, y al salir del if sigue
+ * conocido solo lo que las dos ramas dejaron igual. Un while olvida antes de
+ * entrar las variables que su cuerpo asigna o lee, así el cuerpo y lo que
+ * sigue valen para cualquier cantidad de vueltas.
+ *
+ * La columna "Valor" de la TablaSimbolos queda con el resultado plegado de la
+ * última asignación que se recorrió, o sin valor si no es constante.
+ */
+public class Optimizador {
+
+    private final ArbolPlano arbol;
+    private final TablaSimbolos tablaSimbolos;
+
+    // Estado: valor conocido de cada variable, por índice de símbolo (los
+    // double van como doubleToRawLongBits)
+    private boolean[] conocidos = new boolean[0];
+    private long[] valores = new long[0];
+
+    // Rastro: el valor anterior de cada cambio al estado, para deshacerlo
+    private int[] rastroSimbolo = new int[16];
+    private boolean[] rastroConocido = new boolean[16];
+    private long[] rastroValor = new long[16];
+    private int topeRastro = 0;
+
+    // Lo que dejó la rama 'then' de cada if abierto, hasta mezclarlo con el
+    // 'else'. Arriba de cada grupo va cuántos son.
+    private int[] cambiosSimbolo = new int[16];
+    private boolean[] cambiosConocido = new boolean[16];
+    private long[] cambiosValor = new long[16];
+    private int topeCambios = 0;
+
+    // Para pasar una sola vez por cada símbolo de un tramo del rastro
+    private int[] sellos = new int[0];
+    private int sello = 0;
+
+    private int reescritos = 0;
+
+    public Optimizador(ArbolPlano arbol, TablaSimbolos tablaSimbolos) {
+        this.arbol = arbol;
+        this.tablaSimbolos = tablaSimbolos;
+    }
+
+    /**
+     * Optimiza todo el programa. Los valores de la TablaSimbolos se calculan de nuevo.
+     */
+    public void optimizar() {
+        int cantidad = tablaSimbolos.cantidad();
+        conocidos = new boolean[cantidad];
+        valores = new long[cantidad];
+        sellos = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) tablaSimbolos.simbolo(i).olvidarValor();
+
+        for (int i = 0; i < arbol.cantidadDeSentencias(); i++) {
+            optimizarSentencia(arbol.sentencia(i));
+            topeRastro = 0; // Entre sentencias del programa no hay nada que deshacer
+        }
+    }
+
+    /** Nodos que se reescribieron (plegados, variables cambiadas por su valor, ramas descartadas). */
+    public int reescritos() { return reescritos; }
+
+    // ===================================
+    // SENTENCIAS (Stmt)
+    // ===================================
+
+    // Qué hacer con cada elemento de la pila de sentencias
+    private static final int VISITAR = 0;
+    private static final int SINO = 1;             // Terminó la rama 'then' de un if
+    private static final int MEZCLAR = 2;          // Terminó la rama 'else'
+    private static final int SALIR_DEL_BUCLE = 3;  // Terminó el cuerpo de un while
+
+    private int[] acciones = new int[16];
+    private int[] pendientes = new int[16];
+    private int[] marcas = new int[16];  // Tope del rastro al empezar el if o el cuerpo del while
+    private int topePendientes = 0;
+
+    private void optimizarSentencia(int raiz) {
+        apilarPendiente(VISITAR, raiz, 0);
+        while (topePendientes > 0) {
+            topePendientes--;
+            int s = pendientes[topePendientes];
+            int marca = marcas[topePendientes];
+            switch (acciones[topePendientes]) {
+                case VISITAR:
+                    visitar(s);
+                    break;
+                case SINO:
+                    // El 'else' parte del estado de antes del if
+                    guardarCambios(marca);
+                    deshacerHasta(marca);
+                    if (arbol.sino(s) != ArbolPlano.NINGUNO) apilarPendiente(VISITAR, arbol.sino(s), 0);
+                    break;
+                case MEZCLAR:
+                    mezclar(marca);
+                    break;
+                default: // SALIR_DEL_BUCLE
+                    deshacerHasta(marca);
+                    break;
+            }
+        }
+    }
+
+    private void visitar(int s) {
+        switch (arbol.clase(s)) {
+            case ArbolPlano.ASIGNACION:
+                plegar(arbol.hijo(s));
+                asignar(arbol.simbolo(s), arbol.hijo(s));
+                return;
+
+            case ArbolPlano.LECTURA: {
+                int simbolo = arbol.simbolo(s);
+                if (simbolo != ArbolPlano.NINGUNO) {
+                    fijar(simbolo, false, 0);
+                    tablaSimbolos.simbolo(simbolo).olvidarValor();
+                }
+                return;
+            }
+
+            case ArbolPlano.ESCRITURA:
+                plegar(arbol.hijo(s));
+                return;
+
+            case ArbolPlano.BLOQUE:
+                for (int i = arbol.largo(s) - 1; i >= 0; i--) apilarPendiente(VISITAR, arbol.sentencia(s, i), 0);
+                return;
+
+            case ArbolPlano.CONDICIONAL: {
+                int condicion = arbol.condicion(s);
+                plegar(condicion);
+                if (esBooleano(condicion)) {
+                    // Queda solo la rama que se ejecuta, y se optimiza en lugar del if
+                    int rama = valorBooleano(condicion) ? arbol.cuerpo(s) : arbol.sino(s);
+                    if (rama == ArbolPlano.NINGUNO) {
+                        arbol.reemplazarPorVacia(s);
+                        reescritos++;
+                    } else {
+                        copia(s, rama);
+                        apilarPendiente(VISITAR, s, 0);
+                    }
+                    return;
+                }
+                apilarPendiente(MEZCLAR, s, topeRastro);
+                apilarPendiente(SINO, s, topeRastro);
+                if (arbol.cuerpo(s) != ArbolPlano.NINGUNO) apilarPendiente(VISITAR, arbol.cuerpo(s), 0);
+                return;
+            }
+
+            case ArbolPlano.MIENTRAS: {
+                int antes = topeRastro;
+                olvidarAsignadas(arbol.cuerpo(s));
+                int condicion = arbol.condicion(s);
+                plegar(condicion);
+                if (esBooleano(condicion) && !valorBooleano(condicion)) {
+                    // No entra nunca: nada cambia
+                    deshacerHasta(antes);
+                    arbol.reemplazarPorVacia(s);
+                    reescritos++;
+                    return;
+                }
+                // Al salir, lo mismo que al entrar: las que el cuerpo cambia ya no se conocen
+                apilarPendiente(SALIR_DEL_BUCLE, s, topeRastro);
+                if (arbol.cuerpo(s) != ArbolPlano.NINGUNO) apilarPendiente(VISITAR, arbol.cuerpo(s), 0);
+                return;
+            }
+
+            default:
+                return; // DECLARACION e INTERRUMPIR no cambian nada
+        }
+    }
+
+    /**
+     * Registra la asignación del valor (ya plegado) 'expr' a la variable
+     * 'simbolo', en el estado y en la TablaSimbolos.
+     */
+    private void asignar(int simbolo, int expr) {
+        if (simbolo == ArbolPlano.NINGUNO) return; // No declarada: ya es un error
+        Simbolo sym = tablaSimbolos.simbolo(simbolo);
+        int clase = arbol.clase(expr);
+        if (clase == ArbolPlano.ENTERO && sym.tipo == TipoSimbolo.LONG) {
+            long valor = arbol.valorEntero(expr);
+            fijar(simbolo, true, valor);
+            sym.asignarEntero(valor);
+        } else if ((clase == ArbolPlano.ENTERO || clase == ArbolPlano.DECIMAL) && sym.tipo == TipoSimbolo.DOUBLE) {
+            // Se permite: double = 10; (promoción)
+            double valor = numero(expr);
+            fijar(simbolo, true, Double.doubleToRawLongBits(valor));
+            sym.asignarDecimal(valor);
+        } else {
+            // No es constante (o es long = 10.5, que el semántico ya rechazó)
+            fijar(simbolo, false, 0);
+            sym.olvidarValor();
+        }
+    }
+
+    /**
+     * Antes de un while: olvida las variables que su cuerpo asigna o lee
+     * (recorre solo sentencias: las expresiones no asignan).
+     */
+    private void olvidarAsignadas(int cuerpo) {
+        int base = topePendientes;
+        apilarPendiente(VISITAR, cuerpo, 0);
+        while (topePendientes > base) {
+            int s = pendientes[--topePendientes];
+            if (s == ArbolPlano.NINGUNO) continue;
+            switch (arbol.clase(s)) {
+                case ArbolPlano.ASIGNACION:
+                case ArbolPlano.LECTURA: {
+                    int simbolo = arbol.simbolo(s);
+                    if (simbolo != ArbolPlano.NINGUNO && conocidos[simbolo]) fijar(simbolo, false, 0);
+                    break;
+                }
+                case ArbolPlano.BLOQUE:
+                    for (int i = 0; i < arbol.largo(s); i++) apilarPendiente(VISITAR, arbol.sentencia(s, i), 0);
+                    break;
+                case ArbolPlano.CONDICIONAL:
+                    apilarPendiente(VISITAR, arbol.cuerpo(s), 0);
+                    apilarPendiente(VISITAR, arbol.sino(s), 0);
+                    break;
+                case ArbolPlano.MIENTRAS:
+                    apilarPendiente(VISITAR, arbol.cuerpo(s), 0);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void apilarPendiente(int accion, int s, int marca) {
+        if (topePendientes == pendientes.length) {
+            acciones = Arrays.copyOf(acciones, topePendientes * 2);
+            pendientes = Arrays.copyOf(pendientes, topePendientes * 2);
+            marcas = Arrays.copyOf(marcas, topePendientes * 2);
+        }
+        acciones[topePendientes] = accion;
+        pendientes[topePendientes] = s;
+        marcas[topePendientes] = marca;
+        topePendientes++;
+    }
+
+    // ===================================
+    // ESTADO: valores conocidos y su rastro
+    // ===================================
+
+    private void fijar(int simbolo, boolean conocido, long valor) {
+        if (topeRastro == rastroSimbolo.length) {
+            rastroSimbolo = Arrays.copyOf(rastroSimbolo, topeRastro * 2);
+            rastroConocido = Arrays.copyOf(rastroConocido, topeRastro * 2);
+            rastroValor = Arrays.copyOf(rastroValor, topeRastro * 2);
+        }
+        rastroSimbolo[topeRastro] = simbolo;
+        rastroConocido[topeRastro] = conocidos[simbolo];
+        rastroValor[topeRastro] = valores[simbolo];
+        topeRastro++;
+        conocidos[simbolo] = conocido;
+        valores[simbolo] = valor;
+    }
+
+    private void deshacerHasta(int marca) {
+        while (topeRastro > marca) {
+            topeRastro--;
+            int simbolo = rastroSimbolo[topeRastro];
+            conocidos[simbolo] = rastroConocido[topeRastro];
+            valores[simbolo] = rastroValor[topeRastro];
+        }
+    }
+
+    /**
+     * Al terminar la rama 'then': guarda cómo quedaron las variables que
+     * cambió desde 'marca' (cada una una vez), y arriba cuántas son.
+     */
+    private void guardarCambios(int marca) {
+        int s = ++sello;
+        int desde = topeCambios;
+        for (int i = marca; i < topeRastro; i++) {
+            int simbolo = rastroSimbolo[i];
+            if (sellos[simbolo] == s) continue;
+            sellos[simbolo] = s;
+            apilarCambio(simbolo, conocidos[simbolo], valores[simbolo]);
+        }
+        apilarCambio(topeCambios - desde, false, 0);
+    }
+
+    /**
+     * Al terminar la rama 'else' (el estado actual): sigue conocido solo lo
+     * que las dos ramas dejaron igual.
+     */
+    private void mezclar(int marca) {
+        int cantidad = cambiosSimbolo[--topeCambios];
+        int desde = topeCambios - cantidad;
+        int finDelSino = topeRastro;
+        int s = ++sello;
+
+        // Las que cambió el 'then'
+        for (int i = desde; i < topeCambios; i++) {
+            int simbolo = cambiosSimbolo[i];
+            sellos[simbolo] = s;
+            if (!igual(simbolo, cambiosConocido[i], cambiosValor[i])) fijar(simbolo, false, 0);
+        }
+        topeCambios = desde;
+
+        // Las que cambió solo el 'else': el 'then' las dejó como antes del if,
+        // que es lo que guardó su primer cambio en el rastro
+        for (int i = marca; i < finDelSino; i++) {
+            int simbolo = rastroSimbolo[i];
+            if (sellos[simbolo] == s) continue;
+            sellos[simbolo] = s;
+            if (!igual(simbolo, rastroConocido[i], rastroValor[i])) fijar(simbolo, false, 0);
+        }
+    }
+
+    private boolean igual(int simbolo, boolean conocido, long valor) {
+        return conocidos[simbolo] == conocido && (!conocido || valores[simbolo] == valor);
+    }
+
+    private void apilarCambio(int simbolo, boolean conocido, long valor) {
+        if (topeCambios == cambiosSimbolo.length) {
+            cambiosSimbolo = Arrays.copyOf(cambiosSimbolo, topeCambios * 2);
+            cambiosConocido = Arrays.copyOf(cambiosConocido, topeCambios * 2);
+            cambiosValor = Arrays.copyOf(cambiosValor, topeCambios * 2);
+        }
+        cambiosSimbolo[topeCambios] = simbolo;
+        cambiosConocido[topeCambios] = conocido;
+        cambiosValor[topeCambios] = valor;
+        topeCambios++;
+    }
+
+    // ===================================
+    // PLEGADO DE EXPRESIONES (Expr)
+    // ===================================
+
+    // Pila de plegar(): cada nodo entra una vez para apilar sus hijos
+    // (listo = false) y otra para plegarse con los hijos ya plegados.
+    private int[] nodos = new int[16];
+    private boolean[] listos = new boolean[16];
+    private int topeNodos = 0;
+
+    /**
+     * Pliega la expresión 'raiz' en postorden: cuando le toca a un nodo, sus
+     * hijos ya son literales si se pudieron plegar. La raíz sigue siendo el
+     * mismo nodo.
+     */
+    private void plegar(int raiz) {
+        apilarNodo(raiz, false);
+        while (topeNodos > 0) {
+            topeNodos--;
+            int e = nodos[topeNodos];
+            int clase = arbol.clase(e);
+            if (!listos[topeNodos] && (clase == ArbolPlano.UNARIA || clase == ArbolPlano.AGRUPACION)) {
+                apilarNodo(e, true);
+                apilarNodo(arbol.hijo(e), false);
+            } else if (!listos[topeNodos] && clase == ArbolPlano.BINARIA) {
+                apilarNodo(e, true);
+                apilarNodo(arbol.derecha(e), false);
+                apilarNodo(arbol.hijo(e), false);
+            } else {
+                plegarNodo(e);
+            }
+        }
+    }
+
+    private void plegarNodo(int e) {
+        TipoInterno tipo = arbol.tipoDeExpresion(e);
+        if (tipo == null || tipo == TipoInterno.ERROR) return; // Sin revisar o con errores
+        switch (arbol.clase(e)) {
+            case ArbolPlano.VARIABLE: {
+                int simbolo = arbol.simbolo(e);
+                if (simbolo == ArbolPlano.NINGUNO || !conocidos[simbolo]) return;
+                if (tipo == TipoInterno.ENTERO) {
+                    entero(e, valores[simbolo]);
+                } else {
+                    decimal(e, Double.longBitsToDouble(valores[simbolo]));
+                }
+                return;
+            }
+            case ArbolPlano.AGRUPACION:
+                if (esConstante(arbol.hijo(e))) copia(e, arbol.hijo(e));
+                return;
+            case ArbolPlano.UNARIA:
+                plegarUnaria(e, arbol.operador(e), arbol.hijo(e));
+                return;
+            case ArbolPlano.BINARIA:
+                plegarBinaria(e, arbol.operador(e), arbol.hijo(e), arbol.derecha(e));
+                return;
+            default:
+                return; // Literales: ya son constantes
+        }
+    }
+
+    private void plegarUnaria(int e, TokenType op, int operando) {
+        int clase = arbol.clase(operando);
+        if (op == TokenType.MINUS && clase == ArbolPlano.ENTERO) {
+            entero(e, -arbol.valorEntero(operando));
+        } else if (op == TokenType.MINUS && clase == ArbolPlano.DECIMAL) {
+            decimal(e, -arbol.valorDecimal(operando));
+        } else if (op == TokenType.BANG && esBooleano(operando)) {
+            booleano(e, !valorBooleano(operando));
+        }
+    }
+
+    private void plegarBinaria(int e, TokenType op, int izq, int der) {
+        // Lógicos: && ||. Con la izquierda constante se sabe si se evalúa la
+        // derecha; con la derecha, solo se saca si no decide nada (x && true).
+        if (op == TokenType.ANDAND || op == TokenType.OROR) {
+            boolean neutro = (op == TokenType.ANDAND);
+            if (esBooleano(izq)) {
+                if (valorBooleano(izq) == neutro) {
+                    copia(e, der);
+                } else {
+                    booleano(e, !neutro);
+                }
+            } else if (esBooleano(der) && valorBooleano(der) == neutro) {
+                copia(e, izq);
+            }
+            return;
+        }
+
+        boolean numericos = esNumero(izq) && esNumero(der);
+        boolean enteros = arbol.clase(izq) == ArbolPlano.ENTERO && arbol.clase(der) == ArbolPlano.ENTERO;
+
+        // Comparaciones: > < >= <= == != <>
+        if (op == TokenType.GT || op == TokenType.LT || op == TokenType.GTE || op == TokenType.LTE
+                || op == TokenType.EQEQ || op == TokenType.NEQ || op == TokenType.NEQ_ALT) {
+            if (enteros) {
+                booleano(e, comparar(op, Long.compare(arbol.valorEntero(izq), arbol.valorEntero(der)), true));
+            } else if (numericos) {
+                double a = numero(izq);
+                double b = numero(der);
+                // NaN no es menor, mayor ni igual a nada
+                boolean ordenados = !Double.isNaN(a) && !Double.isNaN(b);
+                booleano(e, comparar(op, a < b ? -1 : (a > b ? 1 : 0), ordenados));
+            } else if (esBooleano(izq) && esBooleano(der) && op != TokenType.GT && op != TokenType.LT
+                    && op != TokenType.GTE && op != TokenType.LTE) {
+                booleano(e, comparar(op, valorBooleano(izq) == valorBooleano(der) ? 0 : 1, true));
+            }
+            return;
+        }
+
+        // Aritméticos: + - * / (la división por cero queda para cuando se ejecute)
+        if (enteros) {
+            long a = arbol.valorEntero(izq);
+            long b = arbol.valorEntero(der);
+            switch (op) {
+                case PLUS: entero(e, a + b); break;
+                case MINUS: entero(e, a - b); break;
+                case STAR: entero(e, a * b); break;
+                case SLASH: if (b != 0) entero(e, a / b); break;
+                default: break;
+            }
+        } else if (numericos) {
+            double a = numero(izq);
+            double b = numero(der);
+            switch (op) {
+                case PLUS: decimal(e, a + b); break;
+                case MINUS: decimal(e, a - b); break;
+                case STAR: decimal(e, a * b); break;
+                case SLASH: if (b != 0.0) decimal(e, a / b); break;
+                default: break;
+            }
+        }
+    }
+
+    /**
+     * Resultado de la comparación 'op' cuando la izquierda es menor (orden < 0),
+     * igual (0) o mayor (> 0) que la derecha; si no están 'ordenados' (NaN),
+     * solo != y <> dan true.
+     */
+    private static boolean comparar(TokenType op, int orden, boolean ordenados) {
+        if (!ordenados) return op == TokenType.NEQ || op == TokenType.NEQ_ALT;
+        switch (op) {
+            case GT: return orden > 0;
+            case LT: return orden < 0;
+            case GTE: return orden >= 0;
+            case LTE: return orden <= 0;
+            case EQEQ: return orden == 0;
+            default: return orden != 0; // NEQ, NEQ_ALT
+        }
+    }
+
+    private void apilarNodo(int e, boolean listo) {
+        if (topeNodos == nodos.length) {
+            nodos = Arrays.copyOf(nodos, topeNodos * 2);
+            listos = Arrays.copyOf(listos, topeNodos * 2);
+        }
+        nodos[topeNodos] = e;
+        listos[topeNodos] = listo;
+        topeNodos++;
+    }
+
+    // ===================================
+    // MÉTODOS AYUDANTES (Helpers)
+    // ===================================
+
+    private boolean esNumero(int n) {
+        int clase = arbol.clase(n);
+        return clase == ArbolPlano.ENTERO || clase == ArbolPlano.DECIMAL;
+    }
+
+    /** Valor de un ENTERO o DECIMAL, como double (promoción). */
+    private double numero(int n) {
+        return arbol.clase(n) == ArbolPlano.ENTERO ? arbol.valorEntero(n) : arbol.valorDecimal(n);
+    }
+
+    private boolean esBooleano(int n) {
+        if (arbol.clase(n) != ArbolPlano.LITERAL) return false;
+        TokenType tipo = arbol.tipoLiteral(n);
+        return tipo == TokenType.KW_TRUE || tipo == TokenType.KW_FALSE;
+    }
+
+    private boolean valorBooleano(int n) {
+        return arbol.tipoLiteral(n) == TokenType.KW_TRUE;
+    }
+
+    private boolean esConstante(int n) {
+        return esNumero(n) || esBooleano(n);
+    }
+
+    private void entero(int e, long valor) {
+        arbol.reemplazarPorEntero(e, valor);
+        reescritos++;
+    }
+
+    private void decimal(int e, double valor) {
+        arbol.reemplazarPorDecimal(e, valor);
+        reescritos++;
+    }
+
+    private void booleano(int e, boolean valor) {
+        arbol.reemplazarPorBooleano(e, valor);
+        reescritos++;
+    }
+
+    private void copia(int e, int origen) {
+        arbol.reemplazarPorCopia(e, origen);
+        reescritos++;
+    }
+}
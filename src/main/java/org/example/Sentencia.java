@@ -1,114 +1,82 @@
-
 package org.example;
 
 import java.util.List;
 
 /**
- * Clase base abstracta para todas las Sentencias (AST).
- * Cada subclase representa una construcción que realiza una acción.
+ * Todas las Sentencias (AST). Cada record representa una construcción que
+ * realiza una acción; la jerarquía es cerrada, así que un 'switch' sobre una
+ * Sentencia puede ser exhaustivo sin 'default'.
+ * El texto de toString() lo arma ImpresorAST, sin recursión.
  */
-abstract class Sentencia {
-    public final int linea;
-    public final int columna;
+sealed interface Sentencia {
+
+    /** Posición absoluta del token que lo origina (ver IndiceDeLineas). */
+    int posicion();
+
+    <R> R aceptar(VisitanteAST<R> v);
 
-    protected Sentencia(int linea, int columna) {
-        this.linea = linea;
-        this.columna = columna;
+    /**
+     * Declaración de variables: long a, b; (ya agregadas a la Tabla de Símbolos)
+     * 'posiciones' tiene la posición de cada nombre.
+     */
+    record Declaracion(TipoSimbolo tipo, List<String> nombres, List<Integer> posiciones, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarDeclaracion(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Sentencia de asignación: a = 5; (o a += 5;)
      */
-    static class Asignacion extends Sentencia {
-        public final String nombre; 
-        public final Expresion valor;
-        Asignacion(String nombre, Expresion valor, int linea, int columna) {
-            super(linea, columna);
-            this.nombre = nombre;
-            this.valor = valor;
-        }
-        public String toString() { return "Asignacion(" + nombre + " = " + valor + ")"; }
+    record Asignacion(String nombre, Expresion valor, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarAsignacion(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
-     * Sentencia read(a);
+     * Sentencia read(a); 'nombre' es la variable donde se guarda.
      */
-    static class Lectura extends Sentencia {
-        public final String nombre; // Variable donde se guarda
-        Lectura(String nombre, int linea, int columna) {
-            super(linea, columna);
-            this.nombre = nombre;
-        }
-        public String toString() { return "Lectura(" + nombre + ")"; }
+    record Lectura(String nombre, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarLectura(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Sentencia write(a + 5);
      */
-    static class Escritura extends Sentencia {
-        public final Expresion expresion; // Expresión a imprimir
-        Escritura(Expresion expresion, int linea, int columna) {
-            super(linea, columna);
-            this.expresion = expresion;
-        }
-        public String toString() { return "Escritura(" + expresion + ")"; }
+    record Escritura(Expresion expresion, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarEscritura(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Un bloque de código: { ... }
      */
-    static class Bloque extends Sentencia {
-        public final List<Sentencia> sentencias;
-        Bloque(List<Sentencia> sentencias, int linea, int columna) {
-            super(linea, columna);
-            this.sentencias = sentencias;
-        }
-        public String toString() { return "Bloque" + sentencias; }
+    record Bloque(List<Sentencia> sentencias, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarBloque(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
-    
+
     /**
-     * Sentencia if (cond) then ... else ...
+     * Sentencia if (cond) then ... else ... ('ramaSino' puede ser null)
      */
-    static class Condicional extends Sentencia {
-        public final Expresion condicion;
-        public final Sentencia ramaEntonces;
-        public final Sentencia ramaSino; // Puede ser null
-
-        Condicional(Expresion condicion, Sentencia ramaEntonces, Sentencia ramaSino, int linea, int columna) {
-            super(linea, columna);
-            this.condicion = condicion;
-            this.ramaEntonces = ramaEntonces;
-            this.ramaSino = ramaSino;
-        }
-
-        public String toString() {
-            return "Si(" + condicion + ", entonces=" + ramaEntonces + ", sino=" + ramaSino + ")";
-        }
+    record Condicional(Expresion condicion, Sentencia ramaEntonces, Sentencia ramaSino, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarCondicional(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Sentencia while (cond) { ... }
      */
-    static class Mientras extends Sentencia {
-        public final Expresion condicion;
-        public final Sentencia cuerpo;
-
-        Mientras(Expresion condicion, Sentencia cuerpo, int linea, int columna) {
-            super(linea, columna);
-            this.condicion = condicion;
-            this.cuerpo = cuerpo;
-        }
-
-        public String toString() {
-            return "Mientras(" + condicion + ", " + cuerpo + ")";
-        }
+    record Mientras(Expresion condicion, Sentencia cuerpo, int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarMientras(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 
     /**
      * Sentencia break;
      */
-    static class Interrumpir extends Sentencia {
-        Interrumpir(int linea, int columna) { super(linea, columna); }
-        public String toString() { return "Interrumpir"; }
+    record Interrumpir(int posicion) implements Sentencia {
+        public <R> R aceptar(VisitanteAST<R> v) { return v.visitarInterrumpir(this); }
+        public String toString() { return ImpresorAST.imprimir(this); }
     }
 }
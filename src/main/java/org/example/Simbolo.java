@@ -7,23 +7,67 @@ package org.example;
 public class Simbolo {
 
     public final String nombre;
+    public final int idNombre;        // Id en la TablaDeIdentificadores
     public final TipoSimbolo tipo;
     public final String ambito;
+    public final int idAmbito;        // TablaSimbolos.GLOBAL o el del bloque
+    public final int profundidad;     // Bloques que rodean al ámbito (0 para GLOBAL)
     public final int lineaDeclaracion;
-    public String valor; 
 
-    public Simbolo(String nombre, TipoSimbolo tipo, String ambito, int linea) {
+    // Los asigna TablaSimbolos.agregar: posición en la tabla y en su ámbito
+    int indice = -1;
+    int slot = -1;
+
+    // Valor conocido (el de la última asignación de un literal), sin texto:
+    // un long para las LONG y un double para las DOUBLE
+    private boolean conValor = false;
+    private long valorEntero;
+    private double valorDecimal;
+
+    public Simbolo(String nombre, int idNombre, TipoSimbolo tipo, int idAmbito, int profundidad, int linea) {
         this.nombre = nombre;
+        this.idNombre = idNombre;
         this.tipo = tipo;
-        this.ambito = ambito;
+        this.ambito = (idAmbito == TablaSimbolos.GLOBAL) ? "global" : "bloque" + idAmbito;
+        this.idAmbito = idAmbito;
+        this.profundidad = profundidad;
         this.lineaDeclaracion = linea;
-        this.valor = null; // Se inicializa como nulo
+    }
+
+    /** Posición en la tabla (orden de declaración); es lo que guardan los nodos resueltos. */
+    public int indice() { return indice; }
+
+    /** Lugar de la variable entre las de su ámbito: (profundidad, slot) la ubica sin el nombre. */
+    public int slot() { return slot; }
+
+    public boolean tieneValor() { return conValor; }
+
+    /** Valor de una variable LONG (si tieneValor()). */
+    public long valorEntero() { return valorEntero; }
+
+    /** Valor de una variable DOUBLE (si tieneValor()). */
+    public double valorDecimal() { return valorDecimal; }
+
+    public void asignarEntero(long valor) {
+        conValor = true;
+        valorEntero = valor;
+    }
+
+    public void asignarDecimal(double valor) {
+        conValor = true;
+        valorDecimal = valor;
+    }
+
+    /** El valor deja de conocerse (se muestra como N/A). */
+    public void olvidarValor() {
+        conValor = false;
     }
 
     @Override
     public String toString() {
         // Formato para que se alinee bien en la consola
-        String valorStr = (valor == null) ? "N/A" : valor;
+        String valorStr = !conValor ? "N/A"
+                : (tipo == TipoSimbolo.LONG) ? Long.toString(valorEntero) : Double.toString(valorDecimal);
         return String.format("%-14s | %-8s | %-8s | %-5d | %s",
                 nombre, tipo, ambito, lineaDeclaracion, valorStr);
     }
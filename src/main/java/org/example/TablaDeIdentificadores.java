@@ -0,0 +1,96 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de "internado" de identificadores.
+ * Cada nombre distinto se guarda una sola vez y recibe un id entero
+ * (0, 1, 2, ... en orden de aparición). Todas las apariciones de 'contador'
+ * comparten la misma instancia de String, que luego usan el AST y la Tabla de Símbolos.
+ *
+ * Usa direccionamiento abierto (sondeo lineal) y puede buscar directamente
+ * sobre un tramo de la fuente, sin crear el String si el nombre ya existe.
+ */
+public class TablaDeIdentificadores {
+
+    private static final int VACIA = -1;
+
+    private volatile String[] nombres = new String[64];   // Por id (volátil: ver TokenBuffer)
+    private int[] hashes = new int[64];          // Por id (String.hashCode del nombre)
+    private int[] celdas;                        // Por celda: id, o VACIA
+    private int cantidad = 0;
+
+    public TablaDeIdentificadores() {
+        celdas = new int[128];
+        Arrays.fill(celdas, VACIA);
+    }
+
+    /**
+     * Devuelve el id del nombre, agregándolo si todavía no estaba.
+     */
+    public int internar(String nombre) {
+        int hash = nombre.hashCode();
+        int mascara = celdas.length - 1;
+        for (int i = celdaInicial(hash, mascara); ; i = (i + 1) & mascara) {
+            int id = celdas[i];
+            if (id == VACIA) return agregar(i, nombre, hash);
+            if (hashes[id] == hash && nombres[id].equals(nombre)) return id;
+        }
+    }
+
+    /**
+     * Igual que internar(String), pero el nombre es el tramo [inicio, fin) de la fuente.
+     * Solo se crea el String la primera vez que aparece el nombre.
+     */
+    int internar(FuenteCodigo fuente, int inicio, int fin) {
+        int hash = fuente.hashDe(inicio, fin);
+        int mascara = celdas.length - 1;
+        for (int i = celdaInicial(hash, mascara); ; i = (i + 1) & mascara) {
+            int id = celdas[i];
+            if (id == VACIA) return agregar(i, fuente.subcadena(inicio, fin), hash);
+            if (hashes[id] == hash && fuente.igualA(inicio, fin, nombres[id])) return id;
+        }
+    }
+
+    /**
+     * Devuelve la instancia canónica del nombre con ese id.
+     */
+    public String nombre(int id) {
+        return nombres[id];
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    // Mezcla los bits altos del hash en los bajos, que son los que elige la máscara
+    private static int celdaInicial(int hash, int mascara) {
+        return (hash ^ (hash >>> 16)) & mascara;
+    }
+
+    private int agregar(int celda, String nombre, int hash) {
+        int id = cantidad++;
+        if (id == nombres.length) {
+            nombres = Arrays.copyOf(nombres, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        nombres[id] = nombre;
+        hashes[id] = hash;
+        celdas[celda] = id;
+
+        // Mantener la carga por debajo de 1/2 para que los sondeos sean cortos
+        if (cantidad * 2 > celdas.length) redimensionar();
+        return id;
+    }
+
+    private void redimensionar() {
+        celdas = new int[celdas.length * 2];
+        Arrays.fill(celdas, VACIA);
+        int mascara = celdas.length - 1;
+        for (int id = 0; id < cantidad; id++) {
+            int i = celdaInicial(hashes[id], mascara);
+            while (celdas[i] != VACIA) i = (i + 1) & mascara;
+            celdas[i] = id;
+        }
+    }
+}
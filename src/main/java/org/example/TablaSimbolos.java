@@ -1,44 +1,141 @@
 package org.example;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Administra la colección de Símbolos (variables).
- * Usa LinkedHashMap para mantener el orden de inserción.
+ * Administra la colección de Símbolos (variables), separados por ámbito: el
+ * del programa (GLOBAL) y uno por cada bloque { }. Los ámbitos se numeran en
+ * el orden en que se abren sus bloques y cada BLOQUE del ArbolPlano guarda el
+ * suyo (ArbolPlano.ambito), así que la cadena de ámbitos de un punto del
+ * programa es la de los bloques que lo contienen.
+ *
+ * Un nombre se busca en un ámbito por el id del nombre internado, no por el
+ * texto. Cada símbolo tiene además su índice en la tabla (orden de
+ * declaración), que es lo que el semántico deja en los nodos que lo usan.
+ *
+ * La tabla es un hash abierto con sondeo lineal sobre un arreglo int: en cada
+ * lugar, la clave (ámbito, id del nombre) y el índice del símbolo seguidos
+ * (un sondeo lee una sola línea de caché), sin objetos por entrada.
+ * Los Simbolo van aparte, en orden de declaración. agregar() recorre el
+ * sondeo una sola vez: o encuentra la clave (redeclaración) o el lugar vacío
+ * donde la deja.
  */
 public class TablaSimbolos {
-    
-    // Un mapa que va del nombre del símbolo (String) al objeto Simbolo
-    private final Map<String, Simbolo> tabla = new LinkedHashMap<>();
+
+    /** Ámbito del programa: las variables globales. */
+    public static final int GLOBAL = 0;
+
+    private static final int CAPACIDAD_INICIAL = 16; // Lugares del hash (potencia de dos)
+
+    // Hash: cada lugar ocupa ANCHO enteros: ámbito, id del nombre e índice del
+    // símbolo + 1 (0 = vacío)
+    private static final int AMBITO = 0;
+    private static final int NOMBRE = 1;
+    private static final int INDICE = 2;
+    private static final int ANCHO = 3;
+    private int[] lugares = new int[CAPACIDAD_INICIAL * ANCHO];
+    private int mascara = CAPACIDAD_INICIAL - 1;
+
+    // Todos los símbolos, en orden de declaración: 'indice' es la posición acá
+    private Simbolo[] simbolos = new Simbolo[CAPACIDAD_INICIAL / 2];
+    private int cantidad = 0;
+
+    // Cuántos símbolos tiene cada ámbito: el próximo 'slot'
+    private int[] ocupados = new int[16];
 
     /**
-     * Intenta agregar un nuevo símbolo a la tabla.
+     * Intenta agregar un nuevo símbolo en su ámbito; le asigna su índice y su
+     * lugar (slot) en el ámbito la primera vez que se agrega a una tabla.
      * @param s El Simbolo a agregar.
-     * @return true si se agregó, false si ya existía (redeclaración).
+     * @return true si se agregó, false si ya existía en el mismo ámbito (redeclaración).
      */
     public boolean agregar(Simbolo s) {
-        if (tabla.containsKey(s.nombre)) {
-            return false; // Error: Redeclaración
+        // Se crece antes de sondear, así el lugar vacío que se encuentre es el definitivo
+        if (2 * (cantidad + 1) > mascara + 1) crecer();
+        int ambito = s.idAmbito;
+        int nombre = s.idNombre;
+        int[] l = lugares;
+        int i = lugar(ambito, nombre);
+        while (l[i * ANCHO + INDICE] != 0) {
+            if (l[i * ANCHO + NOMBRE] == nombre && l[i * ANCHO + AMBITO] == ambito) {
+                return false; // Error: Redeclaración
+            }
+            i = (i + 1) & mascara;
+        }
+
+        if (s.indice < 0) {
+            if (ambito >= ocupados.length) ocupados = Arrays.copyOf(ocupados, Math.max(ocupados.length * 2, ambito + 1));
+            s.slot = ocupados[ambito]++;
+            s.indice = cantidad;
         }
-        tabla.put(s.nombre, s);
+        if (cantidad == simbolos.length) simbolos = Arrays.copyOf(simbolos, cantidad * 2);
+        simbolos[cantidad++] = s;
+        l[i * ANCHO + AMBITO] = ambito;
+        l[i * ANCHO + NOMBRE] = nombre;
+        l[i * ANCHO + INDICE] = cantidad; // Índice en 'simbolos' + 1
         return true;
     }
 
     /**
-     * Obtiene un símbolo de la tabla por su nombre.
-     * @param nombre El nombre del símbolo a buscar.
-     * @return El Simbolo, o null si no se encuentra.
+     * Busca un nombre (por el id de la TablaDeIdentificadores) en un solo ámbito.
+     * @return El Simbolo, o null si ese ámbito no lo declara.
      */
-    public Simbolo obtener(String nombre) {
-        return tabla.get(nombre);
+    public Simbolo buscar(int ambito, int idNombre) {
+        int[] l = lugares;
+        int i = lugar(ambito, idNombre);
+        for (int indice = l[i * ANCHO + INDICE]; indice != 0; indice = l[i * ANCHO + INDICE]) {
+            if (l[i * ANCHO + NOMBRE] == idNombre && l[i * ANCHO + AMBITO] == ambito) return simbolos[indice - 1];
+            i = (i + 1) & mascara;
+        }
+        return null;
     }
 
     /**
-     * Devuelve el mapa completo de todos los símbolos.
-     * @return Un Map con todos los símbolos.
+     * El símbolo con ese índice (ver ArbolPlano.simbolo).
      */
-    public Map<String, Simbolo> obtenerTodos() {
-        return tabla;
+    public Simbolo simbolo(int indice) {
+        return simbolos[indice];
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Devuelve todos los símbolos, en orden de declaración.
+     * @return Una vista de solo lectura con todos los símbolos (de todos los ámbitos).
+     */
+    public List<Simbolo> obtenerTodos() {
+        return new AbstractList<>() {
+            @Override public Simbolo get(int i) { return simbolos[i]; }
+            @Override public int size() { return cantidad; }
+        };
+    }
+
+    /**
+     * Primer lugar del sondeo: mezcla los bits de los dos ids (los ids son
+     * consecutivos, así que sin mezclar se amontonarían).
+     */
+    private int lugar(int ambito, int idNombre) {
+        int h = idNombre * 0x9E3779B9 + ambito * 0x85EBCA6B;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    /**
+     * Duplica el hash y vuelve a ubicar las claves (los símbolos no se mueven).
+     */
+    private void crecer() {
+        int[] viejos = lugares;
+        int capacidad = (mascara + 1) * 2;
+        lugares = new int[capacidad * ANCHO];
+        mascara = capacidad - 1;
+        for (int j = 0; j < viejos.length; j += ANCHO) {
+            if (viejos[j + INDICE] == 0) continue;
+            int i = lugar(viejos[j + AMBITO], viejos[j + NOMBRE]);
+            while (lugares[i * ANCHO + INDICE] != 0) i = (i + 1) & mascara;
+            System.arraycopy(viejos, j, lugares, i * ANCHO, ANCHO);
+        }
     }
-}
\ No newline at end of file
+}
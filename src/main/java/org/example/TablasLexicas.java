@@ -0,0 +1,104 @@
+package org.example;
+
+/**
+ * Tablas precalculadas que usa el AnalizadorLexico en modo "tabular":
+ * la clase de cada carácter ASCII y un autómata (DFA) que reconoce
+ * los operadores y signos de puntuación de uno o dos caracteres.
+ */
+final class TablasLexicas {
+
+    // Clases de carácter (solo ASCII; el resto se clasifica con Character)
+    static final byte OTRO = 0;
+    static final byte LETRA = 1;      // a-z, A-Z y '_'
+    static final byte DIGITO = 2;
+    static final byte ESPACIO = 3;    // ' ', '\t', '\r', '\n'
+    static final byte COMILLA = 4;
+    static final byte OPERADOR = 5;   // Primer carácter de algún operador o signo
+
+    private static final byte[] CLASE = new byte[128];
+
+    // DFA de operadores: el estado 0 es el inicial y también significa "sin transición"
+    private static final int MAX_ESTADOS = 64;
+    private static final byte[][] TRANSICION = new byte[MAX_ESTADOS][128];
+    private static final TokenType[] ACEPTA = new TokenType[MAX_ESTADOS];
+    private static int cantidadEstados = 1;
+
+    static {
+        for (int c = 'a'; c <= 'z'; c++) CLASE[c] = LETRA;
+        for (int c = 'A'; c <= 'Z'; c++) CLASE[c] = LETRA;
+        CLASE['_'] = LETRA;
+        for (int c = '0'; c <= '9'; c++) CLASE[c] = DIGITO;
+        CLASE[' '] = ESPACIO;
+        CLASE['\t'] = ESPACIO;
+        CLASE['\r'] = ESPACIO;
+        CLASE['\n'] = ESPACIO;
+        CLASE['"'] = COMILLA;
+
+        // Mismos tipos que el 'switch' del léxico (incluido '>' y '>=' como GTE)
+        operador("(", TokenType.LPAREN);
+        operador(")", TokenType.RPAREN);
+        operador("{", TokenType.LBRACE);
+        operador("}", TokenType.RBRACE);
+        operador(";", TokenType.SEMICOLON);
+        operador(",", TokenType.COMMA);
+        operador("+", TokenType.PLUS);
+        operador("+=", TokenType.PLUS_EQ);
+        operador("-", TokenType.MINUS);
+        operador("-=", TokenType.MINUS_EQ);
+        operador("*", TokenType.STAR);
+        operador("*=", TokenType.STAR_EQ);
+        operador("/", TokenType.SLASH);
+        operador("/=", TokenType.SLASH_EQ);
+        operador("=", TokenType.EQUAL);
+        operador("==", TokenType.EQEQ);
+        operador("!", TokenType.BANG);
+        operador("!=", TokenType.NEQ);
+        operador("<", TokenType.LT);
+        operador("<=", TokenType.LTE);
+        operador("<>", TokenType.NEQ_ALT);
+        operador(">", TokenType.GTE);
+        operador(">=", TokenType.GTE);
+        // '&' y '|' solos no aceptan: quedan en un estado sin tipo y se reporta error
+        operador("&&", TokenType.ANDAND);
+        operador("||", TokenType.OROR);
+    }
+
+    private TablasLexicas() { }
+
+    /**
+     * Agrega al DFA el camino para 'texto', que acepta con 'tipo'.
+     */
+    private static void operador(String texto, TokenType tipo) {
+        int estado = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (i == 0) CLASE[c] = OPERADOR;
+            if (TRANSICION[estado][c] == 0) {
+                TRANSICION[estado][c] = (byte) cantidadEstados++;
+            }
+            estado = TRANSICION[estado][c];
+        }
+        ACEPTA[estado] = tipo;
+    }
+
+    /**
+     * Clase del carácter 'c' (OTRO para FIN y para cualquier no ASCII).
+     */
+    static int clase(int c) {
+        return (c >= 0 && c < 128) ? CLASE[c] : OTRO;
+    }
+
+    /**
+     * Estado al que se pasa desde 'estado' leyendo 'c', o 0 si no hay transición.
+     */
+    static int transicion(int estado, int c) {
+        return (c >= 0 && c < 128) ? TRANSICION[estado][c] : 0;
+    }
+
+    /**
+     * Tipo de token que acepta el estado, o null si el estado no es final.
+     */
+    static TokenType acepta(int estado) {
+        return ACEPTA[estado];
+    }
+}
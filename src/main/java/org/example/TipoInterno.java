@@ -0,0 +1,9 @@
+package org.example;
+
+/**
+ * Tipo de una expresión para el chequeo de tipos.
+ * Es independiente de 'TipoSimbolo' porque maneja tipos transitorios
+ * como BOOLEANO, CADENA y ERROR. El AnalizadorSemantico deja el de cada
+ * expresión en el árbol (ArbolPlano.tipoDeExpresion).
+ */
+public enum TipoInterno { ENTERO, DECIMAL, CADENA, BOOLEANO, ERROR }
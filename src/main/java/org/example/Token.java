@@ -1,22 +1,54 @@
-
 package org.example;
 
 public class Token {
     
     public final TokenType tipo;
     public final String lexema;
-    public final int linea;
-    public final int columna;
+    public final int posicion; // Posición absoluta en la fuente
+    private final IndiceDeLineas lineas; // null si la línea y la columna ya se resolvieron
+    private final int linea, columna;
+
+    public Token(TokenType type, String lexeme, int posicion, IndiceDeLineas lineas) {
+        this.tipo = type;
+        this.lexema = lexeme;
+        this.posicion = posicion;
+        this.lineas = lineas;
+        this.linea = 0;
+        this.columna = 0;
+    }
 
-    public Token(TokenType type, String lexeme, int line, int column) {
+    /**
+     * Token con la línea y la columna ya resueltas: lo arman las fuentes que
+     * descartan el texto leído, cuyo índice de líneas no llega a posiciones viejas.
+     */
+    Token(TokenType type, String lexeme, int posicion, int linea, int columna) {
         this.tipo = type;
         this.lexema = lexeme;
-        this.linea = line;
-        this.columna = column;
+        this.posicion = posicion;
+        this.lineas = null;
+        this.linea = linea;
+        this.columna = columna;
+    }
+
+    /**
+     * Token en 'posicion' de una fuente: si la fuente descarta lo leído, la línea
+     * y la columna se resuelven ahora, mientras la posición sigue en su ventana.
+     */
+    static Token de(TokenType tipo, String lexema, int posicion, FuenteCodigo fuente, IndiceDeLineas lineas) {
+        if (fuente.conservaTexto()) return new Token(tipo, lexema, posicion, lineas);
+        return new Token(tipo, lexema, posicion, lineas.linea(posicion), lineas.columna(posicion));
+    }
+
+    public int linea() {
+        return lineas != null ? lineas.linea(posicion) : linea;
+    }
+
+    public int columna() {
+        return lineas != null ? lineas.columna(posicion) : columna;
     }
 
     @Override
     public String toString() {
-        return String.format("%s('%s') @ %d:%d", tipo, lexema, linea, columna);
+        return String.format("%s('%s') @ %d:%d", tipo, lexema, linea(), columna());
     }
 }
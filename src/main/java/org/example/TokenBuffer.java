@@ -0,0 +1,283 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flujo de tokens guardado como "estructura de arreglos":
+ * en lugar de un objeto Token por elemento, cada dato vive en su propio
+ * arreglo primitivo y los lexemas son porciones de la fuente que se
+ * arman solo cuando alguien los pide.
+ */
+public class TokenBuffer {
+
+    private static final TokenType[] TIPOS = TokenType.values();
+
+    // Lexema de los tokens cuyo texto no depende de la fuente.
+    // Se mantiene el mismo texto que usaba el léxico (ej. '+=' se muestra como '+').
+    private static final String[] LEXEMA_FIJO = new String[TIPOS.length];
+    static {
+        LEXEMA_FIJO[TokenType.EOF.ordinal()] = "";
+        LEXEMA_FIJO[TokenType.KW_LONG.ordinal()] = "long";
+        LEXEMA_FIJO[TokenType.KW_DOUBLE.ordinal()] = "double";
+        LEXEMA_FIJO[TokenType.KW_IF.ordinal()] = "if";
+        LEXEMA_FIJO[TokenType.KW_THEN.ordinal()] = "then";
+        LEXEMA_FIJO[TokenType.KW_ELSE.ordinal()] = "else";
+        LEXEMA_FIJO[TokenType.KW_WHILE.ordinal()] = "while";
+        LEXEMA_FIJO[TokenType.KW_BREAK.ordinal()] = "break";
+        LEXEMA_FIJO[TokenType.KW_READ.ordinal()] = "read";
+        LEXEMA_FIJO[TokenType.KW_WRITE.ordinal()] = "write";
+        LEXEMA_FIJO[TokenType.KW_TRUE.ordinal()] = "true";
+        LEXEMA_FIJO[TokenType.KW_FALSE.ordinal()] = "false";
+        LEXEMA_FIJO[TokenType.PLUS.ordinal()] = "+";
+        LEXEMA_FIJO[TokenType.MINUS.ordinal()] = "-";
+        LEXEMA_FIJO[TokenType.STAR.ordinal()] = "*";
+        LEXEMA_FIJO[TokenType.SLASH.ordinal()] = "/";
+        LEXEMA_FIJO[TokenType.GT.ordinal()] = ">";
+        LEXEMA_FIJO[TokenType.LT.ordinal()] = "<";
+        LEXEMA_FIJO[TokenType.GTE.ordinal()] = ">";
+        LEXEMA_FIJO[TokenType.LTE.ordinal()] = "<=";
+        LEXEMA_FIJO[TokenType.EQEQ.ordinal()] = "=";
+        LEXEMA_FIJO[TokenType.NEQ.ordinal()] = "!";
+        LEXEMA_FIJO[TokenType.NEQ_ALT.ordinal()] = "<>";
+        LEXEMA_FIJO[TokenType.ANDAND.ordinal()] = "&&";
+        LEXEMA_FIJO[TokenType.OROR.ordinal()] = "||";
+        LEXEMA_FIJO[TokenType.BANG.ordinal()] = "!";
+        LEXEMA_FIJO[TokenType.EQUAL.ordinal()] = "=";
+        LEXEMA_FIJO[TokenType.PLUS_EQ.ordinal()] = "+";
+        LEXEMA_FIJO[TokenType.MINUS_EQ.ordinal()] = "-";
+        LEXEMA_FIJO[TokenType.STAR_EQ.ordinal()] = "*";
+        LEXEMA_FIJO[TokenType.SLASH_EQ.ordinal()] = "/";
+        LEXEMA_FIJO[TokenType.LPAREN.ordinal()] = "(";
+        LEXEMA_FIJO[TokenType.RPAREN.ordinal()] = ")";
+        LEXEMA_FIJO[TokenType.LBRACE.ordinal()] = "{";
+        LEXEMA_FIJO[TokenType.RBRACE.ordinal()] = "}";
+        LEXEMA_FIJO[TokenType.SEMICOLON.ordinal()] = ";";
+        LEXEMA_FIJO[TokenType.COMMA.ordinal()] = ",";
+    }
+
+    private final FuenteCodigo fuente;
+    private final TablaDeIdentificadores nombres;
+
+    // Un elemento por token, todos con el mismo índice. Son volátiles porque en
+    // la Tuberia el parser lee mientras el léxico agrega: al crecer, el arreglo
+    // nuevo (con lo copiado) queda publicado para el otro hilo.
+    private volatile byte[] tipos;       // TokenType.ordinal()
+    private volatile int[] inicios;      // Posición del primer carácter del token en la fuente
+    private volatile int[] longitudes;   // Largo del token completo (ej. una cadena incluye sus comillas)
+    private volatile long[] valores;     // Dato ya decodificado: id del nombre, valor de un número
+    private int cantidad = 0;
+    private int descartados = 0; // Tokens ya descartados: el índice i está en i - descartados
+
+    TokenBuffer(FuenteCodigo fuente, TablaDeIdentificadores nombres) {
+        this(fuente, nombres, 1024);
+    }
+
+    TokenBuffer(FuenteCodigo fuente, TablaDeIdentificadores nombres, int capacidadInicial) {
+        this.fuente = fuente;
+        this.nombres = nombres;
+        int capacidad = Math.max(16, capacidadInicial);
+        this.tipos = new byte[capacidad];
+        this.inicios = new int[capacidad];
+        this.longitudes = new int[capacidad];
+        this.valores = new long[capacidad];
+    }
+
+    /**
+     * Agrega un token al final del buffer.
+     */
+    void agregar(TokenType tipo, int inicio, int longitud, long valor) {
+        if (cantidad == tipos.length) crecer();
+        tipos[cantidad] = (byte) tipo.ordinal();
+        inicios[cantidad] = inicio;
+        longitudes[cantidad] = longitud;
+        valores[cantidad] = valor;
+        cantidad++;
+    }
+
+    /**
+     * Agrega al final los tokens [desde, tamanio) de 'otro', que se analizó con otra
+     * tabla de nombres: sus identificadores se internan en la de este buffer en el
+     * orden en que aparecen, así los ids quedan iguales a los de un análisis secuencial.
+     */
+    void agregarDesde(TokenBuffer otro, int desde) {
+        int n = otro.cantidad - desde;
+        if (n <= 0) return;
+        int primero = cantidad;
+        copiarDe(otro, desde, n);
+
+        int[] ids = new int[otro.nombres.cantidad()];
+        Arrays.fill(ids, -1);
+        byte identificador = (byte) TokenType.IDENTIFIER.ordinal();
+        for (int i = primero; i < cantidad; i++) {
+            if (tipos[i] != identificador) continue;
+            int id = (int) valores[i];
+            if (ids[id] < 0) ids[id] = nombres.internar(otro.nombres.nombre(id));
+            valores[i] = ids[id];
+        }
+    }
+
+    /**
+     * Índice del token que empieza exactamente en 'posicion', o -1 si ninguno.
+     * Los tokens están ordenados por inicio, así que se busca por bisección.
+     */
+    int buscarInicio(int posicion) {
+        int i = Arrays.binarySearch(inicios, 0, cantidad, posicion);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * Índice del último token que empieza antes de 'posicion', o -1 si ninguno.
+     */
+    int ultimoAntesDe(int posicion) {
+        int i = Arrays.binarySearch(inicios, 0, cantidad, posicion);
+        return (i >= 0 ? i : -(i + 1)) - 1;
+    }
+
+    /**
+     * Reemplaza los tokens [desde, hasta) por los de 'medio' (que usa la misma tabla
+     * de nombres) y corre 'corrimiento' posiciones los que siguen. Lo usa
+     * LexicoIncremental después de editar la fuente de este buffer.
+     */
+    void reemplazar(int desde, int hasta, TokenBuffer medio, int corrimiento) {
+        int resto = cantidad - hasta;
+        int nuevoHasta = desde + medio.cantidad;
+        while (nuevoHasta + resto > tipos.length) crecer();
+        if (nuevoHasta != hasta) {
+            System.arraycopy(tipos, hasta, tipos, nuevoHasta, resto);
+            System.arraycopy(inicios, hasta, inicios, nuevoHasta, resto);
+            System.arraycopy(longitudes, hasta, longitudes, nuevoHasta, resto);
+            System.arraycopy(valores, hasta, valores, nuevoHasta, resto);
+        }
+        cantidad = desde;
+        copiarDe(medio, 0, medio.cantidad);
+        cantidad += resto;
+        if (corrimiento != 0) {
+            for (int i = nuevoHasta; i < cantidad; i++) inicios[i] += corrimiento;
+        }
+    }
+
+    // Copia 'n' tokens de 'otro' desde 'desde', sin tocar los ids (misma tabla de nombres)
+    private void copiarDe(TokenBuffer otro, int desde, int n) {
+        while (cantidad + n > tipos.length) crecer();
+        System.arraycopy(otro.tipos, desde, tipos, cantidad, n);
+        System.arraycopy(otro.inicios, desde, inicios, cantidad, n);
+        System.arraycopy(otro.longitudes, desde, longitudes, cantidad, n);
+        System.arraycopy(otro.valores, desde, valores, cantidad, n);
+        cantidad += n;
+    }
+
+    /**
+     * Descarta los tokens anteriores a 'indice', que debe estar en el buffer: los
+     * índices de los que quedan no cambian. La fuente ya no conserva el texto de
+     * los descartados (ver FuenteCodigo.conservarDesde). Lo usa el parser en flujo
+     * al empezar cada sentencia.
+     */
+    void descartarAntesDe(int indice) {
+        int n = indice - descartados;
+        if (n <= 0) return;
+        cantidad -= n;
+        System.arraycopy(tipos, n, tipos, 0, cantidad);
+        System.arraycopy(inicios, n, inicios, 0, cantidad);
+        System.arraycopy(longitudes, n, longitudes, 0, cantidad);
+        System.arraycopy(valores, n, valores, 0, cantidad);
+        descartados = indice;
+        fuente.conservarDesde(inicios[0]);
+    }
+
+    /**
+     * Memoria que ocupan los arreglos del buffer, en bytes (no cuenta la fuente).
+     */
+    long bytes() {
+        return (long) tipos.length * (1 + 4 + 4 + 8);
+    }
+
+    private void crecer() {
+        int nueva = tipos.length * 2;
+        tipos = Arrays.copyOf(tipos, nueva);
+        inicios = Arrays.copyOf(inicios, nueva);
+        longitudes = Arrays.copyOf(longitudes, nueva);
+        valores = Arrays.copyOf(valores, nueva);
+    }
+
+    // ======================================================
+    // ACCESO POR ÍNDICE
+    // ======================================================
+
+    public int tamanio() { return descartados + cantidad; }
+
+    public TokenType tipo(int i) { return TIPOS[tipos[i - descartados]]; }
+
+    public int inicio(int i) { return inicios[i - descartados]; }
+
+    public int longitud(int i) { return longitudes[i - descartados]; }
+
+    // Línea y columna no se guardan: se calculan desde la posición cuando se piden
+
+    public int linea(int i) { return fuente.lineas().linea(inicio(i)); }
+
+    public int columna(int i) { return fuente.lineas().columna(inicio(i)); }
+
+    public IndiceDeLineas lineas() { return fuente.lineas(); }
+
+    /**
+     * Id del nombre internado (solo para tokens IDENTIFIER).
+     */
+    public int idNombre(int i) { return (int) valores[i - descartados]; }
+
+    /**
+     * Valor de un INT_LITERAL, decodificado por el léxico.
+     */
+    public long valorEntero(int i) { return valores[i - descartados]; }
+
+    /**
+     * Valor de un DOUBLE_LITERAL, decodificado por el léxico (se guardan sus bits).
+     */
+    public double valorDecimal(int i) { return Double.longBitsToDouble(valores[i - descartados]); }
+
+    public TablaDeIdentificadores nombres() { return nombres; }
+
+    FuenteCodigo fuente() { return fuente; }
+
+    /**
+     * Arma el lexema del token 'i' a partir de la fuente.
+     * Los identificadores devuelven su instancia internada, sin crear un String.
+     */
+    public String lexema(int i) {
+        TokenType tipo = tipo(i);
+        if (tipo == TokenType.IDENTIFIER) return nombres.nombre(idNombre(i));
+        return lexemaDe(fuente, tipo, inicio(i), inicio(i) + longitud(i));
+    }
+
+    /**
+     * Vista del token 'i' como objeto Token (compatibilidad con el código anterior).
+     */
+    public Token token(int i) {
+        return Token.de(tipo(i), lexema(i), inicio(i), fuente, fuente.lineas());
+    }
+
+    /**
+     * Vista de solo lectura del buffer como List<Token>; cada acceso crea el Token.
+     */
+    public List<Token> comoLista() {
+        return new AbstractList<>() {
+            @Override public Token get(int i) { return token(i); }
+            @Override public int size() { return tamanio(); }
+        };
+    }
+
+    /**
+     * Lexema de un token (que no sea IDENTIFIER) que ocupa [inicio, fin) en la fuente.
+     * Compartido con el AnalizadorLexico para que ambos caminos den el mismo texto.
+     */
+    static String lexemaDe(FuenteCodigo fuente, TokenType tipo, int inicio, int fin) {
+        String fijo = LEXEMA_FIJO[tipo.ordinal()];
+        if (fijo != null) return fijo;
+
+        if (tipo == TokenType.STRING_LITERAL) {
+            return fuente.subcadena(inicio + 1, fin - 1); // Sin las comillas
+        }
+        return fuente.subcadena(inicio, fin);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example;
+
+/**
+ * Resumen de un tramo que el AnalizadorLexico saltó de una sola vez (el cuerpo
+ * de un comentario o de una cadena): cuántos saltos de línea tenía, para
+ * reportar las cadenas que no cierran en la misma línea sin volver a recorrerlo.
+ */
+final class TramoSaltado {
+
+    int lineas;          // Cantidad de '\n' dentro del tramo
+
+    // Arreglo de trabajo de FuenteMapeada; va aquí (uno por analizador)
+    // para que varios analizadores puedan leer la misma fuente a la vez
+    byte[] bloque;
+
+    void reiniciar() {
+        lineas = 0;
+    }
+}
@@ -0,0 +1,270 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ejecuta las fases en tubería: el léxico, el parser y el semántico corren
+ * en hilos distintos, unidos por colas ColaSPSC acotadas que pasan lotes.
+ * Mientras el léxico sigue con el resto del archivo, el parser ya arma las
+ * primeras sentencias y el semántico ya las revisa.
+ *
+ *   léxico  --(cantidad de tokens listos, cada LOTE_DE_TOKENS)-->  parser
+ *   parser  --(Lote: sentencias terminadas y símbolos nuevos)---->  semántico
+ *
+ * El resultado es el mismo que el de secuencial(): los mismos diagnósticos en
+ * el mismo orden. Cada fase reporta en su propio colector y al final se
+ * juntan en el orden de las fases, que es el orden de la ejecución secuencial.
+ * El semántico busca las variables en su propia vista de la tabla, que se
+ * llena con los símbolos de cada lote; si un nombre todavía no está, espera
+ * los lotes siguientes (o el fin del parser) antes de darlo por no declarado,
+ * como si tuviera la tabla completa.
+ *
+ * El máximo de errores del colector compartido (Diagnosticos.setMaximoDeErrores)
+ * no se aplica acá: con él, el parser dependería de cuántos errores léxicos
+ * hubo en total.
+ */
+final class Tuberia {
+
+    static final int LOTE_DE_TOKENS = 4096;
+    static final int LOTE_DE_SENTENCIAS = 256;
+    private static final int CAPACIDAD = 64; // Lotes en cada cola
+
+    /**
+     * Lo que producen las tres fases.
+     */
+    record Resultado(TokenBuffer tokens, ArbolPlano arbol, TablaSimbolos tablaSimbolos, Diagnosticos diagnosticos) { }
+
+    private Tuberia() { }
+
+    /**
+     * Las fases una después de la otra en el hilo actual, con un colector
+     * compartido (como Main): la referencia de enTuberia().
+     */
+    static Resultado secuencial(AnalizadorLexico lexico) {
+        TokenBuffer tokens = lexico.analizarBuffer();
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+        ArbolPlano arbol = parser.analizarPlano();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+        return new Resultado(tokens, arbol, parser.getTablaSimbolos(), diagnosticos);
+    }
+
+    /**
+     * Las tres fases a la vez: el léxico y el parser en hilos nuevos, el
+     * semántico en el hilo actual. Una excepción (o un Error) en cualquier fase
+     * se vuelve a lanzar acá; las excepciones controladas, envueltas.
+     */
+    static Resultado enTuberia(AnalizadorLexico lexico) {
+        TokenBuffer tokens = lexico.nuevoBuffer();
+        ColaSPSC<Integer> avisos = new ColaSPSC<>(CAPACIDAD);
+        ColaSPSC<Lote> lotes = new ColaSPSC<>(CAPACIDAD);
+
+        Diagnosticos deSintaxis = new Diagnosticos(tokens::lineas);
+        TablaConNuevos tabla = new TablaConNuevos();
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, deSintaxis, tabla, avisos);
+
+        Fase hiloLexico = new Fase("lexico", () -> lexico.analizarEnTuberia(tokens, avisos, LOTE_DE_TOKENS));
+        Fase hiloParser = new Fase("parser", () -> {
+            try {
+                Empaquetador empaquetador = new Empaquetador(parser, tabla, lotes);
+                parser.analizarPlano(empaquetador);
+                empaquetador.enviar();
+            } finally {
+                lotes.cerrar();
+                // Si el parser falló, el léxico no tiene que quedar esperando lugar
+                while (avisos.sacar() != null) { }
+            }
+        });
+        hiloLexico.start();
+        hiloParser.start();
+
+        Diagnosticos deSemantica = new Diagnosticos(tokens::lineas);
+        Throwable falla = null;
+        try {
+            revisar(lotes, deSemantica);
+        } catch (Throwable t) {
+            falla = t;
+            while (lotes.sacar() != null) { } // Que el parser pueda terminar
+        }
+        // La falla de una fase corta las siguientes, que fallan a su vez: se lanza la primera
+        falla = hiloParser.esperar(falla);
+        falla = hiloLexico.esperar(falla);
+        if (falla instanceof RuntimeException e) throw e;
+        if (falla instanceof Error e) throw e;
+        if (falla != null) throw new IllegalStateException("Falló una fase de la tubería.", falla);
+
+        // Los errores léxicos ya están en el colector del léxico, como en secuencial()
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        for (Diagnostico d : deSintaxis.todos()) diagnosticos.agregar(d);
+        for (Diagnostico d : deSemantica.todos()) diagnosticos.agregar(d);
+        return new Resultado(tokens, parser.getArbol(), tabla, diagnosticos);
+    }
+
+    // ======================================================
+    // PARSER -> SEMÁNTICO
+    // ======================================================
+
+    /**
+     * Sentencias del programa ya terminadas y los símbolos declarados desde el
+     * lote anterior. El parser no vuelve a tocar esos nodos ni esos símbolos.
+     */
+    private record Lote(ArbolPlano arbol, int[] sentencias, int cantidad, Simbolo[] simbolos) { }
+
+    /**
+     * Del lado del parser: arma los lotes con cada sentencia que termina.
+     */
+    private static final class Empaquetador implements java.util.function.IntConsumer {
+        private final AnalizadorSintactico parser;
+        private final TablaConNuevos tabla;
+        private final ColaSPSC<Lote> lotes;
+        private int[] sentencias = new int[LOTE_DE_SENTENCIAS];
+        private int cantidad = 0;
+
+        Empaquetador(AnalizadorSintactico parser, TablaConNuevos tabla, ColaSPSC<Lote> lotes) {
+            this.parser = parser;
+            this.tabla = tabla;
+            this.lotes = lotes;
+        }
+
+        @Override
+        public void accept(int sentencia) {
+            sentencias[cantidad++] = sentencia;
+            if (cantidad == sentencias.length) enviar();
+        }
+
+        /**
+         * Manda las sentencias juntadas hasta ahora; al final, también los últimos símbolos.
+         */
+        void enviar() {
+            lotes.poner(new Lote(parser.getArbol(), sentencias, cantidad, tabla.quitarNuevos()));
+            sentencias = new int[LOTE_DE_SENTENCIAS];
+            cantidad = 0;
+        }
+    }
+
+    /**
+     * La tabla del parser: además de guardarlos, junta los símbolos nuevos
+     * hasta el próximo lote.
+     */
+    private static final class TablaConNuevos extends TablaSimbolos {
+        private final List<Simbolo> nuevos = new ArrayList<>();
+
+        @Override
+        public boolean agregar(Simbolo s) {
+            if (!super.agregar(s)) return false;
+            nuevos.add(s);
+            return true;
+        }
+
+        Simbolo[] quitarNuevos() {
+            Simbolo[] lista = nuevos.toArray(new Simbolo[0]);
+            nuevos.clear();
+            return lista;
+        }
+    }
+
+    /**
+     * La vista del semántico: tiene los símbolos de los lotes ya recibidos. Si
+     * le piden un nombre global que no está, adelanta lotes (sin revisar sus
+     * sentencias) hasta encontrarlo o hasta que el parser termine. Los ámbitos
+     * de los bloques no esperan: una sentencia llega en un lote recién cuando
+     * se cerraron todos sus bloques.
+     */
+    private static final class TablaEnEspera extends TablaSimbolos {
+        private final ColaSPSC<Lote> lotes;
+        private final ArrayDeque<Lote> adelantados = new ArrayDeque<>();
+        private boolean terminada = false;
+
+        TablaEnEspera(ColaSPSC<Lote> lotes) {
+            this.lotes = lotes;
+        }
+
+        /**
+         * El próximo lote a revisar (con sus símbolos ya en la vista), o null al terminar.
+         */
+        Lote siguiente() {
+            if (!adelantados.isEmpty()) return adelantados.poll();
+            return recibir();
+        }
+
+        private Lote recibir() {
+            if (terminada) return null;
+            Lote lote = lotes.sacar();
+            if (lote == null) {
+                terminada = true;
+                return null;
+            }
+            for (Simbolo s : lote.simbolos()) super.agregar(s);
+            return lote;
+        }
+
+        @Override
+        public Simbolo buscar(int ambito, int idNombre) {
+            Simbolo s = super.buscar(ambito, idNombre);
+            while (s == null && ambito == GLOBAL && !terminada) {
+                Lote lote = recibir();
+                if (lote != null) adelantados.add(lote);
+                s = super.buscar(ambito, idNombre);
+            }
+            return s;
+        }
+    }
+
+    /**
+     * El semántico: revisa las sentencias de cada lote en orden.
+     */
+    private static void revisar(ColaSPSC<Lote> lotes, Diagnosticos diagnosticos) {
+        TablaEnEspera vista = new TablaEnEspera(lotes);
+        AnalizadorSemantico sema = null;
+        for (Lote lote = vista.siguiente(); lote != null; lote = vista.siguiente()) {
+            if (sema == null) sema = new AnalizadorSemantico(lote.arbol(), vista, diagnosticos);
+            for (int i = 0; i < lote.cantidad(); i++) sema.analizarSentencia(lote.sentencias()[i]);
+        }
+    }
+
+    // ======================================================
+    // HILOS
+    // ======================================================
+
+    /**
+     * Hilo de una fase que guarda la excepción (o el Error) con la que terminó:
+     * si se perdiera, la tubería devolvería un resultado incompleto como bueno.
+     */
+    private static final class Fase extends Thread {
+        private volatile Throwable falla;
+
+        Fase(String nombre, Runnable trabajo) {
+            super(null, trabajo, "tuberia-" + nombre);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } catch (Throwable t) {
+                falla = t;
+            }
+        }
+
+        /**
+         * Espera a que termine; devuelve la falla de esta fase o, si no tuvo, 'posterior'
+         * (la de una fase que va después en la tubería).
+         */
+        Throwable esperar(Throwable posterior) {
+            boolean interrumpido = false;
+            while (true) {
+                try {
+                    join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) Thread.currentThread().interrupt();
+            return (falla != null) ? falla : posterior;
+        }
+    }
+}
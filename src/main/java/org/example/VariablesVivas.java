@@ -0,0 +1,124 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Variables vivas: en cada punto del programa, las variables cuyo valor
+ * actual todavía se puede leer más adelante (en algún camino) antes de que
+ * se vuelva a asignar. Es un FlujoDeDatos hacia atrás con unión, un bit por
+ * símbolo: una lectura de la variable la genera; una asignación, un read()
+ * o su declaración (el bloque que vuelve a empezar) la matan.
+ *
+ * Sirve para encontrar asignaciones muertas: las que guardan un valor que
+ * nadie lee.
+ */
+public final class VariablesVivas {
+
+    private final GrafoDeFlujo grafo;
+    private final ArbolPlano arbol;
+    private final FlujoDeDatos flujo;
+
+    public VariablesVivas(GrafoDeFlujo grafo) {
+        this.grafo = grafo;
+        this.arbol = grafo.arbol();
+        this.flujo = new FlujoDeDatos(grafo, grafo.tablaSimbolos().cantidad(), false, true);
+        for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+            int bloque = b;
+            // De atrás hacia adelante: primero la condición, que va al final
+            if (grafo.condicion(b) != ArbolPlano.NINGUNO) {
+                grafo.variablesDe(grafo.condicion(b), v -> generar(bloque, v));
+            }
+            for (int i = grafo.cantidadDeInstrucciones(b) - 1; i >= 0; i--) {
+                int s = grafo.instruccion(b, i);
+                switch (arbol.clase(s)) {
+                    case ArbolPlano.DECLARACION:
+                        for (int k = 0; k < arbol.largo(s); k++) {
+                            int simbolo = grafo.simboloDeclarado(b, i, k);
+                            if (simbolo != ArbolPlano.NINGUNO) flujo.matar(b, simbolo);
+                        }
+                        break;
+                    case ArbolPlano.ASIGNACION:
+                        // x = x + 1: la asignación mata y después (antes, en el programa) se lee
+                        if (arbol.simbolo(s) != ArbolPlano.NINGUNO) flujo.matar(b, arbol.simbolo(s));
+                        grafo.variablesDe(arbol.hijo(s), v -> generar(bloque, v));
+                        break;
+                    case ArbolPlano.LECTURA:
+                        if (arbol.simbolo(s) != ArbolPlano.NINGUNO) flujo.matar(b, arbol.simbolo(s));
+                        break;
+                    default: // ESCRITURA
+                        grafo.variablesDe(arbol.hijo(s), v -> generar(bloque, v));
+                        break;
+                }
+            }
+        }
+        flujo.resolver();
+    }
+
+    private void generar(int bloque, int variable) {
+        int simbolo = arbol.simbolo(variable);
+        if (simbolo != ArbolPlano.NINGUNO) flujo.generar(bloque, simbolo);
+    }
+
+    /** true si el valor del símbolo puede leerse después de empezar el bloque. */
+    public boolean vivaAlEntrar(int bloque, int simbolo) {
+        return flujo.alEntrar(bloque, simbolo);
+    }
+
+    /** true si el valor del símbolo puede leerse después de terminar el bloque. */
+    public boolean vivaAlSalir(int bloque, int simbolo) {
+        return flujo.alSalir(bloque, simbolo);
+    }
+
+    public FlujoDeDatos flujo() { return flujo; }
+
+    /**
+     * Las ASIGNACION cuyo valor nadie lee, en orden de bloque. Recorre cada
+     * bloque hacia atrás desde lo que está vivo a su salida.
+     */
+    public int[] asignacionesMuertas() {
+        int[] muertas = new int[16];
+        int cantidad = 0;
+        long[] vivas = new long[flujo.palabras()];
+        for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+            flujo.copiarSalida(b, vivas);
+            if (grafo.condicion(b) != ArbolPlano.NINGUNO) grafo.variablesDe(grafo.condicion(b), v -> encender(vivas, v));
+            for (int i = grafo.cantidadDeInstrucciones(b) - 1; i >= 0; i--) {
+                int s = grafo.instruccion(b, i);
+                int clase = arbol.clase(s);
+                if (clase == ArbolPlano.DECLARACION) {
+                    for (int k = 0; k < arbol.largo(s); k++) apagar(vivas, grafo.simboloDeclarado(b, i, k));
+                } else if (clase == ArbolPlano.ESCRITURA) {
+                    grafo.variablesDe(arbol.hijo(s), v -> encender(vivas, v));
+                } else {
+                    int simbolo = arbol.simbolo(s);
+                    if (clase == ArbolPlano.ASIGNACION && simbolo != ArbolPlano.NINGUNO
+                            && (vivas[simbolo >>> 6] & (1L << simbolo)) == 0) {
+                        if (cantidad == muertas.length) muertas = Arrays.copyOf(muertas, cantidad * 2);
+                        muertas[cantidad++] = s;
+                    }
+                    apagar(vivas, simbolo);
+                    if (clase == ArbolPlano.ASIGNACION) grafo.variablesDe(arbol.hijo(s), v -> encender(vivas, v));
+                }
+            }
+        }
+        return Arrays.copyOf(muertas, cantidad);
+    }
+
+    /**
+     * Reporta una advertencia por cada asignación muerta.
+     */
+    public void reportar(Diagnosticos diagnosticos) {
+        for (int s : asignacionesMuertas()) {
+            diagnosticos.advertencia(CodigoDiagnostico.FLU_ASIGNACION_MUERTA, arbol.posicion(s), arbol.nombre(s));
+        }
+    }
+
+    private void encender(long[] conjunto, int variable) {
+        int simbolo = arbol.simbolo(variable);
+        if (simbolo != ArbolPlano.NINGUNO) conjunto[simbolo >>> 6] |= 1L << simbolo;
+    }
+
+    private static void apagar(long[] conjunto, int simbolo) {
+        if (simbolo != ArbolPlano.NINGUNO) conjunto[simbolo >>> 6] &= ~(1L << simbolo);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+/**
+ * Una operación sobre los nodos del AST de objetos, con un método por clase
+ * de nodo: n.aceptar(v) llama al que corresponde con una sola llamada
+ * virtual, sin cadenas de 'instanceof'.
+ * Los visitantes no bajan solos a los hijos; el que quiera recorrer un árbol
+ * profundo lleva su propia pila (ver ImpresorAST).
+ */
+interface VisitanteAST<R> {
+
+    // Sentencias
+    R visitarDeclaracion(Sentencia.Declaracion d);
+    R visitarAsignacion(Sentencia.Asignacion a);
+    R visitarLectura(Sentencia.Lectura r);
+    R visitarEscritura(Sentencia.Escritura w);
+    R visitarBloque(Sentencia.Bloque b);
+    R visitarCondicional(Sentencia.Condicional c);
+    R visitarMientras(Sentencia.Mientras m);
+    R visitarInterrumpir(Sentencia.Interrumpir i);
+
+    // Expresiones
+    R visitarLiteral(Expresion.Literal l);
+    R visitarEntero(Expresion.Entero e);
+    R visitarDecimal(Expresion.Decimal d);
+    R visitarVariable(Expresion.Variable v);
+    R visitarAgrupacion(Expresion.Agrupacion g);
+    R visitarUnaria(Expresion.Unaria u);
+    R visitarBinaria(Expresion.Binaria b);
+}
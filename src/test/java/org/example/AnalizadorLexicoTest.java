@@ -0,0 +1,19 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class AnalizadorLexicoTest {
+
+    @Test
+    void lasTablasReconocenLoMismoQueElSwitch() {
+        for (String codigo : new String[] {
+                Benchmark.programaSintetico(200_000), Benchmark.programaDeExpresiones(200_000), Benchmark.basura(200_000) }) {
+            AnalizadorLexico conTablas = new AnalizadorLexico(new FuenteEnMemoria(codigo), true);
+            AnalizadorLexico conSwitch = new AnalizadorLexico(new FuenteEnMemoria(codigo), false);
+            Comprobaciones.mismosTokens(conSwitch.analizarBuffer(), conTablas.analizarBuffer());
+            assertEquals(conSwitch.getErrores(), conTablas.getErrores());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AnalizadorSintacticoTest {
+
+    @Test
+    void precedenciaYAsociatividad() {
+        assertEquals(List.of(
+                "Asignacion(a = Binario(Binario(Literal(INT_LITERAL:1) PLUS Binario(Literal(INT_LITERAL:2) STAR Literal(INT_LITERAL:3)))"
+                        + " MINUS Binario(Literal(INT_LITERAL:4) SLASH Var(b))))",
+                "Asignacion(a = Binario(Unario(MINUS Var(a)) STAR Var(b)))",
+                "Asignacion(x = Binario(Binario(Binario(Var(a) LT Var(b)) ANDAND Binario(Var(b) LT Var(c)))"
+                        + " OROR Unario(BANG Grupo(Binario(Var(a) EQEQ Var(c))))))"),
+                imprimir("a = 1 + 2 * 3 - 4 / b; a = -a * b; x = a < b && b < c || !(a == c);"));
+    }
+
+    @Test
+    void laAsignacionCompuestaAgrupaLaDerecha() {
+        assertEquals(List.of("Asignacion(a = Binario(Var(a) MINUS Binario(Binario(Var(b) MINUS Var(c)) MINUS Literal(INT_LITERAL:1))))"),
+                imprimir("a -= b - c - 1;"));
+    }
+
+    @Test
+    void expresionesLargasSinErrores() {
+        AnalizadorSintactico parser = new AnalizadorSintactico(
+                new AnalizadorLexico(Benchmark.programaDeExpresiones(200_000)).analizarBuffer());
+        parser.analizarPlano();
+        assertEquals(List.of(), parser.getErrores());
+    }
+
+    /**
+     * Las sentencias (sin las declaraciones de a, b, c y x) como las imprime ImpresorAST.
+     */
+    private static List<String> imprimir(String sentencias) {
+        AnalizadorSintactico parser = new AnalizadorSintactico(
+                new AnalizadorLexico("long a, b, c; double x;\n" + sentencias).analizarBuffer());
+        List<Sentencia> arbol = parser.analizar();
+        assertEquals(List.of(), parser.getErrores());
+        return arbol.subList(2, arbol.size()).stream().map(Sentencia::toString).toList();
+    }
+
+    @Test
+    void enFlujoReportaLoMismoQueElProgramaEntero() {
+        // Todo se declara antes de usarse, así que el semántico de a una sentencia ve lo mismo
+        String codigo = Benchmark.programaSintetico(300_000)
+                + "\nlong x; x = 1.5; y = 2; write(x +);\nwhile (x > 0) { break; } break;\n";
+        TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+        Diagnosticos entero = new Diagnosticos(tokens::lineas);
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, entero);
+        ArbolPlano arbol = parser.analizarPlano();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), entero).analizar();
+
+        FuenteConLector fuente = new FuenteConLector(new StringReader(codigo));
+        Diagnosticos enFlujo = new Diagnosticos(fuente::lineas, true);
+        AnalizadorSintactico parserEnFlujo = new AnalizadorSintactico(new AnalizadorLexico(fuente), enFlujo);
+        AnalizadorSemantico sema = new AnalizadorSemantico(parserEnFlujo.getArbol(), parserEnFlujo.getTablaSimbolos(), enFlujo);
+        int[] sentencias = { 0 };
+        parserEnFlujo.analizarEnFlujo(s -> {
+            sentencias[0]++;
+            sema.analizarSentencia(s);
+        });
+
+        // En flujo los errores de cada sentencia salen juntos: se comparan por posición
+        assertTrue(entero.cantidadDeErrores() > 0);
+        assertEquals(entero.ordenados(), enFlujo.ordenados());
+        assertEquals(arbol.cantidadDeSentencias(), sentencias[0]);
+    }
+
+    @Test
+    void enFlujoRetieneUnaVentanaDeTokensYTexto() {
+        String codigo = Benchmark.programaSintetico(4_000_000);
+        FuenteConLector fuente = new FuenteConLector(new StringReader(codigo));
+        AnalizadorSintactico parser = new AnalizadorSintactico(new AnalizadorLexico(fuente));
+        int sentencias = 0;
+        while (parser.siguienteSentencia() != ArbolPlano.NINGUNO) sentencias++;
+
+        assertEquals(List.of(), parser.getErrores());
+        assertTrue(sentencias > 10_000);
+        // Un buffer entero ocupa varios bytes por carácter; la ventana, una fracción mínima
+        long retenido = parser.tokens().bytes() + fuente.bytes();
+        assertTrue(retenido < codigo.length() / 20, "retenido: " + retenido + " bytes");
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ArbolPlanoTest {
+
+    @Test
+    void recorrerVisitaLoMismoQueElArbolDeObjetos() {
+        ArbolPlano plano = analizar(Benchmark.programaSintetico(100_000)
+                + "while (i > 0) { } if (true) then { } else break;\n");
+        List<Integer> esperado = new ArrayList<>();
+        for (Sentencia s : plano.aSentencias()) enOrden(s, esperado);
+
+        List<Integer> obtenido = new ArrayList<>();
+        plano.recorrer(new ArbolPlano.Visitante() {
+            @Override
+            public boolean entrar(int nodo) {
+                obtenido.add(plano.posicion(nodo));
+                return true;
+            }
+
+            @Override
+            public void salir(int nodo) { }
+        });
+        assertEquals(esperado, obtenido);
+    }
+
+    @Test
+    void salirDespuesDeLosHijosYSoloSiSeEntro() {
+        ArbolPlano plano = analizar("long a, b;\nwhile (a > 0) { a = -(a - b); if (a == b) then break; }\nwrite(a + 1);\n");
+        List<Integer> abiertos = new ArrayList<>();
+        int[] visitados = { 0 };
+        plano.recorrer(new ArbolPlano.Visitante() {
+            @Override
+            public boolean entrar(int nodo) {
+                visitados[0]++;
+                // No baja a las expresiones de las asignaciones
+                if (plano.clase(nodo) == ArbolPlano.ASIGNACION) return false;
+                abiertos.add(nodo);
+                return true;
+            }
+
+            @Override
+            public void salir(int nodo) {
+                assertEquals(nodo, abiertos.remove(abiertos.size() - 1));
+            }
+        });
+        assertTrue(abiertos.isEmpty());
+        assertTrue(visitados[0] < plano.cantidadDeNodos(), "se visitaron las expresiones que se pidió saltar");
+    }
+
+    private static ArbolPlano analizar(String codigo) {
+        AnalizadorSintactico parser = new AnalizadorSintactico(new AnalizadorLexico(codigo).analizarBuffer());
+        ArbolPlano arbol = parser.analizarPlano();
+        assertEquals(List.of(), parser.getErrores());
+        return arbol;
+    }
+
+    /**
+     * Posiciones del árbol de objetos en orden de fuente (recursivo: los programas de prueba son chatos).
+     */
+    private static void enOrden(Object nodo, List<Integer> posiciones) {
+        switch (nodo) {
+            case Sentencia s -> {
+                posiciones.add(s.posicion());
+                switch (s) {
+                    case Sentencia.Asignacion a -> enOrden(a.valor(), posiciones);
+                    case Sentencia.Escritura w -> enOrden(w.expresion(), posiciones);
+                    case Sentencia.Bloque b -> b.sentencias().forEach(h -> enOrden(h, posiciones));
+                    case Sentencia.Condicional c -> {
+                        enOrden(c.condicion(), posiciones);
+                        if (c.ramaEntonces() != null) enOrden(c.ramaEntonces(), posiciones);
+                        if (c.ramaSino() != null) enOrden(c.ramaSino(), posiciones);
+                    }
+                    case Sentencia.Mientras m -> {
+                        enOrden(m.condicion(), posiciones);
+                        if (m.cuerpo() != null) enOrden(m.cuerpo(), posiciones);
+                    }
+                    case Sentencia.Declaracion d -> { }
+                    case Sentencia.Lectura r -> { }
+                    case Sentencia.Interrumpir i -> { }
+                }
+            }
+            case Expresion e -> {
+                posiciones.add(e.posicion());
+                switch (e) {
+                    case Expresion.Agrupacion g -> enOrden(g.interna(), posiciones);
+                    case Expresion.Unaria u -> enOrden(u.derecha(), posiciones);
+                    case Expresion.Binaria b -> {
+                        enOrden(b.izquierda(), posiciones);
+                        enOrden(b.derecha(), posiciones);
+                    }
+                    case Expresion.Literal l -> { }
+                    case Expresion.Entero n -> { }
+                    case Expresion.Decimal d -> { }
+                    case Expresion.Variable v -> { }
+                }
+            }
+            default -> throw new IllegalStateException("Nodo desconocido: " + nodo);
+        }
+    }
+}
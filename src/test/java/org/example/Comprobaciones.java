@@ -0,0 +1,31 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Comparaciones que usan varias pruebas.
+ */
+final class Comprobaciones {
+
+    private Comprobaciones() { }
+
+    /**
+     * Los dos buffers tienen los mismos tokens: tipo, inicio y largo.
+     * Falla en el primero distinto, para no volcar buffers enteros.
+     */
+    static void mismosTokens(TokenBuffer esperado, TokenBuffer obtenido) {
+        int n = Math.min(esperado.tamanio(), obtenido.tamanio());
+        for (int i = 0; i < n; i++) {
+            if (esperado.tipo(i) != obtenido.tipo(i) || esperado.inicio(i) != obtenido.inicio(i)
+                    || esperado.longitud(i) != obtenido.longitud(i)) {
+                fail("Token " + i + " distinto: se esperaba " + describir(esperado, i) + " y se obtuvo " + describir(obtenido, i));
+            }
+        }
+        assertEquals(esperado.tamanio(), obtenido.tamanio(), "cantidad de tokens");
+    }
+
+    private static String describir(TokenBuffer tokens, int i) {
+        return tokens.tipo(i) + " en " + tokens.inicio(i) + " (largo " + tokens.longitud(i) + ")";
+    }
+}
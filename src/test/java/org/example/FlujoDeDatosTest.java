@@ -0,0 +1,170 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * El grafo de flujo, el resolvedor por lista de trabajo y los dos análisis
+ * que lo usan (VariablesVivas y AsignacionDefinida).
+ */
+class FlujoDeDatosTest {
+
+    @Test
+    void bloquesDeIfYWhileConBreak() {
+        GrafoDeFlujo grafo = grafo(new AnalizadorLexico(
+                "long a, i;\nread(i);\nwhile (i < 9) { a = i; if (i == 3) then break; i = i + 1; }\nwrite(a);\n"));
+        // 1 es la condición del while; 4 el break, que sale a 3; 6 queda sin predecesores
+        assertEquals("0->1 1->2,3 2->4,5 3->7 4->3 5->1 6->5 7->", sucesores(grafo));
+        assertEquals(7, grafo.salida());
+        assertEquals(0, grafo.cantidadDePredecesores(6));
+    }
+
+    @Test
+    void laListaDeTrabajoLlegaAlMismoPuntoFijoQueIterarTodo() {
+        // Más de 64 símbolos, para que cada conjunto ocupe varias palabras
+        GrafoDeFlujo grafo = grafo(new AnalizadorLexico(Benchmark.programaDeFlujo(100_000, 150)));
+        int bits = grafo.tablaSimbolos().cantidad();
+        for (boolean haciaAdelante : new boolean[] { true, false }) {
+            for (boolean union : new boolean[] { true, false }) {
+                // Generar y matar al azar (semilla fija): el resolvedor no depende de qué significan
+                FlujoDeDatos flujo = new FlujoDeDatos(grafo, bits, haciaAdelante, union);
+                int palabras = flujo.palabras();
+                long[] generados = new long[grafo.cantidadDeBloques() * palabras];
+                long[] matados = new long[generados.length];
+                Random azar = new Random(1);
+                for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+                    for (int k = 0; k < 4; k++) {
+                        int bit = azar.nextInt(bits);
+                        if (azar.nextBoolean()) {
+                            flujo.generar(b, bit);
+                            generados[b * palabras + (bit >>> 6)] |= 1L << bit;
+                            matados[b * palabras + (bit >>> 6)] &= ~(1L << bit);
+                        } else {
+                            flujo.matar(b, bit);
+                            matados[b * palabras + (bit >>> 6)] |= 1L << bit;
+                            generados[b * palabras + (bit >>> 6)] &= ~(1L << bit);
+                        }
+                    }
+                }
+                flujo.resolver();
+                long[][] esperado = iterarTodo(grafo, palabras, generados, matados, haciaAdelante, union);
+
+                long[] conjunto = new long[palabras];
+                for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+                    String caso = (haciaAdelante ? "adelante" : "atrás") + (union ? ", unión" : ", intersección") + ", bloque " + b;
+                    flujo.copiarEntrada(b, conjunto);
+                    assertArrayEquals(Arrays.copyOfRange(esperado[0], b * palabras, (b + 1) * palabras), conjunto, caso);
+                    flujo.copiarSalida(b, conjunto);
+                    assertArrayEquals(Arrays.copyOfRange(esperado[1], b * palabras, (b + 1) * palabras), conjunto, caso);
+                }
+            }
+        }
+    }
+
+    @Test
+    void asignacionesMuertas() {
+        assertEquals(List.of("Advertencia de flujo [linea 3, col 1]: El valor asignado a 'a' nunca se usa."),
+                advertencias("long a, b, c;\nread(b);\na = 1;\na = 2;\nif (b < 0) then c = a; else c = 1;\nwrite(c);\n"));
+    }
+
+    @Test
+    void usosSinAsignar() {
+        // Asignada en una sola rama: se avisa en cada lectura, también dentro del while
+        assertEquals(List.of(
+                "Advertencia de flujo [linea 4, col 7]: La variable 'a' puede usarse sin tener un valor asignado.",
+                "Advertencia de flujo [linea 5, col 25]: La variable 'a' puede usarse sin tener un valor asignado.",
+                "Advertencia de flujo [linea 6, col 11]: La variable 'a' puede usarse sin tener un valor asignado."),
+                advertencias("long a, b;\nread(b);\nif (b < 0) then a = 1;\nwrite(a);\nwhile (b < 9) { b = b + a; }\nwrite(b + a);\n"));
+    }
+
+    @Test
+    void unaDeclaracionEnElWhileEmpiezaSinValorEnCadaVuelta() {
+        assertEquals(List.of(
+                "Advertencia de flujo [linea 3, col 29]: La variable 't' puede usarse sin tener un valor asignado.",
+                "Advertencia de flujo [linea 3, col 25]: El valor asignado a 't' nunca se usa."),
+                advertencias("long i;\nread(i);\nwhile (i < 9) { long t; t = t + i; i = i + 1; }\n"));
+    }
+
+    /**
+     * El mismo problema resuelto a lo bruto: se recorren todos los bloques hasta
+     * que ninguno cambia, desde los mismos valores iniciales que FlujoDeDatos.
+     * @return { entrada, salida } de cada bloque.
+     */
+    private static long[][] iterarTodo(GrafoDeFlujo grafo, int palabras, long[] generados, long[] matados,
+                                       boolean haciaAdelante, boolean union) {
+        int cantidad = grafo.cantidadDeBloques();
+        long[] entrada = new long[cantidad * palabras];
+        long[] salida = new long[cantidad * palabras];
+        if (!union) {
+            Arrays.fill(entrada, -1L);
+            Arrays.fill(salida, -1L);
+        }
+        int frontera = haciaAdelante ? GrafoDeFlujo.ENTRADA : grafo.salida();
+        long[] antes = haciaAdelante ? entrada : salida;
+        long[] despues = haciaAdelante ? salida : entrada;
+        Arrays.fill(antes, frontera * palabras, (frontera + 1) * palabras, 0L);
+
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int b = 0; b < cantidad; b++) {
+                int anteriores = haciaAdelante ? grafo.cantidadDePredecesores(b) : grafo.cantidadDeSucesores(b);
+                for (int w = 0; w < palabras; w++) {
+                    int i = b * palabras + w;
+                    if (b != frontera && anteriores > 0) {
+                        long llega = union ? 0 : -1L;
+                        for (int k = 0; k < anteriores; k++) {
+                            int a = haciaAdelante ? grafo.predecesor(b, k) : grafo.sucesor(b, k);
+                            llega = union ? llega | despues[a * palabras + w] : llega & despues[a * palabras + w];
+                        }
+                        antes[i] = llega;
+                    }
+                    long sale = generados[i] | (antes[i] & ~matados[i]);
+                    cambio |= sale != despues[i];
+                    despues[i] = sale;
+                }
+            }
+        }
+        return new long[][] { entrada, salida };
+    }
+
+    private static String sucesores(GrafoDeFlujo grafo) {
+        List<String> bloques = new ArrayList<>();
+        for (int b = 0; b < grafo.cantidadDeBloques(); b++) {
+            StringBuilder sb = new StringBuilder().append(b).append("->");
+            for (int k = 0; k < grafo.cantidadDeSucesores(b); k++) sb.append(k == 0 ? "" : ",").append(grafo.sucesor(b, k));
+            bloques.add(sb.toString());
+        }
+        return String.join(" ", bloques);
+    }
+
+    /**
+     * Las advertencias de los dos análisis, como las muestra Main (asignación definida primero).
+     */
+    private static List<String> advertencias(String codigo) {
+        AnalizadorLexico lexico = new AnalizadorLexico(codigo);
+        GrafoDeFlujo grafo = grafo(lexico);
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        new AsignacionDefinida(grafo).reportar(diagnosticos);
+        new VariablesVivas(grafo).reportar(diagnosticos);
+        return diagnosticos.todos().stream().map(diagnosticos::formatear).toList();
+    }
+
+    /**
+     * Grafo de un programa sin errores; los diagnósticos quedan en los del léxico.
+     */
+    private static GrafoDeFlujo grafo(AnalizadorLexico lexico) {
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        AnalizadorSintactico parser = new AnalizadorSintactico(lexico.analizarBuffer(), diagnosticos);
+        ArbolPlano arbol = parser.analizarPlano();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+        assertEquals(List.of(), diagnosticos.todos().stream().map(diagnosticos::formatear).toList());
+        return new GrafoDeFlujo(arbol, parser.getTablaSimbolos());
+    }
+}
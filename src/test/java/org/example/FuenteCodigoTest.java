@@ -0,0 +1,83 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Las tres fuentes (en memoria, con Reader y mapeada) dan los mismos tokens,
+ * errores, líneas y columnas para el mismo texto.
+ */
+class FuenteCodigoTest {
+
+    @Test
+    void unCaracterFueraDelBmpEsUnSoloCaracter() {
+        String texto = "long x; 😀 x = 1; \"😀\" y😀 = 2;\n";
+        List<String> errores = compararFuentes(texto);
+        // Uno por cada 😀 fuera de la cadena, no uno por cada mitad del par sustituto
+        assertEquals(2, errores.size(), errores.toString());
+    }
+
+    @Test
+    void sustitutosSueltos() {
+        // No tienen UTF-8, así que solo se comparan las fuentes UTF-16
+        String texto = "x \uD83D y \uDE00 z \uDE00\uD83D;\n";
+        for (boolean tablas : new boolean[] { true, false }) {
+            AnalizadorLexico enMemoria = new AnalizadorLexico(new FuenteEnMemoria(texto), tablas);
+            AnalizadorLexico conLector = new AnalizadorLexico(new FuenteConLector(new StringReader(texto), 4), tablas);
+            assertEquals(enMemoria.analizarTokens().toString(), conLector.analizarTokens().toString());
+            assertEquals(enMemoria.getErrores(), conLector.getErrores());
+            assertEquals(4, enMemoria.getErrores().size());
+        }
+    }
+
+    @Test
+    void lineasYColumnasConUtf8() {
+        // Caracteres de 1 a 4 bytes, dentro y fuera de cadenas y comentarios (semilla fija)
+        String[] piezas = { "x", "ñandú", "\"día 😀 ok\"", "/* 中文 😀 */", "y1", "\n", "  ", "// é\n", "123", "+", "😀" };
+        Random azar = new Random(3);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) sb.append(piezas[azar.nextInt(piezas.length)]).append(' ');
+        compararFuentes(sb.toString());
+    }
+
+    @Test
+    void unaSolaLineaLarga() {
+        // Las columnas de la fuente mapeada no recorren la línea desde su inicio
+        String texto = "long ñ; " + "ñ = ñ + 1; /* 😀 */ ".repeat(20_000) + "write(ñ);";
+        compararFuentes(texto);
+        List<Token> tokens = new AnalizadorLexico(new FuenteMapeada(ByteBuffer.wrap(texto.getBytes(StandardCharsets.UTF_8))))
+                .analizarTokens();
+        Token ultimo = tokens.get(tokens.size() - 2); // El ';' antes del EOF
+        assertEquals(1, ultimo.linea());
+        assertEquals(texto.length(), ultimo.columna());
+    }
+
+    /**
+     * Analiza el texto con cada fuente, con y sin tablas, y compara contra la fuente
+     * en memoria; devuelve los errores (iguales en todas).
+     */
+    private static List<String> compararFuentes(String texto) {
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        List<Supplier<FuenteCodigo>> fuentes = List.of(
+                () -> new FuenteEnMemoria(texto),
+                () -> new FuenteConLector(new StringReader(texto), 4),
+                () -> new FuenteMapeada(ByteBuffer.wrap(utf8)));
+        AnalizadorLexico referencia = new AnalizadorLexico(new FuenteEnMemoria(texto), true);
+        String tokens = referencia.analizarTokens().toString();
+        for (Supplier<FuenteCodigo> fuente : fuentes) {
+            for (boolean tablas : new boolean[] { true, false }) {
+                AnalizadorLexico lexico = new AnalizadorLexico(fuente.get(), tablas);
+                assertEquals(tokens, lexico.analizarTokens().toString());
+                assertEquals(referencia.getErrores(), lexico.getErrores());
+            }
+        }
+        return referencia.getErrores();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Después de cada edición, el buffer reanalizado es igual al de analizar
+ * todo el texto editado.
+ */
+class LexicoIncrementalTest {
+
+    private static final int EDICIONES = 300;
+
+    @Test
+    void escribirYBorrarCaracteres() {
+        editarYComparar(new String[] { "x", " ", "1", "(", "\n", "+" });
+    }
+
+    @Test
+    void edicionesQueCambianTodoLoQueSigue() {
+        // Una comilla o un '/*' abren algo que llega hasta el final (o hasta el próximo cierre)
+        editarYComparar(new String[] { "\"", "/*", "*/", "//", ";\n" });
+    }
+
+    @Test
+    void editarAlPrincipioYAlFinal() {
+        String codigo = "long x;\nx = 1;\n";
+        TokenBuffer tokens = new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+        LexicoIncremental.reanalizar(tokens, 0, 0, "long y; ");
+        compararConCompleto(tokens);
+        LexicoIncremental.reanalizar(tokens, tokens.fuente().largo(), 0, "y = x");
+        compararConCompleto(tokens);
+        LexicoIncremental.reanalizar(tokens, 0, tokens.fuente().largo(), "");
+        compararConCompleto(tokens);
+    }
+
+    /**
+     * Escribe cada texto en una posición al azar (semilla fija) y después lo borra,
+     * comparando con el análisis completo en cada paso.
+     */
+    private static void editarYComparar(String[] escritos) {
+        String codigo = Benchmark.programaSintetico(50_000);
+        TokenBuffer tokens = new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+        Random azar = new Random(1);
+        for (int i = 0; i < EDICIONES; i++) {
+            String escrito = escritos[i % escritos.length];
+            int offset = azar.nextInt(tokens.fuente().largo());
+            LexicoIncremental.reanalizar(tokens, offset, 0, escrito);
+            compararConCompleto(tokens);
+            LexicoIncremental.reanalizar(tokens, offset, escrito.length(), "");
+            compararConCompleto(tokens);
+        }
+        assertEquals(codigo, texto(tokens));
+    }
+
+    private static void compararConCompleto(TokenBuffer tokens) {
+        TokenBuffer completo = new AnalizadorLexico(texto(tokens)).analizarBuffer();
+        Comprobaciones.mismosTokens(completo, tokens);
+        // El índice de líneas también se edita en el lugar
+        for (int i = 0; i < completo.tamanio(); i += 97) {
+            assertEquals(completo.linea(i), tokens.linea(i), "línea del token " + i);
+            assertEquals(completo.columna(i), tokens.columna(i), "columna del token " + i);
+        }
+    }
+
+    private static String texto(TokenBuffer tokens) {
+        return tokens.fuente().subcadena(0, tokens.fuente().largo());
+    }
+}
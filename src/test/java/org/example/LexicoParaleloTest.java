@@ -0,0 +1,59 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * El análisis en tramos da lo mismo que el secuencial. Se llama a
+ * LexicoParalelo con una cantidad de tramos fija, para que la prueba
+ * reparta la fuente aunque la máquina tenga un solo procesador.
+ */
+class LexicoParaleloTest {
+
+    private static final int TRAMOS = 16;
+
+    @Test
+    void programaValido() {
+        compararConSecuencial(Benchmark.programaSintetico(2_000_000));
+    }
+
+    @Test
+    void comentarioQueCruzaVariosTramos() {
+        // Los tramos del medio empiezan dentro del comentario y hay que repetirlos
+        compararConSecuencial("long x;\n/*" + "x = 1; \"abierta\n".repeat(100_000) + "*/ x = 2;\n"
+                + Benchmark.programaSintetico(500_000));
+    }
+
+    @Test
+    void bytesAlAzar() {
+        compararConSecuencial(Benchmark.basura(2_000_000));
+    }
+
+    @Test
+    void conLaCantidadDeTramosDelPool() {
+        String codigo = Benchmark.programaSintetico(2_000_000);
+        AnalizadorLexico secuencial = new AnalizadorLexico(codigo);
+        AnalizadorLexico enParalelo = new AnalizadorLexico(codigo);
+        Comprobaciones.mismosTokens(secuencial.analizarBuffer(), enParalelo.analizarBufferEnParalelo());
+        assertEquals(secuencial.getErrores(), enParalelo.getErrores());
+    }
+
+    private static void compararConSecuencial(String codigo) {
+        AnalizadorLexico secuencial = new AnalizadorLexico(new FuenteEnMemoria(codigo), true);
+        TokenBuffer esperado = secuencial.analizarBuffer();
+
+        FuenteEnMemoria fuente = new FuenteEnMemoria(codigo);
+        AnalizadorLexico principal = new AnalizadorLexico(fuente, true);
+        TokenBuffer obtenido = new TokenBuffer(fuente, principal.getNombres());
+        LexicoParalelo.analizar(fuente, true, obtenido, principal, TRAMOS);
+
+        Comprobaciones.mismosTokens(esperado, obtenido);
+        assertEquals(secuencial.getErrores(), principal.getErrores());
+        for (int i = 0; i < esperado.tamanio(); i++) {
+            if (esperado.tipo(i) == TokenType.IDENTIFIER) {
+                assertEquals(esperado.idNombre(i), obtenido.idNombre(i), "id del nombre del token " + i);
+            }
+        }
+    }
+}
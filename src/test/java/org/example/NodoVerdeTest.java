@@ -0,0 +1,67 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * El árbol concreto no pierde texto, y reanalizar una edición da el mismo
+ * árbol que analizar todo de nuevo.
+ */
+class NodoVerdeTest {
+
+    private static final int EDICIONES = 200;
+
+    @Test
+    void reproduceLaFuente() {
+        for (String codigo : new String[] {
+                Benchmark.programaSintetico(200_000), Benchmark.basura(50_000), "", "  // solo trivia\n" }) {
+            TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+            assertEquals(codigo, new AnalizadorSintactico(tokens).analizarVerde().texto());
+        }
+    }
+
+    @Test
+    void losNodosRojosUbicanCadaToken() {
+        String codigo = Benchmark.programaSintetico(20_000) + "x = ;\n{ write(1)\n";
+        TokenBuffer tokens = new AnalizadorLexico(codigo).analizarBuffer();
+        NodoRojo raiz = new NodoRojo(new AnalizadorSintactico(tokens).analizarVerde());
+        for (int i = 0; i < tokens.tamanio(); i++) {
+            if (tokens.longitud(i) == 0) continue;
+            NodoRojo token = raiz.nodoEn(tokens.inicio(i));
+            assertEquals(tokens.inicio(i), token.inicioDelTexto(), "token " + i);
+            assertEquals(tokens.tipo(i), token.verde().tipo(), "token " + i);
+        }
+    }
+
+    @Test
+    void reanalizarEsIgualAAnalizarTodo() {
+        // Además de las ediciones de LexicoIncrementalTest, llaves y ';' que cambian la estructura
+        String[] escritos = { "x", " ", "1", "(", "\n", "+", ";", "{", "}", "\"", "/*" };
+        String codigo = Benchmark.programaSintetico(50_000);
+        TokenBuffer tokens = new AnalizadorLexico(new FuenteEnMemoria(codigo), true).analizarBuffer();
+        NodoVerde raiz = new AnalizadorSintactico(tokens).analizarVerde();
+        Random azar = new Random(1);
+        long reusadas = 0;
+        for (int i = 0; i < EDICIONES; i++) {
+            String escrito = escritos[i % escritos.length];
+            int offset = azar.nextInt(tokens.fuente().largo());
+            for (int paso = 0; paso < 2; paso++) {
+                LexicoIncremental.Resultado cambio = (paso == 0)
+                        ? LexicoIncremental.reanalizar(tokens, offset, 0, escrito)
+                        : LexicoIncremental.reanalizar(tokens, offset, escrito.length(), "");
+                AnalizadorSintactico parser = new AnalizadorSintactico(tokens);
+                raiz = parser.reanalizarVerde(raiz, cambio);
+                reusadas += parser.sentenciasReusadas();
+
+                String fuente = tokens.fuente().subcadena(0, tokens.fuente().largo());
+                assertEquals(fuente, raiz.texto(), "edición " + i);
+                assertTrue(raiz.mismaEstructura(new AnalizadorSintactico(tokens).analizarVerde()), "edición " + i);
+            }
+        }
+        // Sin reusar sentencias sería correcto pero no incremental
+        assertTrue(reusadas > (long) EDICIONES * raiz.cantidadDeHijos() / 2, "reusadas: " + reusadas);
+    }
+}
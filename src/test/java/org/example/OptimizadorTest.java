@@ -0,0 +1,90 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OptimizadorTest {
+
+    @Test
+    void pliegaYPropagaEnLineaRecta() {
+        assertEquals(List.of(
+                "Asignacion(a = Literal(INT_LITERAL:6))",
+                "Asignacion(b = Literal(INT_LITERAL:7))",
+                "Asignacion(x = Literal(DOUBLE_LITERAL:3.5))"),
+                optimizar("a = 2 * 3; b = a + 1; x = b / 2.0;"));
+    }
+
+    @Test
+    void despuesDelIfQuedaLoQueLasDosRamasDejanIgual() {
+        assertEquals("Escritura(Literal(INT_LITERAL:2))",
+                ultima(optimizar("read(b); a = 1; if (b < 0) then a = 2; else a = 2; write(a);")));
+        assertEquals("Escritura(Var(a))",
+                ultima(optimizar("read(b); a = 1; if (b < 0) then a = 2; write(a);")));
+    }
+
+    @Test
+    void elWhileOlvidaLoQueAsignaSuCuerpo() {
+        assertEquals(List.of(
+                "Lectura(b)",
+                "Asignacion(a = Literal(INT_LITERAL:5))",
+                "Mientras(Binario(Var(b) LT Literal(INT_LITERAL:9)), Bloque[Asignacion(b = Binario(Var(b) PLUS Var(a))),"
+                        + " Asignacion(a = Literal(INT_LITERAL:1))])",
+                "Escritura(Var(a))"),
+                optimizar("read(b); a = 5; while (b < 9) { b = b + a; a = 1; } write(a);"));
+    }
+
+    @Test
+    void condicionesConstantes() {
+        assertEquals(List.of("Asignacion(a = Literal(INT_LITERAL:2))", "Bloque[]"),
+                optimizar("if (true && 1 < 0) then a = 1; else a = 2; while (false) a = 3;"));
+        assertEquals(List.of("Lectura(a)", "Escritura(Binario(Var(a) LT Literal(INT_LITERAL:0)))"),
+                optimizar("read(a); write(!(1 == 1) || a < 0);"));
+    }
+
+    @Test
+    void programaLargoSinErroresYEstable() {
+        AnalizadorSintactico parser = analizar(Benchmark.programaDeConstantes(200_000));
+        ArbolPlano arbol = parser.getArbol();
+        new Optimizador(arbol, parser.getTablaSimbolos()).optimizar();
+        List<String> optimizado = imprimir(arbol);
+
+        // Lo ya optimizado no tiene nada más que plegar
+        Optimizador segundo = new Optimizador(arbol, parser.getTablaSimbolos());
+        segundo.optimizar();
+        assertEquals(optimizado, imprimir(arbol));
+        assertEquals(0, segundo.reescritos());
+    }
+
+    /**
+     * Parser y semántico; el programa no debe tener errores.
+     */
+    private static AnalizadorSintactico analizar(String codigo) {
+        AnalizadorLexico lexico = new AnalizadorLexico(codigo);
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        AnalizadorSintactico parser = new AnalizadorSintactico(lexico.analizarBuffer(), diagnosticos);
+        ArbolPlano arbol = parser.analizarPlano();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+        assertEquals(List.of(), diagnosticos.todos().stream().map(diagnosticos::formatear).toList());
+        return parser;
+    }
+
+    /**
+     * Optimiza las sentencias (con a, b y x ya declaradas) y las devuelve impresas, sin las declaraciones.
+     */
+    private static List<String> optimizar(String sentencias) {
+        AnalizadorSintactico parser = analizar("long a, b; double x;\n" + sentencias);
+        new Optimizador(parser.getArbol(), parser.getTablaSimbolos()).optimizar();
+        List<String> impresas = imprimir(parser.getArbol());
+        return impresas.subList(2, impresas.size());
+    }
+
+    private static List<String> imprimir(ArbolPlano arbol) {
+        return arbol.aSentencias().stream().map(Sentencia::toString).toList();
+    }
+
+    private static String ultima(List<String> sentencias) {
+        return sentencias.get(sentencias.size() - 1);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Programas con un millón de niveles de anidamiento: el parser, el semántico
+ * y la impresión no usan la pila de Java, así que no deben desbordarla.
+ */
+class ProfundidadTest {
+
+    private static final int NIVELES = 1_000_000;
+
+    @Test
+    void bloquesAnidados() {
+        analizarSinErrores("{".repeat(NIVELES) + "x = 1;" + "}".repeat(NIVELES));
+    }
+
+    @Test
+    void ifAnidados() {
+        analizarSinErrores("if (x > 0) then ".repeat(NIVELES) + "x = 1;");
+    }
+
+    @Test
+    void cadenaDeElse() {
+        analizarSinErrores("if (x > 0) then x = 1; else ".repeat(NIVELES) + "x = 2;");
+    }
+
+    @Test
+    void whileConBreak() {
+        analizarSinErrores("while (x > 0) ".repeat(NIVELES) + "break;");
+    }
+
+    @Test
+    void parentesis() {
+        analizarSinErrores("x = " + "(".repeat(NIVELES) + "1" + ")".repeat(NIVELES) + ";");
+    }
+
+    @Test
+    void unarios() {
+        analizarSinErrores("x = " + "- ".repeat(NIVELES) + "1;");
+    }
+
+    @Test
+    void binarios() {
+        analizarSinErrores("x = 1" + " + 1".repeat(NIVELES) + ";");
+    }
+
+    /**
+     * Pasa el programa por todas las fases y lo imprime; un StackOverflowError
+     * hace fallar la prueba igual que un error reportado.
+     */
+    private static void analizarSinErrores(String cuerpo) {
+        AnalizadorLexico lexico = new AnalizadorLexico("long x;\n" + cuerpo + "\n");
+        TokenBuffer tokens = lexico.analizarBuffer();
+        Diagnosticos diagnosticos = lexico.getDiagnosticos();
+        AnalizadorSintactico parser = new AnalizadorSintactico(tokens, diagnosticos);
+        ArbolPlano arbol = parser.analizarPlano();
+        new AnalizadorSemantico(arbol, parser.getTablaSimbolos(), diagnosticos).analizar();
+
+        assertEquals(List.of(), diagnosticos.todos().stream().map(diagnosticos::formatear).toList());
+        List<Sentencia> sentencias = arbol.aSentencias();
+        assertEquals(2, sentencias.size());
+        for (Sentencia s : sentencias) assertTrue(s.toString().length() > 0);
+    }
+}
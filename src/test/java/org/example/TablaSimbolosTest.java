@@ -0,0 +1,74 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TablaSimbolosTest {
+
+    @Test
+    void encuentraLoMismoQueUnHashMap() {
+        // Altas y búsquedas al azar (semilla fija) en 8 ámbitos, con muchas redeclaraciones
+        TablaSimbolos tabla = new TablaSimbolos();
+        Map<Long, Simbolo> mapa = new HashMap<>();
+        Random azar = new Random(1);
+        for (int i = 0; i < 300_000; i++) {
+            int ambito = azar.nextInt(8);
+            int nombre = azar.nextInt(100_000);
+            Long clave = ((long) ambito << 32) | nombre;
+            if (azar.nextBoolean()) {
+                Simbolo s = simbolo(nombre, ambito);
+                assertEquals(!mapa.containsKey(clave), tabla.agregar(s));
+                mapa.putIfAbsent(clave, s);
+            } else {
+                assertSame(mapa.get(clave), tabla.buscar(ambito, nombre));
+            }
+        }
+        assertEquals(mapa.size(), tabla.cantidad());
+        for (Simbolo s : mapa.values()) assertSame(s, tabla.buscar(s.idAmbito, s.idNombre));
+    }
+
+    @Test
+    void indicesEnOrdenDeDeclaracionYSlotsPorAmbito() {
+        TablaSimbolos tabla = new TablaSimbolos();
+        Simbolo a = simbolo(0, TablaSimbolos.GLOBAL);
+        Simbolo b = simbolo(1, 1);
+        Simbolo c = simbolo(2, TablaSimbolos.GLOBAL);
+        Simbolo d = simbolo(0, 1); // Mismo nombre que 'a', en otro ámbito
+        for (Simbolo s : new Simbolo[] { a, b, c, d }) assertTrue(tabla.agregar(s));
+        assertFalse(tabla.agregar(simbolo(2, TablaSimbolos.GLOBAL)));
+
+        assertEquals(List.of(a, b, c, d), tabla.obtenerTodos());
+        assertEquals(List.of(0, 1, 2, 3), List.of(a.indice(), b.indice(), c.indice(), d.indice()));
+        assertEquals(List.of(0, 0, 1, 1), List.of(a.slot, b.slot, c.slot, d.slot));
+        assertSame(d, tabla.buscar(1, 0));
+        assertNull(tabla.buscar(2, 0));
+    }
+
+    @Test
+    void otraTablaNoCambiaElIndiceNiElSlot() {
+        // La tubería copia los símbolos ya declarados a la tabla del semántico
+        TablaSimbolos primera = new TablaSimbolos();
+        Simbolo a = simbolo(5, 3);
+        Simbolo b = simbolo(6, 3);
+        primera.agregar(a);
+        primera.agregar(b);
+        TablaSimbolos segunda = new TablaSimbolos();
+        segunda.agregar(b);
+        assertEquals(1, b.indice());
+        assertEquals(1, b.slot);
+        assertSame(b, segunda.buscar(3, 6));
+    }
+
+    private static Simbolo simbolo(int nombre, int ambito) {
+        return new Simbolo("v" + nombre, nombre, TipoSimbolo.LONG, ambito, ambito == TablaSimbolos.GLOBAL ? 0 : 1, 1);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * La tubería da el mismo resultado que las fases una después de la otra.
+ */
+class TuberiaTest {
+
+    @Test
+    void programaConErroresDeTodasLasFases() {
+        // 'z' se usa al principio y se declara al final: el semántico tiene que esperarla
+        compararConSecuencial("z = 1;\n" + Benchmark.programaSintetico(1_000_000)
+                + "\nlong x; x = 1.5; y = 2; $ write(x +);\nlong z;\n");
+    }
+
+    @Test
+    void bytesAlAzar() {
+        compararConSecuencial(Benchmark.basura(200_000));
+    }
+
+    @Test
+    void programaVacio() {
+        compararConSecuencial("");
+    }
+
+    @Test
+    void unErrorDelLexicoLlegaAlQueLlama() {
+        // Falla a mitad del archivo, en el hilo del léxico (solo el léxico salta espacios)
+        FuenteEnMemoria texto = new FuenteEnMemoria(Benchmark.programaSintetico(1_000_000));
+        FallaDePrueba falla = new FallaDePrueba();
+        FuenteCodigo fuente = new FuenteCodigo() {
+            @Override
+            int en(int posicion) { return texto.en(posicion); }
+
+            @Override
+            String subcadena(int inicio, int fin) { return texto.subcadena(inicio, fin); }
+
+            @Override
+            int largo() { return texto.largo(); }
+
+            @Override
+            int saltarEspacios(int desde, TramoSaltado tramo) {
+                if (desde > texto.largo() / 2) throw falla;
+                return texto.saltarEspacios(desde, tramo);
+            }
+        };
+        FallaDePrueba lanzada = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> assertThrows(FallaDePrueba.class, () -> Tuberia.enTuberia(new AnalizadorLexico(fuente))));
+        assertSame(falla, lanzada);
+    }
+
+    private static void compararConSecuencial(String programa) {
+        Tuberia.Resultado a = Tuberia.secuencial(new AnalizadorLexico(programa));
+        Tuberia.Resultado b = Tuberia.enTuberia(new AnalizadorLexico(programa));
+        Comprobaciones.mismosTokens(a.tokens(), b.tokens());
+        assertEquals(a.diagnosticos().todos(), b.diagnosticos().todos());
+        assertEquals(a.arbol().cantidadDeNodos(), b.arbol().cantidadDeNodos());
+        assertEquals(a.tablaSimbolos().cantidad(), b.tablaSimbolos().cantidad());
+    }
+
+    private static final class FallaDePrueba extends Error { }
+}